@@ -27,8 +27,10 @@ package com.sapling.frame.mybatis.config;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryExecutor;
 import com.sapling.frame.mybatis.core.handler.CustomMetaObjectHandler;
 import com.sapling.frame.mybatis.core.mapping.SaplingDatabaseIdProvider;
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
 import org.apache.ibatis.annotations.Mapper;
 import org.mybatis.spring.annotation.MapperScan;
 import org.slf4j.Logger;
@@ -40,6 +42,10 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * mybatis扩展插件配置
  * @author cxg
@@ -87,6 +93,22 @@ public class SaplingMybatisAutoConfiguration implements InitializingBean, Dispos
         return new SaplingDatabaseIdProvider();
     }
 
+    /**
+     * 分片 IN 查询执行器，注册为 BaseMapperX 默认方法使用的全局实例
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ChunkedQueryExecutor chunkedQueryExecutor(SaplingMybatisProperties properties) {
+        SaplingMybatisProperties.ChunkedQuery config = properties.getChunkedQuery();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(config.getPoolSize(), config.getPoolSize(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(config.getQueueCapacity()),
+                new NamedThreadFactory("mybatis-chunked-query"), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        ChunkedQueryExecutor chunkedQueryExecutor =
+                new ChunkedQueryExecutor(executor, config.getChunkSize(), config.getParallelism());
+        ChunkedQueryExecutor.setInstance(chunkedQueryExecutor);
+        return chunkedQueryExecutor;
+    }
+
     @Override
     public void destroy() {
         logger.info("<== 【销毁--自动化配置】----MybatisPlus数据库组件【MybatisAutoConfiguration】");
@@ -26,4 +26,33 @@ public class SaplingMybatisProperties {
      * 配置程序的根目录
      */
     private String basePackage;
+
+    /**
+     * 分片 IN 查询配置
+     */
+    private ChunkedQuery chunkedQuery = new ChunkedQuery();
+
+    @Getter
+    @Setter
+    public static class ChunkedQuery {
+        /**
+         * 默认分片大小（每个分片的 IN 参数个数）
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * 默认单次查询最多同时执行的分片数
+         */
+        private int parallelism = 4;
+
+        /**
+         * 分片查询线程池大小，所有分片查询共享，应小于数据库连接池大小
+         */
+        private int poolSize = 8;
+
+        /**
+         * 分片查询线程池队列容量，队列满时由调用线程执行
+         */
+        private int queueCapacity = 1000;
+    }
 }
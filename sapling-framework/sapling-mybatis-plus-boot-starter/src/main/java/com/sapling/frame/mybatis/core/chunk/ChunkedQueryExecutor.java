@@ -0,0 +1,176 @@
+package com.sapling.frame.mybatis.core.chunk;
+
+import com.sapling.frame.mybatis.core.enums.ChunkedQueryFailurePolicy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 分片 IN 查询执行器
+ * <p>
+ * 将 IN 参数去重后按分片大小切分，由调用线程与专用线程池中最多 parallelism 个线程共同拉取分片执行，
+ * 结果按分片顺序合并。分片在线程池线程中执行时不参与调用线程的 Spring 事务。
+ * <p>
+ * 执行器由自动配置创建并注册为全局实例，供 {@code BaseMapperX} 的默认方法使用；
+ * 未注册时所有分片在调用线程中依次执行。
+ */
+@Slf4j
+public class ChunkedQueryExecutor {
+
+    private static volatile ChunkedQueryExecutor instance = new ChunkedQueryExecutor(null, 1000, 1);
+
+    private final ExecutorService executorService;
+    private final int defaultChunkSize;
+    private final int defaultParallelism;
+
+    /**
+     * @param executorService    分片查询线程池，为空时在调用线程中依次执行
+     * @param defaultChunkSize   默认分片大小
+     * @param defaultParallelism 默认并发度
+     */
+    public ChunkedQueryExecutor(ExecutorService executorService, int defaultChunkSize, int defaultParallelism) {
+        this.executorService = executorService;
+        this.defaultChunkSize = defaultChunkSize;
+        this.defaultParallelism = defaultParallelism;
+    }
+
+    public static ChunkedQueryExecutor getInstance() {
+        return instance;
+    }
+
+    public static void setInstance(ChunkedQueryExecutor executor) {
+        instance = executor;
+    }
+
+    /**
+     * 执行分片查询
+     *
+     * @param values     IN 参数
+     * @param options    查询选项
+     * @param chunkQuery 单个分片的查询逻辑
+     * @return 查询结果
+     */
+    public <V, T> ChunkedQueryResult<T> execute(Collection<V> values, ChunkedQueryOptions<T> options,
+                                                Function<List<V>, List<T>> chunkQuery) {
+        if (values == null || values.isEmpty()) {
+            return new ChunkedQueryResult<>(new ArrayList<>(), new ArrayList<>(), 0, 0);
+        }
+        int chunkSize = options.getChunkSize() > 0 ? options.getChunkSize() : defaultChunkSize;
+        int parallelism = options.getParallelism() > 0 ? options.getParallelism() : defaultParallelism;
+
+        List<V> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<V>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctValues.size(); from += chunkSize) {
+            chunks.add(distinctValues.subList(from, Math.min(from + chunkSize, distinctValues.size())));
+        }
+
+        Execution<V, T> execution = new Execution<>(chunks, chunkQuery, options.getFailurePolicy());
+        int workers = executorService == null ? 1 : Math.min(parallelism, chunks.size());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            futures.add(CompletableFuture.runAsync(execution::work, executorService));
+        }
+        // 调用线程同样参与拉取分片
+        execution.work();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        return execution.toResult();
+    }
+
+    /**
+     * 关闭线程池
+     */
+    public void shutdown() {
+        if (executorService == null) {
+            return;
+        }
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一次分片查询的执行状态
+     */
+    private static final class Execution<V, T> {
+
+        private final List<List<V>> chunks;
+        private final Function<List<V>, List<T>> chunkQuery;
+        private final ChunkedQueryFailurePolicy failurePolicy;
+        private final List<List<T>> chunkResults;
+        private final RuntimeException[] chunkFailures;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+
+        private Execution(List<List<V>> chunks, Function<List<V>, List<T>> chunkQuery,
+                          ChunkedQueryFailurePolicy failurePolicy) {
+            this.chunks = chunks;
+            this.chunkQuery = chunkQuery;
+            this.failurePolicy = failurePolicy;
+            this.chunkResults = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                chunkResults.add(null);
+            }
+            this.chunkFailures = new RuntimeException[chunks.size()];
+        }
+
+        private void work() {
+            int index;
+            while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+                if (failurePolicy == ChunkedQueryFailurePolicy.FAIL_FAST && firstFailure.get() != null) {
+                    return;
+                }
+                List<V> chunk = chunks.get(index);
+                try {
+                    List<T> records = chunkQuery.apply(chunk);
+                    synchronized (chunkResults) {
+                        chunkResults.set(index, records);
+                    }
+                } catch (RuntimeException e) {
+                    firstFailure.compareAndSet(null, e);
+                    synchronized (chunkResults) {
+                        chunkFailures[index] = e;
+                    }
+                    log.error("分片IN查询失败，分片: {}/{}, 参数个数: {}, 错误: {}",
+                            index + 1, chunks.size(), chunk.size(), e.getMessage(), e);
+                }
+            }
+        }
+
+        private ChunkedQueryResult<T> toResult() {
+            RuntimeException failure = firstFailure.get();
+            if (failure != null && failurePolicy == ChunkedQueryFailurePolicy.FAIL_FAST) {
+                throw failure;
+            }
+            List<T> records = new ArrayList<>();
+            List<Object> failedValues = new ArrayList<>();
+            int failedChunkCount = 0;
+            synchronized (chunkResults) {
+                for (int i = 0; i < chunks.size(); i++) {
+                    if (chunkFailures[i] != null) {
+                        failedChunkCount++;
+                        failedValues.addAll(chunks.get(i));
+                    } else if (chunkResults.get(i) != null) {
+                        records.addAll(chunkResults.get(i));
+                    }
+                }
+            }
+            return new ChunkedQueryResult<>(records, failedValues, chunks.size(), failedChunkCount);
+        }
+    }
+}
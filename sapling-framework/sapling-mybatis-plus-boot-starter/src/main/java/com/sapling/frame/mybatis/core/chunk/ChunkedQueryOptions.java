@@ -0,0 +1,68 @@
+package com.sapling.frame.mybatis.core.chunk;
+
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.sapling.frame.mybatis.core.enums.ChunkedQueryFailurePolicy;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分片 IN 查询选项，未设置的分片大小与并发度使用 sapling.mybatis.chunked-query 中的默认值
+ *
+ * @param <T> 实体类型
+ */
+@Getter
+public class ChunkedQueryOptions<T> {
+
+    /**
+     * 每个分片的 IN 参数个数，小于等于 0 时使用默认值
+     */
+    private int chunkSize;
+
+    /**
+     * 单次查询最多同时执行的分片数，小于等于 0 时使用默认值
+     */
+    private int parallelism;
+
+    /**
+     * 失败策略，默认部分成功
+     */
+    private ChunkedQueryFailurePolicy failurePolicy = ChunkedQueryFailurePolicy.PARTIAL;
+
+    /**
+     * 需要查询的列，为空时查询全部列
+     */
+    private final List<SFunction<T, ?>> columns = new ArrayList<>();
+
+    public static <T> ChunkedQueryOptions<T> create() {
+        return new ChunkedQueryOptions<>();
+    }
+
+    public ChunkedQueryOptions<T> chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public ChunkedQueryOptions<T> parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ChunkedQueryOptions<T> failFast() {
+        this.failurePolicy = ChunkedQueryFailurePolicy.FAIL_FAST;
+        return this;
+    }
+
+    public ChunkedQueryOptions<T> partial() {
+        this.failurePolicy = ChunkedQueryFailurePolicy.PARTIAL;
+        return this;
+    }
+
+    @SafeVarargs
+    public final ChunkedQueryOptions<T> select(SFunction<T, ?>... columns) {
+        this.columns.addAll(Arrays.asList(columns));
+        return this;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sapling.frame.mybatis.core.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 分片 IN 查询结果
+ *
+ * @param <T> 实体类型
+ */
+@Getter
+@AllArgsConstructor
+public class ChunkedQueryResult<T> {
+
+    /**
+     * 成功分片的查询结果，按分片顺序排列
+     */
+    private final List<T> records;
+
+    /**
+     * 查询失败分片的参数值，仅 PARTIAL 策略下可能非空
+     */
+    private final List<Object> failedValues;
+
+    /**
+     * 分片总数
+     */
+    private final int chunkCount;
+
+    /**
+     * 失败分片数
+     */
+    private final int failedChunkCount;
+
+    public boolean isComplete() {
+        return failedChunkCount == 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.sapling.frame.mybatis.core.enums;
+
+/**
+ * 分片查询失败策略
+ */
+public enum ChunkedQueryFailurePolicy {
+
+    /**
+     * 任一分片失败即停止提交剩余分片，并抛出第一个分片异常
+     */
+    FAIL_FAST,
+
+    /**
+     * 跳过失败分片，返回其余分片的结果，失败分片的参数值记录在结果中
+     */
+    PARTIAL
+}
@@ -8,6 +8,9 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryExecutor;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryOptions;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryResult;
 import com.sapling.frame.mybatis.core.pojo.PageResult;
 import com.sapling.frame.mybatis.core.util.MyBatisUtils;
 import com.sapling.frame.mybatis.core.pojo.PageParam;
@@ -92,6 +95,30 @@ public interface BaseMapperX<T> extends BaseMapper<T> {
         return selectList(new LambdaQueryWrapper<T>().in(field, values));
     }
 
+    /**
+     * 分片 IN 查询，IN 参数按分片大小切分后并发查询，结果按分片顺序合并
+     *
+     * @param field   IN 条件字段
+     * @param values  IN 参数
+     * @param options 分片大小、并发度、失败策略与查询列
+     * @return 查询结果
+     */
+    @SuppressWarnings("unchecked")
+    default ChunkedQueryResult<T> selectListByChunks(SFunction<T, ?> field, Collection<?> values,
+                                                     ChunkedQueryOptions<T> options) {
+        return ChunkedQueryExecutor.getInstance().execute(values, options, chunk -> {
+            LambdaQueryWrapper<T> queryWrapper = new LambdaQueryWrapper<>();
+            if (!options.getColumns().isEmpty()) {
+                queryWrapper.select(options.getColumns().toArray(new SFunction[0]));
+            }
+            return selectList(queryWrapper.in(field, chunk));
+        });
+    }
+
+    default ChunkedQueryResult<T> selectListByChunks(SFunction<T, ?> field, Collection<?> values) {
+        return selectListByChunks(field, values, ChunkedQueryOptions.create());
+    }
+
     default void insertBatch(Collection<T> entities) {
         // TODO 修改成支持批量的
         entities.forEach(this::insert);
@@ -0,0 +1,145 @@
+package com.sapling.frame.mybatis.core.chunk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ChunkedQueryExecutor} 测试：并发分片的结果按分片顺序合并、IN 参数去重、FAIL_FAST 与 PARTIAL 失败策略，
+ * 以及未注册线程池时在调用线程中依次执行。
+ */
+class ChunkedQueryExecutorTest {
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final ChunkedQueryExecutor parallelExecutor = new ChunkedQueryExecutor(executorService, 1000, 4);
+
+    @AfterEach
+    void tearDown() {
+        parallelExecutor.shutdown();
+    }
+
+    @Test
+    void concurrentChunksAreMergedInChunkOrder() {
+        List<Integer> values = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        ChunkedQueryResult<String> result = parallelExecutor.execute(values, ChunkedQueryOptions.<String>create()
+                .chunkSize(3), chunk -> {
+            threads.add(Thread.currentThread().getName());
+            // 靠前的分片更晚完成
+            sleep(5L * (20 - chunk.get(0)));
+            return chunk.stream().map(value -> "r" + value).collect(Collectors.toList());
+        });
+
+        assertEquals(values.stream().map(value -> "r" + value).collect(Collectors.toList()), result.getRecords());
+        assertEquals(7, result.getChunkCount());
+        assertTrue(result.isComplete());
+        assertTrue(threads.size() > 1, "threads " + threads);
+    }
+
+    @Test
+    void duplicateValuesAreQueriedOnce() {
+        List<List<Integer>> chunks = new CopyOnWriteArrayList<>();
+
+        ChunkedQueryResult<Integer> result = parallelExecutor.execute(Arrays.asList(3, 1, 3, 2, 1, 4),
+                ChunkedQueryOptions.<Integer>create().chunkSize(2), chunk -> {
+                    chunks.add(new ArrayList<>(chunk));
+                    return chunk;
+                });
+
+        assertEquals(Arrays.asList(3, 1, 2, 4), result.getRecords());
+        assertEquals(2, result.getChunkCount());
+        assertEquals(2, chunks.size());
+    }
+
+    @Test
+    void failFastStopsRemainingChunksAndRethrowsTheFailure() {
+        ChunkedQueryExecutor serialExecutor = new ChunkedQueryExecutor(null, 1000, 4);
+        IllegalStateException failure = new IllegalStateException("chunk failed");
+        List<List<Integer>> queried = new ArrayList<>();
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                serialExecutor.execute(Arrays.asList(1, 2, 3, 4, 5, 6), ChunkedQueryOptions.<Integer>create()
+                        .chunkSize(2).failFast(), chunk -> {
+                    queried.add(new ArrayList<>(chunk));
+                    if (chunk.contains(3)) {
+                        throw failure;
+                    }
+                    return chunk;
+                }));
+
+        assertSame(failure, thrown);
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4)), queried);
+    }
+
+    @Test
+    void partialSkipsFailedChunksAndReportsTheirValues() {
+        ChunkedQueryResult<Integer> result = parallelExecutor.execute(Arrays.asList(1, 2, 3, 4, 5, 6, 7),
+                ChunkedQueryOptions.<Integer>create().chunkSize(2).partial(), chunk -> {
+                    if (chunk.contains(3) || chunk.contains(7)) {
+                        throw new IllegalStateException("chunk failed");
+                    }
+                    return chunk;
+                });
+
+        assertFalse(result.isComplete());
+        assertEquals(Arrays.asList(1, 2, 5, 6), result.getRecords());
+        assertEquals(Arrays.asList(3, 4, 7), result.getFailedValues());
+        assertEquals(4, result.getChunkCount());
+        assertEquals(2, result.getFailedChunkCount());
+    }
+
+    @Test
+    void chunksRunSeriallyInCallerThreadWithoutRegisteredExecutor() {
+        Thread caller = Thread.currentThread();
+        List<Integer> starts = new ArrayList<>();
+
+        // 未注册时使用不带线程池的默认实例，并发度选项不生效
+        ChunkedQueryResult<Integer> result = ChunkedQueryExecutor.getInstance().execute(
+                IntStream.range(0, 2500).boxed().collect(Collectors.toList()),
+                ChunkedQueryOptions.<Integer>create().parallelism(8), chunk -> {
+                    assertSame(caller, Thread.currentThread());
+                    starts.add(chunk.get(0));
+                    return Collections.singletonList(chunk.size());
+                });
+
+        assertEquals(Arrays.asList(0, 1000, 2000), starts);
+        assertEquals(Arrays.asList(1000, 1000, 500), result.getRecords());
+    }
+
+    @Test
+    void emptyValuesDoNotQuery() {
+        ChunkedQueryResult<Integer> result = parallelExecutor.execute(Collections.<Integer>emptyList(),
+                ChunkedQueryOptions.create(), chunk -> {
+                    throw new AssertionError("no chunk expected");
+                });
+
+        assertEquals(0, result.getChunkCount());
+        assertTrue(result.getRecords().isEmpty());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
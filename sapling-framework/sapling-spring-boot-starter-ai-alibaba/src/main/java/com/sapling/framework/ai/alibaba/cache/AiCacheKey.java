@@ -0,0 +1,160 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.text.Normalizer;
+
+/**
+ * Content-addressed cache key.
+ * 
+ * <p>Identifies a cached AI result by a namespace plus the 128-bit murmur3 hash of everything
+ * that influences the result (normalized payload, model, dimensions, sampling parameters).
+ * Keys compare by hash value, so no key string is built on the lookup path.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public final class AiCacheKey {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final String namespace;
+    private final long high;
+    private final long low;
+
+    private AiCacheKey(String namespace, long high, long low) {
+        this.namespace = namespace;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Start building a key in the given namespace (e.g. "embed", "chat")
+     */
+    public static Builder builder(String namespace) {
+        return new Builder(namespace);
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AiCacheKey)) {
+            return false;
+        }
+        AiCacheKey that = (AiCacheKey) o;
+        return high == that.high && low == that.low && namespace.equals(that.namespace);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    /**
+     * Render as "namespace:hex", only used for logging and external stores
+     */
+    @Override
+    public String toString() {
+        return namespace + ":" + String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Builder feeding key components straight into the hasher.
+     * Every variable-length component is length-prefixed so field boundaries cannot collide.
+     */
+    public static final class Builder {
+
+        private final String namespace;
+        private final Hasher hasher;
+
+        private Builder(String namespace) {
+            this.namespace = namespace;
+            this.hasher = HASH_FUNCTION.newHasher();
+        }
+
+        /**
+         * Add the primary payload, normalized: surrounding whitespace is ignored and text is NFC-normalized
+         */
+        public Builder payload(String text) {
+            if (text == null) {
+                hasher.putInt(-1);
+                return this;
+            }
+            if (!Normalizer.isNormalized(text, Normalizer.Form.NFC)) {
+                text = Normalizer.normalize(text, Normalizer.Form.NFC);
+            }
+            int start = 0;
+            int end = text.length();
+            while (start < end && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            hasher.putInt(end - start);
+            for (int i = start; i < end; i++) {
+                hasher.putChar(text.charAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * Add a string component verbatim
+         */
+        public Builder put(String value) {
+            if (value == null) {
+                hasher.putInt(-1);
+            } else {
+                hasher.putInt(value.length()).putUnencodedChars(value);
+            }
+            return this;
+        }
+
+        /**
+         * Add an optional integer component
+         */
+        public Builder put(Integer value) {
+            if (value == null) {
+                hasher.putBoolean(false);
+            } else {
+                hasher.putBoolean(true).putInt(value);
+            }
+            return this;
+        }
+
+        /**
+         * Add an optional floating point component
+         */
+        public Builder put(Double value) {
+            if (value == null) {
+                hasher.putBoolean(false);
+            } else {
+                hasher.putBoolean(true).putDouble(value);
+            }
+            return this;
+        }
+
+        public AiCacheKey build() {
+            HashCode hash = hasher.hash();
+            byte[] bytes = hash.asBytes();
+            return new AiCacheKey(namespace, toLong(bytes, 0), toLong(bytes, 8));
+        }
+
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (bytes[i] & 0xFFL);
+            }
+            return value;
+        }
+    }
+}
@@ -1,16 +1,35 @@
 package com.sapling.framework.ai.alibaba.cache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.Message;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
  * Cache manager for AI responses.
  * 
- * <p>This is a simple in-memory cache implementation.
+ * <p>Backed by a size-bounded Guava cache: segmented LRU eviction keeps get/put O(1),
+ * {@code maxSize} is enforced on every write and entries expire {@code ttl} seconds after write.
+ * Concurrent misses on the same key are coalesced: only one loader runs, other callers
+ * wait up to {@code loadTimeout} seconds for its result.
+ * Besides plain string keys, content-addressed {@link AiCacheKey}s are supported for
+ * embedding and deterministic chat results.
  * For production use with Redis, inject RedissonClient and use RMap.
  * 
  * @author Sapling Team
@@ -20,107 +39,278 @@ import java.util.function.Supplier;
 public class AiCacheManager {
 
     private final AlibabaAiProperties.CacheProperties properties;
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Cache<Object, Object> cache;
+    private final Map<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder loadTimeoutCount = new LongAdder();
 
     public AiCacheManager(AlibabaAiProperties.CacheProperties properties) {
         this.properties = properties;
+        this.cache = CacheBuilder.newBuilder()
+            // Segment count follows CPU cores to limit write contention
+            .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+            // Hard upper bound, LRU within each segment
+            .maximumSize(properties.getMaxSize())
+            // Expire relative to write time
+            .expireAfterWrite(properties.getTtl(), TimeUnit.SECONDS)
+            // Hit / miss / eviction counters
+            .recordStats()
+            .build();
     }
 
     /**
-     * Get value from cache or load it
+     * Get value from cache or load it, running at most one loader per key at a time
      */
     public <T> T get(String key, Supplier<T> loader) {
         if (!properties.getEnabled()) {
             return loader.get();
         }
+        return load(properties.getKeyPrefix() + key, loader);
+    }
+
+    /**
+     * Get value by content-addressed key or load it, running at most one loader per key at a time
+     */
+    public <T> T get(AiCacheKey key, Supplier<T> loader) {
+        if (!properties.getEnabled()) {
+            return loader.get();
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * Get value by content-addressed key without loading, null when absent or caching is disabled
+     */
+    public <T> T getIfPresent(AiCacheKey key) {
+        if (!properties.getEnabled()) {
+            return null;
+        }
+        return cast(cache.getIfPresent(key));
+    }
+
+    /**
+     * Build the content-addressed key of a text embedding
+     */
+    public AiCacheKey embeddingKey(String text, String model, int dimensions) {
+        return AiCacheKey.builder("embed")
+            .put(model)
+            .put(dimensions)
+            .payload(text)
+            .build();
+    }
+
+    /**
+     * Build the content-addressed key of a chat request
+     */
+    public AiCacheKey chatKey(ChatRequest request, String model) {
+        AiCacheKey.Builder builder = AiCacheKey.builder("chat")
+            .put(model)
+            .put(request.getTemperature())
+            .put(request.getTopP())
+            .put(request.getMaxTokens())
+            .payload(request.getSystemPrompt());
         
-        String fullKey = properties.getKeyPrefix() + key;
+        List<Message> history = request.getHistory();
+        builder.put(history != null ? history.size() : 0);
+        if (history != null) {
+            for (Message message : history) {
+                builder.put(message.getRole()).payload(message.getContent())
+                    .put(message.getToolCallId())
+                    .put(message.getToolName());
+                putToolCalls(builder, message.getToolCalls());
+            }
+        }
         
-        CacheEntry entry = cache.get(fullKey);
-        if (entry != null && !entry.isExpired()) {
-            log.debug("Cache hit for key: {}", fullKey);
-            @SuppressWarnings("unchecked")
-            T value = (T) entry.getValue();
-            return value;
+        Map<String, Object> parameters = request.getParameters();
+        if (parameters != null && !parameters.isEmpty()) {
+            new TreeMap<>(parameters).forEach((name, value) ->
+                builder.put(name).put(String.valueOf(value)));
         }
         
-        log.debug("Cache miss for key: {}", fullKey);
-        T value = loader.get();
+        return builder.payload(request.getMessage()).build();
+    }
+
+    /**
+     * Add the tool calls of an assistant message; argument maps are added in key order
+     */
+    private static void putToolCalls(AiCacheKey.Builder builder, List<ToolCall> toolCalls) {
+        builder.put(toolCalls != null ? toolCalls.size() : -1);
+        if (toolCalls == null) {
+            return;
+        }
+        for (ToolCall toolCall : toolCalls) {
+            builder.put(toolCall.getId()).put(toolCall.getType()).put(toolCall.getName());
+            putValue(builder, toolCall.getParameters());
+        }
+    }
+
+    /**
+     * Add a JSON-like value canonically: maps in key order, lists in element order, other values as strings
+     */
+    private static void putValue(AiCacheKey.Builder builder, Object value) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            TreeMap<String, Object> sorted = new TreeMap<>();
+            map.forEach((name, element) -> sorted.put(String.valueOf(name), element));
+            builder.put("{").put(sorted.size());
+            sorted.forEach((name, element) -> {
+                builder.put(name);
+                putValue(builder, element);
+            });
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            builder.put("[").put(list.size());
+            list.forEach(element -> putValue(builder, element));
+        } else {
+            builder.put(value == null ? null : String.valueOf(value));
+        }
+    }
+
+    /**
+     * Single-flight load of a resolved key
+     */
+    private <T> T load(Object fullKey, Supplier<T> loader) {
+        Object cached = cache.getIfPresent(fullKey);
+        if (cached != null) {
+            log.debug("Cache hit for key: {}", fullKey);
+            return cast(cached);
+        }
         
-        if (value != null) {
-            put(fullKey, value);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(fullKey, load);
+        if (inFlight != null) {
+            coalescedCount.increment();
+            log.debug("Cache miss for key: {}, joining in-flight load", fullKey);
+            return cast(awaitLoad(fullKey, inFlight));
         }
         
-        return value;
+        try {
+            // A previous leader may have populated the entry between our lookup and registration;
+            // the map view read does not count a second miss
+            cached = cache.asMap().get(fullKey);
+            if (cached != null) {
+                load.complete(cached);
+                return cast(cached);
+            }
+            
+            log.debug("Cache miss for key: {}", fullKey);
+            loadCount.increment();
+            T value = loader.get();
+            
+            if (value != null) {
+                cache.put(fullKey, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(fullKey, load);
+        }
+    }
+
+    /**
+     * Wait for a load started by another caller
+     */
+    private Object awaitLoad(Object fullKey, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get(properties.getLoadTimeout(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            loadTimeoutCount.increment();
+            throw new AiException("CACHE_LOAD_TIMEOUT",
+                "Timed out waiting for in-flight load of cache key: " + fullKey, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AiException("Interrupted while waiting for cache load: " + fullKey, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AiException("Cache load failed: " + fullKey, cause);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
     }
 
     /**
      * Put value into cache
      */
     public void put(String key, Object value) {
-        if (!properties.getEnabled()) {
+        if (!properties.getEnabled() || value == null) {
             return;
         }
         
         String fullKey = properties.getKeyPrefix() + key;
-        
-        // Check cache size limit
-        if (cache.size() >= properties.getMaxSize()) {
-            evictOldest();
-        }
-        
-        long expiryTime = System.currentTimeMillis() + (properties.getTtl() * 1000L);
-        cache.put(fullKey, new CacheEntry(value, expiryTime));
+        cache.put(fullKey, value);
         
         log.debug("Cached value for key: {}", fullKey);
     }
 
+    /**
+     * Put value into cache by content-addressed key
+     */
+    public void put(AiCacheKey key, Object value) {
+        if (!properties.getEnabled() || value == null) {
+            return;
+        }
+        cache.put(key, value);
+        log.debug("Cached value for key: {}", key);
+    }
+
     /**
      * Remove value from cache
      */
     public void evict(String key) {
         String fullKey = properties.getKeyPrefix() + key;
-        cache.remove(fullKey);
+        cache.invalidate(fullKey);
         log.debug("Evicted cache for key: {}", fullKey);
     }
 
     /**
-     * Clear all cache
+     * Remove value from cache by content-addressed key
      */
-    public void clear() {
-        cache.clear();
-        log.info("Cleared all cache");
+    public void evict(AiCacheKey key) {
+        cache.invalidate(key);
+        log.debug("Evicted cache for key: {}", key);
     }
 
     /**
-     * Evict oldest entries when cache is full
+     * Clear all cache
      */
-    private void evictOldest() {
-        cache.entrySet().stream()
-            .filter(entry -> entry.getValue().isExpired())
-            .map(Map.Entry::getKey)
-            .findFirst()
-            .ifPresent(cache::remove);
+    public void clear() {
+        cache.invalidateAll();
+        log.info("Cleared all cache");
     }
 
     /**
-     * Cache entry with expiry time
+     * Get current cache statistics
      */
-    private static class CacheEntry {
-        private final Object value;
-        private final long expiryTime;
-
-        public CacheEntry(Object value, long expiryTime) {
-            this.value = value;
-            this.expiryTime = expiryTime;
-        }
-
-        public Object getValue() {
-            return value;
-        }
-
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expiryTime;
-        }
+    public AiCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return AiCacheStats.builder()
+            .size(cache.size())
+            .maxSize(properties.getMaxSize())
+            .hitCount(stats.hitCount())
+            .missCount(stats.missCount())
+            .hitRate(stats.hitRate())
+            .evictionCount(stats.evictionCount())
+            .loadCount(loadCount.sum())
+            .loadFailureCount(loadFailureCount.sum())
+            .coalescedCount(coalescedCount.sum())
+            .loadTimeoutCount(loadTimeoutCount.sum())
+            .inFlightLoads(inFlightLoads.size())
+            .build();
     }
 }
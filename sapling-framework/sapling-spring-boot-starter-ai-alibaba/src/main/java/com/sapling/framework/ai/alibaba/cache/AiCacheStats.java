@@ -0,0 +1,70 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * AI cache statistics data.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+public class AiCacheStats {
+
+    /**
+     * Current number of cached entries
+     */
+    private long size;
+
+    /**
+     * Configured maximum number of entries
+     */
+    private long maxSize;
+
+    /**
+     * Number of cache hits
+     */
+    private long hitCount;
+
+    /**
+     * Number of cache misses
+     */
+    private long missCount;
+
+    /**
+     * Hit rate (0.0 - 1.0)
+     */
+    private double hitRate;
+
+    /**
+     * Number of entries evicted by size or expiry
+     */
+    private long evictionCount;
+
+    /**
+     * Number of loader invocations (upstream calls)
+     */
+    private long loadCount;
+
+    /**
+     * Number of loader invocations that threw
+     */
+    private long loadFailureCount;
+
+    /**
+     * Number of misses served by joining another caller's in-flight load
+     */
+    private long coalescedCount;
+
+    /**
+     * Number of callers that gave up waiting for an in-flight load
+     */
+    private long loadTimeoutCount;
+
+    /**
+     * Number of loads currently in flight
+     */
+    private int inFlightLoads;
+}
@@ -0,0 +1,300 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.EmbeddingVector;
+import com.sapling.framework.ai.alibaba.vector.HnswIndexConfig;
+import com.sapling.framework.ai.alibaba.vector.HnswVectorIndex;
+import com.sapling.framework.ai.alibaba.vector.VectorSearchResult;
+import com.sapling.framework.ai.alibaba.vector.VectorSimilarity;
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Semantic cache for chat answers.
+ * 
+ * <p>Prompts are indexed per model namespace in an {@link HnswVectorIndex}. A lookup returns the
+ * answer of the most similar unexpired prompt when its cosine similarity reaches
+ * {@code similarityThreshold}. When an index is full it is rebuilt from its unexpired entries,
+ * keeping at most three quarters of {@code maxEntries}, newest first, so expired and overwritten
+ * entries give their slots back.
+ * 
+ * <p>Rebuilds and sampled hit verifications share a single background thread with a bounded
+ * queue, so a rebuild never runs on the caller's thread. Lookups keep using the full index until
+ * the rebuilt one is swapped in, and answers stored in the meantime are dropped. Samples arriving
+ * while the queue is full are skipped; a rebuild that cannot be queued is retried on the next put.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Slf4j
+public class SemanticCache {
+
+    /**
+     * Nearest prompts inspected per lookup, so expired neighbors do not hide a live match
+     */
+    private static final int LOOKUP_CANDIDATES = 8;
+
+    private final AlibabaAiProperties.SemanticCacheProperties properties;
+    private final MetricsCollector metricsCollector;
+    private final Map<String, Store> stores = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor backgroundExecutor;
+
+    public SemanticCache(AlibabaAiProperties.SemanticCacheProperties properties, MetricsCollector metricsCollector) {
+        this.properties = properties;
+        this.metricsCollector = metricsCollector;
+        this.backgroundExecutor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(properties.getMaxPendingSamples()), new NamedThreadFactory("ai-semantic-cache"));
+        this.backgroundExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Find the closest cached prompt in a namespace, null when none reaches the threshold
+     */
+    public SemanticCacheHit lookup(String namespace, EmbeddingVector prompt) {
+        Store store = stores.get(namespace);
+        SemanticCacheHit hit = store != null
+            ? store.lookup(prompt.toFloatArray(), properties.getSimilarityThreshold().floatValue())
+            : null;
+        
+        metricsCollector.recordSemanticCacheLookup(hit != null, hit != null ? hit.getLatencyMillis() : 0L);
+        if (hit != null) {
+            log.debug("Semantic cache hit in {} with similarity {}", namespace, hit.getSimilarity());
+        }
+        return hit;
+    }
+
+    /**
+     * Store an answer for a prompt in a namespace; dropped while the namespace index is being rebuilt
+     */
+    public void put(String namespace, EmbeddingVector promptVector, String prompt, String answer, long latencyMillis) {
+        if (answer == null) {
+            return;
+        }
+        Store store = stores.computeIfAbsent(namespace,
+            k -> new Store(properties.getMaxEntries(), promptVector.dimensions(), backgroundExecutor));
+        long expireAt = System.currentTimeMillis() + properties.getTtl() * 1000L;
+        store.put(normalized(promptVector), prompt, answer, latencyMillis, expireAt);
+    }
+
+    /**
+     * Whether a hit should be re-checked against a fresh answer
+     */
+    public boolean shouldSample() {
+        double rate = properties.getFalseHitSampleRate();
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * Verify a sampled hit in the background; {@code answerSimilarity} computes the similarity of
+     * the cached answer to a fresh one. Skipped when the verification queue is full.
+     */
+    public void sampleAsync(SemanticCacheHit hit, String prompt, Supplier<Float> answerSimilarity) {
+        try {
+            backgroundExecutor.execute(() -> {
+                try {
+                    recordSample(hit, prompt, answerSimilarity.get());
+                } catch (RuntimeException e) {
+                    log.warn("Semantic cache hit sampling failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Semantic cache hit sample skipped, verification queue is full");
+        }
+    }
+
+    /**
+     * Record a sampled hit check: the cached answer is compared with a fresh answer by similarity
+     */
+    public void recordSample(SemanticCacheHit hit, String prompt, float answerSimilarity) {
+        boolean falseHit = answerSimilarity < properties.getAnswerSimilarityThreshold();
+        metricsCollector.recordSemanticCacheSample(falseHit);
+        if (falseHit) {
+            log.warn("Semantic cache false hit: prompt [{}] matched [{}] (similarity {}), answer similarity {}",
+                prompt, hit.getPrompt(), hit.getSimilarity(), answerSimilarity);
+        }
+    }
+
+    /**
+     * Clear all namespaces
+     */
+    public void clear() {
+        stores.clear();
+        log.info("Cleared semantic cache");
+    }
+
+    /**
+     * Stop the background thread, pending rebuilds and samples are dropped
+     */
+    public void shutdown() {
+        backgroundExecutor.shutdownNow();
+    }
+
+    private float[] normalized(EmbeddingVector vector) {
+        float[] values = vector.toFloatArray();
+        VectorSimilarity.normalize(values);
+        return values;
+    }
+
+    /**
+     * HNSW index of one namespace plus the entries its ids point to. Writers are serialized;
+     * readers use whichever index generation is current without locking. A full generation is no
+     * longer written to, so the background rebuild reads it without holding the store lock.
+     */
+    private static final class Store {
+        private final int capacity;
+        private final int dimensions;
+        private final Executor rebuildExecutor;
+        private volatile Generation current;
+        private long nextId;
+        private boolean rebuilding;
+
+        private Store(int capacity, int dimensions, Executor rebuildExecutor) {
+            this.capacity = capacity;
+            this.dimensions = dimensions;
+            this.rebuildExecutor = rebuildExecutor;
+            this.current = new Generation(newIndex());
+        }
+
+        private HnswVectorIndex newIndex() {
+            return new HnswVectorIndex(HnswIndexConfig.builder()
+                .dimensions(dimensions)
+                .capacity(capacity)
+                .similarity(VectorSimilarity.DOT_PRODUCT)
+                .build());
+        }
+
+        private SemanticCacheHit lookup(float[] query, float threshold) {
+            if (query.length != dimensions) {
+                return null;
+            }
+            VectorSimilarity.normalize(query);
+            long now = System.currentTimeMillis();
+            Generation generation = current;
+            for (VectorSearchResult result : generation.index.search(query, LOOKUP_CANDIDATES)) {
+                if (result.getScore() < threshold) {
+                    break;
+                }
+                Entry entry = generation.entries.get(result.getId());
+                if (entry != null && entry.expireAt >= now) {
+                    return new SemanticCacheHit(entry.prompt, entry.answer, result.getScore(), entry.latency);
+                }
+            }
+            return null;
+        }
+
+        private synchronized void put(float[] vector, String prompt, String answer, long latency, long expireAt) {
+            if (vector.length != dimensions) {
+                return;
+            }
+            if (current.index.size() >= capacity) {
+                if (!rebuilding) {
+                    scheduleRebuild(current);
+                }
+                log.debug("Semantic cache index is being rebuilt, answer not stored");
+                return;
+            }
+            Entry entry = new Entry(nextId++, vector, prompt, answer, latency, expireAt);
+            current.entries.put(entry.key, entry);
+            current.index.add(entry.key, vector);
+        }
+
+        private void scheduleRebuild(Generation full) {
+            rebuilding = true;
+            try {
+                rebuildExecutor.execute(() -> {
+                    Generation next = null;
+                    try {
+                        next = rebuild(full);
+                    } catch (RuntimeException e) {
+                        log.warn("Semantic cache index rebuild failed: {}", e.getMessage());
+                    }
+                    swap(next);
+                });
+            } catch (RejectedExecutionException e) {
+                rebuilding = false;
+                log.debug("Semantic cache index rebuild deferred, background queue is full");
+            }
+        }
+
+        private synchronized void swap(Generation next) {
+            if (next != null) {
+                current = next;
+            }
+            rebuilding = false;
+        }
+
+        /**
+         * New index over the newest unexpired entries, leaving a quarter of the capacity free
+         */
+        private Generation rebuild(Generation full) {
+            long now = System.currentTimeMillis();
+            List<Entry> live = new ArrayList<>(full.entries.size());
+            for (Entry entry : full.entries.values()) {
+                if (entry.expireAt >= now) {
+                    live.add(entry);
+                }
+            }
+            live.sort(Comparator.comparingLong((Entry entry) -> entry.id).reversed());
+            int keep = Math.min(live.size(), capacity - Math.max(1, capacity / 4));
+            
+            Generation next = new Generation(newIndex());
+            for (int i = keep - 1; i >= 0; i--) {
+                Entry entry = live.get(i);
+                next.entries.put(entry.key, entry);
+                next.index.add(entry.key, entry.vector);
+            }
+            log.debug("Rebuilt semantic cache index: {} live entries of {}, kept {}",
+                live.size(), full.entries.size(), keep);
+            return next;
+        }
+    }
+
+    /**
+     * Index with its entries, replaced as a whole on rebuild
+     */
+    private static final class Generation {
+        private final HnswVectorIndex index;
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        private Generation(HnswVectorIndex index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * Cached prompt and answer; the normalized vector is kept for rebuilds
+     */
+    private static final class Entry {
+        private final long id;
+        private final String key;
+        private final float[] vector;
+        private final String prompt;
+        private final String answer;
+        private final long latency;
+        private final long expireAt;
+
+        private Entry(long id, float[] vector, String prompt, String answer, long latency, long expireAt) {
+            this.id = id;
+            this.key = Long.toString(id);
+            this.vector = vector;
+            this.prompt = prompt;
+            this.answer = answer;
+            this.latency = latency;
+            this.expireAt = expireAt;
+        }
+    }
+}
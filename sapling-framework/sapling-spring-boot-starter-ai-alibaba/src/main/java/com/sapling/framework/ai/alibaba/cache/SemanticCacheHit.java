@@ -0,0 +1,35 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Semantic cache lookup hit.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class SemanticCacheHit {
+
+    /**
+     * Cached prompt that matched the query
+     */
+    private String prompt;
+
+    /**
+     * Cached answer
+     */
+    private String answer;
+
+    /**
+     * Cosine similarity between query and cached prompt
+     */
+    private float similarity;
+
+    /**
+     * Model latency of the original call in milliseconds
+     */
+    private long latencyMillis;
+}
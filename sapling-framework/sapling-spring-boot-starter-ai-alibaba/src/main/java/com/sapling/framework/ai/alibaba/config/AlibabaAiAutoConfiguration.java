@@ -8,11 +8,14 @@ import com.sapling.framework.ai.alibaba.core.image.ImageModel;
 import com.sapling.framework.ai.alibaba.core.image.AlibabaAiImageModel;
 import com.sapling.framework.ai.alibaba.core.tool.ToolRegistry;
 import com.sapling.framework.ai.alibaba.core.tool.ToolExecutor;
+import com.sapling.framework.ai.alibaba.core.tool.ToolCallHandler;
 import com.sapling.framework.ai.alibaba.service.AlibabaAiService;
 import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
 import com.sapling.framework.ai.alibaba.cache.AiCacheManager;
+import com.sapling.framework.ai.alibaba.cache.SemanticCache;
 import com.sapling.framework.ai.alibaba.interceptor.LoggingInterceptor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -71,6 +74,17 @@ public class AlibabaAiAutoConfiguration {
         return new AiCacheManager(properties.getCache());
     }
 
+    /**
+     * Create SemanticCache bean for embedding-similarity chat caching
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.ai.alibaba.semantic-cache", name = "enabled", havingValue = "true")
+    public SemanticCache semanticCache(AlibabaAiProperties properties, MetricsCollector metricsCollector) {
+        log.info("Creating SemanticCache bean");
+        return new SemanticCache(properties.getSemanticCache(), metricsCollector);
+    }
+
     /**
      * Create LoggingInterceptor bean for logging AI requests and responses
      */
@@ -103,10 +117,21 @@ public class AlibabaAiAutoConfiguration {
         return new ToolExecutor(toolRegistry, metricsCollector);
     }
 
+    /**
+     * Create ToolCallHandler bean for concurrent tool call dispatch
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.ai.alibaba.tool", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ToolCallHandler toolCallHandler(ToolExecutor toolExecutor, AlibabaAiProperties properties) {
+        log.info("Creating ToolCallHandler bean");
+        return new ToolCallHandler(toolExecutor, properties.getTool());
+    }
+
     /**
      * Create unified AlibabaAiService bean
      */
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     @ConditionalOnMissingBean
     public AlibabaAiService alibabaAiService(
             ChatModel chatModel,
@@ -114,7 +139,9 @@ public class AlibabaAiAutoConfiguration {
             ImageModel imageModel,
             ToolRegistry toolRegistry,
             ToolExecutor toolExecutor,
-            AiCacheManager aiCacheManager) {
+            ToolCallHandler toolCallHandler,
+            AiCacheManager aiCacheManager,
+            ObjectProvider<SemanticCache> semanticCache) {
         log.info("Creating AlibabaAiService bean");
         return new AlibabaAiService(
             chatModel,
@@ -122,7 +149,9 @@ public class AlibabaAiAutoConfiguration {
             imageModel,
             toolRegistry,
             toolExecutor,
-            aiCacheManager
+            toolCallHandler,
+            aiCacheManager,
+            semanticCache.getIfAvailable()
         );
     }
 }
@@ -62,6 +62,11 @@ public class AlibabaAiProperties {
      */
     private CacheProperties cache = new CacheProperties();
 
+    /**
+     * Semantic (embedding similarity) chat cache configuration
+     */
+    private SemanticCacheProperties semanticCache = new SemanticCacheProperties();
+
     /**
      * Metrics configuration
      */
@@ -126,6 +131,34 @@ public class AlibabaAiProperties {
          */
         @Positive
         private Integer batchSize = 25;
+
+        /**
+         * Maximum number of batches sent to the API concurrently
+         */
+        @Positive
+        private Integer maxConcurrentBatches = 4;
+
+        /**
+         * Maximum embedding requests per second
+         */
+        @Positive
+        private Double requestsPerSecond = 10.0;
+
+        /**
+         * Maximum input tokens per second, estimated from text length (0 disables the limit)
+         */
+        private Integer tokensPerSecond = 0;
+
+        /**
+         * Maximum retries of a batch rejected by rate limiting
+         */
+        private Integer maxRetries = 3;
+
+        /**
+         * Initial backoff in milliseconds after a rate limited batch, doubled per retry
+         */
+        @Positive
+        private Long retryBackoff = 500L;
     }
 
     /**
@@ -183,6 +216,41 @@ public class AlibabaAiProperties {
         @Positive
         private Integer timeout = 30;
 
+        /**
+         * Maximum number of tool calls executed concurrently
+         */
+        @Positive
+        private Integer maxConcurrency = 8;
+
+        /**
+         * Maximum tool calls waiting for a free worker, further calls fail without being run
+         */
+        @Positive
+        private Integer maxQueuedCalls = 256;
+
+        /**
+         * Initial retry backoff in milliseconds, doubled per attempt with random jitter
+         */
+        @Positive
+        private Long retryBackoff = 200L;
+
+        /**
+         * Maximum number of tool rounds in one tool-calling conversation
+         */
+        @Positive
+        private Integer maxRounds = 5;
+
+        /**
+         * Total token budget of one tool-calling conversation (0 disables the limit)
+         */
+        private Integer maxTotalTokens = 0;
+
+        /**
+         * Total time budget of one tool-calling conversation in seconds
+         */
+        @Positive
+        private Integer maxLoopDuration = 120;
+
         /**
          * Enable tool permission control
          */
@@ -215,6 +283,56 @@ public class AlibabaAiProperties {
          */
         @Positive
         private Integer maxSize = 1000;
+
+        /**
+         * Maximum time in seconds a caller waits for another caller's in-flight load of the same key
+         */
+        @Positive
+        private Integer loadTimeout = 60;
+    }
+
+    /**
+     * Semantic cache properties
+     */
+    @Data
+    public static class SemanticCacheProperties {
+        /**
+         * Enable semantic caching of chat answers
+         */
+        private Boolean enabled = false;
+
+        /**
+         * Minimum cosine similarity between prompts to reuse a cached answer
+         */
+        private Double similarityThreshold = 0.95;
+
+        /**
+         * Entry TTL in seconds
+         */
+        @Positive
+        private Integer ttl = 3600;
+
+        /**
+         * Maximum entries per model namespace; a full index drops expired, then oldest entries
+         */
+        @Positive
+        private Integer maxEntries = 10000;
+
+        /**
+         * Fraction of hits re-checked against a fresh model answer to estimate false hits (0.0 - 1.0)
+         */
+        private Double falseHitSampleRate = 0.0;
+
+        /**
+         * Minimum cosine similarity between a cached and a fresh answer for a sampled hit to count as correct
+         */
+        private Double answerSimilarityThreshold = 0.85;
+
+        /**
+         * Maximum sampled hits and index rebuilds waiting for the background thread, further samples are skipped
+         */
+        @Positive
+        private Integer maxPendingSamples = 16;
     }
 
     /**
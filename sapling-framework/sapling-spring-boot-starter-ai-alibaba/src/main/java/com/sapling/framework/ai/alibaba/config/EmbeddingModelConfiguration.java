@@ -21,7 +21,7 @@ public class EmbeddingModelConfiguration {
     /**
      * Create EmbeddingModel bean for text embedding functionality
      */
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     @ConditionalOnMissingBean
     public EmbeddingModel embeddingModel(
             AlibabaAiProperties properties,
@@ -1,12 +1,14 @@
 package com.sapling.framework.ai.alibaba.core.chat;
 
 import com.alibaba.dashscope.aigc.generation.Generation;
+import com.alibaba.dashscope.aigc.generation.GenerationOutput;
 import com.alibaba.dashscope.aigc.generation.GenerationParam;
 import com.alibaba.dashscope.aigc.generation.GenerationResult;
 import com.alibaba.dashscope.common.Message;
 import com.alibaba.dashscope.common.Role;
 import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
+import com.alibaba.dashscope.tools.ToolBase;
 import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
 import com.sapling.framework.ai.alibaba.exception.AiException;
 import com.sapling.framework.ai.alibaba.exception.ApiKeyInvalidException;
@@ -14,12 +16,16 @@ import com.sapling.framework.ai.alibaba.interceptor.LoggingInterceptor;
 import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
 import com.sapling.framework.ai.alibaba.model.ChatRequest;
 import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
 import com.sapling.framework.ai.alibaba.model.Usage;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -44,17 +50,58 @@ public class AlibabaAiChatModel implements ChatModel {
             AlibabaAiProperties.ChatProperties chatProperties,
             MetricsCollector metricsCollector,
             LoggingInterceptor loggingInterceptor) {
+        this(apiKey, baseUrl, chatProperties, metricsCollector, loggingInterceptor, new Generation());
+    }
+
+    /**
+     * Create chat model with a custom Generation client (e.g. pointing to a local stub endpoint)
+     */
+    public AlibabaAiChatModel(
+            String apiKey,
+            String baseUrl,
+            AlibabaAiProperties.ChatProperties chatProperties,
+            MetricsCollector metricsCollector,
+            LoggingInterceptor loggingInterceptor,
+            Generation generation) {
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
         this.chatProperties = chatProperties;
         this.metricsCollector = metricsCollector;
         this.loggingInterceptor = loggingInterceptor;
-        this.generation = new Generation();
+        this.generation = generation;
     }
 
 
     @Override
     public ChatResponse call(ChatRequest request) {
+        return call(request, streaming -> buildGenerationParam(request, buildMessages(request),
+            toApiTools(request), streaming));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(ChatRequest request) {
+        return stream(request, streaming -> buildGenerationParam(request, buildMessages(request),
+            toApiTools(request), streaming));
+    }
+
+    /**
+     * Keep the DashScope messages and tools of the conversation, so each round only converts the
+     * messages appended since the previous one
+     */
+    @Override
+    public ChatConversation openConversation(ChatRequest request) {
+        return new DashScopeConversation(request);
+    }
+
+    @Override
+    public String getModel() {
+        return chatProperties.getModel();
+    }
+
+    /**
+     * Synchronous call with the generation parameters built by {@code params} for a non-streaming request
+     */
+    private ChatResponse call(ChatRequest request, Function<Boolean, GenerationParam> params) {
         long startTime = System.currentTimeMillis();
         
         try {
@@ -62,7 +109,7 @@ public class AlibabaAiChatModel implements ChatModel {
             loggingInterceptor.beforeRequest(request);
             
             // Build generation parameters
-            GenerationParam param = buildGenerationParam(request, false);
+            GenerationParam param = params.apply(false);
             
             // Call DashScope API
             GenerationResult result = generation.call(param);
@@ -103,26 +150,85 @@ public class AlibabaAiChatModel implements ChatModel {
         }
     }
 
-    @Override
-    public Flux<ChatResponse> stream(ChatRequest request) {
-        // For now, return a simple Flux that wraps the synchronous call
-        // TODO: Implement true streaming when DashScope SDK streaming API is available
+    /**
+     * Streaming call with the generation parameters built by {@code params}
+     */
+    private Flux<ChatResponse> stream(ChatRequest request, Function<Boolean, GenerationParam> params) {
+        if (!Boolean.TRUE.equals(chatProperties.getEnableStream())) {
+            return Flux.defer(() -> Flux.just(call(request, params)));
+        }
+        
         return Flux.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            AtomicInteger chunkCount = new AtomicInteger();
+            DashScopeToolConverter.StreamAccumulator toolCalls = new DashScopeToolConverter.StreamAccumulator();
+            
+            // Log request
+            loggingInterceptor.beforeRequest(request);
+            
+            // Build generation parameters with incremental output, so every frame carries only the delta
+            GenerationParam param = params.apply(true);
+            
             try {
-                ChatResponse response = call(request);
-                return Flux.just(response);
+                // The SDK publisher buffers frames until downstream requests them. Cancelling stops delivery,
+                // but the SDK does not expose the underlying SSE call, so the response is still read to its end
+                return Flux.from(generation.streamCall(param))
+                    .map(result -> convertChunk(result, toolCalls))
+                    .filter(chunk -> StringUtils.isNotEmpty(chunk.getContent()) || chunk.getFinishReason() != null)
+                    .doOnNext(chunk -> {
+                        if (chunkCount.getAndIncrement() == 0) {
+                            log.debug("First chat chunk received in {}ms", System.currentTimeMillis() - startTime);
+                        }
+                        if (chunk.getFinishReason() != null) {
+                            onStreamFinished(chunk, System.currentTimeMillis() - startTime);
+                        }
+                    })
+                    .doOnCancel(() -> log.debug("Chat stream cancelled after {} chunks", chunkCount.get()))
+                    .onErrorMap(this::handleStreamError);
             } catch (Exception e) {
-                return Flux.error(e);
+                return Flux.error(handleStreamError(e));
             }
         });
     }
 
+    /**
+     * Record metrics and log the final frame of a stream
+     */
+    private void onStreamFinished(ChatResponse finalChunk, long duration) {
+        if (finalChunk.getUsage() != null) {
+            metricsCollector.recordCall(duration, finalChunk.getUsage().getTotalTokens());
+        }
+        
+        loggingInterceptor.afterResponse(finalChunk, duration);
+        
+        if (duration > chatProperties.getTimeout() * 1000L) {
+            log.warn("Slow chat stream detected: {}ms", duration);
+        }
+    }
+
+    /**
+     * Convert streaming failure into AiException hierarchy
+     */
+    private AiException handleStreamError(Throwable e) {
+        metricsCollector.recordError();
+        Exception cause = e instanceof Exception ? (Exception) e : new RuntimeException(e);
+        loggingInterceptor.onError(cause);
+        if (e instanceof AiException) {
+            return (AiException) e;
+        }
+        if (e instanceof NoApiKeyException) {
+            return new ApiKeyInvalidException();
+        }
+        if (e instanceof ApiException) {
+            return new AiException("Chat model stream failed: " + e.getMessage(), e);
+        }
+        return new AiException("Unexpected error during chat stream", e);
+    }
 
     /**
-     * Build GenerationParam from ChatRequest
+     * Build the DashScope messages of a request: system prompt, history and current user message
      */
-    private GenerationParam buildGenerationParam(ChatRequest request, boolean streaming) {
-        // Build messages
+    private List<Message> buildMessages(ChatRequest request) {
         List<Message> messages = new ArrayList<>();
         
         // Add system message if present
@@ -147,8 +253,24 @@ public class AlibabaAiChatModel implements ChatModel {
                 .content(request.getMessage())
                 .build());
         }
-        
-        // Build param
+        return messages;
+    }
+
+    /**
+     * DashScope function tools offered by a request, null when it offers none
+     */
+    private List<ToolBase> toApiTools(ChatRequest request) {
+        if (request.getTools() == null || request.getTools().isEmpty()) {
+            return null;
+        }
+        return DashScopeToolConverter.toApiTools(request.getTools());
+    }
+
+    /**
+     * Build GenerationParam from already converted messages and tools plus the sampling settings of a request
+     */
+    private GenerationParam buildGenerationParam(ChatRequest request, List<Message> messages, List<ToolBase> tools,
+                                                 boolean streaming) {
         GenerationParam.GenerationParamBuilder<?, ?> builder = GenerationParam.builder()
             .apiKey(apiKey)
             .model(chatProperties.getModel())
@@ -156,6 +278,11 @@ public class AlibabaAiChatModel implements ChatModel {
             .resultFormat(GenerationParam.ResultFormat.MESSAGE)
             .incrementalOutput(streaming);
         
+        // Offer tools for function calling
+        if (tools != null) {
+            builder.tools(tools);
+        }
+        
         // Set optional parameters
         Double temperature = request.getTemperature() != null ? 
             request.getTemperature() : chatProperties.getTemperature();
@@ -182,10 +309,52 @@ public class AlibabaAiChatModel implements ChatModel {
      * Convert internal Message to DashScope Message
      */
     private Message convertToApiMessage(com.sapling.framework.ai.alibaba.model.Message msg) {
-        return Message.builder()
+        Message message = Message.builder()
             .role(msg.getRole())
             .content(msg.getContent())
             .build();
+        if (msg.getToolCalls() != null && !msg.getToolCalls().isEmpty()) {
+            message.setToolCalls(DashScopeToolConverter.toApiToolCalls(msg.getToolCalls()));
+        }
+        if (msg.getToolCallId() != null) {
+            message.setToolCallId(msg.getToolCallId());
+            message.setName(msg.getToolName());
+        }
+        return message;
+    }
+
+    /**
+     * Conversation whose DashScope messages and tools are converted once; rounds send the same
+     * lists, and appended messages are converted on their own
+     */
+    private final class DashScopeConversation implements ChatConversation {
+
+        private final ChatRequest request;
+        private final List<Message> messages;
+        private final List<ToolBase> tools;
+
+        private DashScopeConversation(ChatRequest request) {
+            this.request = request;
+            this.messages = buildMessages(request);
+            this.tools = toApiTools(request);
+        }
+
+        @Override
+        public void append(com.sapling.framework.ai.alibaba.model.Message message) {
+            messages.add(convertToApiMessage(message));
+        }
+
+        @Override
+        public ChatResponse call() {
+            return AlibabaAiChatModel.this.call(request,
+                streaming -> buildGenerationParam(request, messages, tools, streaming));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream() {
+            return AlibabaAiChatModel.this.stream(request,
+                streaming -> buildGenerationParam(request, messages, tools, streaming));
+        }
     }
 
     /**
@@ -197,10 +366,12 @@ public class AlibabaAiChatModel implements ChatModel {
         }
         
         String content = "";
+        List<ToolCall> toolCalls = null;
         if (result.getOutput().getChoices() != null && !result.getOutput().getChoices().isEmpty()) {
             Message message = result.getOutput().getChoices().get(0).getMessage();
             if (message != null) {
                 content = message.getContent();
+                toolCalls = DashScopeToolConverter.fromApiToolCalls(message.getToolCalls());
             }
         }
         
@@ -216,9 +387,61 @@ public class AlibabaAiChatModel implements ChatModel {
         
         return ChatResponse.builder()
             .content(content)
+            .toolCalls(toolCalls)
             .usage(usage)
             .finishReason(result.getOutput().getFinishReason())
             .requestId(result.getRequestId())
             .build();
     }
+
+    /**
+     * Convert an incremental GenerationResult frame to ChatResponse.
+     * Usage, finish reason and the accumulated tool calls are only populated on the final frame.
+     */
+    private ChatResponse convertChunk(GenerationResult result, DashScopeToolConverter.StreamAccumulator toolCalls) {
+        if (result == null || result.getOutput() == null) {
+            throw new AiException("Empty stream frame from API");
+        }
+        
+        String content = "";
+        String finishReason = result.getOutput().getFinishReason();
+        List<GenerationOutput.Choice> choices = result.getOutput().getChoices();
+        if (choices != null && !choices.isEmpty()) {
+            GenerationOutput.Choice choice = choices.get(0);
+            if (choice.getMessage() != null) {
+                if (choice.getMessage().getContent() != null) {
+                    content = choice.getMessage().getContent();
+                }
+                toolCalls.accept(choice.getMessage().getToolCalls());
+            }
+            if (choice.getFinishReason() != null) {
+                finishReason = choice.getFinishReason();
+            }
+        }
+        
+        // DashScope reports the literal "null" on intermediate frames
+        if (finishReason == null || finishReason.isEmpty() || "null".equals(finishReason)) {
+            return ChatResponse.builder()
+                .content(content)
+                .requestId(result.getRequestId())
+                .build();
+        }
+        
+        Usage usage = null;
+        if (result.getUsage() != null) {
+            usage = Usage.builder()
+                .promptTokens(result.getUsage().getInputTokens())
+                .completionTokens(result.getUsage().getOutputTokens())
+                .totalTokens(result.getUsage().getTotalTokens())
+                .build();
+        }
+        
+        return ChatResponse.builder()
+            .content(content)
+            .toolCalls(toolCalls.drain())
+            .usage(usage)
+            .finishReason(finishReason)
+            .requestId(result.getRequestId())
+            .build();
+    }
 }
@@ -0,0 +1,37 @@
+package com.sapling.framework.ai.alibaba.core.chat;
+
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.Message;
+import reactor.core.publisher.Flux;
+
+/**
+ * Multi-round conversation opened by {@link ChatModel#openConversation}. Messages appended between
+ * rounds are sent with every later round; a model may keep them in its own request format so
+ * earlier rounds are not converted again.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public interface ChatConversation {
+
+    /**
+     * Append a message to the conversation
+     * 
+     * @param message message sent with every following round
+     */
+    void append(Message message);
+
+    /**
+     * Synchronous call with all messages of the conversation
+     * 
+     * @return chat response
+     */
+    ChatResponse call();
+
+    /**
+     * Streaming call with all messages of the conversation
+     * 
+     * @return flux of chat responses
+     */
+    Flux<ChatResponse> stream();
+}
@@ -27,4 +27,22 @@ public interface ChatModel {
      * @return flux of chat responses
      */
     Flux<ChatResponse> stream(ChatRequest request);
+
+    /**
+     * Open a multi-round conversation starting with the messages of a request. The conversation
+     * owns the request and appends to its history; by default every round sends the whole request.
+     * 
+     * @param request first round of the conversation
+     * @return conversation to call and append to
+     */
+    default ChatConversation openConversation(ChatRequest request) {
+        return new HistoryChatConversation(this, request);
+    }
+
+    /**
+     * Name of the model serving requests
+     * 
+     * @return model name
+     */
+    String getModel();
 }
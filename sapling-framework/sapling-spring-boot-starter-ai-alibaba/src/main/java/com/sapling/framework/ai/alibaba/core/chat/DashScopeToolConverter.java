@@ -0,0 +1,211 @@
+package com.sapling.framework.ai.alibaba.core.chat;
+
+import com.alibaba.dashscope.tools.FunctionDefinition;
+import com.alibaba.dashscope.tools.ToolBase;
+import com.alibaba.dashscope.tools.ToolCallBase;
+import com.alibaba.dashscope.tools.ToolCallFunction;
+import com.alibaba.dashscope.tools.ToolFunction;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
+import com.sapling.framework.ai.alibaba.model.ToolDefinition;
+import com.sapling.framework.ai.alibaba.model.ToolParameter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion of tool definitions and tool calls between the internal model and DashScope.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Slf4j
+final class DashScopeToolConverter {
+
+    /**
+     * Integral arguments are parsed as Long, so ToolExecutor can convert them to int parameters
+     */
+    private static final Gson GSON = new GsonBuilder()
+        .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+        .create();
+
+    private static final Type ARGUMENTS_TYPE = new TypeToken<Map<String, Object>>() { }.getType();
+
+    private static final String FUNCTION_TYPE = "function";
+
+    private DashScopeToolConverter() {
+    }
+
+    /**
+     * Convert tool definitions to DashScope function tools with a JSON schema of their parameters
+     */
+    static List<ToolBase> toApiTools(List<ToolDefinition> tools) {
+        List<ToolBase> apiTools = new ArrayList<>(tools.size());
+        for (ToolDefinition tool : tools) {
+            FunctionDefinition function = FunctionDefinition.builder()
+                .name(tool.getName())
+                .description(tool.getDescription())
+                .parameters(toParameterSchema(tool.getParameters()))
+                .build();
+            apiTools.add(ToolFunction.builder().function(function).build());
+        }
+        return apiTools;
+    }
+
+    /**
+     * Convert internal tool calls of an assistant message back to DashScope tool calls
+     */
+    static List<ToolCallBase> toApiToolCalls(List<ToolCall> toolCalls) {
+        List<ToolCallBase> apiToolCalls = new ArrayList<>(toolCalls.size());
+        for (ToolCall toolCall : toolCalls) {
+            ToolCallFunction apiToolCall = new ToolCallFunction();
+            apiToolCall.setId(toolCall.getId());
+            apiToolCall.setType(FUNCTION_TYPE);
+            ToolCallFunction.CallFunction function = apiToolCall.new CallFunction();
+            function.setName(toolCall.getName());
+            function.setArguments(GSON.toJson(toolCall.getParameters() != null
+                ? toolCall.getParameters() : Collections.emptyMap()));
+            apiToolCall.setFunction(function);
+            apiToolCalls.add(apiToolCall);
+        }
+        return apiToolCalls;
+    }
+
+    /**
+     * Convert complete DashScope tool calls to internal tool calls
+     */
+    static List<ToolCall> fromApiToolCalls(List<ToolCallBase> apiToolCalls) {
+        if (apiToolCalls == null || apiToolCalls.isEmpty()) {
+            return null;
+        }
+        List<ToolCall> toolCalls = new ArrayList<>(apiToolCalls.size());
+        for (ToolCallBase apiToolCall : apiToolCalls) {
+            if (!(apiToolCall instanceof ToolCallFunction) || ((ToolCallFunction) apiToolCall).getFunction() == null) {
+                continue;
+            }
+            ToolCallFunction.CallFunction function = ((ToolCallFunction) apiToolCall).getFunction();
+            toolCalls.add(ToolCall.builder()
+                .id(apiToolCall.getId())
+                .type(FUNCTION_TYPE)
+                .name(function.getName())
+                .parameters(parseArguments(function.getName(), function.getArguments()))
+                .build());
+        }
+        return toolCalls.isEmpty() ? null : toolCalls;
+    }
+
+    private static JsonObject toParameterSchema(List<ToolParameter> parameters) {
+        JsonObject properties = new JsonObject();
+        JsonArray required = new JsonArray();
+        if (parameters != null) {
+            for (ToolParameter parameter : parameters) {
+                JsonObject property = new JsonObject();
+                property.addProperty("type", parameter.getType());
+                property.addProperty("description", parameter.getDescription());
+                if (parameter.getEnumValues() != null && parameter.getEnumValues().length > 0) {
+                    JsonArray enumValues = new JsonArray();
+                    for (String value : parameter.getEnumValues()) {
+                        enumValues.add(value);
+                    }
+                    property.add("enum", enumValues);
+                }
+                properties.add(parameter.getName(), property);
+                if (parameter.isRequired()) {
+                    required.add(parameter.getName());
+                }
+            }
+        }
+
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "object");
+        schema.add("properties", properties);
+        schema.add("required", required);
+        return schema;
+    }
+
+    private static Map<String, Object> parseArguments(String toolName, String arguments) {
+        if (StringUtils.isBlank(arguments)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Object> parameters = GSON.fromJson(arguments, ARGUMENTS_TYPE);
+            return parameters != null ? parameters : Collections.emptyMap();
+        } catch (JsonParseException e) {
+            log.warn("Malformed arguments for tool call {}: {}", toolName, arguments);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Collects tool call fragments of an incremental stream. The first fragment of a call carries
+     * its id and name, the following ones only append argument text.
+     */
+    static final class StreamAccumulator {
+
+        private final List<PendingCall> calls = new ArrayList<>();
+
+        void accept(List<ToolCallBase> fragments) {
+            if (fragments == null) {
+                return;
+            }
+            for (ToolCallBase fragment : fragments) {
+                if (!(fragment instanceof ToolCallFunction)) {
+                    continue;
+                }
+                String id = fragment.getId();
+                if (calls.isEmpty() || (StringUtils.isNotEmpty(id) && !id.equals(calls.get(calls.size() - 1).id))) {
+                    calls.add(new PendingCall(id));
+                }
+                PendingCall call = calls.get(calls.size() - 1);
+                ToolCallFunction.CallFunction function = ((ToolCallFunction) fragment).getFunction();
+                if (function != null) {
+                    if (StringUtils.isNotEmpty(function.getName())) {
+                        call.name = function.getName();
+                    }
+                    if (function.getArguments() != null) {
+                        call.arguments.append(function.getArguments());
+                    }
+                }
+            }
+        }
+
+        List<ToolCall> drain() {
+            if (calls.isEmpty()) {
+                return null;
+            }
+            List<ToolCall> toolCalls = new ArrayList<>(calls.size());
+            for (PendingCall call : calls) {
+                toolCalls.add(ToolCall.builder()
+                    .id(call.id)
+                    .type(FUNCTION_TYPE)
+                    .name(call.name)
+                    .parameters(parseArguments(call.name, call.arguments.toString()))
+                    .build());
+            }
+            calls.clear();
+            return toolCalls;
+        }
+    }
+
+    private static final class PendingCall {
+
+        private final String id;
+        private String name;
+        private final StringBuilder arguments = new StringBuilder();
+
+        private PendingCall(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sapling.framework.ai.alibaba.core.chat;
+
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.Message;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+
+/**
+ * Conversation kept in the history of one request, sent as a whole with every round.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class HistoryChatConversation implements ChatConversation {
+
+    private final ChatModel chatModel;
+    private final ChatRequest request;
+
+    HistoryChatConversation(ChatModel chatModel, ChatRequest request) {
+        this.chatModel = chatModel;
+        this.request = request;
+        if (request.getHistory() == null) {
+            request.setHistory(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void append(Message message) {
+        request.getHistory().add(message);
+    }
+
+    @Override
+    public ChatResponse call() {
+        return chatModel.call(request);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream() {
+        return chatModel.stream(request);
+    }
+}
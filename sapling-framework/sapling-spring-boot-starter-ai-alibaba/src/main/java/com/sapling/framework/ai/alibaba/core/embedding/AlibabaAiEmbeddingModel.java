@@ -3,35 +3,84 @@ package com.sapling.framework.ai.alibaba.core.embedding;
 import com.alibaba.dashscope.embeddings.TextEmbedding;
 import com.alibaba.dashscope.embeddings.TextEmbeddingParam;
 import com.alibaba.dashscope.embeddings.TextEmbeddingResult;
+import com.alibaba.dashscope.embeddings.TextEmbeddingResultItem;
 import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
+import com.google.common.util.concurrent.RateLimiter;
 import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
 import com.sapling.framework.ai.alibaba.exception.AiException;
 import com.sapling.framework.ai.alibaba.exception.ApiKeyInvalidException;
+import com.sapling.framework.ai.alibaba.exception.RateLimitException;
 import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
 import com.sapling.framework.ai.alibaba.model.EmbeddingResponse;
+import com.sapling.framework.ai.alibaba.model.EmbeddingVector;
 import com.sapling.framework.ai.alibaba.model.Usage;
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Alibaba AI implementation of EmbeddingModel.
  * 
+ * <p>Batch embedding splits input into {@code batchSize} chunks and sends up to
+ * {@code maxConcurrentBatches} of them at once, throttled by token buckets on requests and
+ * estimated input tokens per second. Rate limited batches are retried with exponential backoff
+ * while the request rate is halved, then recovers gradually on success.
+ * 
+ * <p>Batches wait for permits and backoff in a FIFO queue drained by a single dispatcher thread
+ * that never blocks, so batch threads only run API calls.
+ * 
+ * <p>Null and blank texts are skipped: batch results hold one response per remaining text, in input
+ * order, each carrying its source text. Within a batch, embeddings are placed by their
+ * {@code text_index}; a reply with a missing, duplicate or out-of-range index fails the batch.
+ * 
  * @author Sapling Team
  * @since 1.0.0
  */
 @Slf4j
 public class AlibabaAiEmbeddingModel implements EmbeddingModel {
 
+    /**
+     * Lower bound for the adaptive request rate
+     */
+    private static final double MIN_REQUEST_RATE = 0.5;
+
+    /**
+     * Longest pause of the dispatcher before it checks the rate limiters again
+     */
+    private static final long MAX_PERMIT_POLL_MILLIS = 50L;
+
     private final String apiKey;
     private final String baseUrl;
     private final AlibabaAiProperties.EmbeddingProperties embeddingProperties;
     private final MetricsCollector metricsCollector;
     private final TextEmbedding textEmbedding;
+    private final ThreadPoolExecutor batchExecutor;
+    private final ScheduledExecutorService dispatcher;
+    private final RateLimiter requestLimiter;
+    private final RateLimiter tokenLimiter;
+
+    /**
+     * Batches waiting for rate limit permits, only drained on the dispatcher thread
+     */
+    private final Deque<PendingBatch> pendingBatches = new ConcurrentLinkedDeque<>();
+    private boolean drainScheduled;
 
     public AlibabaAiEmbeddingModel(
             String apiKey,
@@ -43,6 +92,15 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
         this.embeddingProperties = embeddingProperties;
         this.metricsCollector = metricsCollector;
         this.textEmbedding = new TextEmbedding();
+        
+        int concurrency = embeddingProperties.getMaxConcurrentBatches();
+        this.batchExecutor = new ThreadPoolExecutor(concurrency, concurrency,
+            60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory("ai-embedding-batch"));
+        this.batchExecutor.allowCoreThreadTimeOut(true);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("ai-embedding-dispatch"));
+        this.requestLimiter = RateLimiter.create(embeddingProperties.getRequestsPerSecond());
+        Integer tokensPerSecond = embeddingProperties.getTokensPerSecond();
+        this.tokenLimiter = tokensPerSecond != null && tokensPerSecond > 0 ? RateLimiter.create(tokensPerSecond) : null;
     }
 
     @Override
@@ -71,13 +129,23 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
             }
             
             // Convert response
-            return convertResponse(result, text, 0);
+            if (result == null || result.getOutput() == null
+                || result.getOutput().getEmbeddings() == null || result.getOutput().getEmbeddings().isEmpty()) {
+                throw new AiException("Invalid embedding response");
+            }
+            return convertResponse(result, result.getOutput().getEmbeddings().get(0), text);
             
+        } catch (AiException e) {
+            metricsCollector.recordError();
+            throw e;
         } catch (NoApiKeyException e) {
             metricsCollector.recordError();
             throw new ApiKeyInvalidException();
         } catch (ApiException e) {
             metricsCollector.recordError();
+            if (isRateLimited(e)) {
+                throw new RateLimitException("Embedding rate limit exceeded: " + e.getMessage());
+            }
             throw new AiException("Embedding call failed: " + e.getMessage(), e);
         } catch (Exception e) {
             metricsCollector.recordError();
@@ -88,10 +156,21 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
 
     @Override
     public List<EmbeddingResponse> embedBatch(List<String> texts) {
+        try {
+            return embedBatchAsync(texts).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new AiException("Unexpected error during batch embedding", e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<EmbeddingResponse>> embedBatchAsync(List<String> texts) {
         if (texts == null || texts.isEmpty()) {
             throw new IllegalArgumentException("Texts list cannot be null or empty");
         }
-        
         // Filter out null or empty texts
         List<String> validTexts = texts.stream()
             .filter(text -> text != null && !text.trim().isEmpty())
@@ -101,19 +180,183 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
             throw new IllegalArgumentException("No valid texts to embed");
         }
         
-        // Process in batches
-        List<EmbeddingResponse> allResponses = new ArrayList<>();
+        // Queue batches for the dispatcher, the bounded executor limits how many are in flight.
+        // Each batch owns a copy of its texts since it runs after this method returns.
+        List<CompletableFuture<List<EmbeddingResponse>>> batchFutures = new ArrayList<>();
         int batchSize = embeddingProperties.getBatchSize();
         
         for (int i = 0; i < validTexts.size(); i += batchSize) {
             int end = Math.min(i + batchSize, validTexts.size());
-            List<String> batch = validTexts.subList(i, end);
-            
-            List<EmbeddingResponse> batchResponses = processBatch(batch);
-            allResponses.addAll(batchResponses);
+            PendingBatch batch = new PendingBatch(new ArrayList<>(validTexts.subList(i, end)));
+            batchFutures.add(batch.result);
+            enqueue(batch);
         }
         
-        return allResponses;
+        // Join in submission order to preserve input order
+        return CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture[0]))
+            .thenApply(v -> {
+                List<EmbeddingResponse> allResponses = new ArrayList<>(validTexts.size());
+                for (CompletableFuture<List<EmbeddingResponse>> batchFuture : batchFutures) {
+                    allResponses.addAll(batchFuture.join());
+                }
+                return allResponses;
+            });
+    }
+
+    /**
+     * Hand a new batch to the dispatcher
+     */
+    private void enqueue(PendingBatch batch) {
+        try {
+            dispatcher.execute(() -> {
+                pendingBatches.addLast(batch);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            batch.result.completeExceptionally(new AiException("Embedding model is shut down", e));
+        }
+    }
+
+    /**
+     * Start queued batches in order while permits are available, then check again once the
+     * limiters may have refilled. Runs on the dispatcher thread only.
+     */
+    private void drain() {
+        PendingBatch batch;
+        while ((batch = pendingBatches.peekFirst()) != null) {
+            // Hold the request permit while waiting for tokens so it is not taken twice
+            if (!batch.requestPermit) {
+                batch.requestPermit = requestLimiter.tryAcquire();
+            }
+            if (!batch.requestPermit || (tokenLimiter != null && !tokenLimiter.tryAcquire(batch.tokens))) {
+                if (!drainScheduled) {
+                    drainScheduled = true;
+                    dispatcher.schedule(() -> {
+                        drainScheduled = false;
+                        drain();
+                    }, permitPollMillis(), TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            pendingBatches.pollFirst();
+            batch.requestPermit = false;
+            start(batch);
+        }
+    }
+
+    /**
+     * Run a batch on the batch executor; throttled batches are rescheduled after a backoff
+     */
+    private void start(PendingBatch batch) {
+        try {
+            batchExecutor.execute(() -> {
+                try {
+                    List<EmbeddingResponse> responses = processBatch(batch.texts);
+                    onBatchSucceeded();
+                    batch.result.complete(responses);
+                } catch (RateLimitException e) {
+                    if (batch.attempt >= embeddingProperties.getMaxRetries()) {
+                        batch.result.completeExceptionally(e);
+                        return;
+                    }
+                    onBatchThrottled();
+                    long backoff = embeddingProperties.getRetryBackoff() << batch.attempt;
+                    backoff += ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                    batch.attempt++;
+                    log.warn("Embedding batch rate limited, retry {}/{} in {}ms",
+                        batch.attempt, embeddingProperties.getMaxRetries(), backoff);
+                    scheduleRetry(batch, backoff);
+                } catch (RuntimeException | Error e) {
+                    batch.result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batch.result.completeExceptionally(new AiException("Embedding model is shut down", e));
+        }
+    }
+
+    /**
+     * Put a throttled batch back at the head of the queue once its backoff has passed
+     */
+    private void scheduleRetry(PendingBatch batch, long backoff) {
+        try {
+            dispatcher.schedule(() -> {
+                pendingBatches.addFirst(batch);
+                drain();
+            }, backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            batch.result.completeExceptionally(new AiException("Embedding model is shut down", e));
+        }
+    }
+
+    /**
+     * Time until the request limiter is expected to hand out its next permit
+     */
+    private long permitPollMillis() {
+        return Math.max(1L, Math.min(MAX_PERMIT_POLL_MILLIS, (long) (1000 / requestLimiter.getRate())));
+    }
+
+    /**
+     * Halve the request rate after throttling
+     */
+    private synchronized void onBatchThrottled() {
+        double rate = Math.max(MIN_REQUEST_RATE, requestLimiter.getRate() / 2);
+        requestLimiter.setRate(rate);
+    }
+
+    /**
+     * Recover the request rate by a tenth of the configured rate per successful batch
+     */
+    private synchronized void onBatchSucceeded() {
+        double maxRate = embeddingProperties.getRequestsPerSecond();
+        double rate = requestLimiter.getRate();
+        if (rate < maxRate) {
+            requestLimiter.setRate(Math.min(maxRate, rate + maxRate / 10));
+        }
+    }
+
+    /**
+     * Estimate input tokens from text length
+     */
+    private static int estimateTokens(List<String> texts) {
+        int tokens = 0;
+        for (String text : texts) {
+            tokens += text.length();
+        }
+        return tokens;
+    }
+
+    /**
+     * Check whether the API rejected the call due to throttling
+     */
+    private boolean isRateLimited(ApiException e) {
+        if (e.getStatus() == null) {
+            return false;
+        }
+        return e.getStatus().getStatusCode() == 429
+            || (e.getStatus().getCode() != null && e.getStatus().getCode().startsWith("Throttling"));
+    }
+
+    /**
+     * Release the batch executor and fail batches still waiting for permits
+     */
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        batchExecutor.shutdown();
+        PendingBatch batch;
+        while ((batch = pendingBatches.pollFirst()) != null) {
+            batch.result.completeExceptionally(new AiException("Embedding model is shut down"));
+        }
+    }
+
+    @Override
+    public String getModel() {
+        return embeddingProperties.getModel();
+    }
+
+    @Override
+    public int getDimensions() {
+        return embeddingProperties.getDimensions();
     }
 
     /**
@@ -139,21 +382,36 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
                 metricsCollector.recordCall(duration, result.getUsage().getTotalTokens());
             }
             
-            // Convert responses
-            List<EmbeddingResponse> responses = new ArrayList<>();
-            if (result.getOutput() != null && result.getOutput().getEmbeddings() != null) {
-                for (int i = 0; i < result.getOutput().getEmbeddings().size(); i++) {
-                    responses.add(convertResponse(result, texts.get(i), i));
+            // Convert responses, placing each embedding at the index of the text it belongs to
+            List<TextEmbeddingResultItem> items = result.getOutput() != null ? result.getOutput().getEmbeddings() : null;
+            int count = items != null ? items.size() : 0;
+            if (count != texts.size()) {
+                throw new AiException("Batch embedding returned " + count + " embeddings for " + texts.size() + " texts");
+            }
+            EmbeddingResponse[] responses = new EmbeddingResponse[texts.size()];
+            for (int i = 0; i < count; i++) {
+                TextEmbeddingResultItem item = items.get(i);
+                int index = item.getTextIndex() != null ? item.getTextIndex() : i;
+                if (index < 0 || index >= responses.length || responses[index] != null) {
+                    throw new AiException("Batch embedding returned invalid text_index " + item.getTextIndex()
+                        + " for " + texts.size() + " texts");
                 }
+                responses[index] = convertResponse(result, item, texts.get(index));
             }
             
-            return responses;
+            return Arrays.asList(responses);
             
+        } catch (AiException e) {
+            metricsCollector.recordError();
+            throw e;
         } catch (NoApiKeyException e) {
             metricsCollector.recordError();
             throw new ApiKeyInvalidException();
         } catch (ApiException e) {
             metricsCollector.recordError();
+            if (isRateLimited(e)) {
+                throw new RateLimitException("Batch embedding rate limit exceeded: " + e.getMessage());
+            }
             throw new AiException("Batch embedding call failed: " + e.getMessage(), e);
         } catch (Exception e) {
             metricsCollector.recordError();
@@ -162,16 +420,15 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
     }
 
     /**
-     * Convert TextEmbeddingResult to EmbeddingResponse
+     * Convert one embedding of a TextEmbeddingResult to EmbeddingResponse
      */
-    private EmbeddingResponse convertResponse(TextEmbeddingResult result, String text, int index) {
-        if (result == null || result.getOutput() == null || 
-            result.getOutput().getEmbeddings() == null ||
-            result.getOutput().getEmbeddings().size() <= index) {
+    private EmbeddingResponse convertResponse(TextEmbeddingResult result, TextEmbeddingResultItem item, String text) {
+        if (item == null || item.getEmbedding() == null) {
             throw new AiException("Invalid embedding response");
         }
         
-        List<Double> embedding = result.getOutput().getEmbeddings().get(index).getEmbedding();
+        // Convert straight from the SDK list into a primitive vector
+        EmbeddingVector vector = EmbeddingVector.fromDoubles(item.getEmbedding());
         
         // Build usage
         Usage usage = null;
@@ -182,10 +439,26 @@ public class AlibabaAiEmbeddingModel implements EmbeddingModel {
         }
         
         return EmbeddingResponse.builder()
-            .embedding(embedding)
+            .vector(vector)
             .text(text)
             .requestId(result.getRequestId())
             .usage(usage)
             .build();
     }
+
+    /**
+     * A batch waiting for, or holding, rate limit permits
+     */
+    private static final class PendingBatch {
+        private final List<String> texts;
+        private final int tokens;
+        private final CompletableFuture<List<EmbeddingResponse>> result = new CompletableFuture<>();
+        private int attempt;
+        private boolean requestPermit;
+
+        PendingBatch(List<String> texts) {
+            this.texts = texts;
+            this.tokens = Math.max(1, estimateTokens(texts));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.sapling.framework.ai.alibaba.core.embedding;
 import com.sapling.framework.ai.alibaba.model.EmbeddingResponse;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for embedding model operations.
@@ -21,10 +22,32 @@ public interface EmbeddingModel {
     EmbeddingResponse embed(String text);
 
     /**
-     * Embed multiple texts in batch
+     * Embed multiple texts in batch, null and blank texts are skipped
      * 
      * @param texts texts to embed
-     * @return list of embedding responses
+     * @return one embedding response per non-blank text, in input order
      */
     List<EmbeddingResponse> embedBatch(List<String> texts);
+
+    /**
+     * Embed multiple texts asynchronously, batches are sent concurrently; null and blank texts are skipped
+     * 
+     * @param texts texts to embed
+     * @return future of one embedding response per non-blank text, in input order
+     */
+    CompletableFuture<List<EmbeddingResponse>> embedBatchAsync(List<String> texts);
+
+    /**
+     * Name of the embedding model
+     * 
+     * @return model name
+     */
+    String getModel();
+
+    /**
+     * Dimension of produced embedding vectors
+     * 
+     * @return vector dimensions
+     */
+    int getDimensions();
 }
@@ -1,28 +1,63 @@
 package com.sapling.framework.ai.alibaba.core.tool;
 
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
 import com.sapling.framework.ai.alibaba.model.ChatResponse;
 import com.sapling.framework.ai.alibaba.model.ToolCall;
 import com.sapling.framework.ai.alibaba.model.ToolResult;
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Handler for processing tool calls from AI responses.
- * 
+ *
+ * <p>Tool calls of one response are dispatched concurrently on a dedicated bounded executor,
+ * backed by virtual threads when the runtime provides them; calls beyond {@code max-queued-calls}
+ * waiting for a worker fail without being run. Every attempt is limited by
+ * {@code spring.ai.alibaba.tool.timeout} from the moment it starts running; timeouts and
+ * transient tool errors (I/O, timeouts, rate limiting) are retried up to {@code max-retries}
+ * times with exponential backoff and jitter. Timeouts and retry delays are scheduled on a single
+ * timer thread, and the timeout of an attempt is cancelled as soon as the attempt completes.
+ * Results keep the call order.
+ *
  * @author Sapling Team
  * @since 1.0.0
  */
 @Slf4j
-@Component
 public class ToolCallHandler {
 
     private final ToolExecutor toolExecutor;
+    private final AlibabaAiProperties.ToolProperties toolProperties;
+    private final ThreadPoolExecutor executorService;
+    private final ScheduledThreadPoolExecutor timer;
 
     public ToolCallHandler(ToolExecutor toolExecutor) {
+        this(toolExecutor, new AlibabaAiProperties.ToolProperties());
+    }
+
+    public ToolCallHandler(ToolExecutor toolExecutor, AlibabaAiProperties.ToolProperties toolProperties) {
         this.toolExecutor = toolExecutor;
+        this.toolProperties = toolProperties;
+        int maxConcurrency = toolProperties.getMaxConcurrency();
+        this.executorService = new ThreadPoolExecutor(
+            maxConcurrency, maxConcurrency, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(toolProperties.getMaxQueuedCalls()), createThreadFactory());
+        this.executorService.allowCoreThreadTimeOut(true);
+        this.timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("ai-tool-timer"));
+        this.timer.setRemoveOnCancelPolicy(true);
     }
 
     /**
@@ -32,37 +67,32 @@ public class ToolCallHandler {
         if (response == null || !response.hasToolCalls()) {
             return new ArrayList<>();
         }
-        
-        List<ToolResult> results = new ArrayList<>();
-        
+
+        List<CompletableFuture<ToolResult>> futures = new ArrayList<>();
         for (ToolCall toolCall : response.getToolCalls()) {
             log.info("Processing tool call: {} ({})", toolCall.getName(), toolCall.getId());
-            
+            futures.add(executeWithRetry(toolCall, 0));
+        }
+
+        List<ToolResult> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            ToolCall toolCall = response.getToolCalls().get(i);
+            ToolResult result;
             try {
-                ToolResult result = toolExecutor.execute(
-                    toolCall.getId(),
-                    toolCall.getName(),
-                    toolCall.getParameters()
-                );
-                results.add(result);
-                
-                if (result.isSuccess()) {
-                    log.info("Tool call {} completed successfully", toolCall.getName());
-                } else {
-                    log.warn("Tool call {} failed: {}", toolCall.getName(), result.getError());
-                }
-                
+                result = futures.get(i).join();
             } catch (Exception e) {
                 log.error("Error handling tool call {}: {}", toolCall.getName(), e.getMessage(), e);
-                results.add(ToolResult.failure(
-                    toolCall.getId(),
-                    toolCall.getName(),
-                    "Error: " + e.getMessage(),
-                    0L
-                ));
+                result = ToolResult.failure(toolCall.getId(), toolCall.getName(), "Error: " + e.getMessage(), 0L);
+            }
+
+            if (result.isSuccess()) {
+                log.info("Tool call {} completed successfully", toolCall.getName());
+            } else {
+                log.warn("Tool call {} failed: {}", toolCall.getName(), result.getError());
             }
+            results.add(result);
         }
-        
+
         return results;
     }
 
@@ -72,4 +102,104 @@ public class ToolCallHandler {
     public boolean requiresToolCalls(ChatResponse response) {
         return response != null && response.hasToolCalls();
     }
+
+    /**
+     * Get the tool execution settings
+     */
+    public AlibabaAiProperties.ToolProperties getToolProperties() {
+        return toolProperties;
+    }
+
+    /**
+     * Stop the tool executor and its timer, interrupting running tool calls
+     */
+    public void shutdown() {
+        executorService.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Run one attempt and chain a delayed retry while the failure is transient
+     */
+    private CompletableFuture<ToolResult> executeWithRetry(ToolCall toolCall, int attempt) {
+        return executeAttempt(toolCall).thenCompose(result -> {
+            if (result.isSuccess() || !result.isRetryable() || attempt >= toolProperties.getMaxRetries()) {
+                return CompletableFuture.completedFuture(result);
+            }
+            long delay = retryDelay(attempt);
+            log.warn("Tool call {} failed (attempt {}), retrying in {}ms: {}",
+                toolCall.getName(), attempt + 1, delay, result.getError());
+            CompletableFuture<Void> backoff = new CompletableFuture<>();
+            try {
+                timer.schedule(() -> backoff.complete(null), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.completedFuture(result);
+            }
+            return backoff.thenCompose(ignored -> executeWithRetry(toolCall, attempt + 1));
+        });
+    }
+
+    /**
+     * Submit a single attempt. The timeout starts when a worker picks the attempt up, so time spent
+     * queued behind other tool calls does not count; on timeout the attempt completes with a
+     * retryable failure and its worker is interrupted. The timeout is cancelled once the attempt
+     * completes, so finished attempts leave nothing on the timer.
+     */
+    private CompletableFuture<ToolResult> executeAttempt(ToolCall toolCall) {
+        CompletableFuture<ToolResult> result = new CompletableFuture<>();
+        AtomicReference<Future<?>> taskRef = new AtomicReference<>();
+        int timeout = toolProperties.getTimeout();
+        Future<?> task;
+        try {
+            task = executorService.submit(() -> {
+                long startTime = System.currentTimeMillis();
+                ScheduledFuture<?> timeoutTask = timer.schedule(() -> {
+                    boolean timedOut = result.complete(ToolResult.retryableFailure(toolCall.getId(),
+                        toolCall.getName(), "Tool execution timed out after " + timeout + "s",
+                        System.currentTimeMillis() - startTime));
+                    Future<?> running = taskRef.get();
+                    if (timedOut && running != null) {
+                        running.cancel(true);
+                    }
+                }, timeout, TimeUnit.SECONDS);
+                try {
+                    result.complete(toolExecutor.execute(toolCall.getId(), toolCall.getName(), toolCall.getParameters()));
+                } finally {
+                    timeoutTask.cancel(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.complete(ToolResult.failure(toolCall.getId(), toolCall.getName(),
+                "Tool executor unavailable: " + e.getMessage(), 0L));
+            return result;
+        }
+        taskRef.set(task);
+        // The attempt may have timed out before the task reference was published
+        if (result.isDone()) {
+            task.cancel(true);
+        }
+        return result;
+    }
+
+    /**
+     * Exponential backoff with up to one base interval of random jitter
+     */
+    private long retryDelay(int attempt) {
+        long base = toolProperties.getRetryBackoff();
+        return (base << Math.min(attempt, 10)) + ThreadLocalRandom.current().nextLong(base + 1);
+    }
+
+    /**
+     * Virtual thread factory on runtimes that support it, named platform threads otherwise
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "ai-tool-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new NamedThreadFactory("ai-tool");
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package com.sapling.framework.ai.alibaba.core.tool;
+
+import com.google.gson.Gson;
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.core.chat.ChatConversation;
+import com.sapling.framework.ai.alibaba.core.chat.ChatModel;
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.Message;
+import com.sapling.framework.ai.alibaba.model.ToolResult;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded multi-round function calling conversation.
+ *
+ * <p>The model is called with the offered tools until it answers without tool calls. A request
+ * may resume a conversation by carrying the results of the tool calls in its history. Each round
+ * appends the assistant tool-call message and the tool results to one {@link ChatConversation}
+ * that keeps the tool definitions, so chained tool use works; the DashScope model converts only
+ * the appended messages, earlier rounds and the tools are converted once per loop run. The loop
+ * stops with {@code TOOL_LOOP_LIMIT_EXCEEDED} once {@code max-rounds}, {@code max-total-tokens}
+ * or {@code max-loop-duration} would be exceeded by another round.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Slf4j
+public class ToolCallingLoop {
+
+    private static final Gson GSON = new Gson();
+
+    private final ChatModel chatModel;
+    private final ToolCallHandler toolCallHandler;
+    private final AlibabaAiProperties.ToolProperties toolProperties;
+
+    public ToolCallingLoop(ChatModel chatModel, ToolCallHandler toolCallHandler) {
+        this.chatModel = chatModel;
+        this.toolCallHandler = toolCallHandler;
+        this.toolProperties = toolCallHandler.getToolProperties();
+    }
+
+    /**
+     * Run the conversation to the final answer
+     */
+    public ChatResponse call(ChatRequest request) {
+        ChatConversation conversation = startConversation(request);
+        LoopBudget budget = new LoopBudget();
+
+        ChatResponse response = conversation.call();
+        budget.record(response);
+        while (toolCallHandler.requiresToolCalls(response)) {
+            budget.checkNextRound();
+            appendToolRound(conversation, response);
+            response = conversation.call();
+            budget.record(response);
+        }
+        return response;
+    }
+
+    /**
+     * Run the conversation as a stream of content deltas; text generated in tool rounds is
+     * emitted as it arrives, tools run between rounds
+     */
+    public Flux<String> stream(ChatRequest request) {
+        return Flux.defer(() -> streamRound(startConversation(request), new LoopBudget()));
+    }
+
+    private Flux<String> streamRound(ChatConversation conversation, LoopBudget budget) {
+        StringBuilder content = new StringBuilder();
+        AtomicReference<ChatResponse> finalChunk = new AtomicReference<>();
+
+        return conversation.stream()
+            .doOnNext(chunk -> {
+                if (chunk.getContent() != null) {
+                    content.append(chunk.getContent());
+                }
+                if (chunk.getFinishReason() != null || chunk.hasToolCalls()) {
+                    finalChunk.set(chunk);
+                }
+            })
+            .map(ChatResponse::getContent)
+            .filter(StringUtils::isNotEmpty)
+            .concatWith(Flux.defer(() -> {
+                ChatResponse last = finalChunk.get();
+                if (last == null) {
+                    return Flux.empty();
+                }
+                budget.record(last);
+                if (!last.hasToolCalls()) {
+                    return Flux.empty();
+                }
+                budget.checkNextRound();
+                ChatResponse toolRound = ChatResponse.builder()
+                    .content(content.toString())
+                    .toolCalls(last.getToolCalls())
+                    .build();
+                // Tools block, so they run off the stream's emitting thread
+                return Mono.fromRunnable(() -> appendToolRound(conversation, toolRound))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .thenMany(Flux.defer(() -> streamRound(conversation, budget)));
+            }));
+    }
+
+    /**
+     * Open a conversation on a copy of the request whose history holds all messages of the loop.
+     * Tool results carried by the request answer the tool calls at the end of its history and are
+     * appended right after it.
+     */
+    private ChatConversation startConversation(ChatRequest request) {
+        List<Message> messages = new ArrayList<>();
+        if (request.getHistory() != null) {
+            messages.addAll(request.getHistory());
+        }
+        if (request.getToolResults() != null) {
+            for (ToolResult result : request.getToolResults()) {
+                messages.add(Message.tool(result.getToolCallId(), result.getToolName(), toContent(result)));
+            }
+        }
+        if (request.getMessage() != null) {
+            messages.add(Message.user(request.getMessage()));
+        }
+        return chatModel.openConversation(ChatRequest.builder()
+            .history(messages)
+            .tools(request.getTools())
+            .temperature(request.getTemperature())
+            .maxTokens(request.getMaxTokens())
+            .topP(request.getTopP())
+            .systemPrompt(request.getSystemPrompt())
+            .parameters(request.getParameters())
+            .build());
+    }
+
+    /**
+     * Execute the requested tools and append the round to the conversation
+     */
+    private void appendToolRound(ChatConversation conversation, ChatResponse response) {
+        conversation.append(Message.assistant(StringUtils.defaultString(response.getContent()), response.getToolCalls()));
+        for (ToolResult result : toolCallHandler.handleToolCalls(response)) {
+            conversation.append(Message.tool(result.getToolCallId(), result.getToolName(), toContent(result)));
+        }
+    }
+
+    private String toContent(ToolResult result) {
+        if (!result.isSuccess()) {
+            return "Error: " + result.getError();
+        }
+        Object value = result.getResult();
+        if (value == null) {
+            return "";
+        }
+        return value instanceof String ? (String) value : GSON.toJson(value);
+    }
+
+    /**
+     * Round, token and time accounting of one conversation
+     */
+    private class LoopBudget {
+
+        private final long startTime = System.currentTimeMillis();
+        private int rounds;
+        private long totalTokens;
+
+        void record(ChatResponse response) {
+            if (response.getUsage() != null && response.getUsage().getTotalTokens() != null) {
+                totalTokens += response.getUsage().getTotalTokens();
+            }
+        }
+
+        void checkNextRound() {
+            if (rounds >= toolProperties.getMaxRounds()) {
+                throw limitExceeded("Tool calling stopped after " + rounds + " rounds");
+            }
+            int maxTotalTokens = toolProperties.getMaxTotalTokens();
+            if (maxTotalTokens > 0 && totalTokens >= maxTotalTokens) {
+                throw limitExceeded("Tool calling stopped after using " + totalTokens + " tokens");
+            }
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (elapsed >= toolProperties.getMaxLoopDuration() * 1000L) {
+                throw limitExceeded("Tool calling stopped after " + elapsed + "ms");
+            }
+            rounds++;
+        }
+
+        private AiException limitExceeded(String message) {
+            log.warn("{} (rounds={}, tokens={})", message, rounds, totalTokens);
+            return new AiException("TOOL_LOOP_LIMIT_EXCEEDED", message);
+        }
+    }
+}
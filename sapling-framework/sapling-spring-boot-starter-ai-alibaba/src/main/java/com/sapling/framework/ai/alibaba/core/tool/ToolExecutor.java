@@ -1,5 +1,6 @@
 package com.sapling.framework.ai.alibaba.core.tool;
 
+import com.sapling.framework.ai.alibaba.exception.RateLimitException;
 import com.sapling.framework.ai.alibaba.exception.ToolExecutionException;
 import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
 import com.sapling.framework.ai.alibaba.model.ToolDefinition;
@@ -8,9 +9,12 @@ import com.sapling.framework.ai.alibaba.model.ToolResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Executor for AI tools.
@@ -72,12 +76,31 @@ public class ToolExecutor {
         } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
             metricsCollector.recordToolCall(toolName, executionTime, false);
-            log.error("Unexpected error executing tool {}: {}", toolName, e.getMessage(), e);
-            return ToolResult.failure(toolCallId, toolName, 
-                "Unexpected error: " + e.getMessage(), executionTime);
+            Throwable cause = e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+            log.error("Unexpected error executing tool {}: {}", toolName, cause.getMessage(), cause);
+            String error = "Unexpected error: " + cause.getMessage();
+            return isTransient(cause)
+                ? ToolResult.retryableFailure(toolCallId, toolName, error, executionTime)
+                : ToolResult.failure(toolCallId, toolName, error, executionTime);
         }
     }
 
+    /**
+     * Whether a tool failure may succeed on retry: I/O errors, timeouts and rate limiting
+     */
+    private boolean isTransient(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof IOException || current instanceof TimeoutException
+                || current instanceof RateLimitException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
     /**
      * Validate parameters
      */
@@ -45,6 +45,36 @@ public class AiMetrics {
      */
     private long avgDuration;
 
+    /**
+     * Semantic cache hits
+     */
+    private long semanticCacheHits;
+
+    /**
+     * Semantic cache misses
+     */
+    private long semanticCacheMisses;
+
+    /**
+     * Semantic cache hit ratio (0.0 - 1.0)
+     */
+    private double semanticCacheHitRate;
+
+    /**
+     * Model latency saved by semantic cache hits in milliseconds
+     */
+    private long semanticCacheSavedMillis;
+
+    /**
+     * Semantic cache hits re-checked against a fresh answer
+     */
+    private long semanticCacheSampledHits;
+
+    /**
+     * Sampled hits whose fresh answer diverged from the cached one
+     */
+    private long semanticCacheFalseHits;
+
     /**
      * Tool-specific metrics
      */
@@ -25,6 +25,12 @@ public class MetricsCollector {
     private final AtomicLong totalTokens = new AtomicLong(0);
     private final LongAdder totalDuration = new LongAdder();
     
+    private final LongAdder semanticCacheHits = new LongAdder();
+    private final LongAdder semanticCacheMisses = new LongAdder();
+    private final LongAdder semanticCacheSavedMillis = new LongAdder();
+    private final LongAdder semanticCacheSampledHits = new LongAdder();
+    private final LongAdder semanticCacheFalseHits = new LongAdder();
+    
     private final Map<String, AtomicLong> toolCallCounts = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> toolSuccessCounts = new ConcurrentHashMap<>();
     private final Map<String, LongAdder> toolDurations = new ConcurrentHashMap<>();
@@ -71,6 +77,28 @@ public class MetricsCollector {
         }
     }
 
+    /**
+     * Record a semantic cache lookup
+     */
+    public void recordSemanticCacheLookup(boolean hit, long savedMillis) {
+        if (hit) {
+            semanticCacheHits.increment();
+            semanticCacheSavedMillis.add(savedMillis);
+        } else {
+            semanticCacheMisses.increment();
+        }
+    }
+
+    /**
+     * Record the outcome of a sampled semantic cache hit check
+     */
+    public void recordSemanticCacheSample(boolean falseHit) {
+        semanticCacheSampledHits.increment();
+        if (falseHit) {
+            semanticCacheFalseHits.increment();
+        }
+    }
+
     /**
      * Get current metrics
      */
@@ -78,6 +106,9 @@ public class MetricsCollector {
         long calls = totalCalls.get();
         double successRate = calls > 0 ? (double) successCalls.get() / calls : 0.0;
         long avgDuration = calls > 0 ? totalDuration.sum() / calls : 0;
+        long semanticHits = semanticCacheHits.sum();
+        long semanticLookups = semanticHits + semanticCacheMisses.sum();
+        double semanticHitRate = semanticLookups > 0 ? (double) semanticHits / semanticLookups : 0.0;
         
         return AiMetrics.builder()
             .totalCalls(calls)
@@ -86,6 +117,12 @@ public class MetricsCollector {
             .successRate(successRate)
             .totalTokens(totalTokens.get())
             .avgDuration(avgDuration)
+            .semanticCacheHits(semanticHits)
+            .semanticCacheMisses(semanticCacheMisses.sum())
+            .semanticCacheHitRate(semanticHitRate)
+            .semanticCacheSavedMillis(semanticCacheSavedMillis.sum())
+            .semanticCacheSampledHits(semanticCacheSampledHits.sum())
+            .semanticCacheFalseHits(semanticCacheFalseHits.sum())
             .toolMetrics(buildToolMetrics())
             .build();
     }
@@ -124,6 +161,11 @@ public class MetricsCollector {
         failedCalls.set(0);
         totalTokens.set(0);
         totalDuration.reset();
+        semanticCacheHits.reset();
+        semanticCacheMisses.reset();
+        semanticCacheSavedMillis.reset();
+        semanticCacheSampledHits.reset();
+        semanticCacheFalseHits.reset();
         toolCallCounts.clear();
         toolSuccessCounts.clear();
         toolDurations.clear();
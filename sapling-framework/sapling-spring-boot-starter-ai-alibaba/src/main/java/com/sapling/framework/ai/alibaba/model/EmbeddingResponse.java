@@ -1,5 +1,6 @@
 package com.sapling.framework.ai.alibaba.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +9,9 @@ import java.util.List;
 /**
  * Response model for embedding operations.
  * 
+ * <p>Serialized with the vector as an {@code embedding} number array, as before the switch to
+ * {@link EmbeddingVector}.
+ * 
  * @author Sapling Team
  * @since 1.0.0
  */
@@ -18,7 +22,8 @@ public class EmbeddingResponse {
     /**
      * Embedding vector
      */
-    private List<Double> embedding;
+    @JsonIgnore
+    private EmbeddingVector vector;
 
     /**
      * Original text
@@ -34,4 +39,35 @@ public class EmbeddingResponse {
      * Token usage
      */
     private Usage usage;
+
+    /**
+     * Embedding vector as List&lt;Double&gt; view, kept for compatibility
+     */
+    public List<Double> getEmbedding() {
+        return vector != null ? vector.asDoubleList() : null;
+    }
+
+    /**
+     * Set the vector from boxed components
+     *
+     * @deprecated use {@link #setVector(EmbeddingVector)}
+     */
+    @Deprecated
+    public void setEmbedding(List<Double> embedding) {
+        this.vector = embedding != null ? EmbeddingVector.fromDoubles(embedding) : null;
+    }
+
+    public static class EmbeddingResponseBuilder {
+
+        /**
+         * Set the vector from boxed components
+         *
+         * @deprecated use {@link #vector(EmbeddingVector)}
+         */
+        @Deprecated
+        public EmbeddingResponseBuilder embedding(List<Double> embedding) {
+            this.vector = embedding != null ? EmbeddingVector.fromDoubles(embedding) : null;
+            return this;
+        }
+    }
 }
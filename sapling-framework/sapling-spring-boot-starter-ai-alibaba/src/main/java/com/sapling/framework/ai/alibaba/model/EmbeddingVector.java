@@ -0,0 +1,188 @@
+package com.sapling.framework.ai.alibaba.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable float32 embedding vector.
+ * 
+ * <p>Stores components in a primitive {@code float[]} (4 bytes per dimension instead of a boxed
+ * {@code Double} per dimension). {@link #asDoubleList()} provides a read-only {@code List<Double>}
+ * view for callers of the previous list based API.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public final class EmbeddingVector {
+
+    private final float[] values;
+
+    private EmbeddingVector(float[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Create a vector from a copy of the given components
+     */
+    public static EmbeddingVector of(float[] values) {
+        return new EmbeddingVector(values.clone());
+    }
+
+    /**
+     * Create a vector from boxed components, converting each element once without intermediate copies
+     */
+    public static EmbeddingVector fromDoubles(List<Double> values) {
+        float[] array = new float[values.size()];
+        int i = 0;
+        for (Double value : values) {
+            array[i++] = value.floatValue();
+        }
+        return new EmbeddingVector(array);
+    }
+
+    /**
+     * Wrap an array owned by the caller, which must not modify it afterwards
+     */
+    static EmbeddingVector wrap(float[] values) {
+        return new EmbeddingVector(values);
+    }
+
+    /**
+     * Number of dimensions
+     */
+    public int dimensions() {
+        return values.length;
+    }
+
+    /**
+     * Component at the given index
+     */
+    public float get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Copy of the components
+     */
+    public float[] toFloatArray() {
+        return values.clone();
+    }
+
+    /**
+     * Read-only List&lt;Double&gt; view, elements are boxed on access
+     */
+    public List<Double> asDoubleList() {
+        return new DoubleListView(values);
+    }
+
+    /**
+     * Dot product with another vector of the same dimensions
+     */
+    public float dot(EmbeddingVector other) {
+        checkDimensions(other);
+        float[] a = values;
+        float[] b = other.values;
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Euclidean norm
+     */
+    public float norm() {
+        float sum = 0f;
+        for (float value : values) {
+            sum += value * value;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * Cosine similarity with another vector of the same dimensions
+     */
+    public float cosineSimilarity(EmbeddingVector other) {
+        checkDimensions(other);
+        float[] a = values;
+        float[] b = other.values;
+        float dot = 0f;
+        float normA = 0f;
+        float normB = 0f;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0f || normB == 0f) {
+            return 0f;
+        }
+        return (float) (dot / Math.sqrt((double) normA * normB));
+    }
+
+    /**
+     * Symmetric int8 quantization, one byte per dimension
+     */
+    public QuantizedEmbeddingVector quantize() {
+        float maxAbs = 0f;
+        for (float value : values) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs == 0f ? 1f : maxAbs / 127f;
+        byte[] quantized = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            quantized[i] = (byte) Math.round(values[i] / scale);
+        }
+        return new QuantizedEmbeddingVector(quantized, scale);
+    }
+
+    private void checkDimensions(EmbeddingVector other) {
+        if (other.values.length != values.length) {
+            throw new IllegalArgumentException(
+                "Dimension mismatch: " + values.length + " vs " + other.values.length);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof EmbeddingVector && Arrays.equals(values, ((EmbeddingVector) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddingVector(dimensions=" + values.length + ")";
+    }
+
+    /**
+     * Boxing list view over the float components
+     */
+    private static final class DoubleListView extends AbstractList<Double> implements RandomAccess {
+
+        private final float[] values;
+
+        private DoubleListView(float[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int index) {
+            return (double) values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
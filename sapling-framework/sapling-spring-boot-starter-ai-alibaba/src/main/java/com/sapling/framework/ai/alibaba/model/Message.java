@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Message model for conversation history.
  * 
@@ -37,6 +39,11 @@ public class Message {
      */
     private String toolName;
 
+    /**
+     * Tool calls requested by the assistant (for assistant messages)
+     */
+    private List<ToolCall> toolCalls;
+
     /**
      * Create a user message
      */
@@ -57,6 +64,17 @@ public class Message {
             .build();
     }
 
+    /**
+     * Create an assistant message that requests tool calls
+     */
+    public static Message assistant(String content, List<ToolCall> toolCalls) {
+        return Message.builder()
+            .role("assistant")
+            .content(content)
+            .toolCalls(toolCalls)
+            .build();
+    }
+
     /**
      * Create a system message
      */
@@ -47,6 +47,11 @@ public class ToolResult {
      */
     private Long executionTime;
 
+    /**
+     * Whether a failed execution may succeed when retried
+     */
+    private boolean retryable;
+
     /**
      * Create a successful tool result
      */
@@ -72,4 +77,18 @@ public class ToolResult {
             .executionTime(executionTime)
             .build();
     }
+
+    /**
+     * Create a failed tool result caused by a transient error
+     */
+    public static ToolResult retryableFailure(String toolCallId, String toolName, String error, Long executionTime) {
+        return ToolResult.builder()
+            .toolCallId(toolCallId)
+            .toolName(toolName)
+            .success(false)
+            .error(error)
+            .executionTime(executionTime)
+            .retryable(true)
+            .build();
+    }
 }
@@ -1,20 +1,30 @@
 package com.sapling.framework.ai.alibaba.service;
 
+import com.sapling.framework.ai.alibaba.cache.AiCacheKey;
 import com.sapling.framework.ai.alibaba.cache.AiCacheManager;
+import com.sapling.framework.ai.alibaba.cache.SemanticCache;
+import com.sapling.framework.ai.alibaba.cache.SemanticCacheHit;
 import com.sapling.framework.ai.alibaba.core.chat.ChatModel;
 import com.sapling.framework.ai.alibaba.core.embedding.EmbeddingModel;
 import com.sapling.framework.ai.alibaba.core.image.ImageModel;
 import com.sapling.framework.ai.alibaba.core.tool.ToolCallHandler;
+import com.sapling.framework.ai.alibaba.core.tool.ToolCallingLoop;
 import com.sapling.framework.ai.alibaba.core.tool.ToolExecutor;
 import com.sapling.framework.ai.alibaba.core.tool.ToolRegistry;
+import com.sapling.framework.ai.alibaba.exception.AiException;
 import com.sapling.framework.ai.alibaba.model.*;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -32,9 +42,18 @@ public class AlibabaAiService {
     private final ImageModel imageModel;
     private final ToolRegistry toolRegistry;
     private final ToolExecutor toolExecutor;
-    private final ToolCallHandler toolCallHandler;
+    private final ToolCallingLoop toolCallingLoop;
     private final AiCacheManager aiCacheManager;
+    private final SemanticCache semanticCache;
 
+    /**
+     * Tool call handler created by this service, released by {@link #shutdown()}
+     */
+    private final ToolCallHandler ownedToolCallHandler;
+
+    /**
+     * Create a service with its own tool call handler; call {@link #shutdown()} to release it
+     */
     public AlibabaAiService(
             ChatModel chatModel,
             EmbeddingModel embeddingModel,
@@ -42,26 +61,90 @@ public class AlibabaAiService {
             ToolRegistry toolRegistry,
             ToolExecutor toolExecutor,
             AiCacheManager aiCacheManager) {
+        this(chatModel, embeddingModel, imageModel, toolRegistry, toolExecutor,
+            new ToolCallHandler(toolExecutor), true, aiCacheManager, null);
+    }
+
+    public AlibabaAiService(
+            ChatModel chatModel,
+            EmbeddingModel embeddingModel,
+            ImageModel imageModel,
+            ToolRegistry toolRegistry,
+            ToolExecutor toolExecutor,
+            ToolCallHandler toolCallHandler,
+            AiCacheManager aiCacheManager,
+            SemanticCache semanticCache) {
+        this(chatModel, embeddingModel, imageModel, toolRegistry, toolExecutor,
+            toolCallHandler, false, aiCacheManager, semanticCache);
+    }
+
+    private AlibabaAiService(
+            ChatModel chatModel,
+            EmbeddingModel embeddingModel,
+            ImageModel imageModel,
+            ToolRegistry toolRegistry,
+            ToolExecutor toolExecutor,
+            ToolCallHandler toolCallHandler,
+            boolean ownsToolCallHandler,
+            AiCacheManager aiCacheManager,
+            SemanticCache semanticCache) {
+        this.ownedToolCallHandler = ownsToolCallHandler ? toolCallHandler : null;
         this.chatModel = chatModel;
         this.embeddingModel = embeddingModel;
         this.imageModel = imageModel;
         this.toolRegistry = toolRegistry;
         this.toolExecutor = toolExecutor;
-        this.toolCallHandler = new ToolCallHandler(toolExecutor);
+        this.toolCallingLoop = new ToolCallingLoop(chatModel, toolCallHandler);
         this.aiCacheManager = aiCacheManager;
+        this.semanticCache = semanticCache;
     }
 
     /**
-     * Simple chat - single message
+     * Simple chat - single message, served from the semantic cache when enabled
      */
     public String chat(String message) {
         ChatRequest request = ChatRequest.builder()
             .message(message)
             .build();
+        if (semanticCache != null) {
+            return chatWithSemanticCache(request);
+        }
+        ChatResponse response = chatModel.call(request);
+        return response.getContent();
+    }
+
+    /**
+     * Answer from the most similar cached prompt of the same model, or call the model and cache the answer
+     */
+    private String chatWithSemanticCache(ChatRequest request) {
+        String namespace = chatModel.getModel();
+        EmbeddingVector promptVector = embedVector(request.getMessage());
+        
+        SemanticCacheHit hit = semanticCache.lookup(namespace, promptVector);
+        if (hit != null) {
+            if (semanticCache.shouldSample()) {
+                verifySampledHit(request, hit);
+            }
+            return hit.getAnswer();
+        }
+        
+        long startTime = System.currentTimeMillis();
         ChatResponse response = chatModel.call(request);
+        semanticCache.put(namespace, promptVector, request.getMessage(), response.getContent(),
+            System.currentTimeMillis() - startTime);
         return response.getContent();
     }
 
+    /**
+     * Compare a sampled hit with a fresh answer in the background
+     */
+    private void verifySampledHit(ChatRequest request, SemanticCacheHit hit) {
+        semanticCache.sampleAsync(hit, request.getMessage(), () -> {
+            String freshAnswer = chatModel.call(request).getContent();
+            return embedVector(freshAnswer).cosineSimilarity(embedVector(hit.getAnswer()));
+        });
+    }
+
     /**
      * Chat with history - multi-turn conversation
      */
@@ -75,7 +158,7 @@ public class AlibabaAiService {
     }
 
     /**
-     * Streaming chat
+     * Streaming chat - emits content deltas as they are generated
      */
     public Flux<String> chatStream(String message) {
         ChatRequest request = ChatRequest.builder()
@@ -83,68 +166,111 @@ public class AlibabaAiService {
             .build();
         return chatModel.stream(request)
             .map(ChatResponse::getContent)
-            .filter(Objects::nonNull);
+            .filter(StringUtils::isNotEmpty);
     }
 
 
     /**
-     * Chat with tools - function calling
+     * Chat with tools - function calling, looping until the model answers without tool calls
      */
     public String chatWithTools(String message, List<String> enabledTools) {
-        // Get tool definitions
-        List<ToolDefinition> tools = enabledTools.stream()
-            .map(toolRegistry::getTool)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
-        
+        List<ToolDefinition> tools = resolveTools(enabledTools);
         if (tools.isEmpty()) {
             log.warn("No valid tools found, falling back to regular chat");
             return chat(message);
         }
         
-        // Build request with tools
         ChatRequest request = ChatRequest.builder()
             .message(message)
             .tools(tools)
             .build();
-        
-        // Call chat model
-        ChatResponse response = chatModel.call(request);
-        
-        // Handle tool calls if present
-        if (toolCallHandler.requiresToolCalls(response)) {
-            return handleToolCallsAndRespond(message, response);
+        return toolCallingLoop.call(request).getContent();
+    }
+
+    /**
+     * Chat with tools - function calling with a prepared request carrying history and tools; tool
+     * results on the request answer the tool calls at the end of its history
+     */
+    public ChatResponse chatWithTools(ChatRequest request) {
+        return toolCallingLoop.call(request);
+    }
+
+    /**
+     * Streaming chat with tools - emits content deltas of every round, tools run between rounds
+     */
+    public Flux<String> chatWithToolsStream(String message, List<String> enabledTools) {
+        List<ToolDefinition> tools = resolveTools(enabledTools);
+        if (tools.isEmpty()) {
+            log.warn("No valid tools found, falling back to regular chat stream");
+            return chatStream(message);
         }
         
-        return response.getContent();
+        ChatRequest request = ChatRequest.builder()
+            .message(message)
+            .tools(tools)
+            .build();
+        return toolCallingLoop.stream(request);
     }
 
     /**
-     * Handle tool calls and get final response
+     * Resolve tool definitions by name, ignoring unknown tools
      */
-    private String handleToolCallsAndRespond(String originalMessage, ChatResponse response) {
-        // Execute tool calls
-        List<ToolResult> toolResults = toolCallHandler.handleToolCalls(response);
-        
-        // Build follow-up request with tool results
-        ChatRequest followUpRequest = ChatRequest.builder()
-            .message(originalMessage)
-            .toolResults(toolResults)
+    private List<ToolDefinition> resolveTools(List<String> enabledTools) {
+        return enabledTools.stream()
+            .map(toolRegistry::getTool)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Cached chat - deterministic requests (temperature 0, no tools) are served from cache,
+     * other requests are passed through to the model
+     */
+    public ChatResponse chatCached(ChatRequest request) {
+        if (!isDeterministic(request)) {
+            return chatModel.call(request);
+        }
+        AiCacheKey cacheKey = aiCacheManager.chatKey(request, chatModel.getModel());
+        return aiCacheManager.get(cacheKey, () -> chatModel.call(request));
+    }
+
+    /**
+     * Cached chat - single message answered deterministically (temperature 0)
+     */
+    public String chatCached(String message) {
+        ChatRequest request = ChatRequest.builder()
+            .message(message)
+            .temperature(0.0)
             .build();
-        
-        // Get final response
-        ChatResponse finalResponse = chatModel.call(followUpRequest);
-        return finalResponse.getContent();
+        return chatCached(request).getContent();
     }
 
     /**
-     * Text embedding
+     * Only requests with temperature 0 and without tool interaction produce repeatable answers
+     */
+    private boolean isDeterministic(ChatRequest request) {
+        return request.getTemperature() != null
+            && request.getTemperature() == 0.0
+            && (request.getTools() == null || request.getTools().isEmpty())
+            && (request.getToolResults() == null || request.getToolResults().isEmpty());
+    }
+
+    /**
+     * Text embedding as List&lt;Double&gt; view over the primitive vector
      */
     public List<Double> embed(String text) {
-        String cacheKey = "embed:" + text.hashCode();
+        return embedVector(text).asDoubleList();
+    }
+
+    /**
+     * Text embedding as primitive float vector
+     */
+    public EmbeddingVector embedVector(String text) {
+        AiCacheKey cacheKey = aiCacheManager.embeddingKey(
+            text, embeddingModel.getModel(), embeddingModel.getDimensions());
         return aiCacheManager.get(cacheKey, () -> {
             EmbeddingResponse response = embeddingModel.embed(text);
-            return response.getEmbedding();
+            return response.getVector();
         });
     }
 
@@ -158,6 +284,62 @@ public class AlibabaAiService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Asynchronous batch text embedding.
+     * 
+     * <p>Cached vectors are served directly and duplicate texts are embedded once, so only
+     * distinct cache misses reach the API. Results are returned in input order.
+     */
+    public CompletableFuture<List<EmbeddingVector>> embedBatchAsync(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            throw new IllegalArgumentException("Texts list cannot be null or empty");
+        }
+        
+        String model = embeddingModel.getModel();
+        int dimensions = embeddingModel.getDimensions();
+        List<EmbeddingVector> results = new ArrayList<>(Collections.nCopies(texts.size(), null));
+        Map<AiCacheKey, List<Integer>> misses = new LinkedHashMap<>();
+        
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.trim().isEmpty()) {
+                throw new IllegalArgumentException("Text at index " + i + " cannot be null or empty");
+            }
+            AiCacheKey cacheKey = aiCacheManager.embeddingKey(text, model, dimensions);
+            EmbeddingVector cached = aiCacheManager.getIfPresent(cacheKey);
+            if (cached != null) {
+                results.set(i, cached);
+            } else {
+                misses.computeIfAbsent(cacheKey, k -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+        
+        List<AiCacheKey> missKeys = new ArrayList<>(misses.keySet());
+        List<String> missTexts = missKeys.stream()
+            .map(cacheKey -> texts.get(misses.get(cacheKey).get(0)))
+            .collect(Collectors.toList());
+        log.debug("Batch embedding {} texts, {} distinct cache misses", texts.size(), missTexts.size());
+        
+        return embeddingModel.embedBatchAsync(missTexts).thenApply(responses -> {
+            if (responses.size() != missKeys.size()) {
+                throw new AiException("Batch embedding returned " + responses.size() + " responses for "
+                    + missKeys.size() + " texts");
+            }
+            for (int i = 0; i < missKeys.size(); i++) {
+                EmbeddingVector vector = responses.get(i).getVector();
+                aiCacheManager.put(missKeys.get(i), vector);
+                for (Integer index : misses.get(missKeys.get(i))) {
+                    results.set(index, vector);
+                }
+            }
+            return results;
+        });
+    }
+
     /**
      * Generate image
      */
@@ -189,4 +371,13 @@ public class AlibabaAiService {
     public List<ToolDefinition> getToolsByCategory(String category) {
         return toolRegistry.getToolsByCategory(category);
     }
+
+    /**
+     * Release the tool call handler this service created; handlers passed in are left to their owner
+     */
+    public void shutdown() {
+        if (ownedToolCallHandler != null) {
+            ownedToolCallHandler.shutdown();
+        }
+    }
 }
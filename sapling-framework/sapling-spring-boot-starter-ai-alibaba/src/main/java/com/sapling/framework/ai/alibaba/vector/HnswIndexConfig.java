@@ -0,0 +1,50 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Configuration of an HNSW vector index.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+public class HnswIndexConfig {
+
+    /**
+     * Dimension of indexed vectors
+     */
+    private int dimensions;
+
+    /**
+     * Maximum number of vectors the index can hold
+     */
+    @Builder.Default
+    private int capacity = 100_000;
+
+    /**
+     * Similarity function
+     */
+    @Builder.Default
+    private VectorSimilarity similarity = VectorSimilarity.COSINE;
+
+    /**
+     * Maximum neighbors per node on upper layers, layer 0 keeps twice as many
+     */
+    @Builder.Default
+    private int m = 16;
+
+    /**
+     * Candidate list size while inserting
+     */
+    @Builder.Default
+    private int efConstruction = 200;
+
+    /**
+     * Candidate list size while searching, raised to k when smaller
+     */
+    @Builder.Default
+    private int efSearch = 64;
+}
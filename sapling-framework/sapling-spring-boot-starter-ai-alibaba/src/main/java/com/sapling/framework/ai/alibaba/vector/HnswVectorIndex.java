@@ -0,0 +1,485 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hierarchical Navigable Small World (HNSW) approximate nearest neighbor index.
+ * 
+ * <p>Vectors are kept as primitive float arrays. Inserts may run concurrently: each node guards
+ * its own neighbor lists and publishes them copy-on-write, so searches never lock.
+ * Snapshots are written to and restored from memory-mapped files.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Slf4j
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x484E5357;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_LEVEL = 16;
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final int RESERVED = -1;
+
+    private final HnswIndexConfig config;
+    private final int dimensions;
+    private final int maxNeighbors;
+    private final int maxNeighborsLayer0;
+    private final double levelMultiplier;
+
+    private final AtomicReferenceArray<Node> nodes;
+    private final Map<String, Integer> idToIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object entryLock = new Object();
+    private volatile EntryPoint entryPoint;
+
+    private final ThreadLocal<VisitedSet> visitedSets = ThreadLocal.withInitial(VisitedSet::new);
+
+    public HnswVectorIndex(HnswIndexConfig config) {
+        if (config.getDimensions() <= 0) {
+            throw new IllegalArgumentException("Dimensions must be positive");
+        }
+        this.config = config;
+        this.dimensions = config.getDimensions();
+        this.maxNeighbors = config.getM();
+        this.maxNeighborsLayer0 = config.getM() * 2;
+        this.levelMultiplier = 1.0 / Math.log(Math.max(2, config.getM()));
+        this.nodes = new AtomicReferenceArray<>(config.getCapacity());
+    }
+
+    @Override
+    public void add(String id, float[] vector) {
+        checkDimensions(vector);
+        // Claim the id first and take a slot only once the insert is known to succeed
+        if (idToIndex.putIfAbsent(id, RESERVED) != null) {
+            throw new IllegalArgumentException("Duplicate vector id: " + id);
+        }
+        int index = reserveSlot();
+        if (index < 0) {
+            idToIndex.remove(id);
+            throw new AiException("VECTOR_INDEX_FULL", "Vector index capacity exceeded: " + config.getCapacity());
+        }
+        idToIndex.put(id, index);
+        
+        Node node = new Node(id, config.getSimilarity().prepare(vector), randomLevel());
+        nodes.set(index, node);
+        insert(index, node);
+        size.incrementAndGet();
+    }
+
+    /**
+     * Take the next free slot, or -1 when the index is full
+     */
+    private int reserveSlot() {
+        while (true) {
+            int index = nextIndex.get();
+            if (index >= config.getCapacity()) {
+                return -1;
+            }
+            if (nextIndex.compareAndSet(index, index + 1)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Link a published node into the graph
+     */
+    private void insert(int index, Node node) {
+        EntryPoint entry;
+        synchronized (entryLock) {
+            entry = entryPoint;
+            if (entry == null) {
+                entryPoint = new EntryPoint(index, node.level);
+                return;
+            }
+        }
+        
+        // Greedy descent through layers above the node's level
+        int current = entry.index;
+        for (int level = entry.level; level > node.level; level--) {
+            current = greedySearch(node.vector, current, level);
+        }
+        
+        // Connect on every layer the node lives on
+        for (int level = Math.min(node.level, entry.level); level >= 0; level--) {
+            NodeHeap candidates = searchLayer(node.vector, current, config.getEfConstruction(), level);
+            int[] candidateNodes = new int[candidates.size()];
+            float[] candidateDistances = new float[candidates.size()];
+            candidates.drainAscending(candidateNodes, candidateDistances);
+            
+            int[] neighbors = selectNeighbors(candidateNodes, candidateDistances, candidateNodes.length, maxNeighbors);
+            node.neighbors.set(level, neighbors);
+            
+            int maxConnections = level == 0 ? maxNeighborsLayer0 : maxNeighbors;
+            for (int neighbor : neighbors) {
+                link(neighbor, index, level, maxConnections);
+            }
+            current = candidateNodes[0];
+        }
+        
+        if (node.level > entry.level) {
+            synchronized (entryLock) {
+                if (node.level > entryPoint.level) {
+                    entryPoint = new EntryPoint(index, node.level);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a back-link, pruning the neighbor list when it exceeds the layer limit
+     */
+    private void link(int target, int source, int level, int maxConnections) {
+        Node targetNode = nodes.get(target);
+        synchronized (targetNode) {
+            int[] current = targetNode.neighbors.get(level);
+            if (current.length < maxConnections) {
+                int[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = source;
+                targetNode.neighbors.set(level, next);
+                return;
+            }
+            
+            NodeHeap candidates = NodeHeap.max(current.length + 1);
+            for (int neighbor : current) {
+                candidates.push(neighbor, distance(targetNode.vector, nodes.get(neighbor).vector));
+            }
+            candidates.push(source, distance(targetNode.vector, nodes.get(source).vector));
+            
+            int count = candidates.size();
+            int[] candidateNodes = new int[count];
+            float[] candidateDistances = new float[count];
+            candidates.drainAscending(candidateNodes, candidateDistances);
+            targetNode.neighbors.set(level,
+                selectNeighbors(candidateNodes, candidateDistances, count, maxConnections));
+        }
+    }
+
+    /**
+     * Neighbor selection heuristic: keep a candidate only if it is closer to the base than to any
+     * already selected neighbor, then fill remaining slots with the closest pruned candidates
+     */
+    private int[] selectNeighbors(int[] candidates, float[] distances, int count, int limit) {
+        if (count <= limit) {
+            return Arrays.copyOf(candidates, count);
+        }
+        
+        int[] selected = new int[limit];
+        int selectedCount = 0;
+        boolean[] taken = new boolean[count];
+        for (int i = 0; i < count && selectedCount < limit; i++) {
+            float[] candidate = nodes.get(candidates[i]).vector;
+            boolean diverse = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (distance(candidate, nodes.get(selected[j]).vector) < distances[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[selectedCount++] = candidates[i];
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < count && selectedCount < limit; i++) {
+            if (!taken[i]) {
+                selected[selectedCount++] = candidates[i];
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public List<VectorSearchResult> search(float[] query, int k) {
+        checkDimensions(query);
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            return new ArrayList<>();
+        }
+        
+        float[] prepared = config.getSimilarity().prepare(query);
+        int current = entry.index;
+        for (int level = entry.level; level > 0; level--) {
+            current = greedySearch(prepared, current, level);
+        }
+        
+        NodeHeap candidates = searchLayer(prepared, current, Math.max(config.getEfSearch(), k), 0);
+        int count = candidates.size();
+        int[] resultNodes = new int[count];
+        float[] resultDistances = new float[count];
+        candidates.drainAscending(resultNodes, resultDistances);
+        
+        int limit = Math.min(k, count);
+        List<VectorSearchResult> results = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            results.add(new VectorSearchResult(nodes.get(resultNodes[i]).id, -resultDistances[i]));
+        }
+        return results;
+    }
+
+    /**
+     * Greedy walk towards the query on a single layer
+     */
+    private int greedySearch(float[] query, int start, int level) {
+        int current = start;
+        float currentDistance = distance(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : nodes.get(current).neighbors.get(level)) {
+                float neighborDistance = distance(query, nodes.get(neighbor).vector);
+                if (neighborDistance < currentDistance) {
+                    currentDistance = neighborDistance;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search on a single layer, returns up to ef closest nodes as a max-heap
+     */
+    private NodeHeap searchLayer(float[] query, int start, int ef, int level) {
+        VisitedSet visited = visitedSets.get();
+        visited.reset();
+        
+        NodeHeap candidates = NodeHeap.min(ef * 2);
+        NodeHeap results = NodeHeap.max(ef + 1);
+        float startDistance = distance(query, nodes.get(start).vector);
+        candidates.push(start, startDistance);
+        results.push(start, startDistance);
+        visited.visit(start);
+        
+        while (!candidates.isEmpty()) {
+            float candidateDistance = candidates.peekDistance();
+            int candidate = candidates.poll();
+            if (results.size() >= ef && candidateDistance > results.peekDistance()) {
+                break;
+            }
+            
+            for (int neighbor : nodes.get(candidate).neighbors.get(level)) {
+                if (!visited.visit(neighbor)) {
+                    continue;
+                }
+                float neighborDistance = distance(query, nodes.get(neighbor).vector);
+                if (results.size() < ef || neighborDistance < results.peekDistance()) {
+                    candidates.push(neighbor, neighborDistance);
+                    results.push(neighbor, neighborDistance);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Distance used for graph navigation, smaller is closer
+     */
+    private float distance(float[] a, float[] b) {
+        return -VectorSimilarity.dot(a, b);
+    }
+
+    private int randomLevel() {
+        double random = ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0);
+        return Math.min(MAX_LEVEL, (int) (-Math.log(random) * levelMultiplier));
+    }
+
+    private void checkDimensions(float[] vector) {
+        if (vector == null || vector.length != dimensions) {
+            throw new IllegalArgumentException("Vector must have " + dimensions + " dimensions");
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Write a snapshot. Nodes still being inserted are skipped, so the index may stay online.
+     */
+    @Override
+    public void save(Path path) {
+        EntryPoint entry = entryPoint;
+        int count = nextIndex.get();
+        
+        try (MappedFileIO.Writer writer = new MappedFileIO.Writer(path)) {
+            writer.putInt(SNAPSHOT_MAGIC);
+            writer.putInt(SNAPSHOT_VERSION);
+            writer.putInt(dimensions);
+            writer.putInt(config.getCapacity());
+            writer.putInt(config.getSimilarity().ordinal());
+            writer.putInt(config.getM());
+            writer.putInt(config.getEfConstruction());
+            writer.putInt(config.getEfSearch());
+            writer.putInt(count);
+            writer.putInt(entry != null ? entry.index : -1);
+            writer.putInt(entry != null ? entry.level : -1);
+            
+            int[] filtered = new int[maxNeighborsLayer0];
+            for (int i = 0; i < count; i++) {
+                Node node = nodes.get(i);
+                if (node == null) {
+                    writer.putInt(-1);
+                    continue;
+                }
+                writer.putInt(node.level);
+                writer.putString(node.id);
+                writer.putFloats(node.vector);
+                for (int level = 0; level <= node.level; level++) {
+                    int[] neighbors = node.neighbors.get(level);
+                    int length = 0;
+                    for (int neighbor : neighbors) {
+                        if (neighbor < count) {
+                            filtered[length++] = neighbor;
+                        }
+                    }
+                    writer.putInt(length);
+                    writer.putInts(filtered, length);
+                }
+            }
+        } catch (IOException e) {
+            throw new AiException("VECTOR_INDEX_IO", "Failed to save vector index to " + path, e);
+        }
+        log.info("Saved vector index snapshot with {} vectors to {}", count, path);
+    }
+
+    /**
+     * Restore an index from a snapshot written by {@link #save(Path)}
+     */
+    public static HnswVectorIndex load(Path path) {
+        try (MappedFileIO.Reader reader = new MappedFileIO.Reader(path)) {
+            if (reader.getInt() != SNAPSHOT_MAGIC || reader.getInt() != SNAPSHOT_VERSION) {
+                throw new AiException("VECTOR_INDEX_IO", "Unsupported vector index snapshot: " + path);
+            }
+            HnswIndexConfig config = HnswIndexConfig.builder()
+                .dimensions(reader.getInt())
+                .capacity(reader.getInt())
+                .similarity(VectorSimilarity.values()[reader.getInt()])
+                .m(reader.getInt())
+                .efConstruction(reader.getInt())
+                .efSearch(reader.getInt())
+                .build();
+            int count = reader.getInt();
+            int entryIndex = reader.getInt();
+            int entryLevel = reader.getInt();
+            
+            HnswVectorIndex index = new HnswVectorIndex(config);
+            for (int i = 0; i < count; i++) {
+                int level = reader.getInt();
+                if (level < 0) {
+                    continue;
+                }
+                String id = reader.getString();
+                float[] vector = new float[config.getDimensions()];
+                reader.getFloats(vector);
+                Node node = new Node(id, vector, level);
+                for (int l = 0; l <= level; l++) {
+                    int[] neighbors = new int[reader.getInt()];
+                    reader.getInts(neighbors);
+                    node.neighbors.set(l, neighbors);
+                }
+                index.nodes.set(i, node);
+                index.idToIndex.put(id, i);
+                index.size.incrementAndGet();
+            }
+            index.nextIndex.set(count);
+            if (entryIndex >= 0) {
+                index.entryPoint = new EntryPoint(entryIndex, entryLevel);
+            }
+            log.info("Loaded vector index snapshot with {} vectors from {}", index.size(), path);
+            return index;
+        } catch (IOException e) {
+            throw new AiException("VECTOR_INDEX_IO", "Failed to load vector index from " + path, e);
+        }
+    }
+
+    /**
+     * Graph node: vector plus one copy-on-write neighbor list per layer
+     */
+    private static final class Node {
+        private final String id;
+        private final float[] vector;
+        private final int level;
+        private final AtomicReferenceArray<int[]> neighbors;
+
+        private Node(String id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.level = level;
+            this.neighbors = new AtomicReferenceArray<>(level + 1);
+            for (int i = 0; i <= level; i++) {
+                neighbors.set(i, NO_NEIGHBORS);
+            }
+        }
+    }
+
+    /**
+     * Immutable entry point, so index and level are always read consistently
+     */
+    private static final class EntryPoint {
+        private final int index;
+        private final int level;
+
+        private EntryPoint(int index, int level) {
+            this.index = index;
+            this.level = level;
+        }
+    }
+
+    /**
+     * Per-thread visited marks, cleared in O(1) by bumping a generation stamp
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[1024];
+        private int generation;
+
+        void reset() {
+            if (++generation == 0) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Mark a node, returns false if it was already visited
+         */
+        boolean visit(int node) {
+            if (node >= marks.length) {
+                marks = Arrays.copyOf(marks, Math.max(node + 1, marks.length * 2));
+            }
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader and writer over a memory-mapped file.
+ * 
+ * <p>The file is mapped in fixed windows so snapshots larger than 2 GB are supported.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+final class MappedFileIO {
+
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private MappedFileIO() {
+    }
+
+    /**
+     * Writer growing the file window by window, truncated to the written length on close
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long windowStart;
+
+        Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            map(0);
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, WINDOW_SIZE);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                buffer.force();
+                map(windowStart + buffer.position());
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int count = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+
+        void putFloats(float[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Float.BYTES);
+                int count = Math.min(values.length - offset, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+            }
+        }
+
+        void putInts(int[] values, int length) throws IOException {
+            int offset = 0;
+            while (offset < length) {
+                ensure(Integer.BYTES);
+                int count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            long end = windowStart + buffer.position();
+            buffer.force();
+            channel.truncate(end);
+            channel.close();
+        }
+    }
+
+    /**
+     * Reader mapping read-only windows on demand
+     */
+    static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer buffer;
+        private long windowStart;
+
+        Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.fileSize = channel.size();
+            map(0);
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                map(windowStart + buffer.position());
+                if (buffer.remaining() < bytes) {
+                    throw new EOFException("Unexpected end of snapshot file");
+                }
+            }
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        String getString() throws IOException {
+            byte[] bytes = new byte[getInt()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int count = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.get(bytes, offset, count);
+                offset += count;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void getFloats(float[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Float.BYTES);
+                int count = Math.min(values.length - offset, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+            }
+        }
+
+        void getInts(int[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Integer.BYTES);
+                int count = Math.min(values.length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (node, distance) pairs on primitive arrays, avoiding boxing on the search path.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+final class NodeHeap {
+
+    private final boolean maxHeap;
+    private int[] nodes;
+    private float[] distances;
+    private int size;
+
+    private NodeHeap(boolean maxHeap, int initialCapacity) {
+        this.maxHeap = maxHeap;
+        this.nodes = new int[Math.max(initialCapacity, 4)];
+        this.distances = new float[nodes.length];
+    }
+
+    /**
+     * Heap polling the closest node first
+     */
+    static NodeHeap min(int initialCapacity) {
+        return new NodeHeap(false, initialCapacity);
+    }
+
+    /**
+     * Heap polling the farthest node first
+     */
+    static NodeHeap max(int initialCapacity) {
+        return new NodeHeap(true, initialCapacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(int node, float distance) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(distance, distances[parent])) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        distances[i] = distance;
+    }
+
+    int peekNode() {
+        return nodes[0];
+    }
+
+    float peekDistance() {
+        return distances[0];
+    }
+
+    int poll() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastDistance = distances[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && before(distances[right], distances[child])) {
+                child = right;
+            }
+            if (!before(distances[child], lastDistance)) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        distances[i] = lastDistance;
+        return top;
+    }
+
+    /**
+     * Drain the heap into arrays ordered by ascending distance
+     */
+    void drainAscending(int[] nodesOut, float[] distancesOut) {
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            float distance = peekDistance();
+            int node = poll();
+            int slot = maxHeap ? count - 1 - i : i;
+            nodesOut[slot] = node;
+            distancesOut[slot] = distance;
+        }
+    }
+
+    private boolean before(float a, float b) {
+        return maxHeap ? a > b : a < b;
+    }
+}
@@ -0,0 +1,74 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import com.sapling.framework.ai.alibaba.model.EmbeddingVector;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Interface for vector similarity index operations.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public interface VectorIndex {
+
+    /**
+     * Add a vector, safe to call from multiple threads
+     * 
+     * @param id unique identifier
+     * @param vector vector components
+     */
+    void add(String id, float[] vector);
+
+    /**
+     * Add an embedding vector
+     * 
+     * @param id unique identifier
+     * @param vector embedding vector
+     */
+    default void add(String id, EmbeddingVector vector) {
+        add(id, vector.toFloatArray());
+    }
+
+    /**
+     * Find the k most similar vectors
+     * 
+     * @param query query vector
+     * @param k number of results
+     * @return results ordered by descending score
+     */
+    List<VectorSearchResult> search(float[] query, int k);
+
+    /**
+     * Find the k most similar vectors to an embedding vector
+     * 
+     * @param query query embedding
+     * @param k number of results
+     * @return results ordered by descending score
+     */
+    default List<VectorSearchResult> search(EmbeddingVector query, int k) {
+        return search(query.toFloatArray(), k);
+    }
+
+    /**
+     * Number of indexed vectors
+     * 
+     * @return vector count
+     */
+    int size();
+
+    /**
+     * Dimension of indexed vectors
+     * 
+     * @return vector dimensions
+     */
+    int dimensions();
+
+    /**
+     * Write a snapshot of the index to a file
+     * 
+     * @param path target file
+     */
+    void save(Path path);
+}
@@ -0,0 +1,25 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Single hit of a vector similarity search.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class VectorSearchResult {
+
+    /**
+     * Identifier the vector was added with
+     */
+    private String id;
+
+    /**
+     * Similarity score, higher is closer
+     */
+    private float score;
+}
@@ -0,0 +1,86 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+/**
+ * Similarity functions supported by vector indexes.
+ * 
+ * <p>Kernels use four independent accumulators so the JIT can vectorize the loops.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public enum VectorSimilarity {
+
+    /**
+     * Cosine similarity, vectors are normalized on insert so scoring reduces to a dot product
+     */
+    COSINE,
+
+    /**
+     * Raw inner product
+     */
+    DOT_PRODUCT;
+
+    /**
+     * Prepare a vector for storage or querying, returns a private copy
+     */
+    float[] prepare(float[] vector) {
+        float[] copy = vector.clone();
+        if (this == COSINE) {
+            normalize(copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Dot product of two vectors of equal length
+     */
+    public static float dot(float[] a, float[] b) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int upper = a.length & ~3;
+        for (; i < upper; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Cosine similarity of two vectors of equal length
+     */
+    public static float cosine(float[] a, float[] b) {
+        float dot = 0f;
+        float normA = 0f;
+        float normB = 0f;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0f || normB == 0f) {
+            return 0f;
+        }
+        return (float) (dot / Math.sqrt((double) normA * normB));
+    }
+
+    /**
+     * Scale a vector to unit length in place
+     */
+    public static void normalize(float[] vector) {
+        float norm = (float) Math.sqrt(dot(vector, vector));
+        if (norm == 0f) {
+            return;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= norm;
+        }
+    }
+}
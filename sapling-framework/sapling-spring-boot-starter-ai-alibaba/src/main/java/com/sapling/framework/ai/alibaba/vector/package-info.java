@@ -0,0 +1,7 @@
+/**
+ * In-process vector similarity index for embedding vectors.
+ * 
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+package com.sapling.framework.ai.alibaba.vector;
@@ -0,0 +1,145 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.Message;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests for content-addressed {@link AiCacheKey}s.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class AiCacheKeyTest {
+
+    private final AiCacheManager cacheManager = new AiCacheManager(AiCacheManagerTest.properties(100, 3600));
+
+    @Test
+    void stringHashCodeCollisionsGetDistinctKeys() {
+        // "Aa" and "BB" share String.hashCode(), as do all their concatenations
+        assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+
+        assertNotEquals(embed("AaAa"), embed("BBBB"));
+        assertNotEquals(embed("AaBB"), embed("BBAa"));
+    }
+
+    @Test
+    void keysOfManyTextsDoNotCollide() {
+        Set<AiCacheKey> keys = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            keys.add(embed("document " + i));
+        }
+        assertEquals(100_000, keys.size());
+    }
+
+    @Test
+    void payloadIsNormalized() {
+        assertEquals(embed("hello world"), embed("  hello world\n"));
+        // Precomposed and combining forms of "é"
+        assertEquals(embed("caf\u00e9"), embed("cafe\u0301"));
+        assertNotEquals(embed("hello world"), embed("hello  world"));
+    }
+
+    @Test
+    void modelAndDimensionsArePartOfTheKey() {
+        AiCacheKey key = cacheManager.embeddingKey("text", "text-embedding-v1", 1536);
+
+        assertEquals(key, cacheManager.embeddingKey("text", "text-embedding-v1", 1536));
+        assertNotEquals(key, cacheManager.embeddingKey("text", "text-embedding-v2", 1536));
+        assertNotEquals(key, cacheManager.embeddingKey("text", "text-embedding-v1", 1024));
+    }
+
+    @Test
+    void componentBoundariesCannotShift() {
+        AiCacheKey left = AiCacheKey.builder("t").put("ab").put("c").build();
+        AiCacheKey right = AiCacheKey.builder("t").put("a").put("bc").build();
+        assertNotEquals(left, right);
+    }
+
+    @Test
+    void chatKeyCoversSamplingParametersHistoryAndParameterOrder() {
+        ChatRequest base = chat(0.0, null);
+        AiCacheKey key = cacheManager.chatKey(base, "qwen-turbo");
+
+        assertEquals(key, cacheManager.chatKey(chat(0.0, null), "qwen-turbo"));
+        assertNotEquals(key, cacheManager.chatKey(base, "qwen-max"));
+        assertNotEquals(key, cacheManager.chatKey(chat(0.5, null), "qwen-turbo"));
+        assertNotEquals(key, cacheManager.chatKey(chat(0.0, Arrays.asList(Message.user("earlier"))), "qwen-turbo"));
+
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("a", 1);
+        ab.put("b", 2);
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("b", 2);
+        ba.put("a", 1);
+        assertEquals(cacheManager.chatKey(withParameters(ab), "qwen-turbo"),
+            cacheManager.chatKey(withParameters(ba), "qwen-turbo"));
+    }
+
+    @Test
+    void chatKeyCoversToolCallsAndToolResultsInHistory() {
+        AiCacheKey key = cacheManager.chatKey(chat(0.0, toolRound("call_1", "Beijing", "sunny")), "qwen-turbo");
+
+        assertEquals(key, cacheManager.chatKey(chat(0.0, toolRound("call_1", "Beijing", "sunny")), "qwen-turbo"));
+        assertNotEquals(key, cacheManager.chatKey(chat(0.0, toolRound("call_2", "Beijing", "sunny")), "qwen-turbo"));
+        assertNotEquals(key, cacheManager.chatKey(chat(0.0, toolRound("call_1", "Shanghai", "sunny")), "qwen-turbo"));
+        assertNotEquals(key, cacheManager.chatKey(chat(0.0, toolRound("call_1", "Beijing", "rain")), "qwen-turbo"));
+
+        // Same roles and contents, but the assistant message carries no tool calls
+        List<Message> withoutToolCalls = Arrays.asList(Message.user("weather?"), Message.assistant(""),
+            Message.tool("call_1", "get_weather", "sunny"));
+        assertNotEquals(key, cacheManager.chatKey(chat(0.0, withoutToolCalls), "qwen-turbo"));
+
+        // Argument maps compare by content, not iteration order
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("city", "Beijing");
+        ab.put("unit", "celsius");
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("unit", "celsius");
+        ba.put("city", "Beijing");
+        assertEquals(cacheManager.chatKey(chat(0.0, toolRound("call_1", ab, "sunny")), "qwen-turbo"),
+            cacheManager.chatKey(chat(0.0, toolRound("call_1", ba, "sunny")), "qwen-turbo"));
+    }
+
+    private static List<Message> toolRound(String callId, String city, String result) {
+        return toolRound(callId, Collections.singletonMap("city", city), result);
+    }
+
+    private static List<Message> toolRound(String callId, Map<String, Object> arguments, String result) {
+        ToolCall call = ToolCall.builder().id(callId).type("function").name("get_weather").parameters(arguments).build();
+        return Arrays.asList(Message.user("weather?"), Message.assistant("", Collections.singletonList(call)),
+            Message.tool(callId, "get_weather", result));
+    }
+
+    private AiCacheKey embed(String text) {
+        return cacheManager.embeddingKey(text, "text-embedding-v1", 1536);
+    }
+
+    private static ChatRequest chat(Double temperature, List<Message> history) {
+        return ChatRequest.builder()
+            .message("What is HNSW?")
+            .temperature(temperature)
+            .history(history)
+            .build();
+    }
+
+    private static ChatRequest withParameters(Map<String, Object> parameters) {
+        return ChatRequest.builder()
+            .message("What is HNSW?")
+            .temperature(0.0)
+            .parameters(parameters)
+            .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mixed get/put throughput of {@link AiCacheManager} against the former unbounded map with
+ * scan-on-put eviction, 16 threads, 80% reads over a key space four times the cache size.
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> ...AiCacheManagerBenchmark}.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class AiCacheManagerBenchmark {
+
+    @Param({"10000"})
+    private int maxSize;
+
+    private String[] keys;
+    private AiCacheManager cacheManager;
+    private ScanOnPutMap scanOnPutMap;
+
+    @Setup
+    public void setUp() {
+        keys = new String[maxSize * 4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key-" + i;
+        }
+        cacheManager = new AiCacheManager(AiCacheManagerTest.properties(maxSize, 3600));
+        scanOnPutMap = new ScanOnPutMap(maxSize, 3600);
+        for (int i = 0; i < maxSize; i++) {
+            cacheManager.put(keys[i], i);
+            scanOnPutMap.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Object boundedCache() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String key = keys[random.nextInt(keys.length)];
+        if (random.nextInt(10) < 8) {
+            return cacheManager.get(key, () -> key);
+        }
+        cacheManager.put(key, key);
+        return key;
+    }
+
+    @Benchmark
+    public Object scanOnPutMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String key = keys[random.nextInt(keys.length)];
+        if (random.nextInt(10) < 8) {
+            return scanOnPutMap.get(key, () -> key);
+        }
+        scanOnPutMap.put(key, key);
+        return key;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AiCacheManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The cache engine replaced by the Guava-backed manager: a ConcurrentHashMap whose put at capacity
+     * streams all entries looking for an expired one
+     */
+    static final class ScanOnPutMap {
+        private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+        private final int maxSize;
+        private final long ttlMillis;
+
+        ScanOnPutMap(int maxSize, int ttlSeconds) {
+            this.maxSize = maxSize;
+            this.ttlMillis = ttlSeconds * 1000L;
+        }
+
+        Object get(String key, Supplier<Object> loader) {
+            Entry entry = cache.get(key);
+            if (entry != null && System.currentTimeMillis() <= entry.expiryTime) {
+                return entry.value;
+            }
+            Object value = loader.get();
+            put(key, value);
+            return value;
+        }
+
+        void put(String key, Object value) {
+            if (cache.size() >= maxSize) {
+                cache.entrySet().stream()
+                    .filter(e -> System.currentTimeMillis() > e.getValue().expiryTime)
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .ifPresent(cache::remove);
+            }
+            cache.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+        }
+
+        private static final class Entry {
+            private final Object value;
+            private final long expiryTime;
+
+            Entry(Object value, long expiryTime) {
+                this.value = value;
+                this.expiryTime = expiryTime;
+            }
+        }
+    }
+}
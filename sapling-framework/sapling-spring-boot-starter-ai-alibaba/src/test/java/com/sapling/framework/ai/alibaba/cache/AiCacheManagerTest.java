@@ -0,0 +1,204 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounded {@link AiCacheManager} engine.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class AiCacheManagerTest {
+
+    @Test
+    void sizeNeverExceedsMaxSize() {
+        AiCacheManager cacheManager = new AiCacheManager(properties(100, 3600));
+
+        for (int i = 0; i < 10_000; i++) {
+            cacheManager.put("key-" + i, i);
+        }
+
+        AiCacheStats stats = cacheManager.getStats();
+        assertTrue(stats.getSize() <= 100, "size " + stats.getSize());
+        assertEquals(10_000 - stats.getSize(), stats.getEvictionCount());
+    }
+
+    @Test
+    void recentlyReadEntriesSurviveEviction() {
+        AiCacheManager cacheManager = new AiCacheManager(properties(64, 3600));
+        AtomicInteger loads = new AtomicInteger();
+        cacheManager.put("hot", "value");
+
+        for (int i = 0; i < 1_000; i++) {
+            cacheManager.put("cold-" + i, i);
+            cacheManager.get("hot", () -> {
+                loads.incrementAndGet();
+                return "reloaded";
+            });
+        }
+
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws Exception {
+        AiCacheManager cacheManager = new AiCacheManager(properties(100, 1));
+        AiCacheKey key = cacheManager.embeddingKey("text", "text-embedding-v1", 1536);
+        cacheManager.put(key, "vector");
+        assertEquals("vector", cacheManager.getIfPresent(key));
+
+        Thread.sleep(1_100);
+
+        assertNull(cacheManager.getIfPresent(key));
+    }
+
+    @Test
+    void statsCountHitsAndMisses() {
+        AiCacheManager cacheManager = new AiCacheManager(properties(100, 3600));
+
+        cacheManager.get("a", () -> "1");
+        cacheManager.get("a", () -> "2");
+        cacheManager.get("a", () -> "3");
+
+        AiCacheStats stats = cacheManager.getStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getLoadCount());
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        AlibabaAiProperties.CacheProperties properties = properties(100, 3600);
+        properties.setEnabled(false);
+        AiCacheManager cacheManager = new AiCacheManager(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        cacheManager.get("a", loads::incrementAndGet);
+        cacheManager.get("a", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cacheManager.getStats().getSize());
+    }
+
+    @Test
+    void concurrentMissesRunOneLoader() throws Exception {
+        AiCacheManager cacheManager = new AiCacheManager(properties(100, 3600));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(50);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cacheManager.get("hot", () -> {
+                        loads.incrementAndGet();
+                        sleep(200);
+                        return "value";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        AiCacheStats stats = cacheManager.getStats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getLoadCount());
+        assertEquals(49, stats.getCoalescedCount() + stats.getHitCount());
+        assertEquals(0, stats.getInFlightLoads());
+    }
+
+    @Test
+    void loaderFailureReachesWaitersAndIsNotCached() throws Exception {
+        AiCacheManager cacheManager = new AiCacheManager(properties(100, 3600));
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> leader = pool.submit(() -> cacheManager.get("key", () -> {
+                loading.countDown();
+                sleep(300);
+                throw new IllegalStateException("upstream down");
+            }));
+            loading.await();
+
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> cacheManager.get("key", () -> "unused"));
+            assertEquals("upstream down", error.getMessage());
+            assertThrows(Exception.class, leader::get);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals("fresh", cacheManager.get("key", () -> "fresh"));
+        assertEquals(1, cacheManager.getStats().getLoadFailureCount());
+    }
+
+    @Test
+    void waiterGivesUpAfterLoadTimeout() throws Exception {
+        AlibabaAiProperties.CacheProperties properties = properties(100, 3600);
+        properties.setLoadTimeout(1);
+        AiCacheManager cacheManager = new AiCacheManager(properties);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> cacheManager.get("slow", () -> {
+                loading.countDown();
+                await(release);
+                return "value";
+            }));
+            loading.await();
+
+            AiException error = assertThrows(AiException.class, () -> cacheManager.get("slow", () -> "unused"));
+            assertEquals("CACHE_LOAD_TIMEOUT", error.getErrorCode());
+            assertEquals(1, cacheManager.getStats().getLoadTimeoutCount());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static AlibabaAiProperties.CacheProperties properties(int maxSize, int ttl) {
+        AlibabaAiProperties.CacheProperties properties = new AlibabaAiProperties.CacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxSize(maxSize);
+        properties.setTtl(ttl);
+        return properties;
+    }
+}
@@ -0,0 +1,227 @@
+package com.sapling.framework.ai.alibaba.cache;
+
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.EmbeddingVector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the HNSW backed {@link SemanticCache}.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class SemanticCacheTest {
+
+    private static final int DIMENSIONS = 16;
+
+    private final MetricsCollector metricsCollector = new MetricsCollector(new AlibabaAiProperties.MetricsProperties());
+    private SemanticCache semanticCache;
+
+    @AfterEach
+    void tearDown() {
+        semanticCache.shutdown();
+    }
+
+    @Test
+    void similarPromptHitsAndDissimilarPromptMisses() {
+        semanticCache = cache(properties(100, 3600));
+        float[] prompt = vector(1);
+        semanticCache.put("qwen", EmbeddingVector.of(prompt), "prompt", "answer", 120L);
+
+        SemanticCacheHit hit = semanticCache.lookup("qwen", EmbeddingVector.of(scaledWithNoise(prompt, 0.01f)));
+        assertNotNull(hit);
+        assertEquals("answer", hit.getAnswer());
+        assertEquals(120L, hit.getLatencyMillis());
+        assertTrue(hit.getSimilarity() >= 0.95f);
+
+        assertNull(semanticCache.lookup("qwen", EmbeddingVector.of(vector(2))));
+        assertNull(semanticCache.lookup("qwen-max", EmbeddingVector.of(prompt)));
+        assertEquals(1, metricsCollector.getMetrics().getSemanticCacheHits());
+        assertEquals(2, metricsCollector.getMetrics().getSemanticCacheMisses());
+    }
+
+    @Test
+    void fullIndexKeepsNewestEntries() throws Exception {
+        semanticCache = cache(properties(8, 3600));
+        for (int i = 0; i < 40; i++) {
+            store(i, "answer " + i);
+        }
+
+        for (int i = 34; i < 40; i++) {
+            SemanticCacheHit hit = semanticCache.lookup("qwen", EmbeddingVector.of(vector(i)));
+            assertNotNull(hit, "entry " + i);
+            assertEquals("answer " + i, hit.getAnswer());
+        }
+        assertNull(semanticCache.lookup("qwen", EmbeddingVector.of(vector(0))));
+    }
+
+    @Test
+    void expiredEntriesAreNotReturnedAndGiveBackTheirSlots() throws Exception {
+        semanticCache = cache(properties(4, 1));
+        for (int i = 0; i < 4; i++) {
+            semanticCache.put("qwen", EmbeddingVector.of(vector(i)), "old " + i, "old " + i, 1L);
+        }
+        Thread.sleep(1_100);
+        assertNull(semanticCache.lookup("qwen", EmbeddingVector.of(vector(0))));
+
+        // The rebuild drops all expired entries, so the new ones fit without evicting each other
+        for (int i = 10; i < 13; i++) {
+            store(i, "new " + i);
+        }
+        for (int i = 10; i < 13; i++) {
+            assertEquals("new " + i, semanticCache.lookup("qwen", EmbeddingVector.of(vector(i))).getAnswer());
+        }
+    }
+
+    @Test
+    void fullIndexIsRebuiltInTheBackgroundAndDropsWritesMeanwhile() throws Exception {
+        semanticCache = cache(properties(4, 3600));
+        for (int i = 0; i < 4; i++) {
+            semanticCache.put("qwen", EmbeddingVector.of(vector(i)), "prompt " + i, "answer " + i, 1L);
+        }
+        // Occupy the background thread so the rebuild stays queued
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        semanticCache.sampleAsync(new SemanticCacheHit("prompt", "answer", 1f, 1L), "query", () -> {
+            running.countDown();
+            await(release);
+            return 1f;
+        });
+        running.await();
+
+        for (int i = 4; i < 8; i++) {
+            semanticCache.put("qwen", EmbeddingVector.of(vector(i)), "prompt " + i, "answer " + i, 1L);
+        }
+        // The full index keeps serving lookups while the answers stored meanwhile are dropped
+        for (int i = 0; i < 4; i++) {
+            assertEquals("answer " + i, semanticCache.lookup("qwen", EmbeddingVector.of(vector(i))).getAnswer());
+        }
+        for (int i = 4; i < 8; i++) {
+            assertNull(semanticCache.lookup("qwen", EmbeddingVector.of(vector(i))));
+        }
+
+        release.countDown();
+        store(8, "answer 8");
+        // Three quarters of the capacity are kept, newest first
+        assertNull(semanticCache.lookup("qwen", EmbeddingVector.of(vector(0))));
+        for (int i = 1; i < 4; i++) {
+            assertEquals("answer " + i, semanticCache.lookup("qwen", EmbeddingVector.of(vector(i))).getAnswer());
+        }
+    }
+
+    @Test
+    void samplesAreJudgedByTheAnswerThreshold() {
+        AlibabaAiProperties.SemanticCacheProperties properties = properties(100, 3600);
+        properties.setSimilarityThreshold(0.95);
+        properties.setAnswerSimilarityThreshold(0.8);
+        semanticCache = cache(properties);
+        SemanticCacheHit hit = new SemanticCacheHit("prompt", "answer", 0.97f, 1L);
+
+        semanticCache.recordSample(hit, "query", 0.9f);
+        semanticCache.recordSample(hit, "query", 0.5f);
+
+        assertEquals(2, metricsCollector.getMetrics().getSemanticCacheSampledHits());
+        assertEquals(1, metricsCollector.getMetrics().getSemanticCacheFalseHits());
+    }
+
+    @Test
+    void samplesBeyondTheQueueBoundAreSkipped() throws Exception {
+        AlibabaAiProperties.SemanticCacheProperties properties = properties(100, 3600);
+        properties.setMaxPendingSamples(2);
+        semanticCache = cache(properties);
+        SemanticCacheHit hit = new SemanticCacheHit("prompt", "answer", 0.97f, 1L);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger verified = new AtomicInteger();
+
+        semanticCache.sampleAsync(hit, "query", () -> {
+            running.countDown();
+            await(release);
+            verified.incrementAndGet();
+            return 1f;
+        });
+        running.await();
+        for (int i = 0; i < 10; i++) {
+            semanticCache.sampleAsync(hit, "query", () -> {
+                verified.incrementAndGet();
+                return 1f;
+            });
+        }
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metricsCollector.getMetrics().getSemanticCacheSampledHits() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        // The running sample plus the two queued ones
+        assertEquals(3, verified.get());
+    }
+
+    /**
+     * Put an answer until it is stored, waiting for a background rebuild of a full index
+     */
+    private void store(int seed, String answer) throws InterruptedException {
+        EmbeddingVector prompt = EmbeddingVector.of(vector(seed));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            semanticCache.put("qwen", prompt, "prompt " + seed, answer, 1L);
+            SemanticCacheHit hit = semanticCache.lookup("qwen", prompt);
+            if (hit != null && answer.equals(hit.getAnswer())) {
+                return;
+            }
+            assertTrue(System.nanoTime() < deadline, "answer " + answer + " not stored");
+            Thread.sleep(5);
+        }
+    }
+
+    private SemanticCache cache(AlibabaAiProperties.SemanticCacheProperties properties) {
+        return new SemanticCache(properties, metricsCollector);
+    }
+
+    private static AlibabaAiProperties.SemanticCacheProperties properties(int maxEntries, int ttl) {
+        AlibabaAiProperties.SemanticCacheProperties properties = new AlibabaAiProperties.SemanticCacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxEntries(maxEntries);
+        properties.setTtl(ttl);
+        return properties;
+    }
+
+    private static float[] vector(long seed) {
+        Random random = new Random(seed);
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static float[] scaledWithNoise(float[] vector, float noise) {
+        Random random = new Random(99);
+        float[] result = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = vector[i] * 3f + noise * (float) random.nextGaussian();
+        }
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
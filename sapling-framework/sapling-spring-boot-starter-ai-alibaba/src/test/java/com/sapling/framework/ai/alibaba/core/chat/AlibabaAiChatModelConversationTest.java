@@ -0,0 +1,106 @@
+package com.sapling.framework.ai.alibaba.core.chat;
+
+import com.alibaba.dashscope.aigc.generation.Generation;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.interceptor.LoggingInterceptor;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.Message;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
+import com.sapling.framework.ai.alibaba.model.ToolDefinition;
+import com.sapling.framework.ai.alibaba.support.StubDashScopeServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Multi-round conversations of {@link AlibabaAiChatModel} against a local DashScope stub endpoint.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class AlibabaAiChatModelConversationTest {
+
+    private static final String REPLY = "{\"output\":{\"choices\":[{\"message\":{\"role\":\"assistant\","
+        + "\"content\":\"ok\"},\"finish_reason\":\"stop\"}]},"
+        + "\"usage\":{\"input_tokens\":5,\"output_tokens\":1,\"total_tokens\":6},\"request_id\":\"stub-request\"}";
+
+    private final List<JsonObject> bodies = new CopyOnWriteArrayList<>();
+    private StubDashScopeServer server;
+    private AlibabaAiChatModel chatModel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = StubDashScopeServer.start();
+        server.respond(StubDashScopeServer.GENERATION_PATH, body -> {
+            bodies.add(JsonParser.parseString(body).getAsJsonObject());
+            return REPLY;
+        });
+        chatModel = new AlibabaAiChatModel("test-key", server.getBaseUrl(), new AlibabaAiProperties.ChatProperties(),
+            new MetricsCollector(new AlibabaAiProperties.MetricsProperties()), new LoggingInterceptor(),
+            new Generation("http", server.getBaseUrl()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void appendedMessagesAreSentWithEveryLaterRound() {
+        List<Message> history = new ArrayList<>();
+        history.add(Message.user("weather?"));
+        ChatConversation conversation = chatModel.openConversation(ChatRequest.builder()
+            .systemPrompt("be brief")
+            .history(history)
+            .tools(Collections.singletonList(ToolDefinition.builder()
+                .name("weather")
+                .description("current weather")
+                .parameters(Collections.emptyList())
+                .build()))
+            .build());
+
+        assertEquals("ok", conversation.call().getContent());
+        ToolCall toolCall = ToolCall.builder().id("call-1").name("weather").parameters(Collections.emptyMap()).build();
+        conversation.append(Message.assistant("", Collections.singletonList(toolCall)));
+        conversation.append(Message.tool("call-1", "weather", "sunny"));
+        assertEquals("ok", conversation.call().getContent());
+
+        assertEquals(2, bodies.size());
+        assertEquals(List.of("system", "user"), roles(bodies.get(0)));
+        assertEquals(List.of("system", "user", "assistant", "tool"), roles(bodies.get(1)));
+        JsonArray messages = messages(bodies.get(1));
+        assertEquals("call-1", messages.get(2).getAsJsonObject().getAsJsonArray("tool_calls")
+            .get(0).getAsJsonObject().get("id").getAsString());
+        assertEquals("call-1", messages.get(3).getAsJsonObject().get("tool_call_id").getAsString());
+        assertEquals("sunny", messages.get(3).getAsJsonObject().get("content").getAsString());
+        for (JsonObject body : bodies) {
+            JsonArray tools = body.getAsJsonObject("parameters").getAsJsonArray("tools");
+            assertEquals("weather", tools.get(0).getAsJsonObject().getAsJsonObject("function").get("name").getAsString());
+        }
+        // The request history is left alone, the conversation keeps its own DashScope messages
+        assertEquals(1, history.size());
+    }
+
+    private static JsonArray messages(JsonObject body) {
+        return body.getAsJsonObject("input").getAsJsonArray("messages");
+    }
+
+    private static List<String> roles(JsonObject body) {
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < messages(body).size(); i++) {
+            roles.add(messages(body).get(i).getAsJsonObject().get("role").getAsString());
+        }
+        return roles;
+    }
+}
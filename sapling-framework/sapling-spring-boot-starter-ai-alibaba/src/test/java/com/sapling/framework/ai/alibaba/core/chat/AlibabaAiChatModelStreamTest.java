@@ -0,0 +1,130 @@
+package com.sapling.framework.ai.alibaba.core.chat;
+
+import com.alibaba.dashscope.aigc.generation.Generation;
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import com.sapling.framework.ai.alibaba.interceptor.LoggingInterceptor;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.support.StubDashScopeServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Streaming tests for {@link AlibabaAiChatModel} against a local DashScope stub endpoint.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class AlibabaAiChatModelStreamTest {
+
+    private StubDashScopeServer server;
+    private MetricsCollector metricsCollector;
+    private AlibabaAiChatModel chatModel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = StubDashScopeServer.start();
+        metricsCollector = new MetricsCollector(new AlibabaAiProperties.MetricsProperties());
+        chatModel = new AlibabaAiChatModel("test-key", server.getBaseUrl(), new AlibabaAiProperties.ChatProperties(),
+            metricsCollector, new LoggingInterceptor(), new Generation("http", server.getBaseUrl()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void streamEmitsOneChunkPerDeltaAndFinishesWithUsage() {
+        server.streamGeneration(Arrays.asList("Hel", "lo", "", " world"), 0);
+
+        StepVerifier.create(chatModel.stream(request()))
+            .assertNext(chunk -> assertIntermediate(chunk, "Hel"))
+            .assertNext(chunk -> assertIntermediate(chunk, "lo"))
+            // The empty delta frame is dropped
+            .assertNext(chunk -> assertIntermediate(chunk, " world"))
+            .assertNext(chunk -> {
+                assertEquals("stop", chunk.getFinishReason());
+                assertEquals(9, chunk.getUsage().getTotalTokens());
+            })
+            .verifyComplete();
+
+        assertEquals(1, metricsCollector.getMetrics().getSuccessCalls());
+        assertEquals(9, metricsCollector.getMetrics().getTotalTokens());
+    }
+
+    @Test
+    void streamDeliversNothingBeyondDownstreamDemand() {
+        server.streamGeneration(Arrays.asList("a", "b", "c", "d"), 0);
+
+        StepVerifier.create(chatModel.stream(request()), 0)
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(300))
+            .thenRequest(1)
+            .assertNext(chunk -> assertIntermediate(chunk, "a"))
+            .expectNoEvent(Duration.ofMillis(200))
+            .thenRequest(2)
+            .assertNext(chunk -> assertIntermediate(chunk, "b"))
+            .assertNext(chunk -> assertIntermediate(chunk, "c"))
+            .thenRequest(Long.MAX_VALUE)
+            .assertNext(chunk -> assertIntermediate(chunk, "d"))
+            .assertNext(chunk -> assertEquals("stop", chunk.getFinishReason()))
+            .verifyComplete();
+    }
+
+    @Test
+    void cancelledStreamStopsDeliveringAndRecordsNoCall() throws Exception {
+        server.streamGeneration(Collections.nCopies(40, "x"), 25);
+        AtomicInteger delivered = new AtomicInteger();
+
+        StepVerifier.create(chatModel.stream(request()).doOnNext(chunk -> delivered.incrementAndGet()))
+            .expectNextCount(3)
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+
+        // The SDK drains the rest of the response after cancel, none of it may reach the subscriber
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getFramesWritten() < 41 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+        assertEquals(41, server.getFramesWritten());
+        assertEquals(3, delivered.get());
+        assertEquals(0, metricsCollector.getMetrics().getTotalCalls());
+    }
+
+    @Test
+    void streamFailureIsMappedToAiException() {
+        server.respond(StubDashScopeServer.GENERATION_PATH, 500,
+            "{\"code\":\"InternalError\",\"message\":\"boom\",\"request_id\":\"stub-request\"}");
+
+        StepVerifier.create(chatModel.stream(request()))
+            .expectError(AiException.class)
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, metricsCollector.getMetrics().getFailedCalls());
+    }
+
+    private static ChatRequest request() {
+        return ChatRequest.builder().message("hi").build();
+    }
+
+    private static void assertIntermediate(ChatResponse chunk, String content) {
+        assertEquals(content, chunk.getContent());
+        assertNull(chunk.getFinishReason());
+        assertNull(chunk.getUsage());
+    }
+}
@@ -0,0 +1,243 @@
+package com.sapling.framework.ai.alibaba.core.embedding;
+
+import com.alibaba.dashscope.utils.Constants;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import com.sapling.framework.ai.alibaba.exception.RateLimitException;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.EmbeddingResponse;
+import com.sapling.framework.ai.alibaba.support.StubDashScopeServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batch scheduling tests for {@link AlibabaAiEmbeddingModel} against a local DashScope stub endpoint.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class AlibabaAiEmbeddingModelTest {
+
+    private static final int DIMENSIONS = 4;
+
+    private StubDashScopeServer server;
+    private String originalBaseUrl;
+    private AlibabaAiEmbeddingModel embeddingModel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = StubDashScopeServer.start();
+        // TextEmbedding has no base URL parameter and reads the SDK-wide setting per call
+        originalBaseUrl = Constants.baseHttpApiUrl;
+        Constants.baseHttpApiUrl = server.getBaseUrl();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (embeddingModel != null) {
+            embeddingModel.shutdown();
+        }
+        Constants.baseHttpApiUrl = originalBaseUrl;
+        server.close();
+    }
+
+    @Test
+    void batchResponsesKeepInputOrder() {
+        server.serveEmbeddings(DIMENSIONS, 20);
+        embeddingModel = model(properties(3, 4, 1000.0));
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            texts.add("text " + i);
+        }
+
+        List<EmbeddingResponse> responses = embeddingModel.embedBatch(texts);
+
+        assertEquals(texts.size(), responses.size());
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals(texts.get(i), responses.get(i).getText());
+            assertEquals(StubDashScopeServer.marker(texts.get(i)), (int) responses.get(i).getVector().get(0));
+        }
+        assertEquals(7, server.getRequestCount());
+    }
+
+    @Test
+    void blankTextsAreSkipped() {
+        server.serveEmbeddings(DIMENSIONS, 0);
+        embeddingModel = model(properties(2, 1, 1000.0));
+
+        List<EmbeddingResponse> responses = embeddingModel.embedBatch(Arrays.asList("a", " ", null, "c"));
+
+        assertEquals(Arrays.asList("a", "c"), responses.stream().map(EmbeddingResponse::getText).collect(Collectors.toList()));
+        assertEquals(1, server.getRequestCount());
+        assertThrows(IllegalArgumentException.class, () -> embeddingModel.embedBatchAsync(Arrays.asList(" ", null)));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void embeddingsArePlacedByTextIndex() {
+        // Reply with the embeddings in reverse order, each still carrying its text_index
+        server.respond(StubDashScopeServer.EMBEDDING_PATH, body -> {
+            JsonObject reply = JsonParser.parseString(StubDashScopeServer.embeddingReply(body, DIMENSIONS)).getAsJsonObject();
+            JsonArray embeddings = reply.getAsJsonObject("output").getAsJsonArray("embeddings");
+            JsonArray reversed = new JsonArray();
+            for (int i = embeddings.size() - 1; i >= 0; i--) {
+                reversed.add(embeddings.get(i));
+            }
+            reply.getAsJsonObject("output").add("embeddings", reversed);
+            return reply.toString();
+        });
+        embeddingModel = model(properties(3, 2, 1000.0));
+        List<String> texts = Arrays.asList("t0", "t1", "t2", "t3", "t4");
+
+        List<EmbeddingResponse> responses = embeddingModel.embedBatch(texts);
+
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals(texts.get(i), responses.get(i).getText());
+            assertEquals(StubDashScopeServer.marker(texts.get(i)), (int) responses.get(i).getVector().get(0));
+        }
+    }
+
+    @Test
+    void replyWithMissingOrDuplicateEmbeddingsFailsTheBatch() {
+        embeddingModel = model(properties(3, 1, 1000.0));
+
+        server.respond(StubDashScopeServer.EMBEDDING_PATH, body -> {
+            JsonObject reply = JsonParser.parseString(StubDashScopeServer.embeddingReply(body, DIMENSIONS)).getAsJsonObject();
+            reply.getAsJsonObject("output").getAsJsonArray("embeddings").remove(1);
+            return reply.toString();
+        });
+        AiException shortReply = assertThrows(AiException.class, () -> embeddingModel.embedBatch(Arrays.asList("a", "b", "c")));
+        assertTrue(shortReply.getMessage().contains("2 embeddings for 3 texts"), shortReply.getMessage());
+
+        server.respond(StubDashScopeServer.EMBEDDING_PATH, body -> {
+            JsonObject reply = JsonParser.parseString(StubDashScopeServer.embeddingReply(body, DIMENSIONS)).getAsJsonObject();
+            reply.getAsJsonObject("output").getAsJsonArray("embeddings").get(2).getAsJsonObject().addProperty("text_index", 0);
+            return reply.toString();
+        });
+        AiException duplicate = assertThrows(AiException.class, () -> embeddingModel.embedBatch(Arrays.asList("a", "b", "c")));
+        assertTrue(duplicate.getMessage().contains("invalid text_index 0"), duplicate.getMessage());
+    }
+
+    @Test
+    void queuedBatchesAreNotAffectedByLaterChangesToTheInputList() {
+        server.serveEmbeddings(DIMENSIONS, 50);
+        // One request per second: later batches are still queued when the caller reuses its list
+        embeddingModel = model(properties(1, 1, 1.0));
+        List<String> texts = new ArrayList<>(Arrays.asList("a", "b"));
+
+        CompletableFuture<List<EmbeddingResponse>> future = embeddingModel.embedBatchAsync(texts);
+        texts.clear();
+        texts.add("changed");
+
+        List<EmbeddingResponse> responses = future.join();
+        assertEquals(Arrays.asList("a", "b"), responses.stream().map(EmbeddingResponse::getText).collect(Collectors.toList()));
+        assertEquals(StubDashScopeServer.marker("b"), (int) responses.get(1).getVector().get(0));
+    }
+
+    @Test
+    void throttledBatchDoesNotHoldTheOnlyBatchThread() {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> served = new CopyOnWriteArrayList<>();
+        server.respondWith(StubDashScopeServer.EMBEDDING_PATH, body -> {
+            if (calls.incrementAndGet() == 1) {
+                return StubDashScopeServer.throttled();
+            }
+            served.add(body.contains("first") ? "first" : "second");
+            return StubDashScopeServer.Reply.ok(StubDashScopeServer.embeddingReply(body, DIMENSIONS));
+        });
+        AlibabaAiProperties.EmbeddingProperties properties = properties(1, 1, 1000.0);
+        properties.setRetryBackoff(300L);
+        embeddingModel = model(properties);
+
+        CompletableFuture<List<EmbeddingResponse>> first =
+            embeddingModel.embedBatchAsync(Collections.singletonList("first"));
+        CompletableFuture<List<EmbeddingResponse>> second =
+            embeddingModel.embedBatchAsync(Collections.singletonList("second"));
+
+        assertEquals("second", second.join().get(0).getText());
+        assertEquals("first", first.join().get(0).getText());
+        // The second batch ran on the single batch thread while the first one was backing off
+        assertEquals(Arrays.asList("second", "first"), served);
+    }
+
+    @Test
+    void exhaustedRetriesFailWithRateLimitException() {
+        server.respondWith(StubDashScopeServer.EMBEDDING_PATH, body -> StubDashScopeServer.throttled());
+        AlibabaAiProperties.EmbeddingProperties properties = properties(1, 1, 1000.0);
+        properties.setMaxRetries(2);
+        properties.setRetryBackoff(10L);
+        embeddingModel = model(properties);
+
+        assertThrows(RateLimitException.class, () -> embeddingModel.embedBatch(Collections.singletonList("a")));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void shutdownFailsBatchesWaitingForPermits() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.respond(StubDashScopeServer.EMBEDDING_PATH, body -> {
+            await(release);
+            return StubDashScopeServer.embeddingReply(body, DIMENSIONS);
+        });
+        // One request per second: the second batch waits in the dispatcher queue
+        embeddingModel = model(properties(1, 1, 1.0));
+        CompletableFuture<List<EmbeddingResponse>> running =
+            embeddingModel.embedBatchAsync(Collections.singletonList("running"));
+        CompletableFuture<List<EmbeddingResponse>> waiting =
+            embeddingModel.embedBatchAsync(Collections.singletonList("waiting"));
+        Thread.sleep(100);
+
+        embeddingModel.shutdown();
+        release.countDown();
+
+        CompletionException error = assertThrows(CompletionException.class, waiting::join);
+        assertInstanceOf(AiException.class, error.getCause());
+        assertEquals("running", running.get(5, TimeUnit.SECONDS).get(0).getText());
+        assertThrows(CompletionException.class,
+            () -> embeddingModel.embedBatchAsync(Collections.singletonList("late")).join());
+    }
+
+    private static AlibabaAiEmbeddingModel model(AlibabaAiProperties.EmbeddingProperties properties) {
+        return new AlibabaAiEmbeddingModel("test-key", null, properties,
+            new MetricsCollector(new AlibabaAiProperties.MetricsProperties()));
+    }
+
+    static AlibabaAiProperties.EmbeddingProperties properties(int batchSize, int maxConcurrentBatches,
+                                                              double requestsPerSecond) {
+        AlibabaAiProperties.EmbeddingProperties properties = new AlibabaAiProperties.EmbeddingProperties();
+        properties.setDimensions(DIMENSIONS);
+        properties.setBatchSize(batchSize);
+        properties.setMaxConcurrentBatches(maxConcurrentBatches);
+        properties.setRequestsPerSecond(requestsPerSecond);
+        return properties;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
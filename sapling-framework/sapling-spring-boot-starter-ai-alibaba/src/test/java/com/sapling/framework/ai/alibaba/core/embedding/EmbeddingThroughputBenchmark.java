@@ -0,0 +1,108 @@
+package com.sapling.framework.ai.alibaba.core.embedding;
+
+import com.alibaba.dashscope.utils.Constants;
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.EmbeddingResponse;
+import com.sapling.framework.ai.alibaba.support.StubDashScopeServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time to embed 500 texts through {@link AlibabaAiEmbeddingModel} against a local DashScope stub
+ * with 50ms latency per request, with and without every fourth request being throttled.
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> ...EmbeddingThroughputBenchmark}.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingThroughputBenchmark {
+
+    private static final long LATENCY_MILLIS = 50L;
+
+    @Param({"1", "4"})
+    private int maxConcurrentBatches;
+
+    @Param({"0", "4"})
+    private int throttleEvery;
+
+    private StubDashScopeServer server;
+    private String originalBaseUrl;
+    private AlibabaAiEmbeddingModel embeddingModel;
+    private List<String> texts;
+
+    @Setup
+    public void setUp() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server = StubDashScopeServer.start().respondWith(StubDashScopeServer.EMBEDDING_PATH, body -> {
+            sleep(LATENCY_MILLIS);
+            if (throttleEvery > 0 && requests.incrementAndGet() % throttleEvery == 0) {
+                return StubDashScopeServer.throttled();
+            }
+            return StubDashScopeServer.Reply.ok(StubDashScopeServer.embeddingReply(body, 16));
+        });
+        originalBaseUrl = Constants.baseHttpApiUrl;
+        Constants.baseHttpApiUrl = server.getBaseUrl();
+
+        AlibabaAiProperties.EmbeddingProperties properties = AlibabaAiEmbeddingModelTest.properties(
+            25, maxConcurrentBatches, 1000.0);
+        properties.setMaxRetries(10);
+        properties.setRetryBackoff(20L);
+        embeddingModel = new AlibabaAiEmbeddingModel("bench-key", null, properties,
+            new MetricsCollector(new AlibabaAiProperties.MetricsProperties()));
+
+        texts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            texts.add("benchmark text number " + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        embeddingModel.shutdown();
+        Constants.baseHttpApiUrl = originalBaseUrl;
+        server.close();
+    }
+
+    @Benchmark
+    public List<EmbeddingResponse> embedBatch() {
+        return embeddingModel.embedBatch(texts);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmbeddingThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,221 @@
+package com.sapling.framework.ai.alibaba.core.tool;
+
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
+import com.sapling.framework.ai.alibaba.model.ToolDefinition;
+import com.sapling.framework.ai.alibaba.model.ToolResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dispatch, timeout and retry behaviour of {@link ToolCallHandler} with real tool beans.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class ToolCallHandlerTest {
+
+    private final Tools tools = new Tools();
+    private ToolCallHandler toolCallHandler;
+
+    @AfterEach
+    void tearDown() {
+        toolCallHandler.shutdown();
+    }
+
+    @Test
+    void timeQueuedBehindOtherCallsDoesNotCountAgainstTheTimeout() {
+        // One worker, 1s timeout, three calls of 600ms each: the last one waits 1.2s in the queue
+        toolCallHandler = handler(1, 1, 0);
+
+        List<ToolResult> results = toolCallHandler.handleToolCalls(response(
+            call("1", "slow"), call("2", "slow"), call("3", "slow")));
+
+        assertEquals(3, results.size());
+        for (ToolResult result : results) {
+            assertTrue(result.isSuccess(), result.getError());
+        }
+        assertEquals(3, tools.invocations("slow"));
+    }
+
+    @Test
+    void timedOutAttemptIsInterruptedAndRetried() throws Exception {
+        toolCallHandler = handler(2, 1, 1);
+
+        ToolResult result = toolCallHandler.handleToolCalls(response(call("1", "hang"))).get(0);
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getError().contains("timed out"), result.getError());
+        assertEquals(2, tools.invocations("hang"));
+        // The worker is interrupted right after the timeout completes the attempt
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (tools.interrupted.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, tools.interrupted.get());
+    }
+
+    @Test
+    void timeoutsOfCompletedAttemptsAreCancelled() throws Exception {
+        toolCallHandler = handler(2, 30, 0);
+
+        List<ToolResult> results = toolCallHandler.handleToolCalls(response(
+            call("1", "echo"), call("2", "echo"), call("3", "broken")));
+
+        assertEquals(3, results.size());
+        // Workers cancel the timeout right after completing the attempt
+        ScheduledThreadPoolExecutor timer =
+            (ScheduledThreadPoolExecutor) ReflectionTestUtils.getField(toolCallHandler, "timer");
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (!timer.getQueue().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(timer.getQueue().isEmpty());
+    }
+
+    @Test
+    void callsBeyondTheQueueBoundFailWithoutRunning() {
+        AlibabaAiProperties.ToolProperties properties = properties(1, 5, 0);
+        properties.setMaxQueuedCalls(1);
+        toolCallHandler = new ToolCallHandler(toolExecutor(tools), properties);
+
+        // One call runs, one waits and the third is rejected
+        List<ToolResult> results = toolCallHandler.handleToolCalls(response(
+            call("1", "slow"), call("2", "echo"), call("3", "echo")));
+
+        assertTrue(results.get(0).isSuccess(), results.get(0).getError());
+        assertTrue(results.get(1).isSuccess(), results.get(1).getError());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(2).getError().contains("unavailable"), results.get(2).getError());
+        assertEquals(1, tools.invocations("echo"));
+    }
+
+    @Test
+    void onlyTransientErrorsAreRetried() {
+        toolCallHandler = handler(2, 5, 2);
+
+        List<ToolResult> results = toolCallHandler.handleToolCalls(response(
+            call("1", "flaky"), call("2", "broken"), call("3", "echo")));
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).isRetryable());
+        assertEquals(3, tools.invocations("flaky"));
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(1).isRetryable());
+        assertEquals(1, tools.invocations("broken"));
+        assertTrue(results.get(2).isSuccess());
+        // Results keep the call order
+        assertEquals("1", results.get(0).getToolCallId());
+        assertEquals("2", results.get(1).getToolCallId());
+        assertEquals("3", results.get(2).getToolCallId());
+    }
+
+    private ToolCallHandler handler(int maxConcurrency, int timeout, int maxRetries) {
+        return new ToolCallHandler(toolExecutor(tools), properties(maxConcurrency, timeout, maxRetries));
+    }
+
+    private static AlibabaAiProperties.ToolProperties properties(int maxConcurrency, int timeout, int maxRetries) {
+        AlibabaAiProperties.ToolProperties properties = new AlibabaAiProperties.ToolProperties();
+        properties.setMaxConcurrency(maxConcurrency);
+        properties.setTimeout(timeout);
+        properties.setMaxRetries(maxRetries);
+        properties.setRetryBackoff(10L);
+        return properties;
+    }
+
+    /**
+     * Real executor over the public no-argument methods of {@code bean}
+     */
+    static ToolExecutor toolExecutor(Object bean) {
+        ToolRegistry toolRegistry = mock(ToolRegistry.class);
+        when(toolRegistry.getTool(anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            try {
+                return ToolDefinition.builder()
+                    .name(name)
+                    .bean(bean)
+                    .method(bean.getClass().getMethod(name))
+                    .parameters(Collections.emptyList())
+                    .enabled(true)
+                    .build();
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        });
+        return new ToolExecutor(toolRegistry, new MetricsCollector(new AlibabaAiProperties.MetricsProperties()));
+    }
+
+    static ToolCall call(String id, String name) {
+        return ToolCall.builder().id(id).name(name).parameters(Collections.emptyMap()).build();
+    }
+
+    private static ChatResponse response(ToolCall... calls) {
+        List<ToolCall> toolCalls = new ArrayList<>();
+        Collections.addAll(toolCalls, calls);
+        return ChatResponse.builder().toolCalls(toolCalls).build();
+    }
+
+    public static class Tools {
+        private final Map<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+        private final AtomicInteger interrupted = new AtomicInteger();
+
+        int invocations(String tool) {
+            return invocations.getOrDefault(tool, new AtomicInteger()).get();
+        }
+
+        private void count(String tool) {
+            invocations.computeIfAbsent(tool, k -> new AtomicInteger()).incrementAndGet();
+        }
+
+        public String slow() throws InterruptedException {
+            count("slow");
+            Thread.sleep(600);
+            return "done";
+        }
+
+        public String hang() {
+            count("hang");
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }
+
+        public String flaky() throws IOException {
+            count("flaky");
+            throw new IOException("connection reset");
+        }
+
+        public String broken() {
+            count("broken");
+            throw new IllegalStateException("bug in tool");
+        }
+
+        public String echo() {
+            count("echo");
+            return "echo";
+        }
+    }
+}
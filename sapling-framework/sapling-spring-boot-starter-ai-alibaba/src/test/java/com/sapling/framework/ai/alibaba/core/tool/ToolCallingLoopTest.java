@@ -0,0 +1,148 @@
+package com.sapling.framework.ai.alibaba.core.tool;
+
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.Message;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
+import com.sapling.framework.ai.alibaba.model.ToolDefinition;
+import com.sapling.framework.ai.alibaba.model.ToolResult;
+import com.sapling.framework.ai.alibaba.support.ScriptedChatModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Multi-round and budget behaviour of {@link ToolCallingLoop} with a scripted chat model.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class ToolCallingLoopTest {
+
+    private final ToolCallHandlerTest.Tools tools = new ToolCallHandlerTest.Tools();
+    private AlibabaAiProperties.ToolProperties properties;
+    private ScriptedChatModel chatModel;
+    private ToolCallHandler toolCallHandler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AlibabaAiProperties.ToolProperties();
+        properties.setRetryBackoff(10L);
+        chatModel = new ScriptedChatModel();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (toolCallHandler != null) {
+            toolCallHandler.shutdown();
+        }
+    }
+
+    @Test
+    void chainsToolRoundsInOneConversation() {
+        chatModel.thenToolCalls(10, "echo").thenToolCalls(10, "echo", "echo").thenAnswer(10, "done");
+
+        ChatResponse response = loop().call(request("use the tools"));
+
+        assertEquals("done", response.getContent());
+        assertEquals(3, tools.invocations("echo"));
+        List<List<Message>> requests = chatModel.getRequests();
+        assertEquals(3, requests.size());
+        assertEquals(Arrays.asList("user"), ScriptedChatModel.roles(requests.get(0)));
+        assertEquals(Arrays.asList("user", "assistant", "tool", "assistant", "tool", "tool"),
+            ScriptedChatModel.roles(requests.get(2)));
+        Message firstCall = requests.get(2).get(1);
+        assertEquals(firstCall.getToolCalls().get(0).getId(), requests.get(2).get(2).getToolCallId());
+        assertEquals("echo", requests.get(2).get(2).getContent());
+    }
+
+    @Test
+    void stopsAfterMaxRounds() {
+        properties.setMaxRounds(2);
+        chatModel.alwaysToolCalls(1, "echo");
+
+        AiException error = assertThrows(AiException.class, () -> loop().call(request("loop forever")));
+
+        assertEquals("TOOL_LOOP_LIMIT_EXCEEDED", error.getErrorCode());
+        assertEquals(3, chatModel.getRequests().size());
+        assertEquals(2, tools.invocations("echo"));
+    }
+
+    @Test
+    void stopsWhenTheTokenBudgetIsSpent() {
+        properties.setMaxTotalTokens(100);
+        chatModel.alwaysToolCalls(60, "echo");
+
+        AiException error = assertThrows(AiException.class, () -> loop().call(request("expensive")));
+
+        assertEquals("TOOL_LOOP_LIMIT_EXCEEDED", error.getErrorCode());
+        // 60 tokens allow a second call, 120 stop before the next tool round
+        assertEquals(2, chatModel.getRequests().size());
+        assertEquals(1, tools.invocations("echo"));
+    }
+
+    @Test
+    void failedToolIsReportedToTheModel() {
+        chatModel.thenToolCalls(10, "broken").thenAnswer(10, "sorry");
+
+        assertEquals("sorry", loop().call(request("try")).getContent());
+
+        Message toolMessage = chatModel.getRequests().get(1).get(2);
+        assertEquals("tool", toolMessage.getRole());
+        assertEquals("Error: Unexpected error: bug in tool", toolMessage.getContent());
+    }
+
+    @Test
+    void toolResultsOfTheRequestSeedTheConversation() {
+        ToolCall pending = ToolCall.builder().id("call-0").name("weather").build();
+        ChatRequest request = ChatRequest.builder()
+            .history(Arrays.asList(Message.user("weather?"),
+                Message.assistant("", Collections.singletonList(pending))))
+            .toolResults(Collections.singletonList(ToolResult.success("call-0", "weather", "sunny", 5L)))
+            .tools(Collections.singletonList(ToolDefinition.builder().name("echo").build()))
+            .build();
+        chatModel.thenAnswer(10, "It is sunny");
+
+        assertEquals("It is sunny", loop().call(request).getContent());
+
+        List<Message> sent = chatModel.getRequests().get(0);
+        assertEquals(Arrays.asList("user", "assistant", "tool"), ScriptedChatModel.roles(sent));
+        assertEquals("call-0", sent.get(2).getToolCallId());
+        assertEquals("sunny", sent.get(2).getContent());
+    }
+
+    @Test
+    void streamEmitsTextOfEveryRound() {
+        chatModel.thenToolCalls(10, "echo").thenAnswer(10, "ok");
+
+        StepVerifier.create(loop().stream(request("stream")))
+            .expectNext("o", "k")
+            .verifyComplete();
+
+        assertEquals(1, tools.invocations("echo"));
+        assertEquals(Arrays.asList("user", "assistant", "tool"),
+            ScriptedChatModel.roles(chatModel.getRequests().get(1)));
+    }
+
+    private ToolCallingLoop loop() {
+        toolCallHandler = new ToolCallHandler(ToolCallHandlerTest.toolExecutor(tools), properties);
+        return new ToolCallingLoop(chatModel, toolCallHandler);
+    }
+
+    private static ChatRequest request(String message) {
+        return ChatRequest.builder()
+            .message(message)
+            .tools(Collections.singletonList(ToolDefinition.builder().name("echo").build()))
+            .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.sapling.framework.ai.alibaba.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serialization and compatibility API of {@link EmbeddingResponse}.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class EmbeddingResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void serializesVectorAsEmbeddingArray() throws Exception {
+        EmbeddingResponse response = EmbeddingResponse.builder()
+            .vector(EmbeddingVector.of(new float[]{0.5f, -0.25f, 1f}))
+            .text("hello")
+            .requestId("req-1")
+            .build();
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response));
+
+        assertFalse(json.has("vector"));
+        assertEquals("hello", json.get("text").asText());
+        assertEquals(3, json.get("embedding").size());
+        assertEquals(0.5, json.get("embedding").get(0).asDouble());
+        assertEquals(-0.25, json.get("embedding").get(1).asDouble());
+    }
+
+    @Test
+    void serializesMissingVectorAsNull() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(
+            EmbeddingResponse.builder().text("hello").build()));
+
+        assertTrue(json.get("embedding").isNull());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedListSettersFillTheVector() {
+        EmbeddingResponse built = EmbeddingResponse.builder()
+            .embedding(Arrays.asList(1.0, 2.0))
+            .build();
+        EmbeddingResponse set = EmbeddingResponse.builder().build();
+        set.setEmbedding(Arrays.asList(1.0, 2.0));
+
+        assertEquals(EmbeddingVector.of(new float[]{1f, 2f}), built.getVector());
+        assertEquals(built.getVector(), set.getVector());
+        assertEquals(Arrays.asList(1.0, 2.0), set.getEmbedding());
+
+        set.setEmbedding(null);
+        assertNull(set.getVector());
+    }
+}
@@ -0,0 +1,91 @@
+package com.sapling.framework.ai.alibaba.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap held per cached embedding: the former boxed {@code List<Double>} as parsed by the SDK,
+ * against {@link EmbeddingVector} and its int8 quantization. Each benchmark allocates exactly the
+ * retained representation, so {@code gc.alloc.rate.norm} is the footprint per vector.
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> ...EmbeddingVectorBenchmark},
+ * which enables the GC profiler.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingVectorBenchmark {
+
+    @Param({"1536"})
+    private int dimensions;
+
+    private double[] components;
+    private EmbeddingVector vector;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        components = new double[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            components[i] = random.nextGaussian();
+        }
+        vector = EmbeddingVector.wrap(toFloats(components));
+    }
+
+    @Benchmark
+    public List<Double> boxedList() {
+        // The SDK boxes every parsed component, the former cache kept this list
+        List<Double> list = new ArrayList<>(dimensions);
+        for (double component : components) {
+            list.add(Double.valueOf(component));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public EmbeddingVector floatVector() {
+        return EmbeddingVector.wrap(toFloats(components));
+    }
+
+    @Benchmark
+    public QuantizedEmbeddingVector quantizedVector() {
+        return vector.quantize();
+    }
+
+    private static float[] toFloats(double[] components) {
+        float[] values = new float[components.length];
+        for (int i = 0; i < components.length; i++) {
+            values[i] = (float) components[i];
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmbeddingVectorBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package com.sapling.framework.ai.alibaba.service;
+
+import com.sapling.framework.ai.alibaba.cache.AiCacheManager;
+import com.sapling.framework.ai.alibaba.cache.SemanticCache;
+import com.sapling.framework.ai.alibaba.config.AlibabaAiProperties;
+import com.sapling.framework.ai.alibaba.core.chat.ChatModel;
+import com.sapling.framework.ai.alibaba.core.image.ImageModel;
+import com.sapling.framework.ai.alibaba.core.tool.ToolCallHandler;
+import com.sapling.framework.ai.alibaba.core.tool.ToolExecutor;
+import com.sapling.framework.ai.alibaba.core.tool.ToolRegistry;
+import com.sapling.framework.ai.alibaba.metrics.MetricsCollector;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.EmbeddingVector;
+import com.sapling.framework.ai.alibaba.model.ToolDefinition;
+import com.sapling.framework.ai.alibaba.support.FakeEmbeddingModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache behaviour of {@link AlibabaAiService} with an in-memory embedding model.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class AlibabaAiServiceCacheTest {
+
+    private FakeEmbeddingModel embeddingModel;
+    private ChatModel chatModel;
+    private AiCacheManager aiCacheManager;
+    private ToolCallHandler toolCallHandler;
+    private AlibabaAiService service;
+
+    @BeforeEach
+    void setUp() {
+        embeddingModel = new FakeEmbeddingModel(8);
+        chatModel = mock(ChatModel.class);
+        when(chatModel.getModel()).thenReturn("qwen-turbo");
+        when(chatModel.call(any())).thenAnswer(invocation -> ChatResponse.builder()
+            .content("answer to " + invocation.<ChatRequest>getArgument(0).getMessage())
+            .build());
+        AlibabaAiProperties.CacheProperties cacheProperties = new AlibabaAiProperties.CacheProperties();
+        cacheProperties.setEnabled(true);
+        aiCacheManager = new AiCacheManager(cacheProperties);
+        ToolExecutor toolExecutor = mock(ToolExecutor.class);
+        toolCallHandler = new ToolCallHandler(toolExecutor);
+        service = new AlibabaAiService(chatModel, embeddingModel, mock(ImageModel.class), mock(ToolRegistry.class),
+            toolExecutor, toolCallHandler, aiCacheManager, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        toolCallHandler.shutdown();
+    }
+
+    @Test
+    void concurrentEmbedsOfOneTextCallTheModelOnce() throws Exception {
+        embeddingModel.latency(200);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(50);
+        try {
+            List<Future<EmbeddingVector>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return service.embedVector("hot text");
+                }));
+            }
+            start.countDown();
+            for (Future<EmbeddingVector> result : results) {
+                assertEquals(embeddingModel.vectorOf("hot text"), result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, embeddingModel.getEmbedCalls());
+        assertEquals(49, aiCacheManager.getStats().getCoalescedCount() + aiCacheManager.getStats().getHitCount());
+    }
+
+    @Test
+    void deterministicChatIsServedFromCache() {
+        assertEquals("answer to q", service.chatCached("q"));
+        assertEquals("answer to q", service.chatCached("  q "));
+        assertEquals("answer to other", service.chatCached("other"));
+
+        verify(chatModel, times(2)).call(any());
+    }
+
+    @Test
+    void semanticCacheAnswersRepeatedPromptAndVerifiesSampledHits() throws Exception {
+        AlibabaAiProperties.SemanticCacheProperties properties = new AlibabaAiProperties.SemanticCacheProperties();
+        properties.setEnabled(true);
+        properties.setFalseHitSampleRate(1.0);
+        MetricsCollector metricsCollector = new MetricsCollector(new AlibabaAiProperties.MetricsProperties());
+        SemanticCache semanticCache = new SemanticCache(properties, metricsCollector);
+        AlibabaAiService semanticService = new AlibabaAiService(chatModel, embeddingModel, mock(ImageModel.class),
+            mock(ToolRegistry.class), mock(ToolExecutor.class), toolCallHandler, aiCacheManager, semanticCache);
+        try {
+            assertEquals("answer to what is hnsw", semanticService.chat("what is hnsw"));
+            assertEquals("answer to what is hnsw", semanticService.chat("what is hnsw"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (metricsCollector.getMetrics().getSemanticCacheSampledHits() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            semanticCache.shutdown();
+        }
+
+        // The hit is served from the cache, the sample re-asks the model in the background
+        verify(chatModel, times(2)).call(any());
+        assertEquals(1, metricsCollector.getMetrics().getSemanticCacheHits());
+        assertEquals(1, metricsCollector.getMetrics().getSemanticCacheSampledHits());
+        assertEquals(0, metricsCollector.getMetrics().getSemanticCacheFalseHits());
+    }
+
+    @Test
+    void sampledOrToolChatBypassesCache() {
+        ChatRequest sampled = ChatRequest.builder().message("q").temperature(0.7).build();
+        ChatRequest withTools = ChatRequest.builder().message("q").temperature(0.0)
+            .tools(Collections.singletonList(ToolDefinition.builder().name("weather").build()))
+            .build();
+
+        service.chatCached(sampled);
+        service.chatCached(sampled);
+        service.chatCached(withTools);
+        service.chatCached(withTools);
+
+        verify(chatModel, times(4)).call(any());
+        assertEquals(0, aiCacheManager.getStats().getSize());
+    }
+}
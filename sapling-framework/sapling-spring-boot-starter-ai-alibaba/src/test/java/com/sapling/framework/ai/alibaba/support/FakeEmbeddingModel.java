@@ -0,0 +1,129 @@
+package com.sapling.framework.ai.alibaba.support;
+
+import com.sapling.framework.ai.alibaba.core.embedding.EmbeddingModel;
+import com.sapling.framework.ai.alibaba.model.EmbeddingResponse;
+import com.sapling.framework.ai.alibaba.model.EmbeddingVector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory embedding model: deterministic pseudo-random unit vectors per text, or vectors registered
+ * by the test. Counts calls so tests can assert how many texts reached the "API".
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public class FakeEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+    private final Map<String, float[]> registered = new ConcurrentHashMap<>();
+    private final AtomicInteger embedCalls = new AtomicInteger();
+    private final AtomicInteger embeddedTexts = new AtomicInteger();
+    private volatile long latencyMillis;
+
+    public FakeEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * Return the given vector for {@code text} instead of a generated one
+     */
+    public FakeEmbeddingModel register(String text, float... vector) {
+        registered.put(text, vector);
+        return this;
+    }
+
+    /**
+     * Delay every call, to widen race windows in concurrency tests
+     */
+    public FakeEmbeddingModel latency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    public int getEmbedCalls() {
+        return embedCalls.get();
+    }
+
+    /**
+     * Texts embedded across single and batch calls
+     */
+    public int getEmbeddedTexts() {
+        return embeddedTexts.get();
+    }
+
+    @Override
+    public EmbeddingResponse embed(String text) {
+        embedCalls.incrementAndGet();
+        sleep();
+        return response(text);
+    }
+
+    @Override
+    public List<EmbeddingResponse> embedBatch(List<String> texts) {
+        sleep();
+        return texts.stream().map(this::response).collect(Collectors.toList());
+    }
+
+    @Override
+    public CompletableFuture<List<EmbeddingResponse>> embedBatchAsync(List<String> texts) {
+        return CompletableFuture.supplyAsync(() -> embedBatch(texts));
+    }
+
+    @Override
+    public String getModel() {
+        return "fake-embedding";
+    }
+
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Deterministic unit vector for {@code text}
+     */
+    public EmbeddingVector vectorOf(String text) {
+        float[] vector = registered.get(text);
+        if (vector != null) {
+            return EmbeddingVector.of(vector);
+        }
+        Random random = new Random(text.hashCode());
+        float[] values = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            values[i] = (float) random.nextGaussian();
+            norm += values[i] * values[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            values[i] *= scale;
+        }
+        return EmbeddingVector.of(values);
+    }
+
+    private EmbeddingResponse response(String text) {
+        embeddedTexts.incrementAndGet();
+        return EmbeddingResponse.builder()
+            .vector(vectorOf(text))
+            .text(text)
+            .build();
+    }
+
+    private void sleep() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
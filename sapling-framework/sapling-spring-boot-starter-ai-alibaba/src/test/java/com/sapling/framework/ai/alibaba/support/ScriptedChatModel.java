@@ -0,0 +1,139 @@
+package com.sapling.framework.ai.alibaba.support;
+
+import com.sapling.framework.ai.alibaba.core.chat.ChatModel;
+import com.sapling.framework.ai.alibaba.model.ChatRequest;
+import com.sapling.framework.ai.alibaba.model.ChatResponse;
+import com.sapling.framework.ai.alibaba.model.Message;
+import com.sapling.framework.ai.alibaba.model.ToolCall;
+import com.sapling.framework.ai.alibaba.model.Usage;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Chat model answering from a script of responses, one per call. Records a snapshot of the
+ * messages of every request, since tool loops keep appending to the same history.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public class ScriptedChatModel implements ChatModel {
+
+    private final ConcurrentLinkedQueue<ChatResponse> script = new ConcurrentLinkedQueue<>();
+    private final List<List<Message>> requests = new CopyOnWriteArrayList<>();
+    private ChatResponse repeated;
+
+    /**
+     * Answer the next call with tool calls of the given tool names
+     */
+    public ScriptedChatModel thenToolCalls(int totalTokens, String... toolNames) {
+        script.add(toolCallResponse(totalTokens, toolNames));
+        return this;
+    }
+
+    /**
+     * Answer the next call with a final text
+     */
+    public ScriptedChatModel thenAnswer(int totalTokens, String content) {
+        script.add(ChatResponse.builder()
+            .content(content)
+            .finishReason("stop")
+            .usage(usage(totalTokens))
+            .build());
+        return this;
+    }
+
+    /**
+     * Answer every call after the script with tool calls of the given tool names
+     */
+    public ScriptedChatModel alwaysToolCalls(int totalTokens, String... toolNames) {
+        repeated = toolCallResponse(totalTokens, toolNames);
+        return this;
+    }
+
+    /**
+     * Messages of each request in call order
+     */
+    public List<List<Message>> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public ChatResponse call(ChatRequest request) {
+        requests.add(new ArrayList<>(request.getHistory() != null ? request.getHistory() : Collections.emptyList()));
+        ChatResponse next = script.poll();
+        if (next == null) {
+            next = repeated;
+        }
+        if (next == null) {
+            throw new IllegalStateException("Script exhausted after " + requests.size() + " calls");
+        }
+        return next;
+    }
+
+    /**
+     * Stream the scripted response content one character per chunk, followed by a final chunk
+     * carrying tool calls, finish reason and usage
+     */
+    @Override
+    public Flux<ChatResponse> stream(ChatRequest request) {
+        return Flux.defer(() -> {
+            ChatResponse response = call(request);
+            String content = response.getContent() != null ? response.getContent() : "";
+            List<ChatResponse> chunks = new ArrayList<>();
+            for (char c : content.toCharArray()) {
+                chunks.add(ChatResponse.builder().content(String.valueOf(c)).build());
+            }
+            chunks.add(ChatResponse.builder()
+                .content("")
+                .toolCalls(response.getToolCalls())
+                .finishReason(response.getFinishReason())
+                .usage(response.getUsage())
+                .build());
+            return Flux.fromIterable(chunks);
+        });
+    }
+
+    @Override
+    public String getModel() {
+        return "scripted";
+    }
+
+    private static ChatResponse toolCallResponse(int totalTokens, String... toolNames) {
+        List<ToolCall> toolCalls = new ArrayList<>();
+        for (String toolName : toolNames) {
+            toolCalls.add(ToolCall.builder()
+                .id("call-" + toolName + "-" + System.nanoTime())
+                .name(toolName)
+                .type("function")
+                .parameters(Map.of())
+                .build());
+        }
+        return ChatResponse.builder()
+            .content("")
+            .toolCalls(toolCalls)
+            .finishReason("tool_calls")
+            .usage(usage(totalTokens))
+            .build();
+    }
+
+    private static Usage usage(int totalTokens) {
+        return Usage.builder().totalTokens(totalTokens).build();
+    }
+
+    /**
+     * Roles of the given messages, for compact assertions
+     */
+    public static List<String> roles(List<Message> messages) {
+        List<String> roles = new ArrayList<>();
+        for (Message message : messages) {
+            roles.add(message.getRole());
+        }
+        return roles;
+    }
+}
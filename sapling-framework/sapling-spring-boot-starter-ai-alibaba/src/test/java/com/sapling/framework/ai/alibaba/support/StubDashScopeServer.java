@@ -0,0 +1,267 @@
+package com.sapling.framework.ai.alibaba.support;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local DashScope endpoint serving canned responses over HTTP, so tests exercise the real SDK client.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+public class StubDashScopeServer implements AutoCloseable {
+
+    public static final String GENERATION_PATH = "/api/v1/services/aigc/text-generation/generation";
+
+    public static final String EMBEDDING_PATH = "/api/v1/services/embeddings/text-embedding/text-embedding";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger framesWritten = new AtomicInteger();
+
+    private StubDashScopeServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::dispatch);
+    }
+
+    public static StubDashScopeServer start() throws IOException {
+        StubDashScopeServer stub = new StubDashScopeServer();
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * Base URL in the form expected by the SDK clients
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/";
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Number of SSE frames fully written to clients
+     */
+    public int getFramesWritten() {
+        return framesWritten.get();
+    }
+
+    /**
+     * Serve generation requests as an incremental SSE stream: one frame per chunk, then a final
+     * frame with {@code finish_reason=stop} and usage.
+     */
+    public StubDashScopeServer streamGeneration(List<String> chunks, long frameIntervalMillis) {
+        routes.put(GENERATION_PATH, (exchange, body) -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream;charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            for (int i = 0; i < chunks.size(); i++) {
+                writeFrame(out, i, generationFrame(chunks.get(i), "null", 0));
+                pause(frameIntervalMillis);
+            }
+            writeFrame(out, chunks.size(), generationFrame("", "stop", chunks.size()));
+            out.close();
+        });
+        return this;
+    }
+
+    /**
+     * Answer any request on {@code path} with the given status and JSON body
+     */
+    public StubDashScopeServer respond(String path, int status, String json) {
+        routes.put(path, (exchange, body) -> writeJson(exchange, status, json));
+        return this;
+    }
+
+    /**
+     * Answer requests on {@code path} with a handler computing the JSON body from the request body
+     */
+    public StubDashScopeServer respond(String path, JsonResponder responder) {
+        return respondWith(path, body -> Reply.ok(responder.respond(body)));
+    }
+
+    /**
+     * Answer requests on {@code path} with a handler computing status and JSON body from the request body
+     */
+    public StubDashScopeServer respondWith(String path, Responder responder) {
+        routes.put(path, (exchange, body) -> {
+            Reply reply = responder.respond(body);
+            writeJson(exchange, reply.status, reply.json);
+        });
+        return this;
+    }
+
+    /**
+     * Serve embedding requests after {@code latencyMillis}, see {@link #embeddingReply(String, int)}
+     */
+    public StubDashScopeServer serveEmbeddings(int dimensions, long latencyMillis) {
+        return respond(EMBEDDING_PATH, body -> {
+            pause(latencyMillis);
+            return embeddingReply(body, dimensions);
+        });
+    }
+
+    /**
+     * Embedding response for every input text: the first component is {@link #marker(String)},
+     * so tests can check which text a vector belongs to
+     */
+    public static String embeddingReply(String requestBody, int dimensions) {
+        JsonArray texts = JsonParser.parseString(requestBody).getAsJsonObject()
+            .getAsJsonObject("input").getAsJsonArray("texts");
+        JsonArray embeddings = new JsonArray();
+        int tokens = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i).getAsString();
+            tokens += text.length();
+            JsonArray vector = new JsonArray();
+            vector.add(marker(text));
+            for (int d = 1; d < dimensions; d++) {
+                vector.add(d);
+            }
+            JsonObject embedding = new JsonObject();
+            embedding.addProperty("text_index", i);
+            embedding.add("embedding", vector);
+            embeddings.add(embedding);
+        }
+        JsonObject output = new JsonObject();
+        output.add("embeddings", embeddings);
+        JsonObject usage = new JsonObject();
+        usage.addProperty("total_tokens", tokens);
+        JsonObject reply = new JsonObject();
+        reply.add("output", output);
+        reply.add("usage", usage);
+        reply.addProperty("request_id", "stub-request");
+        return reply.toString();
+    }
+
+    /**
+     * Small hash of {@code text}, exact as a float vector component
+     */
+    public static int marker(String text) {
+        return Math.floorMod(text.hashCode(), 1 << 20);
+    }
+
+    /**
+     * Throttling error in the DashScope format
+     */
+    public static Reply throttled() {
+        return new Reply(429, "{\"code\":\"Throttling.RateQuota\",\"message\":\"Requests rate limit exceeded\","
+            + "\"request_id\":\"stub-request\"}");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Route route = routes.get(exchange.getRequestURI().getPath());
+        try {
+            if (route == null) {
+                writeJson(exchange, 404, "{\"code\":\"NotFound\",\"message\":\"No stub for "
+                    + exchange.getRequestURI().getPath() + "\"}");
+            } else {
+                route.handle(exchange, body);
+            }
+        } catch (IOException e) {
+            // Client went away mid-response
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void writeFrame(OutputStream out, int id, String data) throws IOException {
+        out.write(("id:" + id + "\nevent:result\n:HTTP_STATUS/200\ndata:" + data + "\n\n")
+            .getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        framesWritten.incrementAndGet();
+    }
+
+    private static void writeJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String generationFrame(String content, String finishReason, int outputTokens) {
+        return "{\"output\":{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content
+            + "\"},\"finish_reason\":\"" + finishReason + "\"}]},"
+            + "\"usage\":{\"input_tokens\":5,\"output_tokens\":" + outputTokens
+            + ",\"total_tokens\":" + (5 + outputTokens) + "},\"request_id\":\"stub-request\"}";
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Computes a JSON response body from the raw request body
+     */
+    @FunctionalInterface
+    public interface JsonResponder {
+        String respond(String requestBody);
+    }
+
+    /**
+     * Computes status and JSON response body from the raw request body
+     */
+    @FunctionalInterface
+    public interface Responder {
+        Reply respond(String requestBody);
+    }
+
+    /**
+     * HTTP status and JSON body of a stub response
+     */
+    public static final class Reply {
+        private final int status;
+        private final String json;
+
+        public Reply(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+
+        public static Reply ok(String json) {
+            return new Reply(200, json);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        void handle(HttpExchange exchange, String body) throws IOException;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Top-10 query throughput of {@link HnswVectorIndex} at 100k and 1M vectors of 32 dimensions.
+ * Setup builds the index with parallel inserts; recall@10 against exhaustive search is checked by
+ * {@link HnswVectorIndexTest#recallMatchesBruteForce()} rather than measured here.
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> ...HnswVectorIndexBenchmark};
+ * the 1M case needs a heap of about 2 GB.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class HnswVectorIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"64"})
+    private int efSearch;
+
+    private HnswVectorIndex index;
+    private float[][] queries;
+
+    @Setup
+    public void setUp() {
+        float[][] vectors = HnswVectorIndexTest.randomVectors(size, 1);
+        index = new HnswVectorIndex(HnswIndexConfig.builder()
+            .dimensions(vectors[0].length)
+            .capacity(size)
+            .efSearch(efSearch)
+            .build());
+        IntStream.range(0, size).parallel().forEach(i -> index.add("v" + i, vectors[i]));
+        queries = HnswVectorIndexTest.randomVectors(1_000, 2);
+    }
+
+    @Benchmark
+    public List<VectorSearchResult> searchTop10() {
+        return index.search(queries[ThreadLocalRandom.current().nextInt(queries.length)], 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HnswVectorIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,226 @@
+package com.sapling.framework.ai.alibaba.vector;
+
+import com.sapling.framework.ai.alibaba.exception.AiException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link HnswVectorIndex}, with recall checked against exhaustive search.
+ *
+ * @author Sapling Team
+ * @since 1.0.0
+ */
+class HnswVectorIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void recallMatchesBruteForce() {
+        float[][] vectors = randomVectors(3_000, 1);
+        HnswVectorIndex index = index(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("v" + i, vectors[i]);
+        }
+
+        double recall = recallAt10(index, vectors, randomVectors(100, 2));
+
+        assertTrue(recall >= 0.95, "recall@10 " + recall);
+    }
+
+    @Test
+    void indexedVectorIsItsOwnNearestNeighbor() {
+        float[][] vectors = randomVectors(500, 3);
+        HnswVectorIndex index = index(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("v" + i, vectors[i]);
+        }
+
+        for (int i = 0; i < vectors.length; i += 50) {
+            VectorSearchResult best = index.search(vectors[i], 1).get(0);
+            assertEquals("v" + i, best.getId());
+            assertEquals(1f, best.getScore(), 1e-5f);
+        }
+    }
+
+    @Test
+    void searchOfEmptyIndexReturnsNothing() {
+        assertTrue(index(10).search(randomVectors(1, 4)[0], 5).isEmpty());
+    }
+
+    @Test
+    void rejectsDuplicateIdsAndWrongDimensions() {
+        HnswVectorIndex index = index(10);
+        index.add("a", randomVectors(1, 5)[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> index.add("a", randomVectors(1, 6)[0]));
+        assertThrows(IllegalArgumentException.class, () -> index.add("b", new float[DIMENSIONS + 1]));
+        assertThrows(IllegalArgumentException.class, () -> index.search(new float[DIMENSIONS - 1], 1));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rejectedAddsDoNotConsumeCapacity() {
+        HnswVectorIndex index = index(2);
+        float[][] vectors = randomVectors(4, 7);
+        index.add("a", vectors[0]);
+        for (int i = 0; i < 10; i++) {
+            assertThrows(IllegalArgumentException.class, () -> index.add("a", vectors[1]));
+        }
+
+        index.add("b", vectors[1]);
+        AiException full = assertThrows(AiException.class, () -> index.add("c", vectors[2]));
+        assertEquals("VECTOR_INDEX_FULL", full.getErrorCode());
+        // The id of a rejected add stays available
+        assertThrows(AiException.class, () -> index.add("c", vectors[3]));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void racingDuplicatesTakeOneSlot() throws Exception {
+        HnswVectorIndex index = index(2);
+        float[] vector = randomVectors(1, 12)[0];
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        index.add("dup", vector);
+                    } catch (IllegalArgumentException e) {
+                        // Expected for all but one attempt
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        index.add("other", randomVectors(1, 13)[0]);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void concurrentInsertsAreAllSearchable() throws Exception {
+        float[][] vectors = randomVectors(2_000, 8);
+        HnswVectorIndex index = index(vectors.length);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = offset; i < vectors.length; i += 4) {
+                        index.add("v" + i, vectors[i]);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(vectors.length, index.size());
+        int found = 0;
+        for (int i = 0; i < vectors.length; i++) {
+            if (index.search(vectors[i], 1).get(0).getId().equals("v" + i)) {
+                found++;
+            }
+        }
+        assertTrue(found >= vectors.length * 0.99, "found " + found);
+    }
+
+    @Test
+    void snapshotRestoresTheSameGraph(@TempDir Path directory) {
+        float[][] vectors = randomVectors(1_000, 9);
+        HnswVectorIndex index = index(vectors.length + 10);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("v" + i, vectors[i]);
+        }
+        Path snapshot = directory.resolve("index.hnsw");
+
+        index.save(snapshot);
+        HnswVectorIndex restored = HnswVectorIndex.load(snapshot);
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.dimensions(), restored.dimensions());
+        for (float[] query : randomVectors(20, 10)) {
+            assertEquals(ids(index.search(query, 10)), ids(restored.search(query, 10)));
+        }
+        restored.add("new", randomVectors(1, 11)[0]);
+        assertThrows(IllegalArgumentException.class, () -> restored.add("v0", vectors[0]));
+        assertEquals(index.size() + 1, restored.size());
+    }
+
+    /**
+     * Share of the exact top 10 found by the index, averaged over the queries
+     */
+    static double recallAt10(VectorIndex index, float[][] vectors, float[][] queries) {
+        int hits = 0;
+        for (float[] query : queries) {
+            Set<String> expected = bruteForce(vectors, query, 10);
+            for (VectorSearchResult result : index.search(query, 10)) {
+                if (expected.contains(result.getId())) {
+                    hits++;
+                }
+            }
+        }
+        return hits / (queries.length * 10.0);
+    }
+
+    private static Set<String> bruteForce(float[][] vectors, float[] query, int k) {
+        NodeHeap best = NodeHeap.max(k + 1);
+        for (int i = 0; i < vectors.length; i++) {
+            best.push(i, -VectorSimilarity.cosine(vectors[i], query));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        Set<String> ids = new HashSet<>();
+        while (!best.isEmpty()) {
+            ids.add("v" + best.poll());
+        }
+        return ids;
+    }
+
+    static float[][] randomVectors(int count, long seed) {
+        Random random = new Random(seed);
+        float[][] vectors = new float[count][DIMENSIONS];
+        for (float[] vector : vectors) {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    private static HnswVectorIndex index(int capacity) {
+        return new HnswVectorIndex(HnswIndexConfig.builder()
+            .dimensions(DIMENSIONS)
+            .capacity(capacity)
+            .build());
+    }
+
+    private static List<String> ids(List<VectorSearchResult> results) {
+        return results.stream().map(VectorSearchResult::getId).collect(Collectors.toList());
+    }
+}
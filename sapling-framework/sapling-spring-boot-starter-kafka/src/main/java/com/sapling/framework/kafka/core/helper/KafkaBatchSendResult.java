@@ -0,0 +1,44 @@
+package com.sapling.framework.kafka.core.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 批量发送结果
+ *
+ * @author mbws
+ */
+@Getter
+@AllArgsConstructor
+public class KafkaBatchSendResult<V> {
+
+    /**
+     * 消息总数
+     */
+    private final int total;
+
+    /**
+     * 发送失败（含超时未确认）的消息下标，升序
+     */
+    private final List<Integer> failedIndexes;
+
+    /**
+     * 发送失败的消息，与 failedIndexes 一一对应
+     */
+    private final List<V> failedMessages;
+
+    /**
+     * 第一个失败原因
+     */
+    private final Throwable firstError;
+
+    public int getSuccessCount() {
+        return total - failedIndexes.size();
+    }
+
+    public boolean isAllSucceeded() {
+        return failedIndexes.isEmpty();
+    }
+}
@@ -6,7 +6,14 @@ import org.springframework.kafka.support.ProducerListener;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * @author 小工匠
@@ -16,6 +23,11 @@ import java.util.concurrent.ExecutionException;
 @Component
 public class KafkaTemplateHelper<K, V> {
 
+    /**
+     * 批量发送中表示发送成功的标记
+     */
+    private static final Object SENT = new Object();
+
     /**
      * 同步发送消息
      *
@@ -150,4 +162,72 @@ public class KafkaTemplateHelper<K, V> {
         asyncSendWithKey(kafkaTemplate, topic, key, message, null);
     }
 
+    /**
+     * 批量异步发送消息，并等待全部发送结果
+     * 同时未确认的消息数不超过 maxInFlight，超出时阻塞调用线程；全部提交后立即 flush，不等待 linger 时间。
+     * 超时未确认的消息按失败处理，调用方可只重发失败的子集。
+     *
+     * @param kafkaTemplate kafka template
+     * @param topic         topic
+     * @param messages      消息
+     * @param maxInFlight   最大未确认消息数
+     * @param timeoutMillis 等待全部确认的超时时间（毫秒）
+     * @return 发送结果
+     */
+    public KafkaBatchSendResult<V> batchSend(KafkaTemplate<K, V> kafkaTemplate, String topic, List<V> messages, int maxInFlight, long timeoutMillis) {
+        Assert.isTrue(ObjectUtils.isNotEmpty(topic), "Send message to kafka topic cannot be empty.");
+        Assert.notNull(messages, "Send message to kafka data cannot be null.");
+        int total = messages.size();
+        // 每条消息的发送结果：null 未确认，SENT 成功，其余为失败原因
+        AtomicReferenceArray<Object> outcomes = new AtomicReferenceArray<>(total);
+        Semaphore window = new Semaphore(Math.max(1, maxInFlight));
+        CountDownLatch completed = new CountDownLatch(total);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (int i = 0; i < total; i++) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !window.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                final int index = i;
+                try {
+                    kafkaTemplate.send(topic, messages.get(i)).addCallback(
+                            result -> complete(outcomes, index, SENT, window, completed),
+                            ex -> complete(outcomes, index, ex, window, completed));
+                } catch (Exception e) {
+                    complete(outcomes, index, e, window, completed);
+                }
+            }
+            kafkaTemplate.flush();
+            completed.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Integer> failedIndexes = new ArrayList<>();
+        List<V> failedMessages = new ArrayList<>();
+        Throwable firstError = null;
+        for (int i = 0; i < total; i++) {
+            Object outcome = outcomes.get(i);
+            if (outcome == SENT) {
+                continue;
+            }
+            failedIndexes.add(i);
+            failedMessages.add(messages.get(i));
+            if (firstError == null) {
+                firstError = outcome instanceof Throwable ? (Throwable) outcome
+                        : new TimeoutException("Send message to kafka not acknowledged within " + timeoutMillis + "ms.");
+            }
+        }
+        return new KafkaBatchSendResult<>(total, failedIndexes, failedMessages, firstError);
+    }
+
+    private static void complete(AtomicReferenceArray<Object> outcomes, int index, Object outcome,
+                                 Semaphore window, CountDownLatch completed) {
+        if (outcomes.compareAndSet(index, null, outcome)) {
+            window.release();
+            completed.countDown();
+        }
+    }
+
 }
@@ -88,5 +88,10 @@ public class ZfKafkaProducer {
      * 用于配置客户端的其他特定于生产者的属性。
      */
     private final Map<String, String> properties = new HashMap<>();
+
+    /**
+     * 生产者配置档，key 为配置档名称，每个配置档注册一个独立的 kafka template
+     */
+    private Map<String, ZfKafkaProducerProfile> profiles = new HashMap<>();
 }
     
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.sapling.framework.kafka.core.properties;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 生产者配置档
+ * 在所属数据源生产者配置的基础上覆盖部分参数，注册为独立的 kafka template，
+ * 供吞吐、延迟要求不同的业务链路分别使用。未配置的参数沿用数据源生产者配置。
+ *
+ * @author mbws
+ */
+@Data
+public class ZfKafkaProducerProfile {
+
+    /**
+     * kafka template bean 名称
+     */
+    private String kafkaTemplate;
+
+    /**
+     * 生产者每次发送消息的时间间隔（毫秒）
+     */
+    private Integer lingerMs;
+
+    /**
+     * 批处理消息字节数
+     */
+    private Integer batchSize;
+
+    /**
+     * 压缩类型：none、gzip、snappy、lz4、zstd
+     */
+    private String compressionType;
+
+    /**
+     * 答复数：0、1、all
+     */
+    private String acks;
+
+    /**
+     * 值序列化类，发送预先序列化的字节数组时配置为 ByteArraySerializer
+     */
+    private Class<?> valueSerializer;
+
+    /**
+     * 其他生产者属性
+     */
+    private Map<String, String> properties = new HashMap<>();
+}
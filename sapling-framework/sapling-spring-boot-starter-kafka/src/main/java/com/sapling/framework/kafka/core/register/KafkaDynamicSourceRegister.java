@@ -4,6 +4,7 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.bean.copier.CopyOptions;
 import com.sapling.framework.kafka.core.properties.ZfKafkaConsumer;
 import com.sapling.framework.kafka.core.properties.ZfKafkaProducer;
+import com.sapling.framework.kafka.core.properties.ZfKafkaProducerProfile;
 import com.sapling.framework.kafka.core.properties.ZfKafkaProperties;
 import com.sapling.framework.kafka.core.properties.ZfKafkaSecurity;
 import jakarta.annotation.Resource;
@@ -118,6 +119,43 @@ public class KafkaDynamicSourceRegister implements InitializingBean {
     }
 
 
+    /**
+     * 生产者配置档配置：在数据源生产者配置的基础上覆盖配置档中已设置的参数
+     * 数据源生产者的 compression-type 与 properties 只作为配置档的默认值，不影响数据源自身的 kafka template，
+     * 避免改变已有生产者的行为
+     *
+     * @param producer 生产者配置
+     * @param profile  生产者配置档
+     * @param security 安全配置
+     * @return 配置信息
+     */
+    private Map<String, Object> producerProfileConfig(ZfKafkaProducer producer, ZfKafkaProducerProfile profile, ZfKafkaSecurity security) {
+        Map<String, Object> producerConfigs = producerConfig(producer, security);
+        if (StringUtils.isNotBlank(producer.getCompressionType())) {
+            producerConfigs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.getCompressionType().toLowerCase());
+        }
+        producerConfigs.putAll(producer.getProperties());
+        if (profile.getLingerMs() != null) {
+            producerConfigs.put(ProducerConfig.LINGER_MS_CONFIG, profile.getLingerMs());
+        }
+        if (profile.getBatchSize() != null) {
+            producerConfigs.put(ProducerConfig.BATCH_SIZE_CONFIG, profile.getBatchSize());
+        }
+        if (StringUtils.isNotBlank(profile.getCompressionType())) {
+            producerConfigs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.getCompressionType().toLowerCase());
+        }
+        if (StringUtils.isNotBlank(profile.getAcks())) {
+            producerConfigs.put(ProducerConfig.ACKS_CONFIG, profile.getAcks());
+        }
+        if (profile.getValueSerializer() != null) {
+            producerConfigs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, profile.getValueSerializer());
+        }
+        if (profile.getProperties() != null) {
+            producerConfigs.putAll(profile.getProperties());
+        }
+        return producerConfigs;
+    }
+
     /**
      * 消费者配置
      *
@@ -198,6 +236,30 @@ public class KafkaDynamicSourceRegister implements InitializingBean {
                         datasource.getProducer().getKafkaTemplate());
             }
         }
+        registerProducerProfiles(datasource);
+    }
+
+    /**
+     * 注册生产者配置档对应的 kafka template
+     *
+     * @param datasource 数据源
+     */
+    private void registerProducerProfiles(ZfKafkaProperties datasource) {
+        Map<String, ZfKafkaProducerProfile> profiles = datasource.getProducer().getProfiles();
+        if (ObjectUtils.isEmpty(profiles)) {
+            return;
+        }
+        profiles.forEach((profileName, profile) -> {
+            Assert.isTrue(StringUtils.isNotBlank(profile.getKafkaTemplate()), "kafka-template of producer profile [" + profileName + "] is null not allowed.");
+            if (ObjectUtils.isNotEmpty(beanFactory.getSingleton(profile.getKafkaTemplate()))) {
+                return;
+            }
+            DefaultKafkaProducerFactory<Object, Object> producerFactory = new DefaultKafkaProducerFactory<>(
+                    producerProfileConfig(datasource.getProducer(), profile, datasource.getSecurity()));
+            beanFactory.registerSingleton(profile.getKafkaTemplate(), new KafkaTemplate<>(producerFactory));
+            log.info("kafka-multiple-datasource => add a kafka template named [{}] for producer profile [{}] success, linger.ms [{}], batch.size [{}], compression.type [{}].",
+                    profile.getKafkaTemplate(), profileName, profile.getLingerMs(), profile.getBatchSize(), profile.getCompressionType());
+        });
     }
 
     /**
@@ -6,10 +6,18 @@ import com.yomahub.liteflow.flow.LiteflowResponse;
 import lombok.extern.slf4j.Slf4j;
 import com.sapling.module.system.domain.biz.transform.gateway.TransformGateway;
 import com.sapling.module.system.infrastructure.common.slot.SystemContext;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 /**
  * MBWS文件判断消息处理服务（LiteFlow 形式）
@@ -27,6 +35,7 @@ public class FileJudgeMessageService {
     /**
      * 处理MBWS文件判断消息
      * @param message 消息内容
+     * @throws IllegalStateException 流程执行失败，由调用方转入重试主题
      */
     public void processFileJudgeMessage(String message) {
         try {
@@ -50,11 +59,73 @@ public class FileJudgeMessageService {
             LiteflowResponse response = flowExecutor.execute2Resp("fileJudgeChain", null, context);
             if (!response.isSuccess()) {
                 log.error("LiteFlow 执行失败: code={}, message={}", response.getCode(), response.getMessage());
-                return;
+                throw new IllegalStateException("LiteFlow 执行失败: " + response.getMessage(), response.getCause());
             }
             log.info("MBWS文件判断消息处理完成：fileCodes:{}", fileCodes);
         } catch (Exception e) {
             log.error("处理MBWS文件判断消息失败: {}", message, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 批量处理MBWS文件判断消息
+     * 按 sourceType 分组合并各消息的 fileCodes，每组只执行一次 ES 查询与主机查询，
+     * 再由 fileJudgeFanOut 按 fileCode 将结果拆回各条消息后发送。
+     * @param messages 消息内容列表
+     * @return 处理失败的消息下标：解析失败的消息，以及执行失败的分组内的全部消息
+     */
+    public Set<Integer> processFileJudgeMessages(List<String> messages) {
+        Set<Integer> failedIndexes = new TreeSet<>();
+        // sourceType -> 该类型下各消息的 fileCodes（保持消息顺序）
+        Map<String, List<List<String>>> groups = new LinkedHashMap<>();
+        // sourceType -> 该类型下各消息的下标
+        Map<String, List<Integer>> groupIndexes = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            String message = messages.get(i);
+            try {
+                JSONObject judgeMessage = JSONObject.parseObject(message);
+                // 只有当judge_flag为2时，才进行数据转化
+                if (judgeMessage.containsKey("judgeFlag") && !judgeMessage.getString("judgeFlag").equals("2")) {
+                    continue;
+                }
+                List<String> fileCodes = judgeMessage.getJSONArray("fileCodes").toJavaList(String.class);
+                // 缺少 sourceType 的消息与单条处理一致，由 sourceTypeSwitch 按默认分支处理
+                String sourceType = StringUtils.lowerCase(StringUtils.defaultString(judgeMessage.getString("sourceType")));
+                groups.computeIfAbsent(sourceType, k -> new ArrayList<>()).add(fileCodes);
+                groupIndexes.computeIfAbsent(sourceType, k -> new ArrayList<>()).add(i);
+            } catch (Exception e) {
+                log.error("解析MBWS文件判断消息失败: {}", message, e);
+                failedIndexes.add(i);
+            }
         }
+
+        groups.forEach((sourceType, messageFileCodes) -> {
+            List<String> fileCodes = messageFileCodes.stream()
+                    .flatMap(List::stream)
+                    .distinct()
+                    .collect(Collectors.toList());
+            try {
+                log.info("开始批量处理MBWS文件判定消息 - sourceType: {}, 消息数: {}, fileCodes数量: {}",
+                        sourceType, messageFileCodes.size(), fileCodes.size());
+
+                SystemContext context = new SystemContext();
+                context.set("fileCodes", fileCodes);
+                context.set("sourceType", sourceType);
+                context.set("messageFileCodes", messageFileCodes);
+                LiteflowResponse response = flowExecutor.execute2Resp("fileJudgeBatchChain", null, context);
+                if (!response.isSuccess()) {
+                    log.error("LiteFlow 批量执行失败: sourceType={}, code={}, message={}",
+                            sourceType, response.getCode(), response.getMessage());
+                    failedIndexes.addAll(groupIndexes.get(sourceType));
+                    return;
+                }
+                log.info("MBWS文件判断消息批量处理完成 - sourceType: {}, 消息数: {}", sourceType, messageFileCodes.size());
+            } catch (Exception e) {
+                log.error("批量处理MBWS文件判断消息失败 - sourceType: {}, fileCodes: {}", sourceType, fileCodes, e);
+                failedIndexes.addAll(groupIndexes.get(sourceType));
+            }
+        });
+        return failedIndexes;
     }
 }
@@ -0,0 +1,98 @@
+package com.sapling.module.system.app.biz.dataTransform.enrich;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.sapling.module.system.client.biz.host.dto.ChkHostDto;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一批文件信息的主机信息合并
+ * <p>
+ * 每个不同的主机只转换一次为不可变的 JSON 节点，并与 hostName 组成共享的合并字段，由该主机的所有文件信息复用。
+ * 合并方式：
+ * <ul>
+ *     <li>立即合并：将合并字段写入文件信息</li>
+ *     <li>延迟合并：返回以文件信息为底、合并字段为上层的叠加视图，不修改文件信息，字段在读取或序列化时才合并</li>
+ * </ul>
+ *
+ * @author mbws
+ */
+public class HostEnrichment {
+
+    /**
+     * 未找到主机时的合并字段
+     */
+    private static final Map<String, Object> HOST_NOT_FOUND;
+
+    static {
+        Map<String, Object> notFound = new LinkedHashMap<>(4);
+        notFound.put("hostInfo", null);
+        notFound.put("hostFound", false);
+        HOST_NOT_FOUND = Collections.unmodifiableMap(notFound);
+    }
+
+    /**
+     * hostId -> 合并字段
+     */
+    private final Map<String, Map<String, Object>> overlays;
+
+    private HostEnrichment(Map<String, Map<String, Object>> overlays) {
+        this.overlays = overlays;
+    }
+
+    /**
+     * 为一批主机构建合并字段，hostId 重复时保留第一条
+     */
+    public static HostEnrichment of(List<ChkHostDto> hosts) {
+        HostEnrichment enrichment = new HostEnrichment(new HashMap<>(hosts.size() * 2));
+        enrichment.addHosts(hosts);
+        return enrichment;
+    }
+
+    /**
+     * 追加主机的合并字段，已存在的 hostId 保留原值；用于分页扫描时逐页补充新出现的主机。
+     * 非线程安全，调用方需串行调用。
+     */
+    public void addHosts(List<ChkHostDto> hosts) {
+        for (ChkHostDto host : hosts) {
+            if (host.getHostId() == null || overlays.containsKey(host.getHostId())) {
+                continue;
+            }
+            // 与原先逐条序列化再解析的结果一致：忽略 null 字段，数值按解析结果取 Integer 或 Long
+            JSONObject hostInfo = new JSONObject(Collections.unmodifiableMap(JSON.parseObject(JSON.toJSONString(host))));
+            Map<String, Object> overlay = new LinkedHashMap<>(4);
+            overlay.put("hostInfo", hostInfo);
+            overlay.put("hostName", host.getHostName());
+            overlays.put(host.getHostId(), Collections.unmodifiableMap(overlay));
+        }
+    }
+
+    /**
+     * 合并主机信息
+     *
+     * @param fileInfo 文件信息
+     * @param lazy     是否延迟合并
+     * @return 立即合并时为写入后的文件信息本身，延迟合并时为叠加视图
+     */
+    public JSONObject enrich(JSONObject fileInfo, boolean lazy) {
+        String hostId = fileInfo.getString("hostId");
+        Map<String, Object> overlay = hostId == null ? null : overlays.get(hostId);
+        if (overlay == null) {
+            overlay = HOST_NOT_FOUND;
+        }
+        if (lazy) {
+            return new JSONObject(new OverlayMap(fileInfo, overlay));
+        }
+        fileInfo.putAll(overlay);
+        return fileInfo;
+    }
+
+    public int size() {
+        return overlays.size();
+    }
+}
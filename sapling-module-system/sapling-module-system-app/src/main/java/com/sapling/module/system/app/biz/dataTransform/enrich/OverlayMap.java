@@ -0,0 +1,137 @@
+package com.sapling.module.system.app.biz.dataTransform.enrich;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 叠加视图：读取时 overlay 中的字段覆盖 base 中的同名字段，不复制任何一方。
+ * overlay 可被多个视图共享，写入 overlay 中已有的字段时先复制一份私有 overlay；其余写入直接作用于 base。
+ * 遍历时不支持通过迭代器删除，需调用 {@link #remove(Object)}。
+ *
+ * @author mbws
+ */
+final class OverlayMap extends AbstractMap<String, Object> {
+
+    private final Map<String, Object> base;
+    private Map<String, Object> overlay;
+    private boolean overlayShared = true;
+
+    OverlayMap(Map<String, Object> base, Map<String, Object> overlay) {
+        this.base = base;
+        this.overlay = overlay;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return overlay.containsKey(key) ? overlay.get(key) : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overlay.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (overlay.containsKey(key)) {
+            return privateOverlay().put(key, value);
+        }
+        return base.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (overlay.containsKey(key)) {
+            Object previous = privateOverlay().remove(key);
+            base.remove(key);
+            return previous;
+        }
+        return base.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        base.clear();
+        overlay = new HashMap<>();
+        overlayShared = false;
+    }
+
+    @Override
+    public int size() {
+        int size = base.size() + overlay.size();
+        for (String key : overlay.keySet()) {
+            if (base.containsKey(key)) {
+                size--;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return OverlayMap.this.size();
+            }
+        };
+    }
+
+    private Map<String, Object> privateOverlay() {
+        if (overlayShared) {
+            overlay = new HashMap<>(overlay);
+            overlayShared = false;
+        }
+        return overlay;
+    }
+
+    /**
+     * 先遍历 overlay，再遍历 base 中未被覆盖的字段
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private final Iterator<Entry<String, Object>> overlayIterator = overlay.entrySet().iterator();
+        private final Iterator<Entry<String, Object>> baseIterator = base.entrySet().iterator();
+        private Entry<String, Object> next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (overlayIterator.hasNext()) {
+                Entry<String, Object> entry = overlayIterator.next();
+                next = new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                return true;
+            }
+            while (baseIterator.hasNext()) {
+                Entry<String, Object> entry = baseIterator.next();
+                if (!overlay.containsKey(entry.getKey())) {
+                    next = entry;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
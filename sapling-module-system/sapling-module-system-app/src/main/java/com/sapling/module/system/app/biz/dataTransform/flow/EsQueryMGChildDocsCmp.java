@@ -29,6 +29,10 @@ public class EsQueryMGChildDocsCmp extends NodeComponent {
             ctx.set("esChildDocsList", esChildDocsList);
             return;
         }
-        ctx.set("esChildDocsList", transformGateway.getMGFileInfoByFileCode(fileCodes));
+        // 流式扫描：每页解析后直接追加，不再额外物化一份完整结果
+        List<Object> fileInfoList = new ArrayList<>();
+        transformGateway.scanMGFileInfoByFileCode(fileCodes, fileInfoList::addAll);
+        log.info("查询到MG文件信息数量: {}", fileInfoList.size());
+        ctx.set("esChildDocsList", fileInfoList);
     }
 }
@@ -4,17 +4,19 @@ import com.alibaba.fastjson.JSONObject;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
 import com.yomahub.liteflow.core.NodeComponent;
 import lombok.extern.slf4j.Slf4j;
+import com.sapling.module.system.app.biz.dataTransform.enrich.HostEnrichment;
 import com.sapling.module.system.client.biz.host.IChkHostService;
-import com.sapling.module.system.client.biz.host.dto.ChkHostDto;
 import com.sapling.module.system.domain.biz.transform.gateway.TransformGateway;
 import com.sapling.module.system.infrastructure.common.slot.SystemContext;
+import org.springframework.beans.factory.annotation.Value;
 
 import jakarta.annotation.Resource;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,6 +28,12 @@ public class EsQueryWJChildDocsCmp extends NodeComponent {
     @Resource
     private IChkHostService chkHostService;
 
+    /**
+     * 延迟合并：不修改文件信息，主机信息在读取或序列化时才合并
+     */
+    @Value("${sapling.flow.host-enrich.lazy-join:false}")
+    private boolean lazyJoin;
+
     @Override
     public void process() throws Exception {
         List<Object> esChildDocsList = new ArrayList<>();
@@ -41,39 +49,27 @@ public class EsQueryWJChildDocsCmp extends NodeComponent {
 
         log.info("开始查询WJ文件信息，fileCodes数量: {}", fileCodes.size());
 
-        // 1. 获取文件信息
-        List<JSONObject> fileInfoList = transformGateway.getWJFileInfoByFileCode(fileCodes);
-        if (fileInfoList == null || fileInfoList.isEmpty()) {
-            log.warn("未查询到WJ文件信息");
-            ctx.set("esChildDocsList", esChildDocsList);
-            return;
-        }
-
-        log.info("查询到WJ文件信息数量: {}", fileInfoList.size());
+        // 流式扫描：每页文件信息到达后只查询本页新出现的主机，合并后即加入结果，不保留整批原始文件信息
+        List<JSONObject> enrichedFileInfoList = new ArrayList<>();
+        HostEnrichment hostEnrichment = HostEnrichment.of(Collections.emptyList());
+        Set<String> queriedHostIds = new HashSet<>();
+        transformGateway.scanWJFileInfoByFileCode(fileCodes, page -> {
+            List<String> newHostIds = extractHostIds(page).stream()
+                    .filter(queriedHostIds::add)
+                    .collect(Collectors.toList());
+            if (!newHostIds.isEmpty()) {
+                hostEnrichment.addHosts(chkHostService.listByHostIds(newHostIds));
+            }
+            enrichedFileInfoList.addAll(enrichFileInfoWithHostInfo(page, hostEnrichment));
+        });
 
-        // 2. 提取hostId字段集合
-        List<String> hostIds = extractHostIds(fileInfoList);
-        if (hostIds.isEmpty()) {
-            log.warn("未提取到有效的hostId");
-            ctx.set("esChildDocsList", fileInfoList);
-            return;
+        if (enrichedFileInfoList.isEmpty()) {
+            log.warn("未查询到WJ文件信息");
+        } else {
+            log.info("完成文件信息与主机信息合并，文件信息数量: {}, hostId数量: {}, 查询到主机信息数量: {}",
+                    enrichedFileInfoList.size(), queriedHostIds.size(), hostEnrichment.size());
         }
 
-        log.info("提取到hostId数量: {}", hostIds.size());
-
-        // 3. 批量查询主机信息
-        List<ChkHostDto> hostInfoList = chkHostService.listByHostIds(hostIds);
-        log.info("查询到主机信息数量: {}", hostInfoList.size());
-
-        // 4. 构建hostId到主机信息的映射
-        Map<String, ChkHostDto> hostInfoMap = hostInfoList.stream()
-                .collect(Collectors.toMap(ChkHostDto::getHostId, Function.identity()));
-
-        // 5. 将主机信息合并到文件信息中
-        List<JSONObject> enrichedFileInfoList = enrichFileInfoWithHostInfo(fileInfoList, hostInfoMap);
-
-        log.info("完成文件信息与主机信息合并，最终数量: {}", enrichedFileInfoList.size());
-
         ctx.set("esChildDocsList", enrichedFileInfoList);
     }
 
@@ -95,55 +91,22 @@ public class EsQueryWJChildDocsCmp extends NodeComponent {
     /**
      * 将主机信息合并到文件信息中
      *
-     * @param fileInfoList 文件信息列表
-     * @param hostInfoMap  hostId到主机信息的映射
+     * @param fileInfoList   文件信息列表
+     * @param hostEnrichment 本批主机信息
      * @return 合并后的文件信息列表
      */
     private List<JSONObject> enrichFileInfoWithHostInfo(List<JSONObject> fileInfoList,
-                                                        Map<String, ChkHostDto> hostInfoMap) {
-        return fileInfoList.stream()
-                .map(fileInfo -> enrichSingleFileInfo(fileInfo, hostInfoMap))
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * 为单个文件信息添加主机信息
-     *
-     * @param fileInfo    文件信息
-     * @param hostInfoMap 主机信息映射
-     * @return 合并后的文件信息
-     */
-    private JSONObject enrichSingleFileInfo(JSONObject fileInfo, Map<String, ChkHostDto> hostInfoMap) {
-        try {
-            // 创建新的JSONObject以避免修改原对象
-            JSONObject enrichedFileInfo = new JSONObject(fileInfo);
-
-            String hostId = fileInfo.getString("hostId");
-            if (hostId != null && hostInfoMap.containsKey(hostId)) {
-                ChkHostDto hostInfo = hostInfoMap.get(hostId);
-
-                // 添加主机信息到文件信息中
-                enrichedFileInfo.put("hostInfo", JSONObject.parseObject(JSONObject.toJSONString(hostInfo)));
-
-                // 也可以将主机的关键信息直接添加到根级别
-                enrichedFileInfo.put("hostName", hostInfo.getHostName());
-
-
-                log.debug("为文件信息添加主机信息成功，hostId: {}, hostName: {}",
-                        hostId, hostInfo.getHostName());
-            } else {
-                log.debug("未找到对应的主机信息，hostId: {}", hostId);
-                // 添加空的主机信息标识
-                enrichedFileInfo.put("hostInfo", null);
-                enrichedFileInfo.put("hostFound", false);
+                                                        HostEnrichment hostEnrichment) {
+        List<JSONObject> enrichedFileInfoList = new ArrayList<>(fileInfoList.size());
+        for (JSONObject fileInfo : fileInfoList) {
+            try {
+                enrichedFileInfoList.add(hostEnrichment.enrich(fileInfo, lazyJoin));
+            } catch (Exception e) {
+                log.error("合并文件信息和主机信息时发生异常: {}", fileInfo, e);
+                // 发生异常时返回原始文件信息
+                enrichedFileInfoList.add(fileInfo);
             }
-
-            return enrichedFileInfo;
-
-        } catch (Exception e) {
-            log.error("合并文件信息和主机信息时发生异常: {}", fileInfo, e);
-            // 发生异常时返回原始文件信息
-            return fileInfo;
         }
+        return enrichedFileInfoList;
     }
 }
@@ -0,0 +1,63 @@
+package com.sapling.module.system.app.biz.dataTransform.flow;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.yomahub.liteflow.annotation.LiteflowComponent;
+import com.yomahub.liteflow.core.NodeComponent;
+import lombok.extern.slf4j.Slf4j;
+import com.sapling.module.system.infrastructure.common.slot.SystemContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * fileJudgeFanOut: 批量模式下将合并查询得到的 outputJsonArray 按 fileCode 拆回各条消息，
+ * 按消息顺序重新组装 outputJsonArray，保证每条消息的输出与单条处理时一致。
+ * 依赖 dataTransformList 输出与 esChildDocsList 一一对应；ES 复合聚合按 hostId+filepath+fileCode 分桶，
+ * 不同 fileCode 位于同一位置时各自返回一条，因此每个 fileCode 都能拆回到引用它的消息。
+ */
+@Slf4j
+@LiteflowComponent("fileJudgeFanOut")
+public class FileJudgeFanOutCmp extends NodeComponent {
+
+    @Override
+    public void process() throws Exception {
+        SystemContext ctx = this.getFirstContextBean();
+        List<JSONObject> esChildDocsList = ctx.get("esChildDocsList");
+        JSONArray outputArray = ctx.get("outputJsonArray");
+        List<List<String>> messageFileCodes = ctx.get("messageFileCodes");
+
+        // fileCode -> 该 fileCode 对应的输出
+        Map<String, List<Object>> outputsByFileCode = new HashMap<>();
+        List<Object> unattributed = new ArrayList<>();
+        for (int i = 0; i < esChildDocsList.size(); i++) {
+            String fileCode = esChildDocsList.get(i).getString("fileCode");
+            if (fileCode == null) {
+                unattributed.add(outputArray.get(i));
+            } else {
+                outputsByFileCode.computeIfAbsent(fileCode, k -> new ArrayList<>()).add(outputArray.get(i));
+            }
+        }
+
+        JSONArray fannedOut = new JSONArray();
+        for (List<String> fileCodes : messageFileCodes) {
+            for (String fileCode : new LinkedHashSet<>(fileCodes)) {
+                List<Object> outputs = outputsByFileCode.get(fileCode);
+                if (outputs != null) {
+                    fannedOut.addAll(outputs);
+                }
+            }
+        }
+        if (!unattributed.isEmpty()) {
+            log.warn("LiteFlow fileJudgeFanOut: {} 条文件信息缺少fileCode，无法归属到消息，按批次输出一次", unattributed.size());
+            fannedOut.addAll(unattributed);
+        }
+
+        log.info("LiteFlow fileJudgeFanOut: 消息数: {}, 合并输出: {}, 拆分后输出: {}",
+                messageFileCodes.size(), outputArray.size(), fannedOut.size());
+        ctx.set("outputJsonArray", fannedOut);
+    }
+}
@@ -9,10 +9,18 @@ import com.sapling.module.system.domain.biz.transform.gateway.TransformGateway;
 import com.sapling.module.system.infrastructure.common.slot.SystemContext;
 
 import jakarta.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * LiteFlow 节点：发送 Kafka 消息（支持批量）
  * outputJson 可能是 JSON 数组（批量）或 JSON 对象（单条）。
+ * 数组元素为字符串时视为已序列化的 JSON 直接发送。
+ * 批量发送并等待全部结果，失败的子集由 {@link TransformGateway#sendMessages} 在重发次数内重发，
+ * 重发后仍有失败时本节点失败。
+ * <p>
+ * 节点失败后整条文件判定消息转入重试主题，重试时重新执行整个流程并再次发送全部输出，
+ * 此前已发送成功的消息会重复发送，即输出消息为至少一次语义，下游需按消息内容幂等处理。
  */
 @Slf4j
 @LiteflowComponent("sendKafka")
@@ -24,7 +32,6 @@ public class SendKafkaCmp extends NodeComponent {
     @Override
     public void process() throws Exception {
         SystemContext systemContext = this.getFirstContextBean();
-        // 仅做 JSON 转字符串并逐条发送
         JSONArray outputJsonArray = systemContext.get("outputJsonArray");
         if (outputJsonArray == null) {
             outputJsonArray = new JSONArray();
@@ -35,8 +42,14 @@ public class SendKafkaCmp extends NodeComponent {
             return;
         }
 
+        List<String> messages = new ArrayList<>(outputJsonArray.size());
         for (Object obj : outputJsonArray) {
-            transformGateway.sendMessage(JSON.toJSONString(obj));
+            // dataTransformList 输出的元素已是 JSON 字符串，无需再次序列化
+            messages.add(obj instanceof String ? (String) obj : JSON.toJSONString(obj));
+        }
+        List<String> failedMessages = transformGateway.sendMessages(messages);
+        if (!failedMessages.isEmpty()) {
+            throw new IllegalStateException("Kafka消息发送失败，失败数: " + failedMessages.size() + "/" + messages.size());
         }
     }
 }
@@ -3,6 +3,7 @@ package com.sapling.module.system.app.biz.dataTransform.flow;
 import com.yomahub.liteflow.annotation.LiteflowComponent;
 import com.yomahub.liteflow.core.NodeSwitchComponent;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import com.sapling.module.system.infrastructure.common.slot.SystemContext;
 
 @Slf4j
@@ -12,6 +13,10 @@ public class SourceTypeSwitchCmp extends NodeSwitchComponent {
     public String processSwitch() throws Exception {
         SystemContext ctx = this.getFirstContextBean();
         String sourceType = ctx.get("sourceType");
+        if (StringUtils.isBlank(sourceType)) {
+            log.warn("LiteFlow sourceTypeSwitch: sourceType is blank, fallback to esQueryMGChildDocs");
+            return "esQueryMGChildDocs";
+        }
         switch (sourceType.toLowerCase()) {
             case "wj":
                 return "esQueryWJChildDocs";
@@ -0,0 +1,108 @@
+package com.sapling.module.system.app.biz.dataTransform.mapping;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的字段映射器，线程安全
+ * <p>
+ * 编译时预先生成每个输出字段带引号与分隔符的字段名片段、默认值的 JSON 片段，
+ * 运行时按规则顺序从来源文档取值，直接写入 JSON 输出，不构建中间 JSONObject，也不经过通用序列化器。
+ *
+ * @author mbws
+ */
+public class CompiledFieldMapping {
+
+    /**
+     * 输出字段名片段，首个字段以左花括号开头，其余以逗号开头
+     */
+    private final String[] namePrefixes;
+    private final String[][] sources;
+    private final boolean[] skipBlank;
+    /**
+     * 默认值的 JSON 片段
+     */
+    private final String[] defaultValues;
+
+    CompiledFieldMapping(List<FieldMappingSpec.Rule> rules) {
+        int size = rules.size();
+        this.namePrefixes = new String[size];
+        this.sources = new String[size][];
+        this.skipBlank = new boolean[size];
+        this.defaultValues = new String[size];
+        for (int i = 0; i < size; i++) {
+            FieldMappingSpec.Rule rule = rules.get(i);
+            namePrefixes[i] = (i == 0 ? "{" : ",") + JSON.toJSONString(rule.target) + ":";
+            sources[i] = rule.sources.toArray(new String[0]);
+            skipBlank[i] = rule.skipBlank;
+            defaultValues[i] = JSON.toJSONString(rule.defaultValue);
+        }
+    }
+
+    /**
+     * 将单个来源文档映射为输出 JSON 字符串
+     */
+    public String toJson(Map<String, Object> document) {
+        SerializeWriter out = new SerializeWriter();
+        try {
+            for (int i = 0; i < namePrefixes.length; i++) {
+                out.write(namePrefixes[i]);
+                String value = resolve(document, i);
+                if (value == null) {
+                    out.write(defaultValues[i]);
+                } else {
+                    out.writeString(value);
+                }
+            }
+            out.write('}');
+            return out.toString();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 批量映射，输出与来源文档一一对应
+     */
+    public List<String> toJsonList(List<? extends Map<String, Object>> documents) {
+        List<String> result = new ArrayList<>(documents.size());
+        for (Map<String, Object> document : documents) {
+            result.add(toJson(document));
+        }
+        return result;
+    }
+
+    private String resolve(Map<String, Object> document, int index) {
+        String[] keys = sources[index];
+        if (!skipBlank[index]) {
+            Object value = document.get(keys[0]);
+            return value == null ? null : value.toString();
+        }
+        for (String key : keys) {
+            Object value = document.get(key);
+            if (value != null) {
+                String text = value.toString();
+                if (!isBlank(text)) {
+                    return text;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与 {@code String.trim().isEmpty()} 判断一致，但不创建新字符串
+     */
+    private static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sapling.module.system.app.biz.dataTransform.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 字段映射规则声明
+ * <p>
+ * 每条规则声明一个输出字段及其来源字段：
+ * <ul>
+ *     <li>{@link #rename}：取单个来源字段的值，值为空白时原样输出</li>
+ *     <li>{@link #firstNonBlank}：按顺序取第一个非空白的来源字段值</li>
+ * </ul>
+ * 来源字段均不存在（或均为空白）时输出默认值。规则通过 {@link #compile()} 编译后复用。
+ *
+ * @author mbws
+ */
+public class FieldMappingSpec {
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    public static FieldMappingSpec create() {
+        return new FieldMappingSpec();
+    }
+
+    /**
+     * 重命名：输出字段取单个来源字段的值，默认值为空字符串
+     */
+    public FieldMappingSpec rename(String target, String source) {
+        return rename(target, source, "");
+    }
+
+    public FieldMappingSpec rename(String target, String source, String defaultValue) {
+        rules.add(new Rule(target, Collections.singletonList(source), false, defaultValue));
+        return this;
+    }
+
+    /**
+     * 回退取值：输出字段取第一个非空白的来源字段值，默认值为空字符串
+     */
+    public FieldMappingSpec firstNonBlank(String target, String... sources) {
+        rules.add(new Rule(target, Arrays.asList(sources), true, ""));
+        return this;
+    }
+
+    public FieldMappingSpec firstNonBlankOrDefault(String target, String defaultValue, String... sources) {
+        rules.add(new Rule(target, Arrays.asList(sources), true, defaultValue));
+        return this;
+    }
+
+    /**
+     * 编译为字段映射器
+     */
+    public CompiledFieldMapping compile() {
+        if (rules.isEmpty()) {
+            throw new IllegalStateException("字段映射规则为空");
+        }
+        return new CompiledFieldMapping(rules);
+    }
+
+    static final class Rule {
+
+        final String target;
+        final List<String> sources;
+        final boolean skipBlank;
+        final String defaultValue;
+
+        Rule(String target, List<String> sources, boolean skipBlank, String defaultValue) {
+            if (sources.isEmpty()) {
+                throw new IllegalArgumentException("输出字段【" + target + "】未声明来源字段");
+            }
+            this.target = target;
+            this.sources = sources;
+            this.skipBlank = skipBlank;
+            this.defaultValue = defaultValue;
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.sapling.module.system.app.kafka.config;
 
+import com.sapling.module.system.app.biz.dataTransform.component.FileJudgeMessageService;
+import com.sapling.module.system.app.kafka.processor.KeyOrderedRecordProcessor;
+import com.sapling.module.system.app.kafka.processor.MicroBatcher;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Kafka消息处理线程池配置
@@ -16,36 +17,33 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Slf4j
 @Configuration
 public class KafkaThreadPoolConfig {
-    
+
+    /**
+     * 文件判定消息有序并行处理引擎
+     *
+     * @param laneCount   通道数（最大并行度），同 Key 消息固定在同一通道内顺序处理
+     * @param maxInFlight 最大在途消息数，超过时阻塞消费线程
+     */
+    @Bean(destroyMethod = "shutdown")
+    public KeyOrderedRecordProcessor fileJudgeRecordProcessor(
+            @Value("${sapling.kafka.file-judge.lanes:20}") int laneCount,
+            @Value("${sapling.kafka.file-judge.max-in-flight:2000}") int maxInFlight) {
+        return new KeyOrderedRecordProcessor("kafka-file-judge", laneCount, maxInFlight);
+    }
+
     /**
-     * Kafka消息处理线程池
+     * 文件判定消息微批处理器，合并同一批次消息的 fileCodes 后统一查询
+     *
+     * @param maxBatchSize 最大批次消息数
+     * @param lingerMillis 最长逗留时间（毫秒），限制批量模式引入的延迟
      */
-    @Bean("kafkaMessageExecutor")
-    public Executor kafkaMessageExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        
-        // 核心线程数
-        executor.setCorePoolSize(5);
-        // 最大线程数
-        executor.setMaxPoolSize(20);
-        // 队列容量
-        executor.setQueueCapacity(100);
-        // 线程名前缀
-        executor.setThreadNamePrefix("kafka-msg-");
-        // 线程空闲时间（秒）
-        executor.setKeepAliveSeconds(60);
-        // 拒绝策略：由调用线程处理
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        // 等待所有任务结束后再关闭线程池
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        // 等待时间
-        executor.setAwaitTerminationSeconds(60);
-        
-        executor.initialize();
-        
-        log.info("Kafka消息处理线程池初始化完成 - 核心线程数: {}, 最大线程数: {}, 队列容量: {}", 
-                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
-        
-        return executor;
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "sapling.kafka.file-judge.batch", name = "enabled", havingValue = "true")
+    public MicroBatcher<String> fileJudgeMessageBatcher(
+            FileJudgeMessageService fileJudgeMessageService,
+            @Value("${sapling.kafka.file-judge.batch.max-size:500}") int maxBatchSize,
+            @Value("${sapling.kafka.file-judge.batch.linger-ms:50}") long lingerMillis) {
+        return new MicroBatcher<>("kafka-file-judge", maxBatchSize, lingerMillis,
+                fileJudgeMessageService::processFileJudgeMessages);
     }
-}
\ No newline at end of file
+}
@@ -3,14 +3,20 @@ package com.sapling.module.system.app.kafka.listener;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.sapling.module.system.app.biz.dataTransform.component.FileAlarmMessageService;
+import com.sapling.module.system.app.kafka.processor.RecordBatchResult;
+import com.sapling.module.system.app.kafka.retry.FailedRecordRouter;
 import com.sapling.module.system.infrastructure.common.constants.KafkaTopicConstants;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
 
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -24,17 +30,21 @@ import java.util.List;
 public class FileAlarmMessageListener {
 
     private final FileAlarmMessageService mbwsFileAlarmMessageService;
+    private final FailedRecordRouter failedRecordRouter;
 
 
     /**
      * 监听MBWS文件判断主题消息
+     * <p>
+     * 逐条处理，处理失败的消息转发到重试主题后视为已处理，不影响同批其他消息；
+     * 转发失败时该分区后续消息不再处理，回退到该消息重新拉取。
      *
-     * @param records         消息记录
-     * @param acknowledgment 手动确认
+     * @param records  消息记录
+     * @param consumer 当前监听器线程的消费者
      */
     @KafkaListener(topics = KafkaTopicConstants.MBWS_FILE_ALARM_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
     public void onMessage(List<ConsumerRecord<String, String>> records,
-                          Acknowledgment acknowledgment) {
+                          Consumer<?, ?> consumer) {
 
         if (records == null || records.isEmpty()) {
             return;
@@ -42,22 +52,34 @@ public class FileAlarmMessageListener {
 
         log.info("接收到MBWS文件报警批量消息 - size: {}", records.size());
 
-        try {
-            records.forEach(record -> {
-                log.info("处理MBWS文件报警消息 - Topic: {}, Partition: {}, Offset: {}, Key: {}",
-                        record.topic(), record.partition(), record.offset(), record.key());
-                mbwsFileAlarmMessageService.processFileAlarmMessage(record.value());
-            });
-
-            acknowledgment.acknowledge();
-            ConsumerRecord<String, String> last = records.get(records.size() - 1);
-            log.info("MBWS文件报警批量消息处理成功 - 最后提交偏移 Topic: {}, Partition: {}, Offset: {}",
-                    last.topic(), last.partition(), last.offset());
-
-        } catch (Exception e) {
-            ConsumerRecord<String, String> first = records.get(0);
-            log.error("MBWS文件报警批量消息处理失败 - 首条消息 Topic: {}, Partition: {}, Offset: {}，异常: {}",
-                    first.topic(), first.partition(), first.offset(), e.getMessage(), e);
+        Set<TopicPartition> failedPartitions = new HashSet<>();
+        List<Boolean> outcomes = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (failedPartitions.contains(partition)) {
+                outcomes.add(false);
+                continue;
+            }
+            log.info("处理MBWS文件报警消息 - Topic: {}, Partition: {}, Offset: {}, Key: {}",
+                    record.topic(), record.partition(), record.offset(), record.key());
+            try {
+                failedRecordRouter.runIsolated(record, mbwsFileAlarmMessageService::processFileAlarmMessage);
+                outcomes.add(true);
+            } catch (Exception e) {
+                log.error("MBWS文件报警消息处理失败 - Topic: {}, Partition: {}, Offset: {}，异常: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+                failedPartitions.add(partition);
+                outcomes.add(false);
+            }
+        }
+
+        RecordBatchResult result = RecordBatchResult.of(records, outcomes);
+        result.commit(consumer);
+        if (result.isAllSucceeded()) {
+            log.info("MBWS文件报警批量消息处理成功 - size: {}, 提交偏移: {}", result.getRecordCount(), result.getCommitOffsets());
+        } else {
+            log.warn("MBWS文件报警批量消息部分处理失败 - size: {}, 提交偏移: {}, 回退偏移: {}",
+                    result.getRecordCount(), result.getCommitOffsets(), result.getRewindOffsets());
         }
     }
-}
\ No newline at end of file
+}
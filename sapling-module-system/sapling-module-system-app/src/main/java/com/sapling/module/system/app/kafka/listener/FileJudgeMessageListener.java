@@ -1,19 +1,23 @@
 package com.sapling.module.system.app.kafka.listener;
 
 import com.sapling.module.system.app.biz.dataTransform.component.FileJudgeMessageService;
+import com.sapling.module.system.app.kafka.processor.KeyOrderedRecordProcessor;
+import com.sapling.module.system.app.kafka.processor.MicroBatcher;
+import com.sapling.module.system.app.kafka.processor.RecordBatchResult;
+import com.sapling.module.system.app.kafka.retry.FailedRecordRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.sapling.module.system.infrastructure.common.constants.KafkaTopicConstants;
-import org.apache.commons.collections.CollectionUtils;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executor;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * MBWS文件判断Kafka消息监听器
@@ -26,49 +30,78 @@ import java.util.concurrent.Executor;
 public class FileJudgeMessageListener {
 
     private final FileJudgeMessageService mbwsFileJudgeMessageService;
-    private final Executor kafkaMessageExecutor;
+    private final KeyOrderedRecordProcessor fileJudgeRecordProcessor;
+    private final ObjectProvider<MicroBatcher<String>> fileJudgeMessageBatcher;
+    private final FailedRecordRouter failedRecordRouter;
 
     /**
      * 监听MBWS文件判断主题消息
+     * <p>
+     * 一次拉取的消息交由有序并行处理引擎处理，同 Key 消息保持顺序；开启批量模式时交由微批处理器
+     * 合并处理。处理失败的消息逐条转发到重试主题后视为已处理，不影响同批其他消息；
+     * 处理完成后在监听器线程中按分区提交最低连续完成偏移量，只有转发失败的消息所在分区回退重新拉取。
      *
-     * @param message        消息内容
-     * @param topic          主题名称
-     * @param partition      分区
-     * @param offset         偏移量
-     * @param acknowledgment 手动确认
+     * @param records  消息记录
+     * @param consumer 当前监听器线程的消费者
      */
     @KafkaListener(topics = KafkaTopicConstants.MBWS_FILE_JUDGE_TOPIC, groupId = "${spring.kafka.consumer.group-id}")
-    public void onMessage(@Payload List<String> message,
-                          @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                          @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                          @Header(KafkaHeaders.OFFSET) long offset,
-                          Acknowledgment acknowledgment) {
+    public void onMessage(List<ConsumerRecord<String, String>> records,
+                          Consumer<?, ?> consumer) {
 
-        log.info("接收到MBWS文件判定消息 - Topic: {}, Partition: {}, Offset: {}", topic, partition, offset);
-
-        if (CollectionUtils.isEmpty(message)) {
-            log.warn("接收到MBWS文件判定消息 - Topic: {} - message is empty", topic);
+        if (records == null || records.isEmpty()) {
             return;
         }
 
-        // 将消息处理任务提交到线程池
-        kafkaMessageExecutor.execute(() -> {
-            try {
-                // 处理消息
-                message.forEach(mbwsFileJudgeMessageService::processFileJudgeMessage);
+        log.info("接收到MBWS文件判定批量消息 - size: {}", records.size());
+
+        MicroBatcher<String> batcher = fileJudgeMessageBatcher.getIfAvailable();
+        RecordBatchResult result = batcher != null
+                ? processInBatch(records, batcher)
+                : fileJudgeRecordProcessor.process(records, this::processIsolated);
+        result.commit(consumer);
 
-                // 手动确认消息
-                acknowledgment.acknowledge();
+        if (result.isAllSucceeded()) {
+            log.info("MBWS文件判定批量消息处理成功 - size: {}, 提交偏移: {}", result.getRecordCount(), result.getCommitOffsets());
+        } else {
+            log.warn("MBWS文件判定批量消息部分处理失败 - size: {}, 提交偏移: {}, 回退偏移: {}",
+                    result.getRecordCount(), result.getCommitOffsets(), result.getRewindOffsets());
+        }
+    }
+
+    /**
+     * 逐条处理，失败时转发到重试主题
+     */
+    private void processIsolated(ConsumerRecord<String, String> record) {
+        failedRecordRouter.runIsolated(record, mbwsFileJudgeMessageService::processFileJudgeMessage);
+    }
 
-                log.info("MBWS文件判定消息处理成功 - Topic: {}, Partition: {}, Offset: {}", topic, partition, offset);
+    /**
+     * 批量模式：按拉取顺序提交到微批处理器，与其他消费线程的消息合并处理。
+     * 批量处理失败的消息再逐条处理，区分出真正失败的消息转发到重试主题。
+     */
+    private RecordBatchResult processInBatch(List<ConsumerRecord<String, String>> records, MicroBatcher<String> batcher) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            futures.add(batcher.submit(record.value()));
+        }
 
-            } catch (Exception e) {
-                log.error("MBWS文件判定消息处理失败 - Topic: {}, Partition: {}, Offset: {}, Message: {}", topic, partition, offset, message, e);
+        List<ConsumerRecord<String, String>> failedRecords = new ArrayList<>();
+        List<Integer> failedIndexes = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            if (futures.get(i).handle((ignored, e) -> e != null).join()) {
+                failedRecords.add(records.get(i));
+                failedIndexes.add(i);
+            }
+        }
 
-                // 根据业务需求决定是否确认消息
-                // 如果不确认，消息会重新投递
-                acknowledgment.acknowledge();
+        List<Boolean> outcomes = new ArrayList<>(Collections.nCopies(records.size(), Boolean.TRUE));
+        if (!failedRecords.isEmpty()) {
+            log.warn("MBWS文件判定批量处理存在失败消息，逐条重新处理 - 失败数: {}", failedRecords.size());
+            List<Boolean> retryOutcomes = fileJudgeRecordProcessor.handle(failedRecords, this::processIsolated);
+            for (int i = 0; i < failedIndexes.size(); i++) {
+                outcomes.set(failedIndexes.get(i), retryOutcomes.get(i));
             }
-        });
+        }
+        return RecordBatchResult.of(records, outcomes);
     }
-}
\ No newline at end of file
+}
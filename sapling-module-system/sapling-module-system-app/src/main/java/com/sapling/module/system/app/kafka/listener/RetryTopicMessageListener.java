@@ -0,0 +1,187 @@
+package com.sapling.module.system.app.kafka.listener;
+
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
+import com.sapling.module.system.app.biz.dataTransform.component.FileAlarmMessageService;
+import com.sapling.module.system.app.biz.dataTransform.component.FileJudgeMessageService;
+import com.sapling.module.system.app.kafka.retry.FailedRecordRouter;
+import com.sapling.module.system.infrastructure.common.constants.KafkaTopicConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MBWS重试主题Kafka消息监听器
+ * <p>
+ * 同一重试主题内消息的延迟相同，最早可重试时间随偏移量递增：分区内遇到未到期的消息时，
+ * 提交此前已处理的偏移量，回退到该消息并暂停该分区，到期后恢复拉取；监听器线程不阻塞，
+ * 其余分区照常消费，消费者也不会因超过 max.poll.interval.ms 被移出消费组。
+ * 暂停与恢复经由监听器容器执行（容器在拉取线程上调用 {@code consumer.pause/resume}），
+ * 直接暂停消费者会被容器在下一次拉取前恢复；分区全部暂停时拉取结果为空、监听器不会被调用，
+ * 因此恢复由定时任务在到期时触发。
+ * 到期消息按原始主题交由对应的处理逻辑，再次失败时转发到下一级重试主题或死信主题；
+ * 重试头缺失或格式错误的消息直接转发到死信主题。
+ *
+ * @author mbws
+ */
+@Slf4j
+@Component
+public class RetryTopicMessageListener {
+
+    /**
+     * 监听器容器ID，用于按分区暂停/恢复
+     */
+    public static final String LISTENER_ID = "mbwsRetryTopicListener";
+
+    @Resource
+    private FailedRecordRouter failedRecordRouter;
+
+    @Resource
+    private FileJudgeMessageService mbwsFileJudgeMessageService;
+
+    @Resource
+    private FileAlarmMessageService mbwsFileAlarmMessageService;
+
+    @Resource
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    /**
+     * 原始主题 -> 处理逻辑
+     */
+    private final Map<String, java.util.function.Consumer<String>> handlers = new HashMap<>();
+
+    /**
+     * 到期后恢复暂停分区
+     */
+    private final ScheduledExecutorService resumeScheduler =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("mbws-retry-resume"));
+
+    @PostConstruct
+    public void init() {
+        handlers.put(KafkaTopicConstants.MBWS_FILE_JUDGE_TOPIC, mbwsFileJudgeMessageService::processFileJudgeMessage);
+        handlers.put(KafkaTopicConstants.MBWS_FILE_ALARM_TOPIC, mbwsFileAlarmMessageService::processFileAlarmMessage);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumeScheduler.shutdownNow();
+    }
+
+    /**
+     * 监听MBWS各级重试主题消息
+     *
+     * @param records  消息记录
+     * @param consumer 当前监听器线程的消费者
+     */
+    @KafkaListener(id = LISTENER_ID, topicPattern = KafkaTopicConstants.MBWS_RETRY_TOPIC_PATTERN,
+            groupId = "${spring.kafka.consumer.group-id}")
+    public void onMessage(List<ConsumerRecord<String, String>> records,
+                          Consumer<?, ?> consumer) {
+
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> commitOffsets = new HashMap<>();
+        // 存在未到期或转发失败消息的分区 -> 回退偏移量
+        Map<TopicPartition, Long> rewindOffsets = new LinkedHashMap<>();
+        // 暂停分区 -> 恢复拉取时间
+        Map<TopicPartition, Long> resumeTimes = new HashMap<>();
+        int retried = 0;
+
+        for (ConsumerRecord<String, String> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (rewindOffsets.containsKey(partition)) {
+                continue;
+            }
+            try {
+                Long dueTime = dueTimeOrNull(record);
+                if (dueTime != null && dueTime > System.currentTimeMillis()) {
+                    rewindOffsets.put(partition, record.offset());
+                    resumeTimes.put(partition, dueTime);
+                    continue;
+                }
+                if (dueTime != null) {
+                    retry(record);
+                    retried++;
+                }
+            } catch (Exception e) {
+                log.error("重试消息转发失败，回退重新拉取 - Topic: {}, Partition: {}, Offset: {}",
+                        record.topic(), record.partition(), record.offset(), e);
+                rewindOffsets.put(partition, record.offset());
+                resumeTimes.put(partition, System.currentTimeMillis() + failedRecordRouter.getInitialBackoffMillis());
+                continue;
+            }
+            commitOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+        }
+
+        if (!commitOffsets.isEmpty()) {
+            consumer.commitSync(commitOffsets);
+        }
+        rewindOffsets.forEach(consumer::seek);
+        resumeTimes.forEach(this::pauseUntil);
+        log.info("MBWS重试消息处理完成 - size: {}, 已重试: {}, 暂停分区: {}", records.size(), retried, rewindOffsets.keySet());
+    }
+
+    /**
+     * 校验重试头并返回最早可重试时间；重试头缺失或格式错误时转发到死信主题并返回 null
+     *
+     * @throws IllegalStateException 转发死信主题失败
+     */
+    private Long dueTimeOrNull(ConsumerRecord<String, String> record) {
+        try {
+            FailedRecordRouter.checkRetryHeaders(record);
+        } catch (IllegalArgumentException e) {
+            log.error("重试消息头缺失或格式错误，转发至死信主题 - Topic: {}, Partition: {}, Offset: {}, 原因: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            failedRecordRouter.deadLetter(record, e);
+            return null;
+        }
+        return FailedRecordRouter.dueTimeOf(record);
+    }
+
+    /**
+     * 重新处理到期消息，失败时转发到下一级
+     */
+    private void retry(ConsumerRecord<String, String> record) {
+        String originalTopic = FailedRecordRouter.originalTopicOf(record);
+        java.util.function.Consumer<String> handler = handlers.get(originalTopic);
+        if (handler == null) {
+            failedRecordRouter.deadLetter(record, new IllegalStateException("未知的原始主题: " + originalTopic));
+            return;
+        }
+        log.info("重试MBWS消息 - 原主题: {}, 第{}次重试, Key: {}",
+                originalTopic, FailedRecordRouter.attemptOf(record), record.key());
+        failedRecordRouter.runIsolated(record, handler);
+    }
+
+    /**
+     * 暂停分区拉取，到期后恢复；容器在下一次拉取前生效，已回退的偏移量在恢复后重新拉取
+     */
+    private void pauseUntil(TopicPartition partition, long resumeTime) {
+        MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            log.warn("未找到重试监听器容器，无法暂停分区 - id: {}, 分区: {}", LISTENER_ID, partition);
+            return;
+        }
+        container.pausePartition(partition);
+        long delay = Math.max(0, resumeTime - System.currentTimeMillis());
+        resumeScheduler.schedule(() -> container.resumePartition(partition), delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,148 @@
+package com.sapling.module.system.app.kafka.processor;
+
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Kafka消息按Key有序并行处理引擎
+ * <p>
+ * 每个 Key 固定映射到一个单线程通道（lane），同 Key 消息严格按偏移量顺序处理，不同 Key 并行处理，
+ * 并行度不再受分区数限制；无 Key 的消息没有顺序约束，按偏移量分散到各通道。
+ * 在途消息数由信号量限制，超过上限时阻塞消费线程形成背压。
+ * <p>
+ * 每批消息处理完成后，按分区计算最低连续完成偏移量：只提交到该分区第一条失败消息之前，
+ * 失败消息及其之后的消息回退重新拉取，保证至少一次投递。
+ * <p>
+ * 注意：每次拉取是一道屏障，{@link #process} 要等到本批最慢的 Key 处理完成才返回，期间其余通道空闲，
+ * 下一批也不会拉取。这是有意为之：偏移量提交与回退只能在消费线程中进行，且监听器没有再均衡回调，
+ * 跨批次流水线会让分区撤销时未完成的消息无法安全提交。因此单条消息处理耗时差异较大时，
+ * 应减小 max.poll.records 以缩短屏障等待，并保证最慢 Key 的批次耗时远小于 max.poll.interval.ms。
+ *
+ * @author mbws
+ */
+@Slf4j
+public class KeyOrderedRecordProcessor {
+
+    private final String name;
+    private final ExecutorService[] lanes;
+    private final Semaphore inFlight;
+
+    /**
+     * @param name        引擎名称，用于线程名与日志
+     * @param laneCount   通道数，即最大并行度
+     * @param maxInFlight 最大在途消息数
+     */
+    public KeyOrderedRecordProcessor(String name, int laneCount, int maxInFlight) {
+        this.name = name;
+        this.lanes = new ExecutorService[laneCount];
+        NamedThreadFactory threadFactory = new NamedThreadFactory(name + "-lane");
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+        }
+        this.inFlight = new Semaphore(maxInFlight);
+        log.info("Kafka有序并行处理引擎初始化完成 - 名称: {}, 通道数: {}, 最大在途消息数: {}", name, laneCount, maxInFlight);
+    }
+
+    /**
+     * 并行处理一批消息，阻塞直到全部完成，耗时取决于本批最慢的 Key
+     *
+     * @param records 一次拉取的消息
+     * @param handler 单条消息处理逻辑，抛出异常视为处理失败
+     * @return 各分区的可提交偏移量与需回退的偏移量
+     */
+    public <K, V> RecordBatchResult process(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+        return RecordBatchResult.of(records, handle(records, handler));
+    }
+
+    /**
+     * 并行处理一批消息，阻塞直到全部完成
+     *
+     * @param records 消息
+     * @param handler 单条消息处理逻辑，抛出异常视为处理失败
+     * @return 与消息一一对应的处理结果
+     */
+    public <K, V> List<Boolean> handle(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(records.size());
+        for (ConsumerRecord<K, V> record : records) {
+            futures.add(submit(record, handler));
+        }
+
+        List<Boolean> outcomes = new ArrayList<>(futures.size());
+        for (CompletableFuture<Boolean> future : futures) {
+            outcomes.add(future.join());
+        }
+        return outcomes;
+    }
+
+    /**
+     * 关闭所有通道，等待已提交的消息处理完成
+     */
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                if (!lane.awaitTermination(60, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Kafka有序并行处理引擎已关闭 - 名称: {}", name);
+    }
+
+    private <K, V> CompletableFuture<Boolean> submit(ConsumerRecord<K, V> record, Consumer<ConsumerRecord<K, V>> handler) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.complete(false);
+            return future;
+        }
+
+        try {
+            lanes[laneOf(record)].execute(() -> {
+                try {
+                    handler.accept(record);
+                    future.complete(true);
+                } catch (Exception e) {
+                    log.error("Kafka消息处理失败 - Topic: {}, Partition: {}, Offset: {}, Key: {}",
+                            record.topic(), record.partition(), record.offset(), record.key(), e);
+                    future.complete(false);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            log.error("Kafka有序并行处理引擎已关闭，消息将回退重新拉取 - Topic: {}, Partition: {}, Offset: {}",
+                    record.topic(), record.partition(), record.offset());
+            future.complete(false);
+        }
+        return future;
+    }
+
+    private int laneOf(ConsumerRecord<?, ?> record) {
+        int hash = record.key() != null
+                ? record.key().hashCode()
+                : Long.hashCode(record.offset()) * 31 + record.partition();
+        return Math.floorMod(hash, lanes.length);
+    }
+}
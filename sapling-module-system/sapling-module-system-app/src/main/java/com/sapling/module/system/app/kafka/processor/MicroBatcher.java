@@ -0,0 +1,159 @@
+package com.sapling.module.system.app.kafka.processor;
+
+import com.sapling.framework.common.utils.factory.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微批处理器
+ * <p>
+ * 将多个消费线程提交的元素合并为批次，由单线程按提交顺序依次处理。
+ * 待处理元素达到最大批次大小时立即处理，否则在第一个元素提交后等待最长逗留时间再处理，以此限制延迟。
+ *
+ * @param <T> 元素类型
+ * @author mbws
+ */
+@Slf4j
+public class MicroBatcher<T> {
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final BatchHandler<T> batchHandler;
+    private final ScheduledExecutorService flusher;
+
+    private final Object lock = new Object();
+    private List<Entry<T>> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param name         批处理器名称，用于线程名与日志
+     * @param maxBatchSize 最大批次大小
+     * @param lingerMillis 最长逗留时间（毫秒）
+     * @param batchHandler 批次处理逻辑，返回处理失败的元素下标；抛出异常时该批次所有元素处理失败
+     */
+    public MicroBatcher(String name, int maxBatchSize, long lingerMillis, BatchHandler<T> batchHandler) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.batchHandler = batchHandler;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(name + "-batch"));
+        log.info("微批处理器初始化完成 - 名称: {}, 最大批次大小: {}, 最长逗留时间: {}ms", name, maxBatchSize, lingerMillis);
+    }
+
+    /**
+     * 提交元素，返回的 Future 在其所在批次处理完成后结束
+     */
+    public CompletableFuture<Void> submit(T item) {
+        Entry<T> entry = new Entry<>(item);
+        synchronized (lock) {
+            pending.add(entry);
+            try {
+                if (pending.size() >= maxBatchSize) {
+                    cancelScheduledFlush();
+                    flusher.execute(this::flush);
+                } else if (scheduledFlush == null) {
+                    scheduledFlush = flusher.schedule(this::flush, lingerMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (RejectedExecutionException e) {
+                pending.remove(entry);
+                entry.future.completeExceptionally(e);
+            }
+        }
+        return entry.future;
+    }
+
+    /**
+     * 停止批处理器，处理剩余元素
+     */
+    public void shutdown() {
+        flusher.execute(this::flush);
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(60, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("微批处理器已关闭 - 名称: {}", name);
+    }
+
+    /**
+     * 处理当前所有待处理元素，超过最大批次大小时拆分为多个批次
+     */
+    private void flush() {
+        List<Entry<T>> entries;
+        synchronized (lock) {
+            cancelScheduledFlush();
+            entries = pending;
+            pending = new ArrayList<>();
+        }
+        for (int from = 0; from < entries.size(); from += maxBatchSize) {
+            handle(entries.subList(from, Math.min(from + maxBatchSize, entries.size())));
+        }
+    }
+
+    private void handle(List<Entry<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Entry<T> entry : batch) {
+            items.add(entry.item);
+        }
+        try {
+            Collection<Integer> failedIndexes = batchHandler.handle(items);
+            if (failedIndexes != null && !failedIndexes.isEmpty()) {
+                log.warn("微批处理部分失败 - 名称: {}, 批次大小: {}, 失败数: {}", name, batch.size(), failedIndexes.size());
+                IllegalStateException failure = new IllegalStateException("微批处理失败 - 名称: " + name);
+                for (Integer index : failedIndexes) {
+                    batch.get(index).future.completeExceptionally(failure);
+                }
+            }
+            batch.forEach(entry -> entry.future.complete(null));
+        } catch (Exception e) {
+            log.error("微批处理失败 - 名称: {}, 批次大小: {}", name, batch.size(), e);
+            batch.forEach(entry -> entry.future.completeExceptionally(e));
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    /**
+     * 批次处理逻辑
+     */
+    @FunctionalInterface
+    public interface BatchHandler<T> {
+
+        /**
+         * 处理一个批次
+         *
+         * @param batch 批次元素，按提交顺序排列
+         * @return 处理失败的元素下标，全部成功时返回空集合
+         */
+        Collection<Integer> handle(List<T> batch);
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Entry(T item) {
+            this.item = item;
+        }
+    }
+}
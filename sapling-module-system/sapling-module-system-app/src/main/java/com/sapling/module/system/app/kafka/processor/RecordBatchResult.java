@@ -0,0 +1,96 @@
+package com.sapling.module.system.app.kafka.processor;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一批Kafka消息的处理结果
+ *
+ * @author mbws
+ */
+@Slf4j
+@Getter
+public class RecordBatchResult {
+
+    /**
+     * 消息总数
+     */
+    private final int recordCount;
+
+    /**
+     * 各分区可提交的偏移量（下一条待消费消息的偏移量）
+     */
+    private final Map<TopicPartition, OffsetAndMetadata> commitOffsets;
+
+    /**
+     * 存在失败消息的分区及其第一条失败消息的偏移量
+     */
+    private final Map<TopicPartition, Long> rewindOffsets;
+
+    public RecordBatchResult(int recordCount,
+                             Map<TopicPartition, OffsetAndMetadata> commitOffsets,
+                             Map<TopicPartition, Long> rewindOffsets) {
+        this.recordCount = recordCount;
+        this.commitOffsets = commitOffsets;
+        this.rewindOffsets = rewindOffsets;
+    }
+
+    /**
+     * 根据每条消息的处理结果，按分区计算最低连续完成偏移量
+     *
+     * @param records  一次拉取的消息
+     * @param outcomes 与消息一一对应的处理结果
+     */
+    public static <K, V> RecordBatchResult of(List<ConsumerRecord<K, V>> records, List<Boolean> outcomes) {
+        // 记录每个分区最后一条消息与第一条失败消息的偏移量
+        Map<TopicPartition, Long> lastOffsets = new LinkedHashMap<>();
+        Map<TopicPartition, Long> firstFailedOffsets = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<K, V> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            lastOffsets.merge(partition, record.offset(), Math::max);
+            if (!outcomes.get(i)) {
+                firstFailedOffsets.merge(partition, record.offset(), Math::min);
+            }
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> commitOffsets = new HashMap<>();
+        lastOffsets.forEach((partition, lastOffset) -> {
+            Long failedOffset = firstFailedOffsets.get(partition);
+            long nextOffset = failedOffset != null ? failedOffset : lastOffset + 1;
+            commitOffsets.put(partition, new OffsetAndMetadata(nextOffset));
+        });
+        return new RecordBatchResult(records.size(), commitOffsets, firstFailedOffsets);
+    }
+
+    /**
+     * 是否全部处理成功
+     */
+    public boolean isAllSucceeded() {
+        return rewindOffsets.isEmpty();
+    }
+
+    /**
+     * 提交偏移量，并将存在失败消息的分区回退到第一条失败消息，下次拉取时重新投递。
+     * 只能在监听器线程中调用。
+     */
+    public void commit(Consumer<?, ?> consumer) {
+        if (!commitOffsets.isEmpty()) {
+            consumer.commitSync(commitOffsets);
+        }
+        rewindOffsets.forEach((partition, offset) -> {
+            log.warn("Kafka分区存在处理失败的消息，回退重新拉取 - Topic: {}, Partition: {}, Offset: {}",
+                    partition.topic(), partition.partition(), offset);
+            consumer.seek(partition, offset);
+        });
+    }
+}
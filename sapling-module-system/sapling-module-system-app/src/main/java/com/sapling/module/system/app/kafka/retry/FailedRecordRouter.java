@@ -0,0 +1,271 @@
+package com.sapling.module.system.app.kafka.retry;
+
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.util.StrUtil;
+import com.sapling.module.system.infrastructure.common.constants.KafkaTopicConstants;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 处理失败消息转发器
+ * <p>
+ * 处理失败的消息按已重试次数转发到下一级重试主题（原主题-retry-N），各级重试主题的延迟按指数递增；
+ * 超过最大重试次数后转发到死信主题（原主题-dlq），并携带原始位置与失败原因。
+ * 转发成功即视为该消息已处理，原主题的偏移量正常提交，单条消息的失败不再导致整批消息回退重新拉取；
+ * 只有转发本身失败时，调用方才回退该消息。
+ * 重试头缺失或格式错误的消息无法确定重试级数与到期时间，直接转发到死信主题，不会因解析异常反复回退。
+ *
+ * @author mbws
+ */
+@Slf4j
+@Component
+public class FailedRecordRouter {
+
+    /**
+     * 已重试次数
+     */
+    public static final String HEADER_ATTEMPT = "x-retry-attempt";
+    /**
+     * 最早可重试时间（毫秒时间戳）
+     */
+    public static final String HEADER_DUE_TIME = "x-retry-due-time";
+    public static final String HEADER_ORIGINAL_TOPIC = "x-original-topic";
+    public static final String HEADER_ORIGINAL_PARTITION = "x-original-partition";
+    public static final String HEADER_ORIGINAL_OFFSET = "x-original-offset";
+    public static final String HEADER_ORIGINAL_TIMESTAMP = "x-original-timestamp";
+    public static final String HEADER_FIRST_FAILURE_TIME = "x-first-failure-time";
+    public static final String HEADER_FAILURE_TIME = "x-failure-time";
+    public static final String HEADER_EXCEPTION_CLASS = "x-exception-class";
+    public static final String HEADER_EXCEPTION_MESSAGE = "x-exception-message";
+    /**
+     * 异常堆栈，仅死信消息携带
+     */
+    public static final String HEADER_EXCEPTION_STACKTRACE = "x-exception-stacktrace";
+
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+    private static final int MAX_STACKTRACE_LENGTH = 4000;
+
+    @Resource
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    /**
+     * 最大重试次数，即重试主题级数
+     */
+    @Getter
+    @Value("${sapling.kafka.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    /**
+     * 第一级重试延迟（毫秒）
+     */
+    @Getter
+    @Value("${sapling.kafka.retry.initial-backoff-ms:5000}")
+    private long initialBackoffMillis;
+
+    /**
+     * 相邻两级重试延迟的倍数
+     */
+    @Value("${sapling.kafka.retry.multiplier:4.0}")
+    private double multiplier;
+
+    /**
+     * 单级重试延迟上限（毫秒）
+     */
+    @Value("${sapling.kafka.retry.max-backoff-ms:600000}")
+    private long maxBackoffMillis;
+
+    /**
+     * 转发消息的发送超时（毫秒）
+     */
+    @Value("${sapling.kafka.retry.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    /**
+     * 处理单条消息，失败时转发到下一级重试主题或死信主题
+     *
+     * @param record  消息
+     * @param handler 消息处理逻辑，抛出异常视为处理失败
+     * @throws IllegalStateException 转发失败，调用方应回退该消息
+     */
+    public void runIsolated(ConsumerRecord<String, String> record, Consumer<String> handler) {
+        try {
+            handler.accept(record.value());
+        } catch (Exception e) {
+            route(record, e);
+        }
+    }
+
+    /**
+     * 将处理失败的消息转发到下一级重试主题，已达最大重试次数时转发到死信主题
+     *
+     * @throws IllegalStateException 转发失败
+     */
+    public void route(ConsumerRecord<String, String> record, Exception cause) {
+        int attempt;
+        try {
+            attempt = attemptOf(record) + 1;
+        } catch (IllegalArgumentException e) {
+            e.addSuppressed(cause);
+            deadLetter(record, e);
+            return;
+        }
+        if (attempt > maxAttempts) {
+            deadLetter(record, cause);
+            return;
+        }
+        String originalTopic = originalTopicOf(record);
+        long dueTime = System.currentTimeMillis() + backoffMillis(attempt);
+        Headers headers = failureHeaders(record, cause, attempt);
+        setHeader(headers, HEADER_DUE_TIME, String.valueOf(dueTime));
+        String retryTopic = originalTopic + KafkaTopicConstants.RETRY_SUFFIX + attempt;
+        send(new ProducerRecord<>(retryTopic, null, record.key(), record.value(), headers));
+        log.warn("Kafka消息处理失败，转发至重试主题 - 原主题: {}, 重试主题: {}, 第{}次重试, 延迟: {}ms, Key: {}, 原因: {}",
+                originalTopic, retryTopic, attempt, backoffMillis(attempt), record.key(), cause.getMessage());
+    }
+
+    /**
+     * 将消息直接转发到死信主题，用于重试无意义的消息
+     *
+     * @throws IllegalStateException 转发失败
+     */
+    public void deadLetter(ConsumerRecord<String, String> record, Exception cause) {
+        String originalTopic = originalTopicOf(record);
+        // 重试头可能正是转入死信的原因，此处不再严格解析
+        int attempt = attemptOrZero(record);
+        Headers headers = failureHeaders(record, cause, attempt);
+        setHeader(headers, HEADER_EXCEPTION_STACKTRACE,
+                ExceptionUtil.stacktraceToString(cause, MAX_STACKTRACE_LENGTH));
+        String dlqTopic = originalTopic + KafkaTopicConstants.DLQ_SUFFIX;
+        send(new ProducerRecord<>(dlqTopic, null, record.key(), record.value(), headers));
+        log.error("Kafka消息重试耗尽，转发至死信主题 - 原主题: {}, 死信主题: {}, 已重试{}次, 原分区: {}, 原偏移: {}, Key: {}",
+                originalTopic, dlqTopic, attempt, header(record, HEADER_ORIGINAL_PARTITION, String.valueOf(record.partition())),
+                header(record, HEADER_ORIGINAL_OFFSET, String.valueOf(record.offset())), record.key(), cause);
+    }
+
+    /**
+     * 第 attempt 级重试的延迟：initialBackoff * multiplier^(attempt-1)，不超过上限
+     */
+    public long backoffMillis(int attempt) {
+        double backoff = initialBackoffMillis * Math.pow(multiplier, attempt - 1);
+        return (long) Math.min(backoff, maxBackoffMillis);
+    }
+
+    /**
+     * 校验重试主题消息的重试头：原始主题、已重试次数（不小于 1）与最早可重试时间均须存在且格式正确
+     *
+     * @throws IllegalArgumentException 重试头缺失或格式错误，调用方应将该消息转发到死信主题
+     */
+    public static void checkRetryHeaders(ConsumerRecord<?, ?> record) {
+        for (String name : new String[]{HEADER_ORIGINAL_TOPIC, HEADER_ATTEMPT, HEADER_DUE_TIME}) {
+            if (record.headers().lastHeader(name) == null) {
+                throw new IllegalArgumentException("重试消息缺少消息头 - " + name);
+            }
+        }
+        if (attemptOf(record) < 1) {
+            throw new IllegalArgumentException("重试消息头格式错误 - " + HEADER_ATTEMPT + ": " + header(record, HEADER_ATTEMPT, ""));
+        }
+        dueTimeOf(record);
+    }
+
+    /**
+     * 消息的最早可重试时间，非重试消息返回 0
+     *
+     * @throws IllegalArgumentException 消息头格式错误
+     */
+    public static long dueTimeOf(ConsumerRecord<?, ?> record) {
+        String value = header(record, HEADER_DUE_TIME, "0");
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("重试消息头格式错误 - " + HEADER_DUE_TIME + ": " + value, e);
+        }
+    }
+
+    /**
+     * 消息的原始主题，非重试消息即为所在主题；重试主题消息缺少该头时由重试主题名推出
+     */
+    public static String originalTopicOf(ConsumerRecord<?, ?> record) {
+        String topic = record.topic();
+        int suffix = topic.lastIndexOf(KafkaTopicConstants.RETRY_SUFFIX);
+        return header(record, HEADER_ORIGINAL_TOPIC, suffix > 0 ? topic.substring(0, suffix) : topic);
+    }
+
+    /**
+     * 消息已重试次数，非重试消息返回 0
+     *
+     * @throws IllegalArgumentException 消息头格式错误或为负数
+     */
+    public static int attemptOf(ConsumerRecord<?, ?> record) {
+        String value = header(record, HEADER_ATTEMPT, "0");
+        int attempt;
+        try {
+            attempt = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("重试消息头格式错误 - " + HEADER_ATTEMPT + ": " + value, e);
+        }
+        if (attempt < 0) {
+            throw new IllegalArgumentException("重试消息头格式错误 - " + HEADER_ATTEMPT + ": " + value);
+        }
+        return attempt;
+    }
+
+    private static int attemptOrZero(ConsumerRecord<?, ?> record) {
+        try {
+            return attemptOf(record);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 构造失败信息头：原始位置沿用首次失败时记录的值，失败原因与时间取本次失败
+     */
+    private Headers failureHeaders(ConsumerRecord<String, String> record, Exception cause, int attempt) {
+        String now = String.valueOf(System.currentTimeMillis());
+        Headers headers = new RecordHeaders();
+        setHeader(headers, HEADER_ATTEMPT, String.valueOf(attempt));
+        setHeader(headers, HEADER_ORIGINAL_TOPIC, originalTopicOf(record));
+        setHeader(headers, HEADER_ORIGINAL_PARTITION, header(record, HEADER_ORIGINAL_PARTITION, String.valueOf(record.partition())));
+        setHeader(headers, HEADER_ORIGINAL_OFFSET, header(record, HEADER_ORIGINAL_OFFSET, String.valueOf(record.offset())));
+        setHeader(headers, HEADER_ORIGINAL_TIMESTAMP, header(record, HEADER_ORIGINAL_TIMESTAMP, String.valueOf(record.timestamp())));
+        setHeader(headers, HEADER_FIRST_FAILURE_TIME, header(record, HEADER_FIRST_FAILURE_TIME, now));
+        setHeader(headers, HEADER_FAILURE_TIME, now);
+        setHeader(headers, HEADER_EXCEPTION_CLASS, cause.getClass().getName());
+        setHeader(headers, HEADER_EXCEPTION_MESSAGE, StrUtil.maxLength(StrUtil.nullToEmpty(cause.getMessage()), MAX_MESSAGE_LENGTH));
+        return headers;
+    }
+
+    private void send(ProducerRecord<String, String> producerRecord) {
+        try {
+            kafkaTemplate.send(producerRecord).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("转发Kafka消息被中断 - Topic: " + producerRecord.topic(), e);
+        } catch (Exception e) {
+            throw new IllegalStateException("转发Kafka消息失败 - Topic: " + producerRecord.topic(), e);
+        }
+    }
+
+    private static void setHeader(Headers headers, String name, String value) {
+        headers.remove(name);
+        headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name, String defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? defaultValue : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
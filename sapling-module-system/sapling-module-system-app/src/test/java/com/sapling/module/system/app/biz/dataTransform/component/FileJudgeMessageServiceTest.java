@@ -0,0 +1,93 @@
+package com.sapling.module.system.app.biz.dataTransform.component;
+
+import com.sapling.module.system.infrastructure.common.slot.SystemContext;
+import com.yomahub.liteflow.core.FlowExecutor;
+import com.yomahub.liteflow.flow.LiteflowResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link FileJudgeMessageService#processFileJudgeMessages} 测试：按 sourceType 分组合并 fileCodes，
+ * 缺少或为空的 sourceType 归为同一组，以及解析失败与分组执行失败时返回的消息下标。
+ *
+ * @author mbws
+ */
+class FileJudgeMessageServiceTest {
+
+    private final List<SystemContext> contexts = new ArrayList<>();
+    private final Set<String> failingSourceTypes = new TreeSet<>();
+    private FileJudgeMessageService service;
+
+    @BeforeEach
+    void setUp() {
+        FlowExecutor flowExecutor = mock(FlowExecutor.class);
+        when(flowExecutor.execute2Resp(eq("fileJudgeBatchChain"), isNull(), any(SystemContext.class)))
+                .thenAnswer(invocation -> {
+                    SystemContext context = invocation.getArgument(2);
+                    contexts.add(context);
+                    LiteflowResponse response = new LiteflowResponse();
+                    response.setSuccess(!failingSourceTypes.contains(context.<String>get("sourceType")));
+                    return response;
+                });
+        service = new FileJudgeMessageService();
+        ReflectionTestUtils.setField(service, "flowExecutor", flowExecutor);
+    }
+
+    @Test
+    void messagesAreGroupedBySourceTypeKeepingMessageOrder() {
+        Set<Integer> failed = service.processFileJudgeMessages(Arrays.asList(
+                "{\"sourceType\":\"wj\",\"fileCodes\":[\"a\",\"b\"]}",
+                "{\"sourceType\":\"MG\",\"fileCodes\":[\"c\"]}",
+                "{\"fileCodes\":[\"d\"]}",
+                "{\"sourceType\":\"wj\",\"judgeFlag\":\"2\",\"fileCodes\":[\"b\",\"e\"]}",
+                "{\"sourceType\":\"\",\"fileCodes\":[\"f\"]}",
+                "{\"sourceType\":\"wj\",\"judgeFlag\":\"1\",\"fileCodes\":[\"g\"]}"));
+
+        assertEquals(Collections.emptySet(), failed);
+        assertEquals(3, contexts.size());
+        assertGroup(contexts.get(0), "wj", Arrays.asList("a", "b", "e"),
+                Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("b", "e")));
+        assertGroup(contexts.get(1), "mg", Collections.singletonList("c"),
+                Collections.singletonList(Collections.singletonList("c")));
+        // 缺少 sourceType 与空 sourceType 的消息同属默认分支
+        assertGroup(contexts.get(2), "", Arrays.asList("d", "f"),
+                Arrays.asList(Collections.singletonList("d"), Collections.singletonList("f")));
+    }
+
+    @Test
+    void unparsableMessagesAndMessagesOfFailedGroupsAreReported() {
+        failingSourceTypes.add("mg");
+
+        Set<Integer> failed = service.processFileJudgeMessages(Arrays.asList(
+                "{\"sourceType\":\"wj\",\"fileCodes\":[\"a\"]}",
+                "{\"sourceType\":\"mg\",\"fileCodes\":[\"b\"]}",
+                "not json",
+                "{\"sourceType\":\"wj\"}",
+                "{\"sourceType\":\"mg\",\"fileCodes\":[\"c\"]}"));
+
+        assertEquals(new TreeSet<>(Arrays.asList(1, 2, 3, 4)), failed);
+        assertEquals(2, contexts.size());
+    }
+
+    private static void assertGroup(SystemContext context, String sourceType, List<String> fileCodes,
+                                    List<List<String>> messageFileCodes) {
+        assertEquals(sourceType, context.get("sourceType"));
+        assertEquals(fileCodes, context.get("fileCodes"));
+        assertEquals(messageFileCodes, context.get("messageFileCodes"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.sapling.module.system.app.biz.dataTransform.enrich;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.sapling.module.system.client.biz.host.dto.ChkHostDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 为 10000 条文件信息合并 200 个主机的信息：原先每条文件信息各自序列化并解析主机信息，
+ * 对比 {@link HostEnrichment} 共享主机节点的立即合并与延迟合并。{@code serialize} 时每条结果再序列化一次，
+ * 延迟合并的字段合并发生在这一步。结果一致性由 {@link HostEnrichmentTest} 校验。
+ * <p>
+ * 运行：{@code java -cp target/test-classes:<test classpath> ...HostEnrichmentBenchmark}，
+ * 附带 {@link GCProfiler} 输出每批的分配量作为内存对比。
+ *
+ * @author mbws
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HostEnrichmentBenchmark {
+
+    private static final int FILES = 10_000;
+    private static final int HOSTS = 200;
+
+    @Param({"false", "true"})
+    private boolean serialize;
+
+    private List<ChkHostDto> hosts;
+    private List<JSONObject> fileInfos;
+
+    @Setup
+    public void setUp() {
+        hosts = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            hosts.add(HostEnrichmentTest.host((long) i, "主机-" + i, "h" + i));
+        }
+        fileInfos = new ArrayList<>(FILES);
+        for (int i = 0; i < FILES; i++) {
+            // 每 100 条中有 1 条找不到主机
+            fileInfos.add(HostEnrichmentTest.fileInfo("F" + i, i % 100 == 0 ? "unknown" : "h" + (i % HOSTS)));
+        }
+    }
+
+    @Benchmark
+    public void perRecord(Blackhole blackhole) {
+        Map<String, ChkHostDto> hostInfoMap = hosts.stream()
+                .collect(Collectors.toMap(ChkHostDto::getHostId, Function.identity()));
+        for (JSONObject fileInfo : fileInfos) {
+            JSONObject enriched = new JSONObject(fileInfo);
+            ChkHostDto hostInfo = hostInfoMap.get(fileInfo.getString("hostId"));
+            if (hostInfo != null) {
+                enriched.put("hostInfo", JSONObject.parseObject(JSONObject.toJSONString(hostInfo)));
+                enriched.put("hostName", hostInfo.getHostName());
+            } else {
+                enriched.put("hostInfo", null);
+                enriched.put("hostFound", false);
+            }
+            consume(blackhole, enriched);
+        }
+    }
+
+    @Benchmark
+    public void eager(Blackhole blackhole) {
+        enrich(blackhole, false);
+    }
+
+    @Benchmark
+    public void lazy(Blackhole blackhole) {
+        enrich(blackhole, true);
+    }
+
+    private void enrich(Blackhole blackhole, boolean lazy) {
+        HostEnrichment enrichment = HostEnrichment.of(hosts);
+        for (JSONObject fileInfo : fileInfos) {
+            consume(blackhole, enrichment.enrich(fileInfo, lazy));
+        }
+    }
+
+    private void consume(Blackhole blackhole, JSONObject enriched) {
+        blackhole.consume(serialize ? JSON.toJSONString(enriched) : enriched);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HostEnrichmentBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
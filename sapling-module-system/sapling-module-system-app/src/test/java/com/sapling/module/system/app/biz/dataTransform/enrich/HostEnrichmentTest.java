@@ -0,0 +1,204 @@
+package com.sapling.module.system.app.biz.dataTransform.enrich;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.sapling.module.system.client.biz.host.dto.ChkHostDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link HostEnrichment} 测试：立即合并与延迟合并的结果与原先逐条序列化主机信息的合并结果一致，
+ * 同一主机的文件信息共享主机节点，以及延迟合并不修改文件信息。
+ *
+ * @author mbws
+ */
+class HostEnrichmentTest {
+
+    @Test
+    void eagerAndLazyJoinMatchBaseline() {
+        List<ChkHostDto> hosts = Arrays.asList(host(1L, "主机-1", "h1"), host(2L, null, "h2"),
+                host(3L, "重复", "h1"), host(4L, "无ID", null));
+        HostEnrichment enrichment = HostEnrichment.of(hosts);
+        assertEquals(2, enrichment.size());
+
+        for (JSONObject fileInfo : fileInfos()) {
+            JSONObject expected = baseline(copy(fileInfo), hosts);
+            JSONObject serialized = JSON.parseObject(JSON.toJSONString(expected));
+
+            JSONObject lazy = enrichment.enrich(fileInfo, true);
+            assertEquals(expected, lazy);
+            assertEquals(serialized, JSON.parseObject(JSON.toJSONString(lazy)));
+
+            JSONObject eager = enrichment.enrich(copy(fileInfo), false);
+            assertEquals(expected, eager);
+            assertEquals(serialized, JSON.parseObject(JSON.toJSONString(eager)));
+        }
+    }
+
+    @Test
+    void lazyJoinSharesHostNodeAndLeavesFileInfoUnchanged() {
+        HostEnrichment enrichment = HostEnrichment.of(Arrays.asList(host(1L, "主机-1", "h1")));
+        JSONObject first = fileInfo("F1", "h1");
+        JSONObject second = fileInfo("F2", "h1");
+
+        JSONObject firstView = enrichment.enrich(first, true);
+        JSONObject secondView = enrichment.enrich(second, true);
+
+        assertSame(firstView.get("hostInfo"), secondView.get("hostInfo"));
+        assertFalse(first.containsKey("hostInfo"));
+        assertEquals("主机-1", firstView.getJSONObject("hostInfo").getString("hostName"));
+        // 共享的主机节点不可修改
+        assertThrows(UnsupportedOperationException.class, () -> firstView.getJSONObject("hostInfo").put("hostName", "x"));
+
+        // 写入合并字段只影响当前视图
+        firstView.put("hostName", "改名");
+        assertEquals("改名", firstView.getString("hostName"));
+        assertEquals("主机-1", secondView.getString("hostName"));
+        assertEquals("主机-1", enrichment.enrich(fileInfo("F3", "h1"), true).getString("hostName"));
+
+        // 写入其他字段作用于文件信息
+        secondView.put("judged", true);
+        assertEquals(true, second.get("judged"));
+    }
+
+    @Test
+    void hostsAddedLaterAreJoinedAndExistingHostsKept() {
+        HostEnrichment enrichment = HostEnrichment.of(Arrays.asList(host(1L, "主机-1", "h1")));
+        enrichment.addHosts(Arrays.asList(host(9L, "新主机-1", "h1"), host(2L, "主机-2", "h2")));
+
+        assertEquals(2, enrichment.size());
+        assertEquals("主机-1", enrichment.enrich(fileInfo("F1", "h1"), false).getString("hostName"));
+        assertEquals("主机-2", enrichment.enrich(fileInfo("F2", "h2"), false).getString("hostName"));
+    }
+
+    @Test
+    void overlayMapFollowsMapContract() {
+        Map<String, Object> base = new HashMap<>();
+        base.put("a", 1);
+        base.put("b", 2);
+        base.put("shadowed", "base");
+        Map<String, Object> overlay = new HashMap<>();
+        overlay.put("shadowed", "overlay");
+        overlay.put("c", 3);
+        Map<String, Object> sharedOverlay = new HashMap<>(overlay);
+
+        OverlayMap view = new OverlayMap(base, sharedOverlay);
+        Map<String, Object> expected = new HashMap<>(base);
+        expected.putAll(overlay);
+
+        // 同名字段只计一次，遍历时每个字段只出现一次且取 overlay 的值
+        assertEquals(4, view.size());
+        assertEquals(expected, view);
+        assertEquals(view, expected);
+        assertEquals(expected.hashCode(), view.hashCode());
+        assertEquals(expected.keySet(), view.keySet());
+        assertEquals(4, view.values().size());
+        assertEquals("overlay", view.get("shadowed"));
+
+        // 删除 overlay 中的字段后 base 中的同名字段不再可见
+        assertEquals("overlay", view.remove("shadowed"));
+        assertFalse(view.containsKey("shadowed"));
+        assertEquals(3, view.size());
+        assertEquals(overlay, sharedOverlay);
+
+        assertEquals(1, view.remove("a"));
+        assertFalse(base.containsKey("a"));
+        assertEquals(null, view.remove("missing"));
+        assertEquals(2, view.size());
+
+        assertEquals(3, view.put("c", 30));
+        assertEquals(30, view.get("c"));
+        assertEquals(3, sharedOverlay.get("c"));
+        assertEquals(null, view.put("d", 4));
+        assertEquals(4, base.get("d"));
+
+        expected = new HashMap<>();
+        expected.put("b", 2);
+        expected.put("c", 30);
+        expected.put("d", 4);
+        assertEquals(expected, view);
+        assertEquals(3, view.entrySet().size());
+
+        view.clear();
+        assertEquals(0, view.size());
+        assertEquals(new HashMap<>(), view);
+        assertEquals(overlay, sharedOverlay);
+    }
+
+    @Test
+    void overlayMapOverSameMapsIsIndependentPerView() {
+        Map<String, Object> overlay = new HashMap<>();
+        overlay.put("hostName", "h");
+        OverlayMap first = new OverlayMap(new HashMap<>(), overlay);
+        OverlayMap second = new OverlayMap(new HashMap<>(), overlay);
+
+        first.put("hostName", "changed");
+        first.remove("hostName");
+
+        assertEquals("h", second.get("hostName"));
+        assertEquals(1, second.size());
+        assertEquals(0, first.size());
+    }
+
+    private static List<JSONObject> fileInfos() {
+        JSONObject withOwnHostName = fileInfo("F3", "h1");
+        withOwnHostName.put("hostName", "文件中的主机名");
+        JSONObject withoutHostId = new JSONObject();
+        withoutHostId.put("fileCode", "F5");
+        return Arrays.asList(fileInfo("F1", "h1"), fileInfo("F2", "h2"), withOwnHostName,
+                fileInfo("F4", "unknown"), withoutHostId);
+    }
+
+    /**
+     * 原先的合并方式：每条文件信息各自序列化并解析一次主机信息
+     */
+    private static JSONObject baseline(JSONObject fileInfo, List<ChkHostDto> hosts) {
+        String hostId = fileInfo.getString("hostId");
+        ChkHostDto hostInfo = null;
+        for (ChkHostDto host : hosts) {
+            if (hostId != null && hostId.equals(host.getHostId())) {
+                hostInfo = host;
+                break;
+            }
+        }
+        if (hostInfo != null) {
+            fileInfo.put("hostInfo", JSONObject.parseObject(JSONObject.toJSONString(hostInfo)));
+            fileInfo.put("hostName", hostInfo.getHostName());
+        } else {
+            fileInfo.put("hostInfo", null);
+            fileInfo.put("hostFound", false);
+        }
+        return fileInfo;
+    }
+
+    static JSONObject fileInfo(String fileCode, String hostId) {
+        JSONObject fileInfo = new JSONObject();
+        fileInfo.put("fileCode", fileCode);
+        fileInfo.put("hostId", hostId);
+        fileInfo.put("filepath", "/data/" + fileCode + ".docx");
+        fileInfo.put("fileSize", 2048L);
+        fileInfo.put("mgLevel", "秘密");
+        return fileInfo;
+    }
+
+    static ChkHostDto host(Long id, String hostName, String hostId) {
+        ChkHostDto host = new ChkHostDto();
+        host.setId(id);
+        host.setHostName(hostName);
+        host.setHostId(hostId);
+        return host;
+    }
+
+    private static JSONObject copy(JSONObject fileInfo) {
+        return new JSONObject(new HashMap<>(fileInfo));
+    }
+}
@@ -0,0 +1,72 @@
+package com.sapling.module.system.app.biz.dataTransform.flow;
+
+import com.alibaba.fastjson.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 映射并序列化 10000 个 ES 文档：{@link DataTransformListCmp} 编译后的字段映射直接输出 JSON 字符串，
+ * 对比原先逐字段构建 JSONObject 后再由 sendKafka 序列化。两者输出一致性由 {@link DataTransformListCmpTest} 校验。
+ * <p>
+ * 运行：{@code java -cp target/test-classes:<test classpath> ...DataTransformListBenchmark}，
+ * 附带 {@link GCProfiler} 输出每批的分配量。
+ *
+ * @author mbws
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataTransformListBenchmark {
+
+    private static final int DOCUMENTS = 10_000;
+
+    private List<JSONObject> documents;
+
+    @Setup
+    public void setUp() {
+        documents = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(DataTransformListCmpTest.document(i));
+        }
+    }
+
+    @Benchmark
+    public List<String> compiled() {
+        return DataTransformListCmp.FIELD_MAPPING.toJsonList(documents);
+    }
+
+    @Benchmark
+    public List<String> jsonObject() {
+        List<String> result = new ArrayList<>(documents.size());
+        for (JSONObject document : documents) {
+            result.add(DataTransformListCmpTest.baseline(document).toJSONString());
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DataTransformListBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,179 @@
+package com.sapling.module.system.app.biz.dataTransform.flow;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.parser.Feature;
+import com.sapling.module.system.infrastructure.common.slot.SystemContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * {@link DataTransformListCmp} 测试：编译后的字段映射与原先逐字段构建 JSONObject 的映射输出一致，
+ * 覆盖空白值、null、非字符串值与需要转义的字符。
+ *
+ * @author mbws
+ */
+class DataTransformListCmpTest {
+
+    private static final List<String> OUTPUT_FIELDS = Arrays.asList("alarm_file_name", "alarm_md5",
+            "alarm_src_location", "alarm_source", "alarm_company", "user_name", "host_ip", "alarm_updatetime",
+            "judge_mglevel", "judge_time", "alarm_iscleared");
+
+    @Test
+    void compiledMappingMatchesBaselineMapping() {
+        for (JSONObject document : documents()) {
+            String json = DataTransformListCmp.FIELD_MAPPING.toJson(document);
+
+            assertEquals(baseline(document), JSON.parseObject(json), json);
+            assertEquals(OUTPUT_FIELDS, new ArrayList<>(JSON.parseObject(json, Feature.OrderedField).keySet()));
+        }
+    }
+
+    @Test
+    void specialCharactersAreEscaped() {
+        JSONObject document = new JSONObject();
+        document.put("fileName", "报告 \"终稿\"\\v2\n\t\u0001.doc");
+        document.put("filePath", "C:\\data\\</script>");
+
+        String json = DataTransformListCmp.FIELD_MAPPING.toJson(document);
+
+        JSONObject output = JSON.parseObject(json);
+        assertEquals("报告 \"终稿\"\\v2\n\t\u0001.doc", output.getString("alarm_file_name"));
+        assertEquals("C:\\data\\</script>", output.getString("alarm_src_location"));
+        assertEquals(baseline(document), output);
+    }
+
+    @Test
+    void processOutputsOneJsonStringPerDocument() throws Exception {
+        List<JSONObject> documents = documents();
+        SystemContext context = new SystemContext();
+        context.set("esChildDocsList", documents);
+        DataTransformListCmp component = spy(new DataTransformListCmp());
+        doReturn(context).when(component).getFirstContextBean();
+
+        component.process();
+
+        JSONArray outputs = context.get("outputJsonArray");
+        assertEquals(documents.size(), outputs.size());
+        for (int i = 0; i < documents.size(); i++) {
+            assertEquals(baseline(documents.get(i)), JSON.parseObject((String) outputs.get(i)));
+        }
+    }
+
+    private static List<JSONObject> documents() {
+        List<JSONObject> documents = new ArrayList<>();
+        documents.add(document(0));
+        documents.add(new JSONObject());
+
+        // 单来源字段保留空白值，多来源字段跳过空白值
+        JSONObject blank = new JSONObject();
+        blank.put("fileName", "  ");
+        blank.put("userName", "");
+        blank.put("realmd5", " ");
+        blank.put("copymd5", "\t");
+        blank.put("current_location_md5", "m3");
+        blank.put("srcip", "");
+        blank.put("mgLevel", "  ");
+        documents.add(blank);
+
+        // 值为 null 与来源字段全部缺失时输出空字符串
+        JSONObject nulls = new JSONObject();
+        nulls.put("fileName", null);
+        nulls.put("realmd5", null);
+        nulls.put("dataSource", null);
+        nulls.put("datasource", "ds");
+        documents.add(nulls);
+
+        // 非字符串值按 toString 输出
+        JSONObject typed = new JSONObject();
+        typed.put("iscleared", 1);
+        typed.put("mgLevel", 3L);
+        typed.put("updateTime", 1700000000000L);
+        typed.put("judgeTime", true);
+        typed.put("orgPath", new BigDecimal("1.50"));
+        documents.add(typed);
+
+        JSONObject deleted = new JSONObject();
+        deleted.put("iscleared", "");
+        deleted.put("is_file_delete", false);
+        documents.add(deleted);
+        return documents;
+    }
+
+    static JSONObject document(int i) {
+        JSONObject document = new JSONObject();
+        document.put("fileCode", "F" + i);
+        document.put("hostId", "H" + (i % 50));
+        document.put("fileName", "文件" + i + ".docx");
+        document.put("filePath", "/data/dept" + (i % 20) + "/文件" + i + ".docx");
+        document.put("realmd5", i % 3 == 0 ? "" : "d41d8cd98f00b204e9800998ecf8" + i);
+        document.put("copymd5", "c41d8cd98f00b204e9800998ecf8" + i);
+        document.put("dataSource", i % 2 == 0 ? null : "wj");
+        document.put("source_type", "mg");
+        document.put("orgPath", "/总部/信息中心/" + (i % 7));
+        document.put("userName", "user" + (i % 100));
+        document.put("srcip", i % 5 == 0 ? " " : "10.0." + (i % 256) + "." + (i % 200));
+        document.put("ip", "192.168.1." + (i % 200));
+        document.put("updateTime", i % 4 == 0 ? null : "2025-06-01 12:00:" + (i % 60));
+        document.put("accessTime", "2025-06-01 11:00:00");
+        document.put("mgLevel", i % 3 == 0 ? "" : "秘密");
+        document.put("realLevelInfo", "内部");
+        document.put("judgeTime", "2025-06-01 12:30:00");
+        document.put("iscleared", i % 2);
+        document.put("fileSize", 1024L * i);
+        document.put("keywords", Collections.singletonList("关键词"));
+        return document;
+    }
+
+    /**
+     * 原先逐字段构建 JSONObject 的映射
+     */
+    static JSONObject baseline(JSONObject inputJson) {
+        JSONObject outputJson = new JSONObject();
+        outputJson.put("alarm_file_name", nullToEmpty(inputJson.getString("fileName")));
+        outputJson.put("alarm_md5", firstNonEmpty(inputJson.getString("realmd5"),
+                inputJson.getString("copymd5"), inputJson.getString("current_location_md5")));
+        outputJson.put("alarm_src_location", nullToEmpty(inputJson.getString("filePath")));
+        outputJson.put("alarm_source", firstNonEmpty(inputJson.getString("dataSource"),
+                inputJson.getString("datasource"), inputJson.getString("source_type")));
+        outputJson.put("alarm_company", nullToEmpty(inputJson.getString("orgPath")));
+        outputJson.put("user_name", nullToEmpty(inputJson.getString("userName")));
+        outputJson.put("host_ip", firstNonEmpty(inputJson.getString("srcip"), inputJson.getString("ip")));
+        outputJson.put("alarm_updatetime", firstNonEmpty(inputJson.getString("updateTime"),
+                inputJson.getString("sendTime"), inputJson.getString("accessTime"),
+                inputJson.getString("es_access_time")));
+        outputJson.put("judge_mglevel", firstNonEmpty(inputJson.getString("mgLevel"),
+                inputJson.getString("realLevelInfo"), inputJson.getString("documentclass")));
+        outputJson.put("judge_time", nullToEmpty(inputJson.getString("judgeTime")));
+        outputJson.put("alarm_iscleared", firstNonEmpty(toStringSafe(inputJson.get("iscleared")),
+                toStringSafe(inputJson.get("is_file_delete"))));
+        return outputJson;
+    }
+
+    private static String firstNonEmpty(String... values) {
+        for (String v : values) {
+            if (v != null && v.trim().length() > 0) {
+                return v;
+            }
+        }
+        return "";
+    }
+
+    private static String nullToEmpty(String v) {
+        return v == null ? "" : v;
+    }
+
+    private static String toStringSafe(Object v) {
+        return v == null ? "" : String.valueOf(v);
+    }
+}
@@ -0,0 +1,86 @@
+package com.sapling.module.system.app.biz.dataTransform.flow;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.sapling.module.system.infrastructure.common.slot.SystemContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * {@link FileJudgeFanOutCmp} 测试：合并查询的输出按 fileCode 拆回各条消息，
+ * 同一位置的不同 fileCode 各自归属到引用它的消息，缺少 fileCode 的输出按批次输出一次。
+ *
+ * @author mbws
+ */
+class FileJudgeFanOutCmpTest {
+
+    @Test
+    void outputsAreFannedOutPerMessageByFileCode() throws Exception {
+        // x 与 y 位于同一主机的同一路径，ES 按 fileCode 分桶各返回一条
+        List<JSONObject> esChildDocs = Arrays.asList(
+                doc("x", "h1", "/data/a.doc"),
+                doc("y", "h1", "/data/a.doc"),
+                doc("z", "h2", "/data/b.doc"));
+        JSONArray outputs = new JSONArray(Arrays.asList(output("x"), output("y"), output("z")));
+        List<List<String>> messageFileCodes = Arrays.asList(
+                Collections.singletonList("y"),
+                Arrays.asList("x", "y"),
+                Arrays.asList("z", "z"),
+                Collections.singletonList("missing"));
+
+        JSONArray fannedOut = fanOut(esChildDocs, outputs, messageFileCodes);
+
+        assertEquals(Arrays.asList("y", "x", "y", "z"), fileCodes(fannedOut));
+    }
+
+    @Test
+    void outputsWithoutFileCodeAreEmittedOnceAfterTheMessages() throws Exception {
+        List<JSONObject> esChildDocs = Arrays.asList(doc("x", "h1", "/a"), doc(null, "h1", "/b"));
+        JSONArray outputs = new JSONArray(Arrays.asList(output("x"), output("unknown")));
+
+        JSONArray fannedOut = fanOut(esChildDocs, outputs,
+                Arrays.asList(Collections.singletonList("x"), Collections.singletonList("x")));
+
+        assertEquals(Arrays.asList("x", "x", "unknown"), fileCodes(fannedOut));
+    }
+
+    private static JSONArray fanOut(List<JSONObject> esChildDocs, JSONArray outputs,
+                                    List<List<String>> messageFileCodes) throws Exception {
+        SystemContext context = new SystemContext();
+        context.set("esChildDocsList", esChildDocs);
+        context.set("outputJsonArray", outputs);
+        context.set("messageFileCodes", messageFileCodes);
+        FileJudgeFanOutCmp component = spy(new FileJudgeFanOutCmp());
+        doReturn(context).when(component).getFirstContextBean();
+
+        component.process();
+        return context.get("outputJsonArray");
+    }
+
+    private static JSONObject doc(String fileCode, String hostId, String filepath) {
+        JSONObject doc = new JSONObject();
+        doc.put("fileCode", fileCode);
+        doc.put("hostId", hostId);
+        doc.put("filepath", filepath);
+        return doc;
+    }
+
+    private static JSONObject output(String fileCode) {
+        JSONObject output = new JSONObject();
+        output.put("file_code", fileCode);
+        return output;
+    }
+
+    private static List<String> fileCodes(JSONArray outputs) {
+        return outputs.stream().map(output -> ((JSONObject) output).getString("file_code"))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,170 @@
+package com.sapling.module.system.app.kafka.listener;
+
+import com.sapling.module.system.app.biz.dataTransform.component.FileAlarmMessageService;
+import com.sapling.module.system.app.biz.dataTransform.component.FileJudgeMessageService;
+import com.sapling.module.system.app.kafka.retry.FailedRecordRouter;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RetryTopicMessageListener} 测试：未到期消息回退并暂停所在分区、到期恢复而不阻塞监听器线程，
+ * 重试头异常的消息转发死信主题并提交偏移量。
+ *
+ * @author mbws
+ */
+class RetryTopicMessageListenerTest {
+
+    private static final String RETRY_TOPIC = "mbws-fileJudge-retry-1";
+
+    private final List<ProducerRecord<String, String>> sent = new ArrayList<>();
+    private final TopicPartition partition0 = new TopicPartition(RETRY_TOPIC, 0);
+    private final TopicPartition partition1 = new TopicPartition(RETRY_TOPIC, 1);
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private FileJudgeMessageService fileJudgeMessageService;
+    private MessageListenerContainer container;
+    private Consumer<?, ?> consumer;
+    private RetryTopicMessageListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            SettableListenableFuture<Object> future = new SettableListenableFuture<>();
+            future.set(null);
+            return future;
+        });
+        FailedRecordRouter router = new FailedRecordRouter();
+        ReflectionTestUtils.setField(router, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(router, "maxAttempts", 3);
+        ReflectionTestUtils.setField(router, "initialBackoffMillis", 300L);
+        ReflectionTestUtils.setField(router, "multiplier", 4.0);
+        ReflectionTestUtils.setField(router, "maxBackoffMillis", 10000L);
+        ReflectionTestUtils.setField(router, "sendTimeoutMillis", 1000L);
+
+        fileJudgeMessageService = mock(FileJudgeMessageService.class);
+        container = mock(MessageListenerContainer.class);
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(RetryTopicMessageListener.LISTENER_ID)).thenReturn(container);
+        consumer = mock(Consumer.class);
+
+        listener = new RetryTopicMessageListener();
+        ReflectionTestUtils.setField(listener, "failedRecordRouter", router);
+        ReflectionTestUtils.setField(listener, "mbwsFileJudgeMessageService", fileJudgeMessageService);
+        ReflectionTestUtils.setField(listener, "mbwsFileAlarmMessageService", mock(FileAlarmMessageService.class));
+        ReflectionTestUtils.setField(listener, "kafkaListenerEndpointRegistry", registry);
+        listener.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.shutdown();
+    }
+
+    @Test
+    void notYetDueRecordPausesOnlyItsPartitionAndResumesWhenDue() {
+        long now = System.currentTimeMillis();
+        List<ConsumerRecord<String, String>> records = Arrays.asList(
+                retryRecord(0, 10, "due-0", "1", String.valueOf(now - 1)),
+                retryRecord(0, 11, "later-0", "1", String.valueOf(now + 500)),
+                retryRecord(0, 12, "later-0b", "1", String.valueOf(now + 500)),
+                retryRecord(1, 20, "due-1", "1", String.valueOf(now - 1)));
+
+        long start = System.nanoTime();
+        listener.onMessage(records, consumer);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 监听器线程不等待消息到期
+        assertTrue(elapsedMillis < 300, "onMessage took " + elapsedMillis + "ms");
+        verify(fileJudgeMessageService).processFileJudgeMessage("due-0");
+        verify(fileJudgeMessageService).processFileJudgeMessage("due-1");
+        verify(fileJudgeMessageService, never()).processFileJudgeMessage("later-0");
+        verify(fileJudgeMessageService, never()).processFileJudgeMessage("later-0b");
+        verify(consumer).commitSync(Map.of(partition0, new OffsetAndMetadata(11), partition1, new OffsetAndMetadata(21)));
+        verify(consumer).seek(partition0, 11L);
+        verify(consumer, never()).seek(eq(partition1), anyLong());
+        verify(container).pausePartition(partition0);
+        verify(container, never()).pausePartition(partition1);
+
+        verify(container, after(200).never()).resumePartition(partition0);
+        verify(container, timeout(2000)).resumePartition(partition0);
+    }
+
+    @Test
+    void failedForwardRewindsAndPausesForTheInitialBackoff() {
+        doThrow(new IllegalStateException("es down")).when(fileJudgeMessageService).processFileJudgeMessage("due-0");
+        doThrow(new IllegalStateException("broker down")).when(kafkaTemplate).send(any(ProducerRecord.class));
+
+        listener.onMessage(Collections.singletonList(
+                retryRecord(0, 10, "due-0", "1", String.valueOf(System.currentTimeMillis() - 1))), consumer);
+
+        verify(consumer, never()).commitSync(any(Map.class));
+        verify(consumer).seek(partition0, 10L);
+        verify(container).pausePartition(partition0);
+        verify(container, timeout(2000)).resumePartition(partition0);
+    }
+
+    @Test
+    void malformedOrMissingRetryHeadersGoToTheDeadLetterTopicAndAreCommitted() {
+        ConsumerRecord<String, String> noHeaders = new ConsumerRecord<>(RETRY_TOPIC, 1, 20, System.currentTimeMillis(),
+                TimestampType.CREATE_TIME, -1, -1, "key", "no-headers", new RecordHeaders(), Optional.empty());
+        List<ConsumerRecord<String, String>> records = Arrays.asList(
+                retryRecord(0, 10, "bad-due", "1", "soon"),
+                retryRecord(0, 11, "bad-attempt", "x", "0"),
+                noHeaders);
+
+        listener.onMessage(records, consumer);
+
+        assertEquals(3, sent.size());
+        sent.forEach(record -> assertEquals("mbws-fileJudge-dlq", record.topic()));
+        verify(fileJudgeMessageService, never()).processFileJudgeMessage(any());
+        verify(consumer).commitSync(Map.of(partition0, new OffsetAndMetadata(12), partition1, new OffsetAndMetadata(21)));
+        verify(consumer, never()).seek(any(TopicPartition.class), anyLong());
+        verify(container, never()).pausePartition(any());
+    }
+
+    private static ConsumerRecord<String, String> retryRecord(int partition, long offset, String value,
+                                                              String attempt, String dueTime) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(RETRY_TOPIC, partition, offset,
+                System.currentTimeMillis(), TimestampType.CREATE_TIME, -1, -1, "key", value, new RecordHeaders(), Optional.empty());
+        record.headers().add(FailedRecordRouter.HEADER_ORIGINAL_TOPIC, "mbws-fileJudge".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FailedRecordRouter.HEADER_ATTEMPT, attempt.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FailedRecordRouter.HEADER_DUE_TIME, dueTime.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
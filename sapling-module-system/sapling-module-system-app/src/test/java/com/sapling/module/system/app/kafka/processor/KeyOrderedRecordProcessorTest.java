@@ -0,0 +1,199 @@
+package com.sapling.module.system.app.kafka.processor;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.condition.EmbeddedKafkaCondition;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link KeyOrderedRecordProcessor} 与 {@link RecordBatchResult} 在内嵌Kafka上的端到端测试：
+ * 真实消费者按“拉取-并行处理-提交/回退”循环消费，校验同 Key 顺序、失败回退与最终提交偏移量。
+ *
+ * @author mbws
+ */
+@EmbeddedKafka(partitions = 3)
+class KeyOrderedRecordProcessorTest {
+
+    private static final int KEY_COUNT = 12;
+    private static final int RECORDS_PER_KEY = 40;
+
+    private final EmbeddedKafkaBroker broker = EmbeddedKafkaCondition.getBroker();
+    private KeyOrderedRecordProcessor processor;
+    private String topic;
+
+    @BeforeEach
+    void setUp() {
+        processor = new KeyOrderedRecordProcessor("test", 4, 16);
+        topic = "key-ordered-" + System.nanoTime();
+        broker.addTopics(new NewTopic(topic, 3, (short) 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void recordsOfOneKeyAreHandledInOffsetOrderWithinEachPoll() {
+        produce();
+        Set<String> handled = ConcurrentHashMap.newKeySet();
+
+        consumeUntil(handled, record -> {
+            pause();
+            handled.add(record.value());
+        }, (records, log) -> assertKeyOrder(log));
+
+        assertEquals(KEY_COUNT * RECORDS_PER_KEY, handled.size());
+    }
+
+    @Test
+    void failedRecordIsRedeliveredFromItsOffsetAndCommittedOnlyAfterSuccess() {
+        produce();
+        Set<String> handled = ConcurrentHashMap.newKeySet();
+        String poison = "key-3:17";
+        Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+        Map<TopicPartition, Long> pendingRewinds = new HashMap<>();
+        List<Long> redeliveredFrom = new ArrayList<>();
+
+        consumeUntil(handled, record -> {
+            if (record.value().equals(poison) && failedOnce.add(poison)) {
+                throw new IllegalStateException("处理失败");
+            }
+            handled.add(record.value());
+        }, (records, log) -> {
+            // 回退后的下一次拉取必须从失败消息开始
+            for (TopicPartition partition : records.partitions()) {
+                Long rewind = pendingRewinds.remove(partition);
+                if (rewind != null) {
+                    redeliveredFrom.add(records.records(partition).get(0).offset());
+                    assertEquals(rewind, records.records(partition).get(0).offset());
+                }
+            }
+        }, pendingRewinds);
+
+        assertEquals(Collections.singleton(poison), failedOnce);
+        assertEquals(1, redeliveredFrom.size());
+        assertTrue(handled.contains(poison));
+        assertEquals(KEY_COUNT * RECORDS_PER_KEY, handled.size());
+    }
+
+    private void consumeUntil(Set<String> handled, Consumer<ConsumerRecord<String, String>> handler, PollCheck check) {
+        consumeUntil(handled, handler, check, new HashMap<>());
+    }
+
+    /**
+     * 模拟 FileJudgeMessageListener 的消费循环：拉取一批，按 Key 并行处理，提交并回退失败分区
+     */
+    private void consumeUntil(Set<String> handled, Consumer<ConsumerRecord<String, String>> handler,
+                              PollCheck check, Map<TopicPartition, Long> pendingRewinds) {
+        try (KafkaConsumer<String, String> consumer = consumer()) {
+            consumer.subscribe(Collections.singletonList(topic));
+            long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+            while (handled.size() < KEY_COUNT * RECORDS_PER_KEY && System.nanoTime() < deadline) {
+                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(200));
+                if (records.isEmpty()) {
+                    continue;
+                }
+                List<ConsumerRecord<String, String>> batch = new ArrayList<>();
+                records.forEach(batch::add);
+                List<ConsumerRecord<String, String>> log = Collections.synchronizedList(new ArrayList<>());
+                RecordBatchResult result = processor.process(batch, record -> {
+                    log.add(record);
+                    handler.accept(record);
+                });
+                check.verify(records, log);
+                result.commit(consumer);
+                pendingRewinds.putAll(result.getRewindOffsets());
+            }
+
+            Set<TopicPartition> partitions = consumer.assignment();
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(partitions);
+            for (TopicPartition partition : partitions) {
+                assertEquals(endOffsets.get(partition), committed.get(partition).offset(), partition.toString());
+            }
+        }
+    }
+
+    private static void assertKeyOrder(List<ConsumerRecord<String, String>> log) {
+        Map<String, List<Long>> offsetsByKey = new HashMap<>();
+        synchronized (log) {
+            for (ConsumerRecord<String, String> record : log) {
+                offsetsByKey.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(record.offset());
+            }
+        }
+        offsetsByKey.forEach((key, offsets) -> {
+            List<Long> sorted = offsets.stream().sorted().collect(Collectors.toList());
+            assertEquals(sorted, offsets, "Key " + key + " 的处理顺序与偏移量顺序不一致");
+        });
+        assertFalse(offsetsByKey.isEmpty());
+    }
+
+    private void produce() {
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+            for (int seq = 0; seq < RECORDS_PER_KEY; seq++) {
+                for (int key = 0; key < KEY_COUNT; key++) {
+                    producer.send(new ProducerRecord<>(topic, "key-" + key, "key-" + key + ":" + seq));
+                }
+            }
+            producer.flush();
+        }
+    }
+
+    private KafkaConsumer<String, String> consumer() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps(topic, "false", broker);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 50);
+        return new KafkaConsumer<>(props);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PollCheck {
+        void verify(ConsumerRecords<String, String> records, List<ConsumerRecord<String, String>> log);
+    }
+}
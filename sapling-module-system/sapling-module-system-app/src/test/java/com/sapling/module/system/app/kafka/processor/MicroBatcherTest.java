@@ -0,0 +1,147 @@
+package com.sapling.module.system.app.kafka.processor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link MicroBatcher} 测试：达到最大批次大小或最长逗留时间时处理批次，多个消费线程提交的元素按提交顺序处理，
+ * 以及部分失败只影响对应元素。
+ *
+ * @author mbws
+ */
+class MicroBatcherTest {
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    private MicroBatcher<Integer> batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void fullBatchIsHandledWithoutWaitingForTheLinger() throws Exception {
+        batcher = new MicroBatcher<>("test", 4, 60_000, this::record);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(batcher.submit(i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertEquals(Collections.singletonList(Arrays.asList(0, 1, 2, 3)), batches);
+    }
+
+    @Test
+    void partialBatchIsHandledAfterTheLinger() throws Exception {
+        batcher = new MicroBatcher<>("test", 100, 200, this::record);
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> first = batcher.submit(1);
+        CompletableFuture<Void> second = batcher.submit(2);
+        assertFalse(first.isDone());
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        // 逗留时间从第一个元素提交时开始计算
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), batches);
+
+        // 处理后提交的元素重新开始计时
+        batcher.submit(3).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(3)), batches);
+    }
+
+    @Test
+    void itemsOfConcurrentSubmittersAreHandledInSubmissionOrder() throws Exception {
+        batcher = new MicroBatcher<>("test", 16, 5, this::record);
+        int threads = 4;
+        int perThread = 500;
+        Object sequenceLock = new Object();
+        int[] next = {0};
+        List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+
+        ExecutorService consumers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> submitters = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                submitters.add(consumers.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        // 序号与提交在同一临界区内，序号顺序即提交顺序
+                        synchronized (sequenceLock) {
+                            futures.add(batcher.submit(next[0]++));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> submitter : submitters) {
+                submitter.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            consumers.shutdown();
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        List<Integer> handled = new ArrayList<>();
+        for (List<Integer> batch : batches) {
+            assertTrue(batch.size() <= 16, "batch size " + batch.size());
+            handled.addAll(batch);
+        }
+        assertEquals(threads * perThread, handled.size());
+        for (int i = 0; i < handled.size(); i++) {
+            assertEquals(i, handled.get(i));
+        }
+    }
+
+    @Test
+    void failedIndexesFailOnlyTheirItems() throws Exception {
+        batcher = new MicroBatcher<>("test", 3, 60_000, batch -> Collections.singletonList(1));
+
+        CompletableFuture<Void> first = batcher.submit(10);
+        CompletableFuture<Void> second = batcher.submit(20);
+        CompletableFuture<Void> third = batcher.submit(30);
+
+        first.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void handlerExceptionFailsTheWholeBatch() {
+        batcher = new MicroBatcher<>("test", 2, 60_000, batch -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        CompletableFuture<Void> first = batcher.submit(1);
+        CompletableFuture<Void> second = batcher.submit(2);
+
+        for (CompletableFuture<Void> future : Arrays.asList(first, second)) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertEquals("boom", error.getCause().getMessage());
+        }
+    }
+
+    private List<Integer> record(List<Integer> batch) {
+        batches.add(new ArrayList<>(batch));
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,180 @@
+package com.sapling.module.system.app.kafka.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link FailedRecordRouter} 的分级转发测试：各级重试主题与延迟、重试耗尽及重试头异常时转发死信主题。
+ *
+ * @author mbws
+ */
+class FailedRecordRouterTest {
+
+    private final List<ProducerRecord<String, String>> sent = new ArrayList<>();
+    private FailedRecordRouter router;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            SettableListenableFuture<Object> future = new SettableListenableFuture<>();
+            future.set(null);
+            return future;
+        });
+        router = newRouter(kafkaTemplate);
+    }
+
+    @Test
+    void failedRecordGoesToFirstRetryTierWithOriginalPosition() {
+        long before = System.currentTimeMillis();
+        router.route(record("mbws-fileJudge", 2, 40), new IllegalStateException("es down"));
+
+        ProducerRecord<String, String> retry = single();
+        assertEquals("mbws-fileJudge-retry-1", retry.topic());
+        assertEquals("key", retry.key());
+        assertEquals("value", retry.value());
+        assertEquals("1", header(retry, FailedRecordRouter.HEADER_ATTEMPT));
+        assertEquals("mbws-fileJudge", header(retry, FailedRecordRouter.HEADER_ORIGINAL_TOPIC));
+        assertEquals("2", header(retry, FailedRecordRouter.HEADER_ORIGINAL_PARTITION));
+        assertEquals("40", header(retry, FailedRecordRouter.HEADER_ORIGINAL_OFFSET));
+        assertEquals("es down", header(retry, FailedRecordRouter.HEADER_EXCEPTION_MESSAGE));
+        long dueTime = Long.parseLong(header(retry, FailedRecordRouter.HEADER_DUE_TIME));
+        assertTrue(dueTime >= before + 1000 && dueTime <= System.currentTimeMillis() + 1000, "dueTime " + dueTime);
+    }
+
+    @Test
+    void eachTierForwardsToTheNextWithGrowingBackoffThenToTheDeadLetterTopic() {
+        ConsumerRecord<String, String> record = record("mbws-alarm", 0, 7);
+        for (int tier = 1; tier <= 3; tier++) {
+            router.route(record, new IllegalStateException("failure " + tier));
+            ProducerRecord<String, String> forwarded = sent.get(sent.size() - 1);
+            assertEquals("mbws-alarm-retry-" + tier, forwarded.topic());
+            assertEquals(String.valueOf(tier), header(forwarded, FailedRecordRouter.HEADER_ATTEMPT));
+            // 下一级的输入即本级转发出的消息
+            record = consumed(forwarded, 0, 100 + tier);
+        }
+        assertEquals(1000, router.backoffMillis(1));
+        assertEquals(4000, router.backoffMillis(2));
+        assertEquals(10000, router.backoffMillis(3));
+
+        router.route(record, new IllegalStateException("last failure"));
+
+        ProducerRecord<String, String> dlq = sent.get(sent.size() - 1);
+        assertEquals("mbws-alarm-dlq", dlq.topic());
+        assertEquals("3", header(dlq, FailedRecordRouter.HEADER_ATTEMPT));
+        assertEquals("0", header(dlq, FailedRecordRouter.HEADER_ORIGINAL_PARTITION));
+        assertEquals("7", header(dlq, FailedRecordRouter.HEADER_ORIGINAL_OFFSET));
+        assertEquals("last failure", header(dlq, FailedRecordRouter.HEADER_EXCEPTION_MESSAGE));
+        assertNotNull(header(dlq, FailedRecordRouter.HEADER_EXCEPTION_STACKTRACE));
+    }
+
+    @Test
+    void malformedAttemptHeaderGoesToTheDeadLetterTopicInsteadOfThrowing() {
+        ConsumerRecord<String, String> record = record("mbws-fileJudge", 0, 3);
+        record.headers().add(FailedRecordRouter.HEADER_ATTEMPT, "two".getBytes(StandardCharsets.UTF_8));
+
+        router.route(record, new IllegalStateException("es down"));
+
+        ProducerRecord<String, String> dlq = single();
+        assertEquals("mbws-fileJudge-dlq", dlq.topic());
+        assertEquals("0", header(dlq, FailedRecordRouter.HEADER_ATTEMPT));
+        assertEquals(IllegalArgumentException.class.getName(), header(dlq, FailedRecordRouter.HEADER_EXCEPTION_CLASS));
+    }
+
+    @Test
+    void checkRetryHeadersRejectsMissingOrMalformedHeaders() {
+        ConsumerRecord<String, String> missing = record("mbws-fileJudge-retry-2", 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> FailedRecordRouter.checkRetryHeaders(missing));
+        assertEquals("mbws-fileJudge", FailedRecordRouter.originalTopicOf(missing));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> FailedRecordRouter.checkRetryHeaders(retryRecord("mbws-fileJudge", "1", "soon")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FailedRecordRouter.checkRetryHeaders(retryRecord("mbws-fileJudge", "0", "0")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FailedRecordRouter.checkRetryHeaders(retryRecord("mbws-fileJudge", "-1", "0")));
+
+        ConsumerRecord<String, String> valid = retryRecord("mbws-fileJudge", "1", "42");
+        FailedRecordRouter.checkRetryHeaders(valid);
+        assertEquals(42, FailedRecordRouter.dueTimeOf(valid));
+        assertEquals(1, FailedRecordRouter.attemptOf(valid));
+    }
+
+    @Test
+    void failedSendThrowsSoTheCallerRewinds() {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            SettableListenableFuture<Object> future = new SettableListenableFuture<>();
+            future.setException(new IllegalStateException("broker down"));
+            return future;
+        });
+        FailedRecordRouter failing = newRouter(kafkaTemplate);
+
+        assertThrows(IllegalStateException.class,
+                () -> failing.route(record("mbws-fileJudge", 0, 0), new IllegalStateException("es down")));
+    }
+
+    static FailedRecordRouter newRouter(KafkaTemplate<String, String> kafkaTemplate) {
+        FailedRecordRouter router = new FailedRecordRouter();
+        ReflectionTestUtils.setField(router, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(router, "maxAttempts", 3);
+        ReflectionTestUtils.setField(router, "initialBackoffMillis", 1000L);
+        ReflectionTestUtils.setField(router, "multiplier", 4.0);
+        ReflectionTestUtils.setField(router, "maxBackoffMillis", 10000L);
+        ReflectionTestUtils.setField(router, "sendTimeoutMillis", 1000L);
+        return router;
+    }
+
+    static ConsumerRecord<String, String> record(String topic, int partition, long offset) {
+        return new ConsumerRecord<>(topic, partition, offset, System.currentTimeMillis(), TimestampType.CREATE_TIME,
+                -1, -1, "key", "value", new RecordHeaders(), Optional.empty());
+    }
+
+    static ConsumerRecord<String, String> retryRecord(String originalTopic, String attempt, String dueTime) {
+        ConsumerRecord<String, String> record = record(originalTopic + "-retry-1", 0, 0);
+        record.headers().add(FailedRecordRouter.HEADER_ORIGINAL_TOPIC, originalTopic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FailedRecordRouter.HEADER_ATTEMPT, attempt.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FailedRecordRouter.HEADER_DUE_TIME, dueTime.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static ConsumerRecord<String, String> consumed(ProducerRecord<String, String> forwarded, int partition, long offset) {
+        ConsumerRecord<String, String> record = record(forwarded.topic(), partition, offset);
+        forwarded.headers().forEach(header -> record.headers().add(header));
+        return record;
+    }
+
+    private ProducerRecord<String, String> single() {
+        assertEquals(1, sent.size());
+        return sent.get(0);
+    }
+
+    private static String header(ProducerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
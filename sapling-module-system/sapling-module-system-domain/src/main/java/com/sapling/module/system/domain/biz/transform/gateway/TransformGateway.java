@@ -3,6 +3,7 @@ package com.sapling.module.system.domain.biz.transform.gateway;
 import com.alibaba.fastjson.JSONObject;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 数据转换获取数据
@@ -26,6 +27,22 @@ public interface TransformGateway {
      */
     List<JSONObject> getMGFileInfoByFileCode(List<String> fileCode);
 
+    /**
+     * @param fileCode     文件code
+     * @param pageConsumer 分页结果消费者，每返回一页调用一次（调用已串行化）
+     * @author yuanjifan
+     * @description 根据filecode流式扫描相关副本(判定违规)，fileCode较多时分片并发翻页，任一分片失败时抛出异常
+     */
+    void scanWJFileInfoByFileCode(List<String> fileCode, Consumer<List<JSONObject>> pageConsumer);
+
+    /**
+     * @param fileCode     文件code
+     * @param pageConsumer 分页结果消费者，每返回一页调用一次（调用已串行化）
+     * @author yuanjifan
+     * @description 根据filecode流式扫描相关副本(判定违规)，fileCode较多时分片并发翻页，任一分片失败时抛出异常
+     */
+    void scanMGFileInfoByFileCode(List<String> fileCode, Consumer<List<JSONObject>> pageConsumer);
+
     /**
      * @param message 转换后的告警消息 JSONString
      * @author yuanjifan
@@ -33,4 +50,13 @@ public interface TransformGateway {
      * @date 2025/10/23 10:04
      */
     void sendMessage(String message);
+
+    /**
+     * 批量发送告警消息，等待全部发送结果，失败的子集在重试次数内重发；
+     * 调用线程最多阻塞 sapling.kafka.flow-send.total-timeout-ms，预算用完时剩余消息按失败返回
+     *
+     * @param messages 转换后的告警消息 JSONString
+     * @return 重试后仍发送失败的消息，全部成功时为空
+     */
+    List<String> sendMessages(List<String> messages);
 }
\ No newline at end of file
@@ -19,4 +19,10 @@ public class KafkaTopicConstants {
     public static final String MBWS_FILE_ALARM_TOPIC = "mbws-alarm";
     // 告警上报违规数据同步目标主题(上海市检：文件违规存储topic：jcy-tyaqglpt-terminal-zfmb-ufs，内容协议的话，JSON字符串；暂定无认证)
     public static final String MBWS_FILE_ALARM_TARGET_TOPIC = "jcy-tyaqglpt-terminal-zfmb-ufs";
+    // 重试主题后缀，第 N 次重试主题为：原主题-retry-N
+    public static final String RETRY_SUFFIX = LINE + "retry" + LINE;
+    // 死信主题后缀：原主题-dlq
+    public static final String DLQ_SUFFIX = LINE + "dlq";
+    // MBWS 文件判定、告警上报各级重试主题
+    public static final String MBWS_RETRY_TOPIC_PATTERN = "mbws-(fileJudge|alarm)" + RETRY_SUFFIX + "\\d+";
 }
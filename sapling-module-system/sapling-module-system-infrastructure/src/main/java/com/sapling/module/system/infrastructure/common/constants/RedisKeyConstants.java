@@ -217,5 +217,25 @@ public class RedisKeyConstants {
          * 系统参数刷新通道
          */
         public static final String SYS_PARAM_REFRESH_CHANNEL = "ITX:PUB_SUB:SYS_PARAM_REFRESH_CHANNEL";
+        /**
+         * 主机信息缓存key
+         */
+        public static final String CHK_HOST = CACHE_PREFIX + "CHK_HOST";
+        /**
+         * 主机信息刷新通道
+         */
+        public static final String CHK_HOST_REFRESH_CHANNEL = "ITX:PUB_SUB:CHK_HOST_REFRESH_CHANNEL";
+        /**
+         * IP 黑名单 set缓存，成员为 IP 或 CIDR
+         */
+        public static final String IP_BLACKLIST = CACHE_PREFIX + "IP_BLACKLIST";
+        /**
+         * IP 黑名单刷新通道
+         */
+        public static final String IP_BLACKLIST_REFRESH_CHANNEL = "ITX:PUB_SUB:IP_BLACKLIST_REFRESH_CHANNEL";
+        /**
+         * 会话缓存刷新通道
+         */
+        public static final String SESSION_REFRESH_CHANNEL = "ITX:PUB_SUB:SESSION_REFRESH_CHANNEL";
     }
 }
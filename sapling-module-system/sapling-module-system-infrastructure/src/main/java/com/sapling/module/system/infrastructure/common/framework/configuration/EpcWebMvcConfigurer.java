@@ -1,6 +1,5 @@
 package com.sapling.module.system.infrastructure.common.framework.configuration;
 
-import com.sapling.module.system.infrastructure.common.framework.interceptors.SecurityInterceptor;
 import com.sapling.module.system.infrastructure.common.framework.interceptors.SessionInterceptor;
 import com.sapling.module.system.infrastructure.common.framework.interceptors.TokenAuthInterceptor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,9 +22,6 @@ import java.util.List;
 @Configuration
 public class EpcWebMvcConfigurer implements WebMvcConfigurer {
 
-    @Resource
-    private SecurityInterceptor securityInterceptor;
-
     @Resource
     private TokenAuthInterceptor tokenAuthInterceptor;
 
@@ -52,10 +48,6 @@ public class EpcWebMvcConfigurer implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // 注册安全拦截器
-        registry.addInterceptor(securityInterceptor)
-                .addPathPatterns("/**");
-
         // 解析Token拦截URL配置
         List<String> tokenInterceptUrls = parseUrlConfig(tokenInterceptUrlConfig);
         // 解析Session拦截URL配置
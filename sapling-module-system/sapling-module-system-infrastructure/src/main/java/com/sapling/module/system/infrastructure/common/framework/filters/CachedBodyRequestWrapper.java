@@ -0,0 +1,104 @@
+package com.sapling.module.system.infrastructure.common.framework.filters;
+
+import com.sapling.framework.common.exception.BusinessException;
+import com.sapling.framework.common.exception.enums.GlobalErrorCodeConstants;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 请求体缓存包装
+ * <p>
+ * 构造时一次性读取请求体，之后 getInputStream、getReader 均基于同一份字节数组重新读取，
+ * 安全检查与控制器共用这一份请求体，不再额外复制。
+ */
+public class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    /**
+     * @param request     原始请求
+     * @param maxBodySize 请求体最大字节数，超过时拒绝请求
+     */
+    public CachedBodyRequestWrapper(HttpServletRequest request, long maxBodySize) throws IOException {
+        super(request);
+        this.body = readBody(request, maxBodySize);
+    }
+
+    /**
+     * 缓存的请求体，调用方不得修改
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            /**
+             * 请求体已全部缓存在内存中，注册后立即通知数据可读与读取完成
+             */
+            @Override
+            public void setReadListener(ReadListener listener) {
+                try {
+                    listener.onDataAvailable();
+                    listener.onAllDataRead();
+                } catch (IOException e) {
+                    listener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    private static byte[] readBody(HttpServletRequest request, long maxBodySize) throws IOException {
+        int limit = (int) Math.min(maxBodySize, Integer.MAX_VALUE - 8);
+        long contentLength = request.getContentLengthLong();
+        InputStream input = request.getInputStream();
+        if (contentLength >= 0 && contentLength <= limit) {
+            return input.readNBytes((int) contentLength);
+        }
+        // 未声明长度（分块传输）时多读一个字节，用于判断是否超过上限
+        byte[] body = input.readNBytes(limit + 1);
+        if (body.length > limit) {
+            throw new BusinessException(GlobalErrorCodeConstants.BAD_REQUEST.getType(), "请求体过大");
+        }
+        return body;
+    }
+}
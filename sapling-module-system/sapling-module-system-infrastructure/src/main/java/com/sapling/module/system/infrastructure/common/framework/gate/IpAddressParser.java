@@ -0,0 +1,212 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+/**
+ * IP 地址解析
+ * <p>
+ * IPv4 与 IPv6 统一解析为 128 位地址（高 64 位、低 64 位），IPv4 映射到 ::ffff:0:0/96。
+ * 直接在字符序列的指定区间上解析，结果写入调用方提供的数组，不创建任何对象。
+ */
+final class IpAddressParser {
+
+    /**
+     * IPv4 映射地址前缀 ::ffff:0:0/96 的低 64 位
+     */
+    static final long IPV4_MAPPED_PREFIX = 0x0000_ffff_0000_0000L;
+
+    /**
+     * IPv4 地址在 128 位地址中的前缀长度偏移
+     */
+    static final int IPV4_PREFIX_OFFSET = 96;
+
+    private IpAddressParser() {
+    }
+
+    /**
+     * 解析 IP 地址，忽略首尾空白与 IPv6 zone id（%eth0）
+     *
+     * @param out 长度至少为 2，out[0] 为高 64 位，out[1] 为低 64 位
+     * @return 解析成功返回 true，格式不合法返回 false
+     */
+    static boolean parse(CharSequence s, int start, int end, long[] out) {
+        while (start < end && s.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == ':') {
+                return parseIpv6(s, start, end, out);
+            }
+            if (c == '%') {
+                return false;
+            }
+        }
+        long v4 = parseIpv4(s, start, end);
+        if (v4 < 0) {
+            return false;
+        }
+        out[0] = 0;
+        out[1] = IPV4_MAPPED_PREFIX | v4;
+        return true;
+    }
+
+    static boolean parse(CharSequence s, long[] out) {
+        return s != null && parse(s, 0, s.length(), out);
+    }
+
+    /**
+     * 判断区间内是否为 IPv4 地址（不含冒号）
+     */
+    static boolean isIpv4(CharSequence s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == ':') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 32 位无符号地址，格式不合法返回 -1
+     */
+    private static long parseIpv4(CharSequence s, int start, int end) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet < 0 ? c - '0' : octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (octet < 0 || ++octets > 3) {
+                    return -1;
+                }
+                value = (value << 8) | octet;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    private static boolean parseIpv6(CharSequence s, int start, int end, long[] out) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+        // "::" 之前与之后的分组分别累加，最后将前半部分左移到高位
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+        int i = start;
+        if (end - start >= 2 && s.charAt(start) == ':' && s.charAt(start + 1) == ':') {
+            compressed = true;
+            i = start + 2;
+        } else if (s.charAt(start) == ':') {
+            return false;
+        }
+        while (i < end) {
+            int segmentEnd = i;
+            boolean dotted = false;
+            while (segmentEnd < end && s.charAt(segmentEnd) != ':') {
+                if (s.charAt(segmentEnd) == '.') {
+                    dotted = true;
+                }
+                segmentEnd++;
+            }
+            if (segmentEnd == i) {
+                return false;
+            }
+            long value;
+            int groups;
+            if (dotted) {
+                // 末尾内嵌 IPv4，如 ::ffff:1.2.3.4
+                if (segmentEnd != end) {
+                    return false;
+                }
+                value = parseIpv4(s, i, segmentEnd);
+                groups = 2;
+            } else {
+                value = parseHexGroup(s, i, segmentEnd);
+                groups = 1;
+            }
+            if (value < 0) {
+                return false;
+            }
+            int shift = groups * 16;
+            if (compressed) {
+                tailHi = (tailHi << shift) | (tailLo >>> (64 - shift));
+                tailLo = (tailLo << shift) | value;
+                tailGroups += groups;
+            } else {
+                headHi = (headHi << shift) | (headLo >>> (64 - shift));
+                headLo = (headLo << shift) | value;
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8) {
+                return false;
+            }
+            i = segmentEnd;
+            if (i < end) {
+                // 跳过分隔符，遇到 "::" 进入后半部分
+                i++;
+                if (i < end && s.charAt(i) == ':') {
+                    if (compressed) {
+                        return false;
+                    }
+                    compressed = true;
+                    i++;
+                } else if (i == end) {
+                    return false;
+                }
+            }
+        }
+        int total = headGroups + tailGroups;
+        if (compressed ? total > 7 : total != 8) {
+            return false;
+        }
+        int shift = 16 * (8 - headGroups);
+        if (shift >= 128) {
+            headHi = 0;
+            headLo = 0;
+        } else if (shift >= 64) {
+            headHi = headLo << (shift - 64);
+            headLo = 0;
+        } else if (shift > 0) {
+            headHi = (headHi << shift) | (headLo >>> (64 - shift));
+            headLo = headLo << shift;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+
+    private static long parseHexGroup(CharSequence s, int start, int end) {
+        if (end - start > 4) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(s.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,288 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import java.util.Arrays;
+
+/**
+ * IP 前缀集合，路径压缩的二叉前缀树
+ * <p>
+ * IPv4 与 IPv6 统一按 128 位地址存储，单个 IP 视为 /32 或 /128 前缀，只在分叉处增加节点。
+ * 被更短前缀覆盖的前缀不再存储，因此命中节点必为叶子：查询时只按分叉位下行，到达叶子后比较一次完整前缀，
+ * 不创建任何对象。构建完成后节点按层序重排到连续数组，靠近根的节点集中在一起，便于缓存命中。
+ * 构建完成后不可变，可在多线程间共享，更新时整体替换。
+ */
+public final class IpPrefixTrie {
+
+    private static final int NONE = -1;
+
+    private static final int TERMINAL = 1 << 8;
+
+    private static final int NODE_INTS = 3;
+
+    private static final IpPrefixTrie EMPTY = new Builder().build();
+
+    /**
+     * 每个节点 3 个 int：前缀长度（低 8 位）与叶子标记、0 分支、1 分支
+     */
+    private final int[] nodes;
+
+    /**
+     * 每个节点 2 个 long：前缀高 64 位、低 64 位
+     */
+    private final long[] keys;
+
+    private final int prefixCount;
+
+    private IpPrefixTrie(Builder builder) {
+        // 从根节点按层序重排，被覆盖而脱离树的节点不会被复制
+        int[] order = new int[builder.size];
+        int[] index = new int[builder.size];
+        Arrays.fill(index, NONE);
+        int head = 0;
+        int tail = 0;
+        order[tail++] = 0;
+        index[0] = 0;
+        while (head < tail) {
+            int node = order[head++];
+            if (builder.zero[node] != NONE) {
+                index[builder.zero[node]] = tail;
+                order[tail++] = builder.zero[node];
+            }
+            if (builder.one[node] != NONE) {
+                index[builder.one[node]] = tail;
+                order[tail++] = builder.one[node];
+            }
+        }
+        this.nodes = new int[tail * NODE_INTS];
+        this.keys = new long[tail * 2];
+        for (int i = 0; i < tail; i++) {
+            int node = order[i];
+            nodes[i * NODE_INTS] = (builder.prefixLength[node] & 0xff) | (builder.terminal[node] ? TERMINAL : 0);
+            nodes[i * NODE_INTS + 1] = builder.zero[node] == NONE ? NONE : index[builder.zero[node]];
+            nodes[i * NODE_INTS + 2] = builder.one[node] == NONE ? NONE : index[builder.one[node]];
+            keys[i * 2] = builder.keyHi[node];
+            keys[i * 2 + 1] = builder.keyLo[node];
+        }
+        this.prefixCount = builder.prefixCount;
+    }
+
+    public static IpPrefixTrie empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 有效前缀数量，被更短前缀覆盖的前缀不计入
+     */
+    public int getPrefixCount() {
+        return prefixCount;
+    }
+
+    public boolean isEmpty() {
+        return prefixCount == 0;
+    }
+
+    /**
+     * 判断地址是否落在任一前缀内
+     *
+     * @param hi 地址高 64 位
+     * @param lo 地址低 64 位
+     */
+    public boolean contains(long hi, long lo) {
+        int node = 0;
+        while (true) {
+            int meta = nodes[node * NODE_INTS];
+            int length = meta & 0xff;
+            if ((meta & TERMINAL) != 0) {
+                return matches(hi, lo, keys[node * 2], keys[node * 2 + 1], length);
+            }
+            node = nodes[node * NODE_INTS + 1 + bitAt(hi, lo, length)];
+            if (node == NONE) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 解析并判断地址是否落在任一前缀内，地址格式不合法时返回 false
+     *
+     * @param buffer 长度至少为 2 的临时数组，由调用方复用
+     */
+    public boolean contains(CharSequence ip, long[] buffer) {
+        return IpAddressParser.parse(ip, buffer) && contains(buffer[0], buffer[1]);
+    }
+
+    static int bitAt(long hi, long lo, int index) {
+        return (int) (index < 64 ? (hi >>> (63 - index)) & 1 : (lo >>> (127 - index)) & 1);
+    }
+
+    static long maskHi(int length) {
+        return length >= 64 ? -1L : (length == 0 ? 0L : -1L << (64 - length));
+    }
+
+    static long maskLo(int length) {
+        return length <= 64 ? 0L : (length == 128 ? -1L : -1L << (128 - length));
+    }
+
+    private static boolean matches(long hi, long lo, long prefixHi, long prefixLo, int length) {
+        return ((hi ^ prefixHi) & maskHi(length)) == 0 && ((lo ^ prefixLo) & maskLo(length)) == 0;
+    }
+
+    private static int commonPrefixLength(long hi1, long lo1, long hi2, long lo2, int limit) {
+        long x = hi1 ^ hi2;
+        int common = x != 0 ? Long.numberOfLeadingZeros(x) : 64 + Long.numberOfLeadingZeros(lo1 ^ lo2);
+        return Math.min(common, limit);
+    }
+
+    /**
+     * 前缀树构建器，非线程安全
+     */
+    public static final class Builder {
+        private long[] keyHi = new long[16];
+        private long[] keyLo = new long[16];
+        private byte[] prefixLength = new byte[16];
+        private boolean[] terminal = new boolean[16];
+        private int[] zero = new int[16];
+        private int[] one = new int[16];
+        private int size;
+        private int prefixCount;
+        private final long[] buffer = new long[2];
+
+        private Builder() {
+            // 根节点：长度为 0 的前缀
+            newNode(0, 0, 0, false);
+        }
+
+        /**
+         * 添加 IP 或 CIDR，如 10.0.0.1、10.0.0.0/8、2001:db8::/32
+         *
+         * @return 格式不合法返回 false
+         */
+        public boolean add(String cidr) {
+            if (cidr == null) {
+                return false;
+            }
+            int slash = cidr.indexOf('/');
+            int end = slash < 0 ? cidr.length() : slash;
+            if (!IpAddressParser.parse(cidr, 0, end, buffer)) {
+                return false;
+            }
+            boolean ipv4 = IpAddressParser.isIpv4(cidr, 0, end);
+            int maxLength = ipv4 ? 32 : 128;
+            int length = maxLength;
+            if (slash >= 0) {
+                try {
+                    length = Integer.parseInt(cidr.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (length < 0 || length > maxLength) {
+                    return false;
+                }
+            }
+            add(buffer[0], buffer[1], ipv4 ? IpAddressParser.IPV4_PREFIX_OFFSET + length : length);
+            return true;
+        }
+
+        /**
+         * 添加 128 位前缀
+         */
+        public Builder add(long hi, long lo, int length) {
+            hi &= maskHi(length);
+            lo &= maskLo(length);
+            int parent = 0;
+            while (true) {
+                if (terminal[parent]) {
+                    // 已被更短的前缀覆盖
+                    return this;
+                }
+                int parentLength = prefixLength[parent] & 0xff;
+                if (parentLength == length) {
+                    markTerminal(parent);
+                    return this;
+                }
+                int bit = bitAt(hi, lo, parentLength);
+                int child = bit == 0 ? zero[parent] : one[parent];
+                if (child == NONE) {
+                    setChild(parent, bit, newNode(hi, lo, length, true));
+                    prefixCount++;
+                    return this;
+                }
+                int childLength = prefixLength[child] & 0xff;
+                int common = commonPrefixLength(hi, lo, keyHi[child], keyLo[child], Math.min(length, childLength));
+                if (common == childLength) {
+                    parent = child;
+                    continue;
+                }
+                if (common == length) {
+                    // 新前缀覆盖子节点，替换整棵子树
+                    int node = newNode(hi, lo, length, true);
+                    prefixCount++;
+                    setChild(parent, bit, node);
+                    prefixCount -= countTerminals(child);
+                    return this;
+                }
+                // 在公共前缀处分叉
+                int split = newNode(hi & maskHi(common), lo & maskLo(common), common, false);
+                setChild(split, bitAt(keyHi[child], keyLo[child], common), child);
+                setChild(split, bitAt(hi, lo, common), newNode(hi, lo, length, true));
+                prefixCount++;
+                setChild(parent, bit, split);
+                return this;
+            }
+        }
+
+        public IpPrefixTrie build() {
+            return new IpPrefixTrie(this);
+        }
+
+        private void markTerminal(int node) {
+            if (!terminal[node]) {
+                prefixCount -= countTerminals(node);
+                terminal[node] = true;
+                zero[node] = NONE;
+                one[node] = NONE;
+                prefixCount++;
+            }
+        }
+
+        private int countTerminals(int node) {
+            if (node == NONE) {
+                return 0;
+            }
+            if (terminal[node]) {
+                return 1;
+            }
+            return countTerminals(zero[node]) + countTerminals(one[node]);
+        }
+
+        private void setChild(int parent, int bit, int child) {
+            if (bit == 0) {
+                zero[parent] = child;
+            } else {
+                one[parent] = child;
+            }
+        }
+
+        private int newNode(long hi, long lo, int length, boolean isTerminal) {
+            if (size == keyHi.length) {
+                int capacity = size << 1;
+                keyHi = Arrays.copyOf(keyHi, capacity);
+                keyLo = Arrays.copyOf(keyLo, capacity);
+                prefixLength = Arrays.copyOf(prefixLength, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+                zero = Arrays.copyOf(zero, capacity);
+                one = Arrays.copyOf(one, capacity);
+            }
+            keyHi[size] = hi;
+            keyLo[size] = lo;
+            prefixLength[size] = (byte) length;
+            terminal[size] = isTerminal;
+            zero[size] = NONE;
+            one[size] = NONE;
+            return size++;
+        }
+    }
+}
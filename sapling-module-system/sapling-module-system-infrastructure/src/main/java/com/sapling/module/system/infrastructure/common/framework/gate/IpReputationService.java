@@ -0,0 +1,269 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.common.framework.security.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IP 信誉检查
+ * <p>
+ * 黑名单支持单个 IP 与 CIDR（IPv4/IPv6），由本地配置 {@code endpoint.security.blacklist.ips} 与 Redis Set
+ * {@link RedisKeyConstants.ItxCacheKey#IP_BLACKLIST} 合并构建为 {@link IpPrefixTrie}。Redis 中的黑名单变更后向
+ * {@link RedisKeyConstants.ItxCacheKey#IP_BLACKLIST_REFRESH_CHANNEL} 发布消息，各节点重新加载并整体替换，
+ * 检查过程无锁。
+ * <p>
+ * 直连地址属于可信代理时，从转发头（默认 X-Forwarded-For）由右向左跳过可信代理，取第一个非可信地址作为客户端地址。
+ * 开启频率限制后，客户端在滑动窗口内的请求数超过上限即被自动封禁一段时间。
+ *
+ * @author mbws
+ */
+@Slf4j
+@Component
+public class IpReputationService {
+
+    /**
+     * 检查结果
+     */
+    public enum Verdict {
+        ALLOWED,
+        BLACKLISTED,
+        RATE_LIMITED
+    }
+
+    private static final ThreadLocal<long[]> ADDRESS_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * 转发头中单个地址的解析结果，解析成功后才复制到客户端地址，格式错误的地址不会覆盖已确定的客户端地址
+     */
+    private static final ThreadLocal<long[]> HOP_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Value("${endpoint.security.blacklist.ips:}")
+    private Set<String> blacklistedIps = new HashSet<>();
+
+    @Value("${endpoint.security.ip.trusted-proxies:}")
+    private Set<String> trustedProxies = new HashSet<>();
+
+    @Value("${endpoint.security.ip.forwarded-header:X-Forwarded-For}")
+    private String forwardedHeader;
+
+    @Value("${endpoint.security.ip.rate-limit.enabled:false}")
+    private boolean rateLimitEnabled;
+
+    @Value("${endpoint.security.ip.rate-limit.max-requests:600}")
+    private long maxRequests;
+
+    @Value("${endpoint.security.ip.rate-limit.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${endpoint.security.ip.rate-limit.block-seconds:600}")
+    private long blockSeconds;
+
+    @Value("${endpoint.security.ip.rate-limit.max-tracked-ips:100000}")
+    private int maxTrackedIps;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    private volatile IpPrefixTrie blacklist = IpPrefixTrie.empty();
+
+    private IpPrefixTrie trustedProxyTrie = IpPrefixTrie.empty();
+
+    private final ConcurrentHashMap<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 自动封禁的客户端地址及解封时间
+     */
+    private final ConcurrentHashMap<String, Long> autoBlocked = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        trustedProxyTrie = build(trustedProxies, "可信代理");
+        blacklist = build(blacklistedIps, "IP 黑名单");
+        reload();
+    }
+
+    /**
+     * 重新加载黑名单，Redis 读取失败时保留当前黑名单
+     */
+    public void reload() {
+        Set<String> entries = new LinkedHashSet<>(blacklistedIps);
+        try {
+            Set<String> members = stringRedisTemplate.opsForSet().members(RedisKeyConstants.ItxCacheKey.IP_BLACKLIST);
+            if (members != null) {
+                entries.addAll(members);
+            }
+        } catch (Exception e) {
+            log.error("从 Redis 加载 IP 黑名单失败，继续使用当前黑名单", e);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        IpPrefixTrie trie = build(entries, "IP 黑名单");
+        blacklist = trie;
+        log.info("IP 黑名单已加载，条目数：{}，有效前缀数：{}，耗时：{}ms",
+                entries.size(), trie.getPrefixCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 检查请求的客户端地址，无法解析的地址视为通过
+     */
+    public Verdict check(RequestContext ctx) {
+        String remoteAddr = ctx.getRemoteAddr();
+        long[] address = ADDRESS_BUFFER.get();
+        if (!IpAddressParser.parse(remoteAddr, address)) {
+            return Verdict.ALLOWED;
+        }
+
+        // 直连地址为可信代理时，从转发头由右向左取第一个非可信地址；
+        // 遇到格式错误的地址即停止，其左侧的内容不可信，以最后一个已解析的可信代理作为客户端地址
+        String forwarded = null;
+        int clientStart = -1;
+        int clientEnd = -1;
+        if (!trustedProxyTrie.isEmpty() && trustedProxyTrie.contains(address[0], address[1])) {
+            forwarded = ctx.getHeader(forwardedHeader);
+            long[] hop = HOP_BUFFER.get();
+            int end = forwarded == null ? 0 : forwarded.length();
+            while (end > 0) {
+                int comma = forwarded.lastIndexOf(',', end - 1);
+                if (!IpAddressParser.parse(forwarded, comma + 1, end, hop)) {
+                    break;
+                }
+                address[0] = hop[0];
+                address[1] = hop[1];
+                clientStart = comma + 1;
+                clientEnd = end;
+                if (!trustedProxyTrie.contains(address[0], address[1])) {
+                    break;
+                }
+                end = comma;
+            }
+        }
+
+        if (blacklist.contains(address[0], address[1])) {
+            return Verdict.BLACKLISTED;
+        }
+        if (!rateLimitEnabled) {
+            return Verdict.ALLOWED;
+        }
+        String clientIp = clientStart >= 0 ? forwarded.substring(clientStart, clientEnd).trim() : remoteAddr;
+        return isRateLimited(clientIp) ? Verdict.RATE_LIMITED : Verdict.ALLOWED;
+    }
+
+    /**
+     * 当前黑名单有效前缀数量
+     */
+    public int getBlacklistPrefixCount() {
+        return blacklist.getPrefixCount();
+    }
+
+    /**
+     * 当前自动封禁的客户端数量（含已到期未清理的）
+     */
+    public int getAutoBlockedCount() {
+        return autoBlocked.size();
+    }
+
+    private boolean isRateLimited(String clientIp) {
+        long now = System.currentTimeMillis();
+        Long blockedUntil = autoBlocked.get(clientIp);
+        if (blockedUntil != null) {
+            if (blockedUntil > now) {
+                return true;
+            }
+            autoBlocked.remove(clientIp, blockedUntil);
+        }
+
+        long windowMillis = windowSeconds * 1000;
+        SlidingWindowCounter counter = counters.get(clientIp);
+        if (counter == null) {
+            if (counters.size() >= maxTrackedIps) {
+                evictIdle(now, windowMillis);
+                if (counters.size() >= maxTrackedIps) {
+                    // 跟踪数量达到上限，新地址暂不计数
+                    return false;
+                }
+            }
+            counter = counters.computeIfAbsent(clientIp, k -> new SlidingWindowCounter());
+        }
+        if (counter.incrementAndEstimate(now, windowMillis) > maxRequests) {
+            autoBlocked.put(clientIp, now + blockSeconds * 1000);
+            counters.remove(clientIp, counter);
+            log.warn("IP {} 在 {} 秒内请求超过 {} 次，自动封禁 {} 秒", clientIp, windowSeconds, maxRequests, blockSeconds);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 清理空闲的计数器与已到期的封禁，同一时间只有一个线程执行
+     */
+    private void evictIdle(long now, long windowMillis) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            counters.values().removeIf(counter -> counter.isIdle(now, windowMillis));
+            autoBlocked.values().removeIf(until -> until <= now);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static IpPrefixTrie build(Collection<String> entries, String name) {
+        IpPrefixTrie.Builder builder = IpPrefixTrie.builder();
+        int invalid = 0;
+        for (String entry : entries) {
+            if (entry == null || entry.trim().isEmpty()) {
+                continue;
+            }
+            if (!builder.add(entry.trim())) {
+                invalid++;
+                if (invalid <= 10) {
+                    log.warn("忽略格式错误的{}条目：{}", name, entry);
+                }
+            }
+        }
+        if (invalid > 10) {
+            log.warn("共忽略 {} 条格式错误的{}条目", invalid, name);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 滑动窗口计数：按固定窗口计数，用上一窗口计数按剩余比例加权估算滑动窗口内的请求数
+     */
+    private static class SlidingWindowCounter {
+        private long window = -1;
+        private long current;
+        private long previous;
+
+        synchronized double incrementAndEstimate(long now, long windowMillis) {
+            long nowWindow = now / windowMillis;
+            if (nowWindow != window) {
+                previous = nowWindow == window + 1 ? current : 0;
+                current = 0;
+                window = nowWindow;
+            }
+            current++;
+            double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+            return previous * previousWeight + current;
+        }
+
+        synchronized boolean isIdle(long now, long windowMillis) {
+            return now / windowMillis - window >= 2;
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import com.sapling.framework.common.exception.BusinessException;
+import com.sapling.framework.common.exception.enums.GlobalErrorCodeConstants;
+import com.sapling.module.system.infrastructure.common.framework.security.RequestContext;
+import com.sapling.module.system.infrastructure.common.framework.security.RuleEngine;
+import com.sapling.module.system.infrastructure.common.framework.security.RuleMatchResult;
+import com.sapling.module.system.infrastructure.common.utils.log.RequestLogUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求安全检查入口：合并原 SecurityFilter 基础检查与 SecurityInterceptor 规则引擎检查
+ * <p>
+ * 每个请求只构建一个 {@link RequestContext}，各阶段按开销从小到大依次执行，任一阶段不通过立即拒绝：
+ * <ol>
+ *     <li>请求方法、IP 信誉、Host、Content-Type：只读取请求行与单个请求头</li>
+ *     <li>请求大小：依据 Content-Length 判断，在缓存请求体之前拒绝</li>
+ *     <li>参数检查：解析一次参数表，后续规则匹配复用</li>
+ *     <li>规则引擎：URI、参数、请求头</li>
+ *     <li>请求体：由调用方缓存 JSON 请求体后通过 {@link #checkBody} 检查</li>
+ * </ol>
+ * 各阶段耗时与拒绝次数可通过 {@link #getStats()} 获取。
+ *
+ * @author mbws
+ */
+@Slf4j
+@Component
+public class RequestGate {
+
+    /**
+     * endpoint:
+     *   security:
+     *     max:
+     *       parameters: 1000      # 最大参数数量
+     *       parameter.size: 4096  # 单个参数最大长度
+     *     allowed:
+     *       hosts: example.com,api.example.com  # 允许的 Host
+     */
+
+    @Value("${endpoint.security.blocked.content-types:application/xml}")
+    private Set<String> blockedContentTypes = new HashSet<>();
+
+    @Value("${endpoint.security.max.request.size:10485760}")
+    private long maxRequestSize; // 默认 10MB
+
+    @Value("${endpoint.security.max.parameters:1000}")
+    private int maxParameters; // 默认最大参数数量
+
+    @Value("${endpoint.security.max.parameter.size:4096}")
+    private int maxParameterSize; // 默认单个参数最大长度
+
+    @Value("${endpoint.security.allowed.hosts:}")
+    private Set<String> allowedHosts = new HashSet<>();
+
+    @Resource
+    private RuleEngine ruleEngine;
+
+    @Resource
+    private IpReputationService ipReputationService;
+
+    private List<GateStage> stages;
+
+    private GateStage bodyStage;
+
+    private final LatencyRecorder totalLatency = new LatencyRecorder();
+
+    private final LongAdder totalRejected = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        List<GateStage> list = new ArrayList<>();
+        list.add(new HttpMethodStage());
+        list.add(new IpReputationStage(ipReputationService));
+        list.add(new HostValidationStage(allowedHosts));
+        list.add(new ContentTypeStage(blockedContentTypes));
+        list.add(new RequestSizeStage(maxRequestSize));
+        list.add(new ParameterStage(maxParameters, maxParameterSize));
+        list.add(new RuleStage(ruleEngine));
+        stages = Collections.unmodifiableList(list);
+        bodyStage = new JsonBodyStage(ruleEngine);
+    }
+
+    public long getMaxRequestSize() {
+        return maxRequestSize;
+    }
+
+    /**
+     * 执行请求体之外的全部检查
+     *
+     * @throws BusinessException 检查不通过
+     */
+    public void check(RequestContext ctx) {
+        long start = System.nanoTime();
+        try {
+            for (GateStage stage : stages) {
+                stage.run(ctx, null);
+            }
+        } catch (BusinessException e) {
+            totalRejected.increment();
+            throw e;
+        } finally {
+            totalLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 检查已缓存的 JSON 请求体
+     *
+     * @throws BusinessException 检查不通过
+     */
+    public void checkBody(RequestContext ctx, byte[] body) {
+        long start = System.nanoTime();
+        try {
+            bodyStage.run(ctx, body);
+        } catch (BusinessException e) {
+            totalRejected.increment();
+            throw e;
+        } finally {
+            totalLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 获取各阶段耗时统计，总耗时按检查调用次数统计（请求体检查单独计一次）
+     */
+    public RequestGateStats getStats() {
+        Map<String, RequestGateStats.StageStats> stageStats = new LinkedHashMap<>();
+        for (GateStage stage : stages) {
+            stageStats.put(stage.name, stage.toStats());
+        }
+        stageStats.put(bodyStage.name, bodyStage.toStats());
+        return RequestGateStats.builder()
+                .total(toStats(totalLatency, totalRejected.sum()))
+                .stages(stageStats)
+                .build();
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void resetStats() {
+        for (GateStage stage : stages) {
+            stage.reset();
+        }
+        bodyStage.reset();
+        totalLatency.reset();
+        totalRejected.reset();
+    }
+
+    private static RequestGateStats.StageStats toStats(LatencyRecorder latency, long rejected) {
+        return RequestGateStats.StageStats.builder()
+                .count(latency.getCount())
+                .rejectedCount(rejected)
+                .meanMicros(latency.getMeanMicros())
+                .p50Micros(latency.getPercentileMicros(0.50))
+                .p99Micros(latency.getPercentileMicros(0.99))
+                .maxMicros(latency.getMaxMicros())
+                .build();
+    }
+
+    /**
+     * 检查阶段抽象类，负责计时与拒绝计数
+     */
+    private abstract static class GateStage {
+        private final String name;
+        private final LatencyRecorder latency = new LatencyRecorder();
+        private final LongAdder rejected = new LongAdder();
+
+        GateStage(String name) {
+            this.name = name;
+        }
+
+        void run(RequestContext ctx, byte[] body) {
+            long start = System.nanoTime();
+            try {
+                doCheck(ctx, body);
+            } catch (BusinessException e) {
+                rejected.increment();
+                throw e;
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+
+        RequestGateStats.StageStats toStats() {
+            return RequestGate.toStats(latency, rejected.sum());
+        }
+
+        void reset() {
+            latency.reset();
+            rejected.reset();
+        }
+
+        protected abstract void doCheck(RequestContext ctx, byte[] body);
+    }
+
+    /**
+     * HTTP 方法检查
+     */
+    private static class HttpMethodStage extends GateStage {
+        HttpMethodStage() {
+            super("METHOD");
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            String method = ctx.getMethod();
+            if (!method.equals("GET") && !method.equals("POST") && !method.equals("PUT") && !method.equals("DELETE")) {
+                RequestLogUtil.logRequestWarning(ctx.getRequest(), "不支持的请求方法", "Method=" + method);
+                throw new BusinessException(GlobalErrorCodeConstants.METHOD_NOT_ALLOWED.getType(), "不支持的请求方法");
+            }
+        }
+    }
+
+    /**
+     * IP 信誉检查：黑名单与频率限制
+     */
+    private static class IpReputationStage extends GateStage {
+        private final IpReputationService ipReputationService;
+
+        IpReputationStage(IpReputationService ipReputationService) {
+            super("IP_REPUTATION");
+            this.ipReputationService = ipReputationService;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            switch (ipReputationService.check(ctx)) {
+                case BLACKLISTED:
+                    RequestLogUtil.logRequestWarning(ctx.getRequest(), "IP 被列入黑名单，阻断访问", "IP=" + ctx.getRemoteAddr());
+                    throw new BusinessException(GlobalErrorCodeConstants.FORBIDDEN.getType(), "IP已被禁止访问");
+                case RATE_LIMITED:
+                    RequestLogUtil.logRequestWarning(ctx.getRequest(), "IP 请求过于频繁，阻断访问", "IP=" + ctx.getRemoteAddr());
+                    throw new BusinessException(GlobalErrorCodeConstants.TOO_MANY_REQUESTS.getType(), "请求过于频繁，请稍后重试");
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Host 检查
+     */
+    private static class HostValidationStage extends GateStage {
+        private final Set<String> allowedHosts;
+
+        HostValidationStage(Set<String> allowedHosts) {
+            super("HOST");
+            this.allowedHosts = allowedHosts;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            if (allowedHosts.isEmpty()) {
+                return;
+            }
+            String host = ctx.getHeader("Host");
+            if (host == null || !allowedHosts.contains(host)) {
+                RequestLogUtil.logRequestWarning(ctx.getRequest(), "不允许的 Host", "Host=" + host);
+                throw new BusinessException(GlobalErrorCodeConstants.BAD_REQUEST.getType(), "不允许的 Host");
+            }
+        }
+    }
+
+    /**
+     * Content-Type 检查
+     */
+    private static class ContentTypeStage extends GateStage {
+        private final Set<String> blockedContentTypes;
+
+        ContentTypeStage(Set<String> blockedContentTypes) {
+            super("CONTENT_TYPE");
+            this.blockedContentTypes = blockedContentTypes;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            String contentType = ctx.getContentType();
+            if (contentType != null) {
+                for (String blockedType : blockedContentTypes) {
+                    if (contentType.contains(blockedType)) {
+                        RequestLogUtil.logRequestWarning(ctx.getRequest(), "不允许的 Content-Type", "Content-Type=" + contentType);
+                        throw new BusinessException(GlobalErrorCodeConstants.BAD_REQUEST.getType(), "不允许的 Content-Type");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 请求大小检查，依据 Content-Length，分块传输的请求由缓存请求体时的上限兜底
+     */
+    private static class RequestSizeStage extends GateStage {
+        private final long maxRequestSize;
+
+        RequestSizeStage(long maxRequestSize) {
+            super("REQUEST_SIZE");
+            this.maxRequestSize = maxRequestSize;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            long contentLength = ctx.getContentLength();
+            if (contentLength > maxRequestSize) {
+                RequestLogUtil.logRequestWarning(ctx.getRequest(), "请求体过大", "Size=" + contentLength);
+                throw new BusinessException(GlobalErrorCodeConstants.BAD_REQUEST.getType(), "请求体过大");
+            }
+        }
+    }
+
+    /**
+     * 参数数量与长度检查
+     */
+    private static class ParameterStage extends GateStage {
+        private final int maxParameters;
+        private final int maxParameterSize;
+
+        ParameterStage(int maxParameters, int maxParameterSize) {
+            super("PARAMETERS");
+            this.maxParameters = maxParameters;
+            this.maxParameterSize = maxParameterSize;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            Map<String, String[]> parameterMap = ctx.getParameterMap();
+            if (parameterMap.size() > maxParameters) {
+                RequestLogUtil.logRequestWarning(ctx.getRequest(), "参数数量过多", "Count=" + parameterMap.size());
+                throw new BusinessException(GlobalErrorCodeConstants.BAD_REQUEST.getType(), "参数数量过多");
+            }
+
+            for (String[] values : parameterMap.values()) {
+                for (String value : values) {
+                    if (value != null && value.length() > maxParameterSize) {
+                        RequestLogUtil.logRequestWarning(ctx.getRequest(), "参数值过大", "Size=" + value.length());
+                        throw new BusinessException(GlobalErrorCodeConstants.BAD_REQUEST.getType(), "参数值过大");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 规则引擎检查：URI、参数与请求头
+     */
+    private static class RuleStage extends GateStage {
+        private final RuleEngine ruleEngine;
+
+        RuleStage(RuleEngine ruleEngine) {
+            super("RULES");
+            this.ruleEngine = ruleEngine;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            reject(ctx, ruleEngine.checkRequest(ctx));
+        }
+    }
+
+    /**
+     * 规则引擎检查：已缓存的 JSON 请求体
+     */
+    private static class JsonBodyStage extends GateStage {
+        private final RuleEngine ruleEngine;
+
+        JsonBodyStage(RuleEngine ruleEngine) {
+            super("JSON_BODY");
+            this.ruleEngine = ruleEngine;
+        }
+
+        @Override
+        protected void doCheck(RequestContext ctx, byte[] body) {
+            reject(ctx, ruleEngine.checkJsonBody(ctx, body));
+        }
+    }
+
+    private static void reject(RequestContext ctx, Optional<RuleMatchResult> result) {
+        if (result.isPresent()) {
+            RuleMatchResult matchResult = result.get();
+            RequestLogUtil.logRequestWarning(ctx.getRequest(), "安全规则匹配", "规则=" + matchResult.getRuleName());
+            throw new BusinessException(GlobalErrorCodeConstants.FORBIDDEN.getType(),
+                "请求被拒绝",
+                "检测到潜在的安全风险：" + matchResult.getDescription());
+        }
+    }
+}
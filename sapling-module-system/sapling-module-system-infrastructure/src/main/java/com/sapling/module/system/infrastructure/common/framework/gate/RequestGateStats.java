@@ -0,0 +1,61 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 请求安全检查统计
+ *
+ * @author mbws
+ */
+@Data
+@Builder
+public class RequestGateStats {
+
+    /**
+     * 整个检查流程的耗时
+     */
+    private StageStats total;
+
+    /**
+     * 各检查阶段的耗时，按执行顺序排列
+     */
+    private Map<String, StageStats> stages;
+
+    @Data
+    @Builder
+    public static class StageStats {
+
+        /**
+         * 执行次数
+         */
+        private long count;
+
+        /**
+         * 拒绝请求次数
+         */
+        private long rejectedCount;
+
+        /**
+         * 平均耗时（微秒）
+         */
+        private double meanMicros;
+
+        /**
+         * P50 耗时（微秒）
+         */
+        private double p50Micros;
+
+        /**
+         * P99 耗时（微秒）
+         */
+        private double p99Micros;
+
+        /**
+         * 最大耗时（微秒）
+         */
+        private double maxMicros;
+    }
+}
@@ -1,12 +1,11 @@
 package com.sapling.module.system.infrastructure.common.framework.interceptors;
 
-import com.alibaba.fastjson.JSONObject;
-import io.netty.util.internal.StringUtil;
 import lombok.extern.slf4j.Slf4j;
-import com.sapling.module.system.client.components.rc.ItxCoreRequestClient;
 import com.sapling.module.system.domain.biz.system.gateway.SysParamGateWay;
 import com.sapling.module.system.infrastructure.common.framework.annos.RequiresPermission;
 import com.sapling.module.system.infrastructure.common.utils.ParamThreadLocal;
+import com.sapling.module.system.infrastructure.gatewayImpl.cache.CachedSession;
+import com.sapling.module.system.infrastructure.gatewayImpl.cache.SessionCache;
 import com.sapling.framework.common.exception.BusinessException;
 import com.sapling.framework.common.exception.enums.GlobalErrorCodeConstants;
 import org.apache.commons.lang3.StringUtils;
@@ -22,11 +21,11 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Set;
 
 /**
  * Session拦截器
- * 用于处理需要Session验证的请求
+ * 用于处理需要Session验证的请求，会话校验结果由 {@link SessionCache} 缓存，保活请求异步发送
  */
 @Slf4j
 @Component
@@ -41,7 +40,7 @@ public class SessionInterceptor implements HandlerInterceptor {
     public static final String OFF_LINE = "尚未登录";
 
     @Resource
-    private ItxCoreRequestClient itxCoreRequestClient;
+    private SessionCache sessionCache;
 
     @Resource
     private SysParamGateWay sysParamGateWay;
@@ -63,10 +62,10 @@ public class SessionInterceptor implements HandlerInterceptor {
 
         // 验证sessionId
         String zmct = sysParamGateWay.getZmct();
-        String account = itxCoreRequestClient.currentLoginInfo(sessionId, zmct);
+        CachedSession session = sessionCache.get(sessionId, zmct);
         // 账号为空或者尚未登录，校验token
-        if (StringUtil.isNullOrEmpty(account) || account.contains(OFF_LINE)) {
-            log.info("url:{} session: {} account: {}", request.getRequestURI(), sessionId, account);
+        if (!session.isLoggedIn()) {
+            log.info("url:{} session: {} account: {}", request.getRequestURI(), sessionId, session.getAccount());
             // 没有用户信息，校验头参是否存在zmct
             if (StringUtils.isNotEmpty(tokenRequest)) {
                 if (StringUtils.isNotEmpty(zmct) && !zmct.equals(tokenRequest)) {
@@ -79,13 +78,12 @@ public class SessionInterceptor implements HandlerInterceptor {
         }
         if (StringUtils.isNotEmpty(sessionId)) {
             // 校验菜单权限，决定是否接口放行
-            JSONObject userInfo = JSONObject.parseObject(account);
-            if (!isHavePermission(handler, userInfo.getString("permission_code"))) {
+            if (!isHavePermission(handler, session.getPermissionCodes())) {
                 log.info("url:{} 菜单权限校验失败,用户无权限", request.getRequestURI());
                 throw new BusinessException(GlobalErrorCodeConstants.FORBIDDEN.getType(), "菜单权限校验失败,用户无操作权限！");
             }
-            // 如果验证成功调用平台接口保活sessionId 并放行请求
-            itxCoreRequestClient.keepSession(sessionId, zmct);
+            // 如果验证成功异步调用平台接口保活sessionId 并放行请求
+            sessionCache.keepAlive(sessionId, zmct);
         }
         return true;
     }
@@ -106,10 +104,10 @@ public class SessionInterceptor implements HandlerInterceptor {
      * 用户菜单权限校验
      *
      * @param handler        处理
-     * @param userPermission 平台用户权限
+     * @param userPermissions 平台用户权限，无法获取时为 null
      * @return true|false 是否拥有权限
      */
-    public boolean isHavePermission(Object handler, String userPermission) {
+    public boolean isHavePermission(Object handler, Set<String> userPermissions) {
         if (handler instanceof HandlerMethod) {
             HandlerMethod handlerMethod = (HandlerMethod) handler;
             Method method = handlerMethod.getMethod();
@@ -120,10 +118,12 @@ public class SessionInterceptor implements HandlerInterceptor {
                 permission = ((HandlerMethod) handler).getBeanType().getAnnotation(RequiresPermission.class);
             }
             if (permission != null) {
+                if (userPermissions == null) {
+                    return false;
+                }
                 String[] requiredPermissions = permission.value();
-                List<String> userPerMissionList = Arrays.asList(userPermission.split(","));
                 // 校验权限
-                return Arrays.stream(requiredPermissions).anyMatch(userPerMissionList::contains);
+                return Arrays.stream(requiredPermissions).anyMatch(userPermissions::contains);
             }
         }
         return true;
@@ -0,0 +1,74 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * JSON 请求体流式检测
+ * <p>
+ * 直接在请求体字节上逐个读取 token，只对字符串值执行规则匹配，命中即停止，不构建 JsonNode 树。
+ * 嵌套深度或请求体大小超过检测限制时视为命中，避免超限部分绕过检测。
+ */
+public class JsonBodyInspector {
+
+    /**
+     * 超出检测限制时的规则名称
+     */
+    public static final String LIMIT_RULE_NAME = "JSON_BODY_LIMIT";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int maxDepth;
+    private final long maxBytes;
+
+    /**
+     * @param maxDepth 最大嵌套深度
+     * @param maxBytes 最大检测字节数
+     */
+    public JsonBodyInspector(int maxDepth, long maxBytes) {
+        this.maxDepth = maxDepth;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 检测请求体中的全部字符串值，按文档顺序返回第一个命中的规则
+     *
+     * @throws IOException 请求体不是合法的 JSON
+     */
+    public Optional<RuleMatchResult> inspect(byte[] body, MultiPatternMatcher matcher) throws IOException {
+        if (body.length > maxBytes) {
+            return Optional.of(new RuleMatchResult(LIMIT_RULE_NAME, "请求体超出检测限制", "size=" + body.length));
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            int depth = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        if (++depth > maxDepth) {
+                            return Optional.of(new RuleMatchResult(LIMIT_RULE_NAME, "请求体超出检测限制", "depth>" + maxDepth));
+                        }
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        depth--;
+                        break;
+                    case VALUE_STRING:
+                        Optional<RuleMatchResult> match = matcher.matchValue(parser.getText());
+                        if (match.isPresent()) {
+                            return match;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
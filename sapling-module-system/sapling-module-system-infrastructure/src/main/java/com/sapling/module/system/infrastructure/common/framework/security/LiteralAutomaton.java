@@ -0,0 +1,196 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多字面量匹配自动机（Aho-Corasick）
+ * <p>
+ * 一次遍历输入即可找出出现的全部字面量，记录其所属的正则编号。
+ * ASCII 字符的状态转移预先展开为转移表，非 ASCII 字符沿失败指针查找。
+ */
+final class LiteralAutomaton {
+
+    private static final int ASCII = 128;
+
+    /**
+     * ASCII 字符的完整状态转移表
+     */
+    private final int[][] asciiNext;
+    /**
+     * 非 ASCII 字符的 trie 子节点
+     */
+    private final Map<Character, Integer>[] otherChildren;
+    private final int[] fail;
+    /**
+     * 到达该状态时出现的字面量所属的正则编号（含失败链上的输出）
+     */
+    private final int[][] outputs;
+    private final boolean foldCase;
+    private final boolean hasNonAscii;
+
+    private LiteralAutomaton(int[][] asciiNext, Map<Character, Integer>[] otherChildren, int[] fail,
+                             int[][] outputs, boolean foldCase, boolean hasNonAscii) {
+        this.asciiNext = asciiNext;
+        this.otherChildren = otherChildren;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.foldCase = foldCase;
+        this.hasNonAscii = hasNonAscii;
+    }
+
+    /**
+     * 扫描输入，将出现的字面量所属的正则编号写入 hits
+     */
+    void scan(String input, BitSet hits) {
+        int state = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c < ASCII) {
+                if (foldCase && c >= 'A' && c <= 'Z') {
+                    c += 32;
+                }
+                state = asciiNext[state][c];
+            } else {
+                state = hasNonAscii ? nextOther(state, c) : 0;
+            }
+            for (int id : outputs[state]) {
+                hits.set(id);
+            }
+        }
+    }
+
+    private int nextOther(int state, char c) {
+        while (true) {
+            Map<Character, Integer> children = otherChildren[state];
+            Integer next = children == null ? null : children.get(c);
+            if (next != null) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * 构建器
+     */
+    static final class Builder {
+
+        private final boolean foldCase;
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<List<Integer>> ids = new ArrayList<>();
+        private boolean empty = true;
+
+        /**
+         * @param foldCase 是否忽略 ASCII 大小写，字面量须已转为小写
+         */
+        Builder(boolean foldCase) {
+            this.foldCase = foldCase;
+            newNode();
+        }
+
+        Builder add(String literal, int id) {
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = newNode();
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ids.get(state).add(id);
+            empty = false;
+            return this;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        @SuppressWarnings("unchecked")
+        LiteralAutomaton build() {
+            int size = children.size();
+            int[] fail = new int[size];
+            int[][] asciiNext = new int[size][ASCII];
+            Map<Character, Integer>[] otherChildren = new Map[size];
+            List<List<Integer>> merged = new ArrayList<>(ids);
+            boolean hasNonAscii = false;
+
+            // 按层次遍历计算失败指针，同时展开 ASCII 转移表
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(0);
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                if (state != 0) {
+                    asciiNext[state] = asciiNext[fail[state]].clone();
+                }
+                for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                    char c = edge.getKey();
+                    int child = edge.getValue();
+                    fail[child] = state == 0 ? 0 : failTarget(fail[state], c, asciiNext, otherChildren, fail);
+                    if (c < ASCII) {
+                        asciiNext[state][c] = child;
+                    } else {
+                        if (otherChildren[state] == null) {
+                            otherChildren[state] = new HashMap<>();
+                        }
+                        otherChildren[state].put(c, child);
+                        hasNonAscii = true;
+                    }
+                    List<Integer> output = new ArrayList<>(ids.get(child));
+                    output.addAll(merged.get(fail[child]));
+                    merged.set(child, output);
+                    queue.add(child);
+                }
+            }
+
+            int[][] outputs = new int[size][];
+            for (int i = 0; i < size; i++) {
+                outputs[i] = merged.get(i).stream().mapToInt(Integer::intValue).distinct().toArray();
+            }
+            return new LiteralAutomaton(asciiNext, otherChildren, fail, outputs, foldCase, hasNonAscii);
+        }
+
+        /**
+         * 从 state 出发沿失败指针查找字符 c 的转移；父节点先于子节点处理，state 的转移已就绪
+         */
+        private int failTarget(int state, char c, int[][] asciiNext, Map<Character, Integer>[] otherChildren, int[] fail) {
+            if (c < ASCII) {
+                return asciiNext[state][c];
+            }
+            while (true) {
+                Integer next = otherChildren[state] == null ? null : otherChildren[state].get(c);
+                if (next != null) {
+                    return next;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = fail[state];
+            }
+        }
+
+        private int newNode() {
+            children.add(new HashMap<>());
+            ids.add(new ArrayList<>());
+            return children.size() - 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LiteralAutomaton{states=" + fail.length + ", foldCase=" + foldCase + ", outputs="
+                + Arrays.stream(outputs).mapToInt(o -> o.length).sum() + "}";
+    }
+}
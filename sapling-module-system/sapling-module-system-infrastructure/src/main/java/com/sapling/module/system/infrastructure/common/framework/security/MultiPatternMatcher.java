@@ -0,0 +1,213 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 编译后的多规则匹配器，结果与逐条执行规则完全一致
+ * <p>
+ * 编译时从每个 {@link PatternSecurityRule} 的正则中提取必要字面量，全部规则的字面量合并为一个 Aho-Corasick 自动机。
+ * 匹配时每个输入只扫描一次，得到可能匹配的正则集合，再按规则顺序只对这些正则执行匹配；
+ * 无法提取字面量的正则始终执行匹配。非 {@link PatternSecurityRule} 的规则按原顺序调用其 match 方法。
+ */
+public final class MultiPatternMatcher {
+
+    private final List<SecurityRule> rules;
+    /**
+     * 规则下标 -> 该规则各正则的编号，非 PatternSecurityRule 为 null
+     */
+    private final int[][] rulePatternIds;
+    private final Pattern[] patterns;
+    /**
+     * 无法提取字面量、须始终执行匹配的正则
+     */
+    private final BitSet alwaysRun;
+    private final LiteralAutomaton caseSensitive;
+    private final LiteralAutomaton caseInsensitive;
+
+    private MultiPatternMatcher(List<SecurityRule> rules, int[][] rulePatternIds, Pattern[] patterns, BitSet alwaysRun,
+                                LiteralAutomaton caseSensitive, LiteralAutomaton caseInsensitive) {
+        this.rules = rules;
+        this.rulePatternIds = rulePatternIds;
+        this.patterns = patterns;
+        this.alwaysRun = alwaysRun;
+        this.caseSensitive = caseSensitive;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * 编译规则列表，规则顺序即匹配优先级
+     */
+    public static MultiPatternMatcher compile(List<SecurityRule> rules) {
+        List<SecurityRule> snapshot = Collections.unmodifiableList(new ArrayList<>(rules));
+        int[][] rulePatternIds = new int[snapshot.size()][];
+        List<Pattern> patterns = new ArrayList<>();
+        BitSet alwaysRun = new BitSet();
+        LiteralAutomaton.Builder caseSensitive = new LiteralAutomaton.Builder(false);
+        LiteralAutomaton.Builder caseInsensitive = new LiteralAutomaton.Builder(true);
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (!(snapshot.get(i) instanceof PatternSecurityRule)) {
+                continue;
+            }
+            List<Pattern> rulePatterns = ((PatternSecurityRule) snapshot.get(i)).getPatterns();
+            int[] ids = new int[rulePatterns.size()];
+            for (int j = 0; j < rulePatterns.size(); j++) {
+                int id = patterns.size();
+                Pattern pattern = rulePatterns.get(j);
+                patterns.add(pattern);
+                ids[j] = id;
+
+                RegexLiteralExtractor.Literals literals = RegexLiteralExtractor.extract(pattern);
+                if (literals == null) {
+                    alwaysRun.set(id);
+                    continue;
+                }
+                LiteralAutomaton.Builder builder = literals.caseInsensitive ? caseInsensitive : caseSensitive;
+                for (String literal : literals.values) {
+                    builder.add(literal, id);
+                }
+            }
+            rulePatternIds[i] = ids;
+        }
+
+        return new MultiPatternMatcher(snapshot, rulePatternIds, patterns.toArray(new Pattern[0]), alwaysRun,
+                caseSensitive.isEmpty() ? null : caseSensitive.build(),
+                caseInsensitive.isEmpty() ? null : caseInsensitive.build());
+    }
+
+    /**
+     * 按规则顺序检测一次请求，与依次调用各规则的 match 方法结果一致
+     */
+    public Optional<RuleMatchResult> match(RequestContext ctx) {
+        Map<PatternSecurityRule.RuleTarget, ScannedInputs> scanned = new EnumMap<>(PatternSecurityRule.RuleTarget.class);
+        for (int i = 0; i < rules.size(); i++) {
+            SecurityRule rule = rules.get(i);
+            if (rulePatternIds[i] == null) {
+                Optional<RuleMatchResult> result = rule.match(ctx);
+                if (result.isPresent()) {
+                    return result;
+                }
+                continue;
+            }
+
+            PatternSecurityRule patternRule = (PatternSecurityRule) rule;
+            ScannedInputs inputs = scanned.computeIfAbsent(patternRule.getTarget(), target -> scan(inputsOf(ctx, target)));
+            for (int j = 0; j < inputs.values.size(); j++) {
+                String input = inputs.values.get(j);
+                if (input == null || input.isEmpty()) {
+                    continue;
+                }
+                for (int id : rulePatternIds[i]) {
+                    if (!inputs.candidates.get(j).get(id)) {
+                        continue;
+                    }
+                    Matcher m = patterns[id].matcher(input);
+                    if (m.find()) {
+                        return Optional.of(new RuleMatchResult(patternRule.getRuleName(), patternRule.getDescription(), m.group()));
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 用全部 PatternSecurityRule 的正则检测单个值（不区分检测目标），匹配内容为整个值
+     */
+    public Optional<RuleMatchResult> matchValue(String value) {
+        BitSet candidates = candidates(value);
+        for (int i = 0; i < rules.size(); i++) {
+            if (rulePatternIds[i] == null) {
+                continue;
+            }
+            for (int id : rulePatternIds[i]) {
+                if (candidates.get(id) && patterns[id].matcher(value).find()) {
+                    PatternSecurityRule patternRule = (PatternSecurityRule) rules.get(i);
+                    return Optional.of(new RuleMatchResult(patternRule.getRuleName(), patternRule.getDescription(), value));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    /**
+     * 已提取必要字面量、可被预过滤的正则数
+     */
+    public int getPrefilteredPatternCount() {
+        return patterns.length - alwaysRun.cardinality();
+    }
+
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    /**
+     * 一次扫描得到输入可能匹配的正则集合
+     */
+    private BitSet candidates(String input) {
+        BitSet candidates = (BitSet) alwaysRun.clone();
+        if (input == null || input.isEmpty()) {
+            return candidates;
+        }
+        if (caseSensitive != null) {
+            caseSensitive.scan(input, candidates);
+        }
+        if (caseInsensitive != null) {
+            caseInsensitive.scan(input, candidates);
+        }
+        return candidates;
+    }
+
+    private ScannedInputs scan(List<String> values) {
+        List<BitSet> candidates = new ArrayList<>(values.size());
+        for (String value : values) {
+            candidates.add(candidates(value));
+        }
+        return new ScannedInputs(values, candidates);
+    }
+
+    /**
+     * 与 PatternSecurityRule 相同的检测目标取值顺序
+     */
+    private static List<String> inputsOf(RequestContext ctx, PatternSecurityRule.RuleTarget target) {
+        switch (target) {
+            case URI:
+                return Collections.singletonList(ctx.getUri());
+            case PARAM_NAME:
+                return new ArrayList<>(ctx.getParameterMap().keySet());
+            case PARAM_VALUE: {
+                List<String> values = new ArrayList<>();
+                for (String[] paramValues : ctx.getParameterMap().values()) {
+                    Collections.addAll(values, paramValues);
+                }
+                return values;
+            }
+            case HEADER:
+                return new ArrayList<>(ctx.getHeaders().values());
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    private static final class ScannedInputs {
+        private final List<String> values;
+        private final List<BitSet> candidates;
+
+        private ScannedInputs(List<String> values, List<BitSet> candidates) {
+            this.values = values;
+            this.candidates = candidates;
+        }
+    }
+}
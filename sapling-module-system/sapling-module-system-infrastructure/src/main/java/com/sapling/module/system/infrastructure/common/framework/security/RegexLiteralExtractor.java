@@ -0,0 +1,525 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 从正则表达式中提取必要字面量：任意一次匹配都至少包含其中一个字面量。
+ * <p>
+ * 输入中不包含任何必要字面量时，该正则必然不匹配，可跳过正则匹配。
+ * 分析是保守的：遇到无法确定的语法（反向引用、字符类、可为零次的量词等）时放弃该部分的约束；
+ * 遇到不支持的语法或标志（COMMENTS、UNICODE_CASE 等）时整体放弃，该正则始终执行匹配。
+ * 大小写不敏感的正则提取的字面量已转为 ASCII 小写，与 Java 默认仅对 ASCII 忽略大小写一致。
+ */
+final class RegexLiteralExtractor {
+
+    /**
+     * 精确匹配集合的最大元素数，超过后退化为只保留必要字面量
+     */
+    private static final int MAX_EXACT = 64;
+
+    private static final int UNSUPPORTED_FLAGS = Pattern.COMMENTS | Pattern.LITERAL | Pattern.CANON_EQ
+            | Pattern.UNICODE_CASE | Pattern.UNICODE_CHARACTER_CLASS;
+
+    private static final Set<String> EMPTY_STRING = Collections.singleton("");
+    private static final Info EMPTY = new Info(EMPTY_STRING, null);
+    private static final Info ANY = new Info(null, null);
+
+    private final String source;
+    private final boolean caseInsensitive;
+    private int pos;
+    private boolean sawCaseInsensitive;
+
+    private RegexLiteralExtractor(String source, boolean caseInsensitive) {
+        this.source = source;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * 提取结果
+     */
+    static final class Literals {
+        final Set<String> values;
+        final boolean caseInsensitive;
+
+        Literals(Set<String> values, boolean caseInsensitive) {
+            this.values = values;
+            this.caseInsensitive = caseInsensitive;
+        }
+    }
+
+    /**
+     * @return 必要字面量；无法提取时返回 null，调用方须始终执行正则匹配
+     */
+    static Literals extract(Pattern pattern) {
+        if ((pattern.flags() & UNSUPPORTED_FLAGS) != 0) {
+            return null;
+        }
+        boolean ci = (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0;
+        try {
+            RegexLiteralExtractor extractor = new RegexLiteralExtractor(pattern.pattern(), ci);
+            Set<String> literals = extractor.run();
+            // 内联 (?i) 的作用范围不做细分，按整个正则忽略大小写重新提取，只会放宽过滤条件
+            if (!ci && extractor.sawCaseInsensitive) {
+                ci = true;
+                literals = new RegexLiteralExtractor(pattern.pattern(), true).run();
+            }
+            return usable(literals) ? new Literals(literals, ci) : null;
+        } catch (RuntimeException e) {
+            // 不支持或无法解析的语法
+            return null;
+        }
+    }
+
+    private Set<String> run() {
+        Info root = parseAlternation();
+        if (pos != source.length()) {
+            throw new UnsupportedOperationException();
+        }
+        return required(root);
+    }
+
+    private Info parseAlternation() {
+        Info first = parseSequence();
+        if (!peek('|')) {
+            return first;
+        }
+        Set<String> exact = first.exact == null ? null : new LinkedHashSet<>(first.exact);
+        Set<String> required = required(first) == null ? null : new LinkedHashSet<>(required(first));
+        while (peek('|')) {
+            pos++;
+            Info branch = parseSequence();
+            if (exact != null && branch.exact != null && exact.size() + branch.exact.size() <= MAX_EXACT) {
+                exact.addAll(branch.exact);
+            } else {
+                exact = null;
+            }
+            Set<String> branchRequired = required(branch);
+            if (required != null && branchRequired != null) {
+                required.addAll(branchRequired);
+            } else {
+                required = null;
+            }
+        }
+        return new Info(exact, required);
+    }
+
+    private Info parseSequence() {
+        Set<String> current = EMPTY_STRING;
+        Set<String> best = null;
+        boolean allExact = true;
+        while (pos < source.length() && !peek('|') && !peek(')')) {
+            Info item = parseQuantifier(parseAtom());
+            if (item.exact != null) {
+                Set<String> next = cross(current, item.exact);
+                if (next != null) {
+                    current = next;
+                    continue;
+                }
+                best = better(best, usable(current) ? current : null);
+                current = item.exact;
+                allExact = false;
+                continue;
+            }
+            best = better(best, usable(current) ? current : null);
+            best = better(best, item.required);
+            current = EMPTY_STRING;
+            allExact = false;
+        }
+        best = better(best, usable(current) ? current : null);
+        return new Info(allExact ? current : null, best);
+    }
+
+    private Info parseQuantifier(Info atom) {
+        if (pos >= source.length()) {
+            return atom;
+        }
+        int min;
+        int max;
+        char c = source.charAt(pos);
+        if (c == '?') {
+            min = 0;
+            max = 1;
+            pos++;
+        } else if (c == '*') {
+            min = 0;
+            max = Integer.MAX_VALUE;
+            pos++;
+        } else if (c == '+') {
+            min = 1;
+            max = Integer.MAX_VALUE;
+            pos++;
+        } else if (c == '{') {
+            int close = source.indexOf('}', pos);
+            if (close < 0) {
+                throw new UnsupportedOperationException();
+            }
+            String[] bounds = source.substring(pos + 1, close).split(",", -1);
+            try {
+                min = Integer.parseInt(bounds[0].trim());
+                max = bounds.length == 1 ? min
+                        : bounds[1].trim().isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(bounds[1].trim());
+            } catch (NumberFormatException e) {
+                throw new UnsupportedOperationException();
+            }
+            pos = close + 1;
+        } else {
+            return atom;
+        }
+        // 懒惰、占有修饰符不影响可匹配的内容
+        if (peek('?') || peek('+')) {
+            pos++;
+        }
+
+        if (max == 0) {
+            return EMPTY;
+        }
+        if (min == 0) {
+            if (max == 1 && atom.exact != null && !atom.exact.contains("")) {
+                Set<String> exact = new LinkedHashSet<>(atom.exact);
+                exact.add("");
+                return new Info(exact.size() <= MAX_EXACT ? exact : null, null);
+            }
+            return ANY;
+        }
+        if (min == 1 && max == 1) {
+            return atom;
+        }
+        return new Info(null, required(atom));
+    }
+
+    private Info parseAtom() {
+        char c = source.charAt(pos);
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                skipCharClass();
+                return ANY;
+            case '.':
+                pos++;
+                return ANY;
+            case '^':
+            case '$':
+                pos++;
+                return EMPTY;
+            case '\\':
+                return parseEscape();
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw new UnsupportedOperationException();
+            default:
+                pos++;
+                return literal(String.valueOf(c));
+        }
+    }
+
+    private Info parseGroup() {
+        pos++;
+        boolean zeroWidth = false;
+        if (peek('?')) {
+            pos++;
+            char kind = charAt(pos);
+            if (kind == ':' || kind == '>' || kind == '=' || kind == '!') {
+                zeroWidth = kind == '=' || kind == '!';
+                pos++;
+            } else if (kind == '<') {
+                char next = charAt(pos + 1);
+                if (next == '=' || next == '!') {
+                    zeroWidth = true;
+                    pos += 2;
+                } else {
+                    int close = source.indexOf('>', pos);
+                    if (close < 0) {
+                        throw new UnsupportedOperationException();
+                    }
+                    pos = close + 1;
+                }
+            } else {
+                int start = pos;
+                while (pos < source.length() && (Character.isLetter(source.charAt(pos)) || source.charAt(pos) == '-')) {
+                    pos++;
+                }
+                applyFlags(source.substring(start, pos));
+                if (peek(')')) {
+                    pos++;
+                    return EMPTY;
+                }
+                if (!peek(':')) {
+                    throw new UnsupportedOperationException();
+                }
+                pos++;
+            }
+        }
+        Info inner = parseAlternation();
+        if (!peek(')')) {
+            throw new UnsupportedOperationException();
+        }
+        pos++;
+        return zeroWidth ? EMPTY : inner;
+    }
+
+    private void applyFlags(String flags) {
+        int minus = flags.indexOf('-');
+        String on = minus < 0 ? flags : flags.substring(0, minus);
+        if (on.indexOf('x') >= 0 || on.indexOf('u') >= 0 || on.indexOf('U') >= 0) {
+            throw new UnsupportedOperationException();
+        }
+        if (on.indexOf('i') >= 0) {
+            sawCaseInsensitive = true;
+        }
+    }
+
+    private Info parseEscape() {
+        pos++;
+        if (pos >= source.length()) {
+            throw new UnsupportedOperationException();
+        }
+        char c = source.charAt(pos++);
+        switch (c) {
+            case 't':
+                return literal("\t");
+            case 'n':
+                return literal("\n");
+            case 'r':
+                return literal("\r");
+            case 'f':
+                return literal("\f");
+            case 'a':
+                return literal("\u0007");
+            case 'e':
+                return literal("\u001B");
+            case '0':
+                // \0mnn 仅在 m 不大于 3 时取三位
+                return literal(String.valueOf((char) readNumber(8, charAt(pos) <= '3' ? 3 : 2)));
+            case 'x':
+                if (peek('{')) {
+                    int close = source.indexOf('}', pos);
+                    if (close < 0) {
+                        throw new UnsupportedOperationException();
+                    }
+                    int codePoint = Integer.parseInt(source.substring(pos + 1, close), 16);
+                    pos = close + 1;
+                    return literal(new String(Character.toChars(codePoint)));
+                }
+                return literal(String.valueOf((char) readNumber(16, 2)));
+            case 'u':
+                return literal(String.valueOf((char) readNumber(16, 4)));
+            case 'c':
+                return literal(String.valueOf((char) (charAt(pos++) ^ 64)));
+            case 'Q': {
+                int end = source.indexOf("\\E", pos);
+                String quoted = end < 0 ? source.substring(pos) : source.substring(pos, end);
+                pos = end < 0 ? source.length() : end + 2;
+                return literal(quoted);
+            }
+            case 'b':
+                if (peek('{')) {
+                    skipBraces();
+                }
+                return EMPTY;
+            case 'B':
+            case 'A':
+            case 'z':
+            case 'Z':
+            case 'G':
+                return EMPTY;
+            case 'p':
+            case 'P':
+            case 'N':
+                if (peek('{')) {
+                    skipBraces();
+                } else {
+                    pos++;
+                }
+                return ANY;
+            case 'k':
+                if (!peek('<')) {
+                    throw new UnsupportedOperationException();
+                }
+                pos = source.indexOf('>', pos) + 1;
+                if (pos == 0) {
+                    throw new UnsupportedOperationException();
+                }
+                return ANY;
+            case 'd':
+            case 'D':
+            case 'w':
+            case 'W':
+            case 's':
+            case 'S':
+            case 'h':
+            case 'H':
+            case 'v':
+            case 'V':
+            case 'R':
+            case 'X':
+                return ANY;
+            default:
+                if (c >= '1' && c <= '9') {
+                    // 反向引用
+                    while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                        pos++;
+                    }
+                    return ANY;
+                }
+                if (Character.isLetterOrDigit(c)) {
+                    throw new UnsupportedOperationException();
+                }
+                return literal(String.valueOf(c));
+        }
+    }
+
+    /**
+     * 跳过字符类，只确定其结束位置；字符类本身不提供字面量约束
+     */
+    private void skipCharClass() {
+        int depth = 0;
+        do {
+            char c = charAt(pos);
+            if (c == '[') {
+                depth++;
+                pos++;
+                if (peek('^')) {
+                    pos++;
+                }
+                // 紧跟左括号的右括号是普通字符
+                if (peek(']')) {
+                    pos++;
+                }
+            } else if (c == ']') {
+                depth--;
+                pos++;
+            } else if (c == '\\') {
+                char escaped = charAt(pos + 1);
+                if (escaped == 'Q') {
+                    throw new UnsupportedOperationException();
+                }
+                pos += 2;
+                if (peek('{') && (escaped == 'p' || escaped == 'P' || escaped == 'x' || escaped == 'N')) {
+                    skipBraces();
+                }
+            } else {
+                pos++;
+            }
+        } while (depth > 0);
+    }
+
+    private void skipBraces() {
+        int close = source.indexOf('}', pos);
+        if (close < 0) {
+            throw new UnsupportedOperationException();
+        }
+        pos = close + 1;
+    }
+
+    private int readNumber(int radix, int maxDigits) {
+        int start = pos;
+        while (pos < source.length() && pos - start < maxDigits && Character.digit(source.charAt(pos), radix) >= 0) {
+            pos++;
+        }
+        if (pos == start) {
+            throw new UnsupportedOperationException();
+        }
+        return Integer.parseInt(source.substring(start, pos), radix);
+    }
+
+    private Info literal(String text) {
+        return new Info(Collections.singleton(caseInsensitive ? toLowerAscii(text) : text), null);
+    }
+
+    private boolean peek(char c) {
+        return pos < source.length() && source.charAt(pos) == c;
+    }
+
+    private char charAt(int index) {
+        if (index >= source.length()) {
+            throw new UnsupportedOperationException();
+        }
+        return source.charAt(index);
+    }
+
+    static String toLowerAscii(String text) {
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                chars[i] = (char) (c + 32);
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+
+    private static Set<String> cross(Set<String> left, Set<String> right) {
+        if ((long) left.size() * right.size() > MAX_EXACT) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String l : left) {
+            for (String r : right) {
+                result.add(l + r);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> required(Info info) {
+        return better(info.required, usable(info.exact) ? info.exact : null);
+    }
+
+    private static boolean usable(Set<String> literals) {
+        return literals != null && !literals.isEmpty() && !literals.contains("");
+    }
+
+    /**
+     * 选择过滤效果更好的字面量集合：最短字面量更长者优先，其次元素更少者优先
+     */
+    private static Set<String> better(Set<String> a, Set<String> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        int minA = minLength(a);
+        int minB = minLength(b);
+        if (minA != minB) {
+            return minA > minB ? a : b;
+        }
+        return a.size() <= b.size() ? a : b;
+    }
+
+    private static int minLength(Set<String> literals) {
+        int min = Integer.MAX_VALUE;
+        for (String literal : literals) {
+            min = Math.min(min, literal.length());
+        }
+        return min;
+    }
+
+    /**
+     * 正则片段的分析结果
+     */
+    private static final class Info {
+        /**
+         * 片段可匹配的全部字符串，未知或过多时为 null
+         */
+        final Set<String> exact;
+        /**
+         * 片段的任意匹配至少包含其中一个，无约束时为 null
+         */
+        final Set<String> required;
+
+        Info(Set<String> exact, Set<String> required) {
+            this.exact = exact;
+            this.required = required;
+        }
+    }
+}
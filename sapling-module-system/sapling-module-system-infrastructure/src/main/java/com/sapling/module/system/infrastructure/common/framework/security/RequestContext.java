@@ -7,28 +7,20 @@ import java.util.Map;
 
 /**
  * 承载一次请求的所有关键信息，供规则判断使用
+ * <p>
+ * 各项信息在首次读取时才从请求中获取并缓存，同一次请求的各项检查共用一个实例，
+ * 未用到的信息（如全部请求头）不会被复制。非线程安全，只在处理该请求的线程中使用。
  */
 public class RequestContext {
     private final HttpServletRequest request;
-    private final Map<String, String[]> parameterMap;
-    private final String uri;
-    private final String method;
-    private final String remoteAddr;
-    private final Map<String, String> headers;
+    private Map<String, String[]> parameterMap;
+    private String uri;
+    private String method;
+    private String remoteAddr;
+    private Map<String, String> headers;
 
     public RequestContext(HttpServletRequest request) {
         this.request = request;
-        this.parameterMap = request.getParameterMap();
-        this.uri = request.getRequestURI();
-        this.method = request.getMethod();
-        this.remoteAddr = request.getRemoteAddr();
-        this.headers = new HashMap<>();
-        
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String name = headerNames.nextElement();
-            headers.put(name, request.getHeader(name));
-        }
     }
 
     public HttpServletRequest getRequest() {
@@ -36,22 +28,58 @@ public class RequestContext {
     }
 
     public Map<String, String[]> getParameterMap() {
+        if (parameterMap == null) {
+            parameterMap = request.getParameterMap();
+        }
         return parameterMap;
     }
 
     public String getUri() {
+        if (uri == null) {
+            uri = request.getRequestURI();
+        }
         return uri;
     }
 
     public String getMethod() {
+        if (method == null) {
+            method = request.getMethod();
+        }
         return method;
     }
 
     public String getRemoteAddr() {
+        if (remoteAddr == null) {
+            remoteAddr = request.getRemoteAddr();
+        }
         return remoteAddr;
     }
 
+    /**
+     * 单个请求头，不复制全部请求头
+     */
+    public String getHeader(String name) {
+        return request.getHeader(name);
+    }
+
+    public String getContentType() {
+        return request.getContentType();
+    }
+
+    public long getContentLength() {
+        return request.getContentLengthLong();
+    }
+
     public Map<String, String> getHeaders() {
+        if (headers == null) {
+            Map<String, String> collected = new HashMap<>();
+            Enumeration<String> headerNames = request.getHeaderNames();
+            while (headerNames.hasMoreElements()) {
+                String name = headerNames.nextElement();
+                collected.put(name, request.getHeader(name));
+            }
+            headers = collected;
+        }
         return headers;
     }
-} 
\ No newline at end of file
+}
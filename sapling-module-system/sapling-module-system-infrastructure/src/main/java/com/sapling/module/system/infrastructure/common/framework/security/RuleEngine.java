@@ -1,18 +1,18 @@
 package com.sapling.module.system.infrastructure.common.framework.security;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sapling.module.system.infrastructure.common.framework.filters.CachedBodyRequestWrapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.WebUtils;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
@@ -24,12 +24,23 @@ import java.util.regex.Pattern;
 @Service
 public class RuleEngine {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private final List<SecurityRule> rules = new ArrayList<>();
+    /**
+     * 由 rules 编译的匹配器，规则变更时整体替换
+     */
+    private volatile MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.emptyList());
 
     @Value("${endpoint.security.enabled:true}")
     private boolean enabled;
 
+    @Value("${endpoint.security.json.max-depth:64}")
+    private int jsonMaxDepth;
+
+    @Value("${endpoint.security.json.max-bytes:10485760}")
+    private long jsonMaxBytes;
+
+    private JsonBodyInspector jsonBodyInspector;
+
     @Value("${endpoint.security.patterns.sql-injection}")
     private String sqlInjectionPattern;
 
@@ -56,6 +67,7 @@ public class RuleEngine {
 
     @PostConstruct
     public void init() {
+        jsonBodyInspector = new JsonBodyInspector(jsonMaxDepth, jsonMaxBytes);
         if (!enabled) {
             log.info("安全规则引擎已禁用");
             return;
@@ -63,7 +75,9 @@ public class RuleEngine {
 
         // 初始化规则
         initRules();
-        log.info("安全规则引擎初始化完成，共加载 {} 条规则", rules.size());
+        matcher = MultiPatternMatcher.compile(rules);
+        log.info("安全规则引擎初始化完成，共加载 {} 条规则，{}/{} 个正则启用字面量预过滤",
+                rules.size(), matcher.getPrefilteredPatternCount(), matcher.getPatternCount());
     }
 
     private void initRules() {
@@ -152,56 +166,67 @@ public class RuleEngine {
      * @return Optional<RuleMatchResult>：如果任意规则匹配，则返回第一个匹配的结果，否则返回 empty
      */
     public Optional<RuleMatchResult> check(HttpServletRequest request) {
+        RequestContext ctx = new RequestContext(request);
+        Optional<RuleMatchResult> match = checkRequest(ctx);
+        if (match.isPresent()) {
+            return match;
+        }
+        String contentType = ctx.getContentType();
+        if (contentType != null && contentType.contains("application/json")) {
+            byte[] body = cachedBody(request);
+            if (body == null) {
+                log.debug("请求体未缓存，跳过请求体检查: URI={}", ctx.getUri());
+            } else {
+                return checkJsonBody(ctx, body);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 检查 URI、请求参数与请求头，不读取请求体
+     */
+    public Optional<RuleMatchResult> checkRequest(RequestContext ctx) {
         if (!enabled) {
             return Optional.empty();
         }
 
         try {
-            RequestContext ctx = new RequestContext(request);
-            
-            // 1. 检查请求参数
-            for (SecurityRule rule : rules) {
-                Optional<RuleMatchResult> match = rule.match(ctx);
-                if (match.isPresent()) {
-                    log.warn("安全规则 [{}] 命中：IP={}，URI={}，匹配内容={}", 
-                        match.get().getRuleName(),
-                        ctx.getRemoteAddr(),
-                        ctx.getUri(),
-                        match.get().getMatchedContent());
-                    return match;
-                }
+            Optional<RuleMatchResult> match = matcher.match(ctx);
+            if (match.isPresent()) {
+                log.warn("安全规则 [{}] 命中：IP={}，URI={}，匹配内容={}", 
+                    match.get().getRuleName(),
+                    ctx.getRemoteAddr(),
+                    ctx.getUri(),
+                    match.get().getMatchedContent());
             }
+            return match;
+        } catch (Exception e) {
+            log.error("安全规则检查异常", e);
+            throw new SecurityException("安全规则检查失败", e);
+        }
+    }
 
-            // 2. 检查请求体（如果是 JSON）
-            String contentType = request.getContentType();
-            if (contentType != null && contentType.contains("application/json")) {
-                String body;
-                if (request instanceof ContentCachingRequestWrapper) {
-                    ContentCachingRequestWrapper wrapper = (ContentCachingRequestWrapper) request;
-                    body = new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
-                } else {
-                    body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
-                }
-                
-                if (body != null && !body.isEmpty()) {
-                    log.debug("检查请求体: {}", body);
-                    try {
-                        JsonNode jsonNode = objectMapper.readTree(body);
-                        Optional<RuleMatchResult> bodyMatch = checkJsonNode(jsonNode);
-                        if (bodyMatch.isPresent()) {
-                            log.warn("安全规则 [{}] 命中：IP={}，URI={}，匹配内容={}", 
-                                bodyMatch.get().getRuleName(),
-                                ctx.getRemoteAddr(),
-                                ctx.getUri(),
-                                bodyMatch.get().getMatchedContent());
-                            return bodyMatch;
-                        }
-                    } catch (Exception e) {
-                        log.error("解析 JSON 请求体失败", e);
-                    }
-                }
-            }
+    /**
+     * 检查已缓存的 JSON 请求体
+     */
+    public Optional<RuleMatchResult> checkJsonBody(RequestContext ctx, byte[] body) {
+        if (!enabled || body.length == 0) {
+            return Optional.empty();
+        }
 
+        try {
+            Optional<RuleMatchResult> bodyMatch = jsonBodyInspector.inspect(body, matcher);
+            if (bodyMatch.isPresent()) {
+                log.warn("安全规则 [{}] 命中：IP={}，URI={}，匹配内容={}", 
+                    bodyMatch.get().getRuleName(),
+                    ctx.getRemoteAddr(),
+                    ctx.getUri(),
+                    bodyMatch.get().getMatchedContent());
+            }
+            return bodyMatch;
+        } catch (IOException e) {
+            log.error("解析 JSON 请求体失败", e);
             return Optional.empty();
         } catch (Exception e) {
             log.error("安全规则检查异常", e);
@@ -210,43 +235,15 @@ public class RuleEngine {
     }
 
     /**
-     * 递归检查 JSON 节点中的所有值
+     * 获取已缓存的请求体，不读取原始输入流，以免控制器无法再读取
      */
-    private Optional<RuleMatchResult> checkJsonNode(JsonNode node) {
-        if (node.isTextual()) {
-            String value = node.asText();
-            log.debug("检查 JSON 文本值: {}", value);
-            for (SecurityRule rule : rules) {
-                if (rule instanceof PatternSecurityRule) {
-                    PatternSecurityRule patternRule = (PatternSecurityRule) rule;
-                    for (Pattern pattern : patternRule.getPatterns()) {
-                        if (pattern.matcher(value).find()) {
-                            log.warn("JSON 值匹配安全规则 [{}]: {}", patternRule.getRuleName(), value);
-                            return Optional.of(new RuleMatchResult(
-                                patternRule.getRuleName(),
-                                patternRule.getDescription(),
-                                value
-                            ));
-                        }
-                    }
-                }
-            }
-        } else if (node.isObject()) {
-            for (JsonNode child : node) {
-                Optional<RuleMatchResult> match = checkJsonNode(child);
-                if (match.isPresent()) {
-                    return match;
-                }
-            }
-        } else if (node.isArray()) {
-            for (JsonNode child : node) {
-                Optional<RuleMatchResult> match = checkJsonNode(child);
-                if (match.isPresent()) {
-                    return match;
-                }
-            }
+    private byte[] cachedBody(HttpServletRequest request) {
+        CachedBodyRequestWrapper cached = WebUtils.getNativeRequest(request, CachedBodyRequestWrapper.class);
+        if (cached != null) {
+            return cached.getBody();
         }
-        return Optional.empty();
+        ContentCachingRequestWrapper contentCaching = WebUtils.getNativeRequest(request, ContentCachingRequestWrapper.class);
+        return contentCaching != null ? contentCaching.getContentAsByteArray() : null;
     }
 
     /**
@@ -255,6 +252,7 @@ public class RuleEngine {
     public void reloadRules(List<SecurityRule> newRules) {
         rules.clear();
         rules.addAll(newRules);
+        matcher = MultiPatternMatcher.compile(newRules);
         log.info("安全规则已重新加载，当前规则数：{}", rules.size());
     }
 } 
\ No newline at end of file
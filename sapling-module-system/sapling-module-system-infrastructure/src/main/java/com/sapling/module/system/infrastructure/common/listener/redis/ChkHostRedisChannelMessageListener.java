@@ -0,0 +1,36 @@
+package com.sapling.module.system.infrastructure.common.listener.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.gatewayImpl.cache.ChkHostCache;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.Resource;
+
+/**
+ * 主机信息Redis通道消息监听器
+ * 用于监听主机信息变更通知，并清除本地缓存
+ */
+@Slf4j
+@Component
+public class ChkHostRedisChannelMessageListener extends AbstractRedisChannelMessageListener<String> {
+
+    @Resource
+    private ChkHostCache chkHostCache;
+
+    @Override
+    public String getChannel() {
+        return RedisKeyConstants.ItxCacheKey.CHK_HOST_REFRESH_CHANNEL;
+    }
+
+    @Override
+    public void handle(String hostId) {
+        try {
+            log.debug("收到主机信息变更通知，主机ID：{}", hostId);
+            // 清除本地缓存
+            chkHostCache.invalidateLocalCache(hostId);
+        } catch (Exception e) {
+            log.error("处理主机信息变更通知失败", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sapling.module.system.infrastructure.common.listener.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.common.framework.gate.IpReputationService;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.Resource;
+
+/**
+ * IP 黑名单Redis通道消息监听器
+ * 用于监听 IP 黑名单变更通知，并重新加载本地黑名单
+ */
+@Slf4j
+@Component
+public class IpBlacklistRedisChannelMessageListener extends AbstractRedisChannelMessageListener<String> {
+
+    @Resource
+    private IpReputationService ipReputationService;
+
+    @Override
+    public String getChannel() {
+        return RedisKeyConstants.ItxCacheKey.IP_BLACKLIST_REFRESH_CHANNEL;
+    }
+
+    @Override
+    public void handle(String message) {
+        try {
+            log.info("收到 IP 黑名单变更通知：{}", message);
+            ipReputationService.reload();
+        } catch (Exception e) {
+            log.error("处理 IP 黑名单变更通知失败", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.sapling.module.system.infrastructure.common.listener.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.gatewayImpl.cache.SessionCache;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.Resource;
+
+/**
+ * 会话Redis通道消息监听器
+ * 用于监听会话注销、权限变更通知，并清除本地缓存
+ */
+@Slf4j
+@Component
+public class SessionRedisChannelMessageListener extends AbstractRedisChannelMessageListener<String> {
+
+    @Resource
+    private SessionCache sessionCache;
+
+    @Override
+    public String getChannel() {
+        return RedisKeyConstants.ItxCacheKey.SESSION_REFRESH_CHANNEL;
+    }
+
+    @Override
+    public void handle(String sessionId) {
+        try {
+            log.debug("收到会话变更通知，session：{}", sessionId);
+            // 清除本地缓存
+            sessionCache.invalidateLocalCache(sessionId);
+        } catch (Exception e) {
+            log.error("处理会话变更通知失败", e);
+        }
+    }
+}
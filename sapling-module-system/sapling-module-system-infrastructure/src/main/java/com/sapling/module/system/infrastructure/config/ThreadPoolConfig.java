@@ -52,6 +52,21 @@ public class ThreadPoolConfig {
         return createThreadPoolTaskExecutor("queryAllOrgAndUserExecutor", "QueryAllOrgAndUserExecutor-");
     }
 
+    @Bean("esScanExecutor")
+    public ThreadPoolTaskExecutor esScanExecutor() {
+        return createThreadPoolTaskExecutor("esScanExecutor", "EsScanExecutor-");
+    }
+
+    @Bean("chkHostCacheRefreshExecutor")
+    public ThreadPoolTaskExecutor chkHostCacheRefreshExecutor() {
+        return createThreadPoolTaskExecutor("chkHostCacheRefreshExecutor", "ChkHostCacheRefreshExecutor-");
+    }
+
+    @Bean("sessionKeepAliveExecutor")
+    public ThreadPoolTaskExecutor sessionKeepAliveExecutor() {
+        return createThreadPoolTaskExecutor("sessionKeepAliveExecutor", "SessionKeepAliveExecutor-");
+    }
+
     /**
      * 创建线程池任务执行器
      *
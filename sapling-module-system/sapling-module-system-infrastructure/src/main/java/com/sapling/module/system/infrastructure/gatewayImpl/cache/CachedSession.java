@@ -0,0 +1,41 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * 会话校验结果
+ *
+ * @author mbws
+ */
+@Getter
+@AllArgsConstructor
+public class CachedSession {
+
+    /**
+     * 平台返回的登录信息原文
+     */
+    private final String account;
+
+    /**
+     * 是否处于登录状态
+     */
+    private final boolean loggedIn;
+
+    /**
+     * 菜单权限编码，登录信息无法解析时为 null
+     */
+    private final Set<String> permissionCodes;
+
+    /**
+     * 校验时使用的 zmct，系统参数变更后缓存条目失效
+     */
+    private final String zmct;
+
+    /**
+     * 校验时间（毫秒）
+     */
+    private final long loadedAt;
+}
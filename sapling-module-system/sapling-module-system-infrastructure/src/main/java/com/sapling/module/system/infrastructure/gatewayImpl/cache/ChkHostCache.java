@@ -0,0 +1,356 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.json.JSONUtil;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryResult;
+import com.sapling.module.system.domain.biz.host.model.ChkHostEntity;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.convertor.ChkHostConvertor;
+import com.sapling.module.system.infrastructure.gatewayImpl.database.dataobject.ChkHostDO;
+import com.sapling.module.system.infrastructure.gatewayImpl.database.mapper.ChkHostMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 主机信息二级缓存
+ * <p>
+ * 一级为本地有界缓存，二级为 Redis Hash（field 为 hostId，value 为该 hostId 对应主机列表的 JSON）。
+ * 批量查询时只有两级缓存均未命中的 hostId 才会分片并发查询数据库，查询结果回写两级缓存。
+ * 数据库中不存在的 hostId 以空列表缓存在本地，避免重复穿透。
+ * <p>
+ * 本地条目写入后超过刷新间隔，下次访问时异步直接从数据库重新加载（刷新期间仍返回旧值），
+ * 并以数据库结果覆盖 Redis 中的条目，刷新不读取 Redis，避免把 Redis 中的旧值重新写回本地。
+ * 刷新线程池满载或数据库查询失败时本次刷新放弃，仍返回旧值，下次访问时再次尝试。
+ * <p>
+ * 主机信息变更时调用 {@link #evict(Collection)} 删除 Redis 中的条目并通过
+ * {@link RedisKeyConstants.ItxCacheKey#CHK_HOST_REFRESH_CHANNEL} 通知所有节点清除本地缓存。
+ * 直接修改数据库而未调用 {@code evict} 时，本地条目在写入 local-refresh-seconds 后的首次访问时刷新，
+ * 最长不超过 local-expire-seconds 过期；仅 Redis 中存在的条目在加载到本地后同样按刷新间隔从数据库刷新，
+ * 因此数据库变更最长约 local-refresh-seconds（刷新失败时不超过 local-expire-seconds）后在各节点生效。
+ *
+ * @author mbws
+ */
+@Slf4j
+@Component
+public class ChkHostCache {
+
+    /**
+     * 通知清除全部本地缓存的消息
+     */
+    public static final String INVALIDATE_ALL = "*";
+
+    @Resource
+    private ChkHostMapper chkHostMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource(name = "chkHostCacheRefreshExecutor")
+    private ThreadPoolTaskExecutor chkHostCacheRefreshExecutor;
+
+    @Value("${sapling.cache.chk-host.local-max-size:100000}")
+    private long localMaxSize;
+
+    @Value("${sapling.cache.chk-host.local-refresh-seconds:300}")
+    private long localRefreshSeconds;
+
+    @Value("${sapling.cache.chk-host.local-expire-seconds:1800}")
+    private long localExpireSeconds;
+
+    @Value("${sapling.cache.chk-host.redis-expire-hours:24}")
+    private long redisExpireHours;
+
+    @Value("${sapling.cache.chk-host.db-batch-size:0}")
+    private int dbBatchSize;
+
+    private LoadingCache<String, List<ChkHostEntity>> localCache;
+
+    private final LongAdder redisHitCount = new LongAdder();
+    private final LongAdder redisMissCount = new LongAdder();
+    private final LongAdder dbQueryCount = new LongAdder();
+    private final LongAdder dbQueryFailureCount = new LongAdder();
+    private final LongAdder refreshRejectedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        localCache = CacheBuilder.newBuilder()
+                // 最大并发级别为CPU核心数
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                // 最大缓存Key个数
+                .maximumSize(localMaxSize)
+                // 写入后超过刷新间隔，下次访问时异步刷新
+                .refreshAfterWrite(localRefreshSeconds, TimeUnit.SECONDS)
+                // 长时间未刷新的条目直接过期
+                .expireAfterWrite(localExpireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build(new CacheLoader<String, List<ChkHostEntity>>() {
+                    @Override
+                    public List<ChkHostEntity> load(String hostId) {
+                        List<ChkHostEntity> hosts = loadFromRemote(Collections.singletonList(hostId)).get(hostId);
+                        if (hosts == null) {
+                            throw new IllegalStateException("主机信息加载失败，主机ID：" + hostId);
+                        }
+                        return hosts;
+                    }
+
+                    @Override
+                    public ListenableFuture<List<ChkHostEntity>> reload(String hostId, List<ChkHostEntity> oldValue) {
+                        ListenableFutureTask<List<ChkHostEntity>> task = ListenableFutureTask.create(() -> refreshFromDb(hostId));
+                        try {
+                            chkHostCacheRefreshExecutor.execute(task);
+                        } catch (RejectedExecutionException e) {
+                            // 线程池满载时放弃本次刷新，失败的刷新保留旧值且不重置写入时间
+                            refreshRejectedCount.increment();
+                            return Futures.immediateFailedFuture(e);
+                        }
+                        return task;
+                    }
+                });
+        log.info("主机信息缓存初始化完成 - 本地最大条目: {}, 刷新间隔: {}s, 过期时间: {}s, Redis过期时间: {}h",
+                localMaxSize, localRefreshSeconds, localExpireSeconds, redisExpireHours);
+    }
+
+    /**
+     * 批量获取主机信息，返回结果按 hostId 去重后的入参顺序排列。
+     * 数据库查询失败的 hostId 不写入缓存，也不出现在结果中。
+     *
+     * @param hostIds 主机ID集合
+     * @return 主机列表
+     */
+    public List<ChkHostEntity> getAll(List<String> hostIds) {
+        LinkedHashSet<String> distinctIds = new LinkedHashSet<>(hostIds);
+        // getAllPresent 会触发已到刷新间隔条目的异步刷新
+        Map<String, List<ChkHostEntity>> present = localCache.getAllPresent(distinctIds);
+
+        List<String> missingIds = new ArrayList<>();
+        for (String hostId : distinctIds) {
+            if (!present.containsKey(hostId)) {
+                missingIds.add(hostId);
+            }
+        }
+        Map<String, List<ChkHostEntity>> loaded = missingIds.isEmpty()
+                ? Collections.emptyMap() : loadFromRemote(missingIds);
+        localCache.putAll(loaded);
+
+        List<ChkHostEntity> result = new ArrayList<>();
+        for (String hostId : distinctIds) {
+            List<ChkHostEntity> hosts = present.containsKey(hostId) ? present.get(hostId) : loaded.get(hostId);
+            if (hosts != null) {
+                result.addAll(hosts);
+            }
+        }
+        log.debug("主机信息缓存查询完成 - 请求数: {}, 本地命中: {}, 远程加载: {}, 结果数: {}",
+                distinctIds.size(), present.size(), loaded.size(), result.size());
+        return result;
+    }
+
+    /**
+     * 删除主机信息缓存，并通知所有节点清除本地缓存
+     *
+     * @param hostIds 主机ID集合
+     */
+    public void evict(Collection<String> hostIds) {
+        if (ObjectUtil.isEmpty(hostIds)) {
+            return;
+        }
+        stringRedisTemplate.opsForHash().delete(RedisKeyConstants.ItxCacheKey.CHK_HOST, hostIds.toArray());
+        hostIds.forEach(hostId ->
+                stringRedisTemplate.convertAndSend(RedisKeyConstants.ItxCacheKey.CHK_HOST_REFRESH_CHANNEL, hostId));
+    }
+
+    /**
+     * 删除全部主机信息缓存，并通知所有节点清除本地缓存
+     */
+    public void evictAll() {
+        stringRedisTemplate.delete(RedisKeyConstants.ItxCacheKey.CHK_HOST);
+        stringRedisTemplate.convertAndSend(RedisKeyConstants.ItxCacheKey.CHK_HOST_REFRESH_CHANNEL, INVALIDATE_ALL);
+    }
+
+    /**
+     * 清除本地缓存
+     *
+     * @param hostId 主机ID，为 {@link #INVALIDATE_ALL} 时清除全部
+     */
+    public void invalidateLocalCache(String hostId) {
+        try {
+            if (INVALIDATE_ALL.equals(hostId)) {
+                localCache.invalidateAll();
+                log.info("已清除全部主机信息本地缓存");
+            } else {
+                localCache.invalidate(hostId);
+                log.debug("已清除主机信息本地缓存，主机ID：{}", hostId);
+            }
+        } catch (Exception e) {
+            log.error("清除主机信息本地缓存失败，主机ID：{}, 异常信息:{}", hostId, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public ChkHostCacheStats getStats() {
+        CacheStats stats = localCache.stats();
+        long redisHits = redisHitCount.sum();
+        long redisMisses = redisMissCount.sum();
+        long redisRequests = redisHits + redisMisses;
+        return ChkHostCacheStats.builder()
+                .localSize(localCache.size())
+                .localHitCount(stats.hitCount())
+                .localMissCount(stats.missCount())
+                .localHitRate(stats.hitRate())
+                .localEvictionCount(stats.evictionCount())
+                .refreshCount(stats.loadCount())
+                .refreshRejectedCount(refreshRejectedCount.sum())
+                .redisHitCount(redisHits)
+                .redisMissCount(redisMisses)
+                .redisHitRate(redisRequests == 0 ? 1.0 : (double) redisHits / redisRequests)
+                .dbQueryCount(dbQueryCount.sum())
+                .dbQueryFailureCount(dbQueryFailureCount.sum())
+                .build();
+    }
+
+    /**
+     * 依次从 Redis、数据库加载主机信息，数据库查询结果回写 Redis
+     */
+    private Map<String, List<ChkHostEntity>> loadFromRemote(List<String> hostIds) {
+        Map<String, List<ChkHostEntity>> result = new HashMap<>(hostIds.size() * 2);
+        List<String> dbIds = new ArrayList<>();
+
+        List<Object> cached = getFromRedis(hostIds);
+        for (int i = 0; i < hostIds.size(); i++) {
+            Object json = cached != null ? cached.get(i) : null;
+            if (json == null) {
+                dbIds.add(hostIds.get(i));
+            } else {
+                result.put(hostIds.get(i), JSONUtil.toList((String) json, ChkHostEntity.class));
+            }
+        }
+        redisHitCount.add(hostIds.size() - dbIds.size());
+        redisMissCount.add(dbIds.size());
+        if (dbIds.isEmpty()) {
+            return result;
+        }
+
+        Map<String, List<ChkHostEntity>> fromDb = loadFromDb(dbIds);
+        putToRedis(fromDb);
+        result.putAll(fromDb);
+        return result;
+    }
+
+    /**
+     * 从数据库刷新单个主机信息并覆盖 Redis 中的条目，数据库中已不存在的主机从 Redis 中删除
+     */
+    private List<ChkHostEntity> refreshFromDb(String hostId) {
+        Map<String, List<ChkHostEntity>> fromDb = loadFromDb(Collections.singletonList(hostId));
+        List<ChkHostEntity> hosts = fromDb.get(hostId);
+        if (hosts == null) {
+            // 刷新失败时保留旧值
+            throw new IllegalStateException("主机信息刷新失败，主机ID：" + hostId);
+        }
+        if (hosts.isEmpty()) {
+            deleteFromRedis(hostId);
+        } else {
+            putToRedis(fromDb);
+        }
+        return hosts;
+    }
+
+    /**
+     * 分片并发查询数据库，查询失败的分片跳过且不写入结果
+     */
+    private Map<String, List<ChkHostEntity>> loadFromDb(List<String> hostIds) {
+        ChunkedQueryResult<ChkHostDO> queryResult = chkHostMapper.selectByHostIds(hostIds, dbBatchSize);
+        dbQueryCount.add(queryResult.getChunkCount());
+        dbQueryFailureCount.add(queryResult.getFailedChunkCount());
+        if (!queryResult.isComplete()) {
+            log.error("主机信息分片查询存在失败分片，跳过失败的主机ID，失败分片数: {}, 失败数量: {}",
+                    queryResult.getFailedChunkCount(), queryResult.getFailedValues().size());
+        }
+
+        Map<String, List<ChkHostEntity>> result = new LinkedHashMap<>();
+        Set<Object> failedIds = new HashSet<>(queryResult.getFailedValues());
+        // 数据库中不存在的 hostId 记为空列表
+        for (String hostId : hostIds) {
+            if (!failedIds.contains(hostId)) {
+                result.put(hostId, new ArrayList<>());
+            }
+        }
+        for (ChkHostDO chkHostDO : queryResult.getRecords()) {
+            List<ChkHostEntity> hosts = result.get(chkHostDO.getHostId());
+            if (hosts != null) {
+                hosts.add(ChkHostConvertor.INSTANCE.toEntity(chkHostDO));
+            }
+        }
+        return result;
+    }
+
+    private List<Object> getFromRedis(List<String> hostIds) {
+        try {
+            return stringRedisTemplate.opsForHash()
+                    .multiGet(RedisKeyConstants.ItxCacheKey.CHK_HOST, new ArrayList<>(hostIds));
+        } catch (Exception e) {
+            log.error("从Redis获取主机信息失败，降级查询数据库，数量: {}", hostIds.size(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 只回写数据库中存在的主机，不存在的 hostId 仅缓存在本地，避免 Redis 中堆积无效 field
+     */
+    private void putToRedis(Map<String, List<ChkHostEntity>> hosts) {
+        Map<String, String> values = new HashMap<>(hosts.size() * 2);
+        hosts.forEach((hostId, list) -> {
+            if (!list.isEmpty()) {
+                values.put(hostId, JSONUtil.toJsonStr(list));
+            }
+        });
+        if (values.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForHash().putAll(RedisKeyConstants.ItxCacheKey.CHK_HOST, values);
+            // 仅在 Hash 首次创建时设置过期时间，使整个 Hash 定期重建，限制数据库变更未通知时的不一致时长
+            Long ttl = stringRedisTemplate.getExpire(RedisKeyConstants.ItxCacheKey.CHK_HOST);
+            if (ttl == null || ttl < 0) {
+                stringRedisTemplate.expire(RedisKeyConstants.ItxCacheKey.CHK_HOST, redisExpireHours, TimeUnit.HOURS);
+            }
+        } catch (Exception e) {
+            log.error("主机信息回写Redis失败，数量: {}", values.size(), e);
+        }
+    }
+
+    private void deleteFromRedis(String hostId) {
+        try {
+            stringRedisTemplate.opsForHash().delete(RedisKeyConstants.ItxCacheKey.CHK_HOST, hostId);
+        } catch (Exception e) {
+            log.error("删除Redis中的主机信息失败，主机ID：{}", hostId, e);
+        }
+    }
+}
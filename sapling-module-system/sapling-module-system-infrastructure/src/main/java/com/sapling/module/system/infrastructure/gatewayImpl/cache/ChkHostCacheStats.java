@@ -0,0 +1,74 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 主机信息缓存统计
+ *
+ * @author mbws
+ */
+@Data
+@Builder
+public class ChkHostCacheStats {
+
+    /**
+     * 本地缓存条目数
+     */
+    private long localSize;
+
+    /**
+     * 本地缓存命中次数
+     */
+    private long localHitCount;
+
+    /**
+     * 本地缓存未命中次数
+     */
+    private long localMissCount;
+
+    /**
+     * 本地缓存命中率（0.0 - 1.0）
+     */
+    private double localHitRate;
+
+    /**
+     * 本地缓存因容量或过期被淘汰的条目数
+     */
+    private long localEvictionCount;
+
+    /**
+     * 本地缓存异步刷新次数
+     */
+    private long refreshCount;
+
+    /**
+     * 刷新线程池满载而放弃的刷新次数
+     */
+    private long refreshRejectedCount;
+
+    /**
+     * Redis 命中的 hostId 数
+     */
+    private long redisHitCount;
+
+    /**
+     * Redis 未命中的 hostId 数
+     */
+    private long redisMissCount;
+
+    /**
+     * Redis 命中率（0.0 - 1.0）
+     */
+    private double redisHitRate;
+
+    /**
+     * 数据库查询次数（按分片计）
+     */
+    private long dbQueryCount;
+
+    /**
+     * 数据库查询失败次数（按分片计）
+     */
+    private long dbQueryFailureCount;
+}
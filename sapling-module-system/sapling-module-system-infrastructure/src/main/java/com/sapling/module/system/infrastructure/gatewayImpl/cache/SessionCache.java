@@ -0,0 +1,299 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sapling.module.system.client.components.rc.ItxCoreRequestClient;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.common.framework.interceptors.SessionInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 会话校验缓存
+ * <p>
+ * 以 session_id 为 key 缓存平台返回的登录信息与解析后的菜单权限编码，已登录的会话缓存 {@code ttl-seconds}，
+ * 未登录的会话缓存 {@code negative-ttl-seconds}。同一 session_id 并发未命中时只有一个线程请求平台，其余线程等待其结果；
+ * 请求平台失败时不缓存，异常直接抛出。
+ * <p>
+ * 保活请求异步发送：同一 session_id 在 {@code keep-alive-interval-seconds} 内只发送一次，
+ * 整体发送速率与并发数受限，超出时跳过，由后续请求补发。平台记录的最后活动时间因此最多滞后一个保活间隔，
+ * 会话的实际空闲超时相应缩短，保活间隔不超过平台会话空闲超时 {@code core-idle-timeout-seconds} 的 1/10，
+ * 配置值超过时按上限执行。
+ * <p>
+ * 会话注销与权限变更由平台处理，本服务不经过这些操作。平台向
+ * {@link RedisKeyConstants.ItxCacheKey#SESSION_REFRESH_CHANNEL} 发布 session_id（或 {@link #INVALIDATE_ALL}）后
+ * 所有节点立即清除本地缓存；未发布时，已注销会话仍可通过校验、权限变更不生效，最长持续 {@code ttl-seconds}。
+ * 本服务内需要立即生效时调用 {@link #evict(String)} 或 {@link #evictAll()}。
+ *
+ * @author mbws
+ */
+@Slf4j
+@Component
+public class SessionCache {
+
+    /**
+     * 通知清除全部本地缓存的消息
+     */
+    public static final String INVALIDATE_ALL = "*";
+
+    @Resource
+    private ItxCoreRequestClient itxCoreRequestClient;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource(name = "sessionKeepAliveExecutor")
+    private ThreadPoolTaskExecutor sessionKeepAliveExecutor;
+
+    @Value("${sapling.cache.session.max-size:10000}")
+    private long maxSize;
+
+    @Value("${sapling.cache.session.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${sapling.cache.session.negative-ttl-seconds:5}")
+    private long negativeTtlSeconds;
+
+    @Value("${sapling.cache.session.keep-alive-interval-seconds:60}")
+    private long keepAliveIntervalSeconds;
+
+    /**
+     * 平台会话空闲超时，小于等于 0 时不限制保活间隔
+     */
+    @Value("${sapling.cache.session.core-idle-timeout-seconds:1800}")
+    private long coreIdleTimeoutSeconds;
+
+    @Value("${sapling.cache.session.keep-alive-permits-per-second:50}")
+    private double keepAlivePermitsPerSecond;
+
+    @Value("${sapling.cache.session.keep-alive-max-in-flight:16}")
+    private int keepAliveMaxInFlight;
+
+    private Cache<String, CachedSession> sessions;
+
+    /**
+     * 保活间隔内已发送保活请求的 session_id
+     */
+    private Cache<String, Boolean> keepAliveSent;
+
+    private RateLimiter keepAliveLimiter;
+
+    private final AtomicInteger keepAliveInFlight = new AtomicInteger();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder keepAliveSentCount = new LongAdder();
+    private final LongAdder keepAliveCoalescedCount = new LongAdder();
+    private final LongAdder keepAliveSkippedCount = new LongAdder();
+    private final LongAdder keepAliveFailureCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        keepAliveIntervalSeconds = effectiveKeepAliveInterval(keepAliveIntervalSeconds, coreIdleTimeoutSeconds);
+        sessions = CacheBuilder.newBuilder()
+                // 最大并发级别为CPU核心数
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                // 最大缓存Key个数
+                .maximumSize(maxSize)
+                // 未登录会话的较短有效期在读取时判断
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        keepAliveSent = CacheBuilder.newBuilder()
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .maximumSize(maxSize)
+                .expireAfterWrite(keepAliveIntervalSeconds, TimeUnit.SECONDS)
+                .build();
+        keepAliveLimiter = RateLimiter.create(keepAlivePermitsPerSecond);
+        log.info("会话校验缓存初始化完成 - 最大条目: {}, 有效期: {}s, 未登录有效期: {}s, 保活间隔: {}s, 平台会话空闲超时: {}s",
+                maxSize, ttlSeconds, negativeTtlSeconds, keepAliveIntervalSeconds, coreIdleTimeoutSeconds);
+    }
+
+    /**
+     * 保活间隔不超过平台会话空闲超时的 1/10，且至少 1 秒
+     */
+    static long effectiveKeepAliveInterval(long configuredSeconds, long coreIdleTimeoutSeconds) {
+        long interval = Math.max(1, configuredSeconds);
+        if (coreIdleTimeoutSeconds <= 0) {
+            return interval;
+        }
+        long limit = Math.max(1, coreIdleTimeoutSeconds / 10);
+        if (interval > limit) {
+            log.warn("会话保活间隔 {}s 超过平台会话空闲超时 {}s 的 1/10，按 {}s 执行", configuredSeconds, coreIdleTimeoutSeconds, limit);
+            return limit;
+        }
+        return interval;
+    }
+
+    /**
+     * 获取会话校验结果，未命中时请求平台
+     *
+     * @param sessionId session_id，可为空字符串
+     * @param zmct      当前系统参数 zmct
+     */
+    public CachedSession get(String sessionId, String zmct) {
+        CachedSession cached = sessions.getIfPresent(sessionId);
+        if (cached != null && !isStale(cached, zmct)) {
+            return cached;
+        }
+        if (cached != null) {
+            // 只移除读到的旧条目，避免误删其他线程刚加载的结果
+            sessions.asMap().remove(sessionId, cached);
+        }
+        try {
+            return sessions.get(sessionId, () -> load(sessionId, zmct));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            loadFailureCount.increment();
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("会话校验失败", e.getCause());
+        }
+    }
+
+    /**
+     * 异步保活，同一 session_id 在保活间隔内只发送一次
+     */
+    public void keepAlive(String sessionId, String zmct) {
+        if (keepAliveSent.asMap().putIfAbsent(sessionId, Boolean.TRUE) != null) {
+            keepAliveCoalescedCount.increment();
+            return;
+        }
+        if (keepAliveInFlight.get() >= keepAliveMaxInFlight || !keepAliveLimiter.tryAcquire()) {
+            // 本次跳过，由该会话的后续请求补发
+            keepAliveSent.invalidate(sessionId);
+            keepAliveSkippedCount.increment();
+            return;
+        }
+        keepAliveInFlight.incrementAndGet();
+        try {
+            sessionKeepAliveExecutor.execute(() -> {
+                try {
+                    itxCoreRequestClient.keepSession(sessionId, zmct);
+                    keepAliveSentCount.increment();
+                } catch (Exception e) {
+                    keepAliveSent.invalidate(sessionId);
+                    keepAliveFailureCount.increment();
+                    log.warn("会话保活失败，session: {}", sessionId, e);
+                } finally {
+                    keepAliveInFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            keepAliveInFlight.decrementAndGet();
+            keepAliveSent.invalidate(sessionId);
+            keepAliveSkippedCount.increment();
+        }
+    }
+
+    /**
+     * 通知所有节点清除会话缓存
+     *
+     * @param sessionId session_id
+     */
+    public void evict(String sessionId) {
+        stringRedisTemplate.convertAndSend(RedisKeyConstants.ItxCacheKey.SESSION_REFRESH_CHANNEL, sessionId);
+    }
+
+    /**
+     * 通知所有节点清除全部会话缓存
+     */
+    public void evictAll() {
+        stringRedisTemplate.convertAndSend(RedisKeyConstants.ItxCacheKey.SESSION_REFRESH_CHANNEL, INVALIDATE_ALL);
+    }
+
+    /**
+     * 清除本地缓存
+     *
+     * @param sessionId session_id，为 {@link #INVALIDATE_ALL} 时清除全部
+     */
+    public void invalidateLocalCache(String sessionId) {
+        try {
+            if (INVALIDATE_ALL.equals(sessionId)) {
+                sessions.invalidateAll();
+                keepAliveSent.invalidateAll();
+                log.info("已清除全部会话本地缓存");
+            } else {
+                sessions.invalidate(sessionId);
+                keepAliveSent.invalidate(sessionId);
+                log.debug("已清除会话本地缓存，session: {}", sessionId);
+            }
+        } catch (Exception e) {
+            log.error("清除会话本地缓存失败，session：{}, 异常信息:{}", sessionId, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public SessionCacheStats getStats() {
+        CacheStats stats = sessions.stats();
+        return SessionCacheStats.builder()
+                .size(sessions.size())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .loadCount(stats.loadCount())
+                .loadFailureCount(loadFailureCount.sum())
+                .keepAliveSentCount(keepAliveSentCount.sum())
+                .keepAliveCoalescedCount(keepAliveCoalescedCount.sum())
+                .keepAliveSkippedCount(keepAliveSkippedCount.sum())
+                .keepAliveFailureCount(keepAliveFailureCount.sum())
+                .build();
+    }
+
+    private boolean isStale(CachedSession session, String zmct) {
+        if (!Objects.equals(session.getZmct(), zmct)) {
+            return true;
+        }
+        return !session.isLoggedIn()
+                && System.currentTimeMillis() - session.getLoadedAt() >= TimeUnit.SECONDS.toMillis(negativeTtlSeconds);
+    }
+
+    private CachedSession load(String sessionId, String zmct) {
+        String account = itxCoreRequestClient.currentLoginInfo(sessionId, zmct);
+        boolean loggedIn = StringUtils.isNotEmpty(account) && !account.contains(SessionInterceptor.OFF_LINE);
+        return new CachedSession(account, loggedIn, parsePermissionCodes(sessionId, account), zmct,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * 解析登录信息中逗号分隔的菜单权限编码
+     */
+    private Set<String> parsePermissionCodes(String sessionId, String account) {
+        if (StringUtils.isEmpty(account)) {
+            return null;
+        }
+        try {
+            JSONObject userInfo = JSONObject.parseObject(account);
+            String permissionCode = userInfo == null ? null : userInfo.getString("permission_code");
+            if (permissionCode == null) {
+                return null;
+            }
+            return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(permissionCode.split(","))));
+        } catch (Exception e) {
+            log.warn("解析登录信息失败，session: {} account: {}", sessionId, account);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 会话校验缓存统计
+ *
+ * @author mbws
+ */
+@Data
+@Builder
+public class SessionCacheStats {
+
+    /**
+     * 缓存条目数
+     */
+    private long size;
+
+    /**
+     * 缓存命中次数
+     */
+    private long hitCount;
+
+    /**
+     * 缓存未命中次数
+     */
+    private long missCount;
+
+    /**
+     * 缓存命中率（0.0 - 1.0）
+     */
+    private double hitRate;
+
+    /**
+     * 远程校验次数
+     */
+    private long loadCount;
+
+    /**
+     * 远程校验失败次数
+     */
+    private long loadFailureCount;
+
+    /**
+     * 已发送的保活请求数
+     */
+    private long keepAliveSentCount;
+
+    /**
+     * 保活间隔内被合并的保活请求数
+     */
+    private long keepAliveCoalescedCount;
+
+    /**
+     * 因限流或并发上限被跳过的保活请求数
+     */
+    private long keepAliveSkippedCount;
+
+    /**
+     * 保活失败次数
+     */
+    private long keepAliveFailureCount;
+}
@@ -1,11 +1,11 @@
 package com.sapling.module.system.infrastructure.gatewayImpl.database.mapper;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryOptions;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryResult;
 import com.sapling.module.system.infrastructure.gatewayImpl.database.dataobject.ChkHostDO;
 import com.sapling.frame.mybatis.core.mapper.BaseMapperX;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
 
 /**
  * 主机检查Mapper接口
@@ -16,18 +16,18 @@ import java.util.List;
 public interface ChkHostMapper extends BaseMapperX<ChkHostDO> {
     
     /**
-     * 根据主机ID集合批量查询主机信息
+     * 根据主机ID集合分片并发查询主机信息，失败的分片跳过并记录在结果中
      * 
      * @param hostIds 主机ID集合
-     * @return 主机列表
+     * @param chunkSize 分片大小，小于等于 0 时使用默认值
+     * @return 主机列表及失败的主机ID
      */
-    default List<ChkHostDO> selectByHostIds(List<String> hostIds) {
-        if (hostIds == null || hostIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-        return selectList(new LambdaQueryWrapper<ChkHostDO>()
-                .in(ChkHostDO::getHostId, hostIds));
+    default ChunkedQueryResult<ChkHostDO> selectByHostIds(Collection<String> hostIds, int chunkSize) {
+        return selectListByChunks(ChkHostDO::getHostId, hostIds, ChunkedQueryOptions.<ChkHostDO>create()
+                .chunkSize(chunkSize)
+                .partial()
+                .select(ChkHostDO::getId, ChkHostDO::getHostName, ChkHostDO::getHostId));
     }
 
 
-}
\ No newline at end of file
+}
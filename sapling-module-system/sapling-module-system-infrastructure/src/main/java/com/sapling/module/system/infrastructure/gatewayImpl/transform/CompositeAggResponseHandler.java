@@ -0,0 +1,221 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.transform;
+
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONToken;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.util.EntityUtils;
+import org.frameworkset.elasticsearch.ElasticSearchException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 复合聚合响应流式解析器
+ * <p>
+ * 直接从响应字节流逐个读取 token，只物化 {@code aggregations.by_host_file.buckets[*].one.hits.hits[0]._source}
+ * 与 {@code after_key}，其余节点读取后即丢弃，不构建整个响应的 JSON 树。
+ * 路径上任一节点为 {@code null} 时按缺失处理，例如 {@code "buckets": null} 视为没有桶。
+ *
+ * @author yuanjifan
+ */
+class CompositeAggResponseHandler implements ResponseHandler<CompositeAggResponseHandler.Page> {
+
+    private static final String AGG_NAME = "by_host_file";
+    private static final String TOP_HITS_NAME = "one";
+
+    @Override
+    public Page handleResponse(HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        int status = response.getStatusLine().getStatusCode();
+        if (status >= 300) {
+            String body = entity != null ? EntityUtils.toString(entity, StandardCharsets.UTF_8) : null;
+            throw new ElasticSearchException("ES composite aggregation request failed, status: " + status + ", body: " + body);
+        }
+
+        Page page = new Page();
+        if (entity == null) {
+            return page;
+        }
+        try (NullAwareReader reader = new NullAwareReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+            readFields(reader, key -> {
+                if (!"aggregations".equals(key)) {
+                    return false;
+                }
+                readFields(reader, aggName -> {
+                    if (!AGG_NAME.equals(aggName)) {
+                        return false;
+                    }
+                    readComposite(reader, page);
+                    return true;
+                });
+                return true;
+            });
+        }
+        return page;
+    }
+
+    private void readComposite(NullAwareReader reader, Page page) {
+        readFields(reader, key -> {
+            if ("after_key".equals(key)) {
+                page.afterKey = reader.readObject(JSONObject.class);
+                return true;
+            }
+            if ("buckets".equals(key)) {
+                if (reader.skipNull()) {
+                    return true;
+                }
+                reader.startArray();
+                while (reader.hasNext()) {
+                    readBucket(reader, page);
+                }
+                reader.endArray();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * bucket.one.hits.hits[0]._source
+     */
+    private void readBucket(NullAwareReader reader, Page page) {
+        readFields(reader, key -> {
+            if (!TOP_HITS_NAME.equals(key)) {
+                return false;
+            }
+            readFields(reader, topHitsKey -> {
+                if (!"hits".equals(topHitsKey)) {
+                    return false;
+                }
+                readFields(reader, hitsKey -> {
+                    if (!"hits".equals(hitsKey)) {
+                        return false;
+                    }
+                    readFirstSource(reader, page);
+                    return true;
+                });
+                return true;
+            });
+            return true;
+        });
+    }
+
+    private void readFirstSource(NullAwareReader reader, Page page) {
+        if (reader.skipNull()) {
+            return;
+        }
+        reader.startArray();
+        boolean first = true;
+        while (reader.hasNext()) {
+            if (!first) {
+                reader.readObject();
+                continue;
+            }
+            first = false;
+            readFields(reader, hitKey -> {
+                if (!"_source".equals(hitKey)) {
+                    return false;
+                }
+                JSONObject source = reader.readObject(JSONObject.class);
+                if (source != null) {
+                    page.sources.add(source);
+                }
+                return true;
+            });
+        }
+        reader.endArray();
+    }
+
+    /**
+     * 遍历当前对象的字段，未被处理的字段值直接跳过；当前值为 null 时视为没有字段
+     */
+    private static void readFields(NullAwareReader reader, FieldHandler handler) {
+        if (reader.skipNull()) {
+            return;
+        }
+        reader.startObject();
+        while (reader.hasNext()) {
+            String key = reader.readString();
+            if (!handler.handle(key)) {
+                reader.readObject();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * 可预读下一个值是否为 null 的读取器
+     * <p>
+     * {@link JSONReader} 在字段名与数组元素之后会先停在冒号或逗号上，{@link #peek()} 看不到值本身的 token，
+     * 因此直接查看词法分析器的下一个字符。
+     */
+    private static final class NullAwareReader extends JSONReader {
+
+        private final JSONLexer lexer;
+
+        private NullAwareReader(Reader in) {
+            this(new JSONReaderScanner(in));
+        }
+
+        private NullAwareReader(JSONLexer lexer) {
+            super(lexer);
+            this.lexer = lexer;
+        }
+
+        /**
+         * 下一个值为 null 时读取并丢弃
+         *
+         * @return 下一个值是否为 null
+         */
+        boolean skipNull() {
+            int token = lexer.token();
+            boolean isNull;
+            if (token == JSONToken.COLON || token == JSONToken.COMMA) {
+                lexer.skipWhitespace();
+                isNull = lexer.getCurrent() == 'n';
+            } else {
+                isNull = token == JSONToken.NULL;
+            }
+            if (isNull) {
+                readObject();
+            }
+            return isNull;
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldHandler {
+
+        /**
+         * @param key 字段名
+         * @return 是否已读取该字段的值
+         */
+        boolean handle(String key);
+    }
+
+    /**
+     * 一页复合聚合结果
+     */
+    static class Page {
+
+        private final List<JSONObject> sources = new ArrayList<>();
+        private JSONObject afterKey;
+
+        List<JSONObject> getSources() {
+            return sources;
+        }
+
+        JSONObject getAfterKey() {
+            return afterKey;
+        }
+    }
+}
@@ -1,19 +1,34 @@
 package com.sapling.module.system.infrastructure.gatewayImpl.transform;
 
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import com.sapling.framework.kafka.core.helper.KafkaBatchSendResult;
+import com.sapling.framework.kafka.core.helper.KafkaTemplateHelper;
 import lombok.extern.slf4j.Slf4j;
 import com.sapling.module.system.domain.biz.transform.gateway.TransformGateway;
 import com.sapling.module.system.infrastructure.common.constants.KafkaTopicConstants;
+import org.frameworkset.elasticsearch.ElasticSearchException;
 import org.frameworkset.elasticsearch.boot.BBossESStarter;
 import org.frameworkset.elasticsearch.client.ClientInterface;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.Resource;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * @author yuanjifan
@@ -27,98 +42,179 @@ public class TransformGatewayImpl implements TransformGateway {
     @Resource(name = "shsjKafkaTemplate")
     private KafkaTemplate kafkaTemplate;
 
+    /**
+     * 文件判定链路生产者配置档对应的 kafka template，值为预先序列化的字节数组
+     */
+    @Resource(name = "shsjFileJudgeKafkaTemplate")
+    private KafkaTemplate<String, byte[]> fileJudgeKafkaTemplate;
+
+    @Resource
+    private KafkaTemplateHelper<String, byte[]> kafkaTemplateHelper;
+
     @Resource
     public BBossESStarter bossESStarter;
 
     public String xmlPath = "esmapper/gj_zfmg_2_1_4.xml";
 
+    @Resource(name = "esScanExecutor")
+    private ThreadPoolTaskExecutor esScanExecutor;
+
+    /**
+     * 单个扫描分片的 fileCode 数量
+     */
+    @Value("${sapling.es.scan.shard-size:500}")
+    private int scanShardSize;
+
+    /**
+     * 单次扫描的最大并发分片数
+     */
+    @Value("${sapling.es.scan.parallelism:4}")
+    private int scanParallelism;
+
+    /**
+     * 批量发送的最大未确认消息数
+     */
+    @Value("${sapling.kafka.flow-send.max-in-flight:1000}")
+    private int sendMaxInFlight;
+
+    /**
+     * 批量发送等待全部确认的超时时间（毫秒）
+     */
+    @Value("${sapling.kafka.flow-send.timeout-ms:30000}")
+    private long sendTimeoutMillis;
+
+    /**
+     * 失败子集的重发次数
+     */
+    @Value("${sapling.kafka.flow-send.retries:2}")
+    private int sendRetries;
+
+    /**
+     * 重发间隔（毫秒），按重发次数递增
+     */
+    @Value("${sapling.kafka.flow-send.retry-backoff-ms:200}")
+    private long sendRetryBackoffMillis;
+
+    /**
+     * 一次批量发送的总耗时上限（毫秒），包含所有重发与重发间隔
+     */
+    @Value("${sapling.kafka.flow-send.total-timeout-ms:30000}")
+    private long sendTotalTimeoutMillis;
+
 
     @Override
     public List<JSONObject> getWJFileInfoByFileCode(List<String> fileCode) {
         List<JSONObject> result = new ArrayList<>();
-        if (fileCode == null || fileCode.isEmpty()) {
-            return result;
-        }
-        try {
-            ClientInterface clientUtil = this.bossESStarter.getConfigRestClient(this.xmlPath);
-
-            // 首次请求（无 afterKey）
-            java.util.Map<String, Object> params = new java.util.HashMap<>();
-            params.put("fileCodes", fileCode);
-            String resp = clientUtil.executeRequest("gj_zfmg_2_1_4_group*/_search","queryWJChildByFileCodeWithAfter", params);
-            JSONObject afterKey = parseAggAndCollect(resp, result);
-
-            // 迭代翻页，请求直到没有 after_key
-            while (afterKey != null && !afterKey.isEmpty()) {
-                java.util.Map<String, Object> nextParams = new java.util.HashMap<>();
-                nextParams.put("fileCodes", fileCode);
-                nextParams.put("afterKey", afterKey);
-                String nextResp = clientUtil.executeRequest("gj_zfmg_2_1_4_group*/_search","queryWJChildByFileCodeWithAfter", nextParams);
-                afterKey = parseAggAndCollect(nextResp, result);
-            }
-        } catch (Exception e) {
-            log.error("getWJFileInfoByFileCode error: {}", e.getMessage(), e);
-        }
+        scanWJFileInfoByFileCode(fileCode, result::addAll);
         return result;
     }
 
     @Override
     public List<JSONObject> getMGFileInfoByFileCode(List<String> fileCode) {
         List<JSONObject> result = new ArrayList<>();
+        scanMGFileInfoByFileCode(fileCode, result::addAll);
+        return result;
+    }
+
+    @Override
+    public void scanWJFileInfoByFileCode(List<String> fileCode, Consumer<List<JSONObject>> pageConsumer) {
+        scanFileInfo("gj_zfmg_2_1_4_group*/_search", "queryWJChildByFileCodeWithAfter", fileCode, pageConsumer);
+    }
+
+    @Override
+    public void scanMGFileInfoByFileCode(List<String> fileCode, Consumer<List<JSONObject>> pageConsumer) {
+        scanFileInfo("gj_zfmg_2_1_4/_search", "queryChildByFileCodeWithAfter", fileCode, pageConsumer);
+    }
+
+    /**
+     * 按 fileCode 分片扫描复合聚合，每个分片独立按 after_key 翻页；分片数大于1时由
+     * 至多 scanParallelism 个任务并发拉取分片，每页结果解析后立即交给消费者。
+     * 复合聚合按 hostId+filepath+fileCode 分桶，而各分片的 fileCode 互不相交，因此同一个桶只会出现在一个分片中，
+     * 分片扫描不会产生重复的文件信息，结果与不分片时相同，仅顺序不同。
+     * 任一分片失败时其余任务不再领取新分片，异常抛给调用方整体重试；失败前已交给消费者的页不会撤回。
+     *
+     * @throws ElasticSearchException ES 客户端获取失败或任一分片扫描失败
+     */
+    private void scanFileInfo(String path, String dslName, List<String> fileCode, Consumer<List<JSONObject>> pageConsumer) {
         if (fileCode == null || fileCode.isEmpty()) {
-            return result;
+            return;
         }
+        ClientInterface clientUtil;
         try {
-            ClientInterface clientUtil = this.bossESStarter.getConfigRestClient(this.xmlPath);
-
-            // 首次请求（无 afterKey）
-            java.util.Map<String, Object> params = new java.util.HashMap<>();
-            params.put("fileCodes", fileCode);
-            String resp = clientUtil.executeRequest("gj_zfmg_2_1_4/_search","queryChildByFileCodeWithAfter", params);
-            JSONObject afterKey = parseAggAndCollect(resp, result);
-
-            // 迭代翻页，请求直到没有 after_key
-            while (afterKey != null && !afterKey.isEmpty()) {
-                java.util.Map<String, Object> nextParams = new java.util.HashMap<>();
-                nextParams.put("fileCodes", fileCode);
-                nextParams.put("afterKey", afterKey);
-                String nextResp = clientUtil.executeRequest("gj_zfmg_2_1_4/_search","queryChildByFileCodeWithAfter", nextParams);
-                afterKey = parseAggAndCollect(nextResp, result);
-            }
+            clientUtil = this.bossESStarter.getConfigRestClient(this.xmlPath);
         } catch (Exception e) {
-            log.error("getMGFileInfoByFileCode error: {}", e.getMessage(), e);
+            throw new ElasticSearchException(dslName + " 获取ES客户端失败: " + e.getMessage(), e);
         }
-        return result;
+        Object consumerLock = new Object();
+        Consumer<List<JSONObject>> serialConsumer = page -> {
+            synchronized (consumerLock) {
+                pageConsumer.accept(page);
+            }
+        };
+
+        List<List<String>> shards = Lists.partition(fileCode.stream().distinct().collect(Collectors.toList()), scanShardSize);
+        if (shards.size() == 1 || scanParallelism <= 1) {
+            shards.forEach(shard -> scanShard(clientUtil, path, dslName, shard, serialConsumer));
+            return;
+        }
+
+        // 分片队列由固定数量的任务竞争消费，限制单次扫描的并发度
+        Queue<List<String>> pendingShards = new ConcurrentLinkedQueue<>(shards);
+        AtomicBoolean failed = new AtomicBoolean();
+        int workers = Math.min(scanParallelism, shards.size());
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+        for (int i = 0; i < workers; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> {
+                List<String> shard;
+                while (!failed.get() && (shard = pendingShards.poll()) != null) {
+                    try {
+                        scanShard(clientUtil, path, dslName, shard, serialConsumer);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+            }, esScanExecutor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        log.info("ES分片并发扫描完成 - dsl: {}, fileCodes数量: {}, 分片数: {}, 并发数: {}",
+                dslName, fileCode.size(), shards.size(), workers);
     }
 
     /**
-     * 解析聚合结果，收集每个分组的 top_hits 第一条 _source 到 result，并返回 after_key（如存在）。
+     * 单个分片按 after_key 迭代翻页，直到没有 after_key
+     *
+     * @throws ElasticSearchException 请求或解析失败，消费者抛出的异常原样抛出
      */
-    private JSONObject parseAggAndCollect(String resp, List<JSONObject> result) {
-        if (resp == null || resp.isEmpty()) {
-            return null;
-        }
-        JSONObject json = JSON.parseObject(resp);
-        JSONObject aggs = json.getJSONObject("aggregations");
-        if (aggs == null) return null;
-        JSONObject by = aggs.getJSONObject("by_host_file");
-        if (by == null) return null;
-        JSONArray buckets = by.getJSONArray("buckets");
-        if (buckets != null) {
-            for (Object b : buckets) {
-                JSONObject bucket = (JSONObject) b;
-                JSONObject one = bucket.getJSONObject("one");
-                if (one == null) continue;
-                JSONObject hits = one.getJSONObject("hits");
-                if (hits == null) continue;
-                JSONArray subHits = hits.getJSONArray("hits");
-                if (subHits == null || subHits.isEmpty()) continue;
-                JSONObject hit = subHits.getJSONObject(0);
-                JSONObject source = hit.getJSONObject("_source");
-                if (source != null) result.add(source);
+    private void scanShard(ClientInterface clientUtil, String path, String dslName, List<String> fileCodes,
+                           Consumer<List<JSONObject>> pageConsumer) {
+        JSONObject afterKey = null;
+        do {
+            Map<String, Object> params = new HashMap<>();
+            params.put("fileCodes", fileCodes);
+            if (afterKey != null) {
+                params.put("afterKey", afterKey);
             }
-        }
-        return by.getJSONObject("after_key");
+            CompositeAggResponseHandler.Page page;
+            try {
+                page = clientUtil.executeRequest(path, dslName, params, new CompositeAggResponseHandler());
+            } catch (RuntimeException e) {
+                log.error("{} 分片扫描失败 - fileCodes数量: {}, error: {}", dslName, fileCodes.size(), e.getMessage(), e);
+                throw e instanceof ElasticSearchException ? e
+                        : new ElasticSearchException(dslName + " 分片扫描失败: " + e.getMessage(), e);
+            }
+            afterKey = page.getAfterKey();
+            if (!page.getSources().isEmpty()) {
+                pageConsumer.accept(page.getSources());
+            }
+        } while (afterKey != null && !afterKey.isEmpty());
     }
 
     @Override
@@ -128,4 +224,82 @@ public class TransformGatewayImpl implements TransformGateway {
                 ex -> log.error("MBWS文件判定消息发送异常-topic：{}，error：{}", KafkaTopicConstants.MBWS_FILE_ALARM_TARGET_TOPIC, ex.getMessage(), ex));
 
     }
+
+    @Override
+    public List<String> sendMessages(List<String> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String topic = KafkaTopicConstants.MBWS_FILE_ALARM_TARGET_TOPIC;
+        // 只编码一次，重发时复用
+        List<byte[]> pending = new ArrayList<>(messages.size());
+        List<Integer> pendingIndexes = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            pending.add(messages.get(i).getBytes(StandardCharsets.UTF_8));
+            pendingIndexes.add(i);
+        }
+
+        // 调用方（消费线程）最多阻塞 total-timeout-ms：每次发送的等待时间与重发间隔都不超过剩余预算
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTotalTimeoutMillis);
+        for (int attempt = 0; attempt <= sendRetries && !pending.isEmpty(); attempt++) {
+            if (attempt > 0 && !sleepBeforeRetry(attempt, deadline)) {
+                log.warn("MBWS文件判定消息批量发送已用完总耗时预算{}ms，停止重发-topic：{}，第{}次发送前，待发送：{}",
+                        sendTotalTimeoutMillis, topic, attempt + 1, pending.size());
+                break;
+            }
+            long attemptTimeoutMillis = Math.min(sendTimeoutMillis, remainingMillis(deadline));
+            if (attemptTimeoutMillis <= 0) {
+                break;
+            }
+            KafkaBatchSendResult<byte[]> result = kafkaTemplateHelper.batchSend(
+                    fileJudgeKafkaTemplate, topic, pending, sendMaxInFlight, attemptTimeoutMillis);
+            if (result.isAllSucceeded()) {
+                log.info("MBWS文件判定消息批量发送完成-topic：{}，第{}次发送，成功：{}", topic, attempt + 1, result.getSuccessCount());
+            } else {
+                Throwable error = result.getFirstError();
+                log.warn("MBWS文件判定消息批量发送部分失败-topic：{}，第{}次发送，成功：{}，失败：{}，error：{}",
+                        topic, attempt + 1, result.getSuccessCount(), result.getFailedIndexes().size(),
+                        error != null ? error.getMessage() : null, error);
+            }
+            List<Integer> failedIndexes = new ArrayList<>(result.getFailedIndexes().size());
+            for (Integer failedIndex : result.getFailedIndexes()) {
+                failedIndexes.add(pendingIndexes.get(failedIndex));
+            }
+            pendingIndexes = failedIndexes;
+            pending = result.getFailedMessages();
+        }
+
+        List<String> failedMessages = new ArrayList<>(pendingIndexes.size());
+        for (Integer index : pendingIndexes) {
+            failedMessages.add(messages.get(index));
+        }
+        if (!failedMessages.isEmpty()) {
+            log.error("MBWS文件判定消息批量发送失败-topic：{}，最多重发{}次、总耗时上限{}ms，仍失败：{}",
+                    topic, sendRetries, sendTotalTimeoutMillis, failedMessages.size());
+        }
+        return failedMessages;
+    }
+
+    /**
+     * 重发前等待，剩余预算不足以完成等待时不再重发
+     *
+     * @return 是否继续重发
+     */
+    private boolean sleepBeforeRetry(int attempt, long deadline) {
+        long backoffMillis = sendRetryBackoffMillis * attempt;
+        if (backoffMillis >= remainingMillis(deadline)) {
+            return false;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(backoffMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
 }
@@ -0,0 +1,167 @@
+package com.sapling.module.system.infrastructure.common.framework.filters;
+
+import com.sapling.framework.common.exception.BusinessException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CachedBodyRequestWrapper} 测试：请求体可通过 getInputStream 与 getReader 重复读取，
+ * 读取监听器收到可读与读取完成通知，以及声明长度与分块传输的请求体超限时被拒绝。
+ *
+ * @author yuanjifan
+ */
+class CachedBodyRequestWrapperTest {
+
+    private static final String BODY = "{\"name\":\"张三\",\"remark\":\"第二行\\n\"}";
+
+    @Test
+    void bodyCanBeReadRepeatedlyThroughStreamAndReader() throws IOException {
+        MockHttpServletRequest request = jsonRequest(BODY.getBytes(StandardCharsets.UTF_8));
+        request.setCharacterEncoding("UTF-8");
+
+        CachedBodyRequestWrapper wrapper = new CachedBodyRequestWrapper(request, 1024);
+
+        for (int i = 0; i < 2; i++) {
+            ServletInputStream input = wrapper.getInputStream();
+            assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), input.readAllBytes());
+            assertTrue(input.isFinished());
+            assertEquals(BODY, read(wrapper.getReader()));
+        }
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), wrapper.getBody());
+    }
+
+    @Test
+    void readerUsesRequestCharacterEncoding() throws IOException {
+        MockHttpServletRequest request = jsonRequest(BODY.getBytes("GBK"));
+        request.setCharacterEncoding("GBK");
+
+        CachedBodyRequestWrapper wrapper = new CachedBodyRequestWrapper(request, 1024);
+
+        assertEquals(BODY, read(wrapper.getReader()));
+        assertEquals(BODY, read(wrapper.getReader()));
+    }
+
+    @Test
+    void readListenerIsNotifiedImmediately() throws IOException {
+        CachedBodyRequestWrapper wrapper = new CachedBodyRequestWrapper(
+                jsonRequest(BODY.getBytes(StandardCharsets.UTF_8)), 1024);
+        ServletInputStream input = wrapper.getInputStream();
+        List<String> events = new ArrayList<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("available:" + new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertEquals(Arrays.asList("available:" + BODY, "done"), events);
+    }
+
+    @Test
+    void readListenerFailureIsPassedToOnError() throws IOException {
+        CachedBodyRequestWrapper wrapper = new CachedBodyRequestWrapper(
+                jsonRequest(BODY.getBytes(StandardCharsets.UTF_8)), 1024);
+        IOException failure = new IOException("处理失败");
+        List<Throwable> errors = new ArrayList<>();
+
+        wrapper.getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public void onAllDataRead() {
+                errors.add(new AssertionError("onAllDataRead"));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.add(t);
+            }
+        });
+
+        assertEquals(1, errors.size());
+        assertSame(failure, errors.get(0));
+    }
+
+    @Test
+    void bodyWithinLimitIsAccepted() throws IOException {
+        byte[] body = repeat(1024);
+
+        assertArrayEquals(body, new CachedBodyRequestWrapper(jsonRequest(body), 1024).getBody());
+        assertArrayEquals(body, new CachedBodyRequestWrapper(chunked(jsonRequest(body)), 1024).getBody());
+        assertArrayEquals(new byte[0], new CachedBodyRequestWrapper(chunked(jsonRequest(new byte[0])), 1024).getBody());
+    }
+
+    @Test
+    void oversizedBodyIsRejected() {
+        byte[] body = repeat(1025);
+
+        assertThrows(BusinessException.class, () -> new CachedBodyRequestWrapper(jsonRequest(body), 1024));
+        // 分块传输未声明长度，读取到超过上限的字节时拒绝
+        assertThrows(BusinessException.class, () -> new CachedBodyRequestWrapper(chunked(jsonRequest(body)), 1024));
+    }
+
+    private static MockHttpServletRequest jsonRequest(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/test");
+        request.setContentType("application/json");
+        request.setContent(body);
+        return request;
+    }
+
+    /**
+     * 模拟分块传输：不声明请求体长度
+     */
+    private static HttpServletRequest chunked(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+    }
+
+    private static byte[] repeat(int size) {
+        return String.join("", Collections.nCopies(size, "a")).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(BufferedReader reader) {
+        return reader.lines().collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,212 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link IpAddressParser} 测试：随机地址的各种写法与随机 IPv6 形式字符串的解析结果均与 {@link InetAddress} 一致。
+ *
+ * @author mbws
+ */
+class IpAddressParserTest {
+
+    private static final char[] IPV6_ALPHABET = {'0', '1', '9', 'a', 'F', ':', ':', ':', '.'};
+
+    @Test
+    void randomAddressesInEveryNotationMatchInetAddress() throws UnknownHostException {
+        Random random = new Random(11);
+        long[] out = new long[2];
+        for (int i = 0; i < 20000; i++) {
+            byte[] bytes = randomAddress(random);
+            String text = format(bytes, random);
+            assertTrue(IpAddressParser.parse(text, out), text);
+            assertArrayEquals(toLongs(bytes), out, text);
+            assertArrayEquals(toLongs(InetAddress.getByName(text).getAddress()), out, text);
+        }
+    }
+
+    @Test
+    void randomIpv6LikeStringsAreAcceptedExactlyWhenInetAddressAcceptsThem() {
+        Random random = new Random(13);
+        long[] out = new long[2];
+        int accepted = 0;
+        for (int i = 0; i < 50000; i++) {
+            String text = randomIpv6Like(random);
+            // InetAddress 接受带前导 0 的 5 位以上分组，RFC 4291 规定分组至多 4 位
+            byte[] expected = text.matches(".*[0-9a-fA-F]{5}.*") ? null : inetAddressOrNull(text);
+            boolean parsed = IpAddressParser.parse(text, out);
+            assertEquals(expected != null, parsed, text);
+            if (parsed) {
+                assertArrayEquals(toLongs(expected), out, text);
+                accepted++;
+            }
+        }
+        assertTrue(accepted > 1000, "accepted " + accepted);
+    }
+
+    @Test
+    void malformedAddressesAreRejectedWithoutTouchingTheOutput() {
+        List<String> malformed = Arrays.asList("", " ", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1..2.3", "1.2.3.4.",
+                ".1.2.3", "1.2.3.-4", "127.1", "0x7f.0.0.1", "1.2.3.4%eth0", "a.b.c.d", ":", ":::", "1:2", "1::2::3",
+                ":1::2", "1::2:", "12345::", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7::8", "::1.2.3", "1.2.3.4::",
+                "::ffff:1.2.3.4:5", "g::1", "unknown");
+        long[] out = {7, 9};
+        for (String text : malformed) {
+            assertFalse(IpAddressParser.parse(text, out), text);
+            assertArrayEquals(new long[]{7, 9}, out, text);
+        }
+        assertFalse(IpAddressParser.parse(null, out));
+    }
+
+    @Test
+    void whitespaceZoneIdsAndRangesAreHandled() {
+        long[] out = new long[2];
+        assertTrue(IpAddressParser.parse("  10.0.0.1 ", out));
+        assertArrayEquals(new long[]{0, IpAddressParser.IPV4_MAPPED_PREFIX | 0x0a000001L}, out);
+
+        assertTrue(IpAddressParser.parse("fe80::1%eth0", out));
+        assertArrayEquals(new long[]{0xfe80_0000_0000_0000L, 1}, out);
+
+        // 与 IPv4 映射地址解析结果相同，黑名单中的 IPv4 前缀同样覆盖
+        assertTrue(IpAddressParser.parse("::ffff:10.0.0.1", out));
+        assertArrayEquals(new long[]{0, IpAddressParser.IPV4_MAPPED_PREFIX | 0x0a000001L}, out);
+
+        String header = "203.0.113.7, 2001:db8::1";
+        assertTrue(IpAddressParser.parse(header, 0, header.indexOf(','), out));
+        assertArrayEquals(new long[]{0, IpAddressParser.IPV4_MAPPED_PREFIX | 0xcb007107L}, out);
+        assertTrue(IpAddressParser.parse(header, header.indexOf(',') + 1, header.length(), out));
+        assertArrayEquals(new long[]{0x2001_0db8_0000_0000L, 1}, out);
+    }
+
+    /**
+     * 4 字节 IPv4 地址或 16 字节 IPv6 地址，IPv6 地址中较多地出现连续 0 分组
+     */
+    static byte[] randomAddress(Random random) {
+        if (random.nextBoolean()) {
+            byte[] bytes = new byte[4];
+            random.nextBytes(bytes);
+            return bytes;
+        }
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        for (int group = 0; group < 8; group++) {
+            if (random.nextInt(3) == 0) {
+                bytes[group * 2] = 0;
+                bytes[group * 2 + 1] = 0;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 按 128 位地址换算，IPv4 地址映射到 ::ffff:0:0/96
+     */
+    static long[] toLongs(byte[] bytes) {
+        if (bytes.length == 4) {
+            byte[] mapped = new byte[16];
+            mapped[10] = (byte) 0xff;
+            mapped[11] = (byte) 0xff;
+            System.arraycopy(bytes, 0, mapped, 12, 4);
+            bytes = mapped;
+        }
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < 8; i++) {
+            hi = (hi << 8) | (bytes[i] & 0xff);
+            lo = (lo << 8) | (bytes[i + 8] & 0xff);
+        }
+        return new long[]{hi, lo};
+    }
+
+    /**
+     * IPv6 地址随机选用完整写法、"::" 压缩、大写、前导 0 与末尾内嵌 IPv4 写法
+     */
+    private static String format(byte[] bytes, Random random) {
+        if (bytes.length == 4) {
+            return (bytes[0] & 0xff) + "." + (bytes[1] & 0xff) + "." + (bytes[2] & 0xff) + "." + (bytes[3] & 0xff);
+        }
+        boolean dotted = random.nextInt(4) == 0;
+        int groups = dotted ? 6 : 8;
+        String[] parts = new String[groups];
+        for (int g = 0; g < groups; g++) {
+            int value = ((bytes[g * 2] & 0xff) << 8) | (bytes[g * 2 + 1] & 0xff);
+            String hex = Integer.toHexString(value);
+            if (random.nextInt(4) == 0) {
+                hex = "0000".substring(hex.length()) + hex;
+            }
+            parts[g] = random.nextInt(4) == 0 ? hex.toUpperCase() : hex;
+        }
+        // 随机选取一段连续的 0 分组压缩为 "::"
+        int zeroStart = -1;
+        int zeroEnd = -1;
+        if (random.nextBoolean()) {
+            for (int g = 0; g < groups; g++) {
+                if (parts[g].matches("0+")) {
+                    int end = g;
+                    while (end < groups && parts[end].matches("0+")) {
+                        end++;
+                    }
+                    if (zeroStart < 0 || random.nextBoolean()) {
+                        zeroStart = g;
+                        zeroEnd = end;
+                    }
+                    g = end;
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int g = 0; g < groups; g++) {
+            if (g == zeroStart) {
+                sb.append("::");
+                g = zeroEnd - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(parts[g]);
+        }
+        if (dotted) {
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(bytes[12] & 0xff).append('.').append(bytes[13] & 0xff).append('.')
+                    .append(bytes[14] & 0xff).append('.').append(bytes[15] & 0xff);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 含冒号、以十六进制数字或冒号开头的短字符串，InetAddress 按 IPv6 字面量解析，不会发起域名解析
+     */
+    private static String randomIpv6Like(Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(random.nextBoolean() ? ':' : '1');
+        int length = random.nextInt(24);
+        for (int i = 0; i < length; i++) {
+            sb.append(IPV6_ALPHABET[random.nextInt(IPV6_ALPHABET.length)]);
+        }
+        if (sb.indexOf(":") < 0) {
+            sb.append(':');
+        }
+        return sb.toString();
+    }
+
+    private static byte[] inetAddressOrNull(String text) {
+        try {
+            return InetAddress.getByName(text).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
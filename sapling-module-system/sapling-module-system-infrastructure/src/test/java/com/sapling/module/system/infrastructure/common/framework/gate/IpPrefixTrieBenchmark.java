@@ -0,0 +1,96 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100 万条前缀（约 90% 为 IPv4 /16~/32，其余为 IPv6 /32~/128）的 {@link IpPrefixTrie} 单次查询耗时：
+ * {@code lookup} 为已解析地址的查询，{@code parseAndLookup} 另含从字符串解析地址。
+ * 查询地址约一半落在黑名单前缀附近，其余随机。
+ * <p>
+ * 运行：{@code java -Xmx2g -cp target/test-classes:<test classpath> ...IpPrefixTrieBenchmark}
+ *
+ * @author mbws
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IpPrefixTrieBenchmark {
+
+    private static final int PREFIXES = 1_000_000;
+
+    private static final int QUERIES = 1 << 16;
+
+    private IpPrefixTrie trie;
+    private long[] queryHi;
+    private long[] queryLo;
+    private String[] queryText;
+    private final long[] buffer = new long[2];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(19);
+        IpPrefixTrie.Builder builder = IpPrefixTrie.builder();
+        long[] networks = new long[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            if (random.nextInt(10) != 0) {
+                int address = random.nextInt();
+                int length = 16 + random.nextInt(17);
+                builder.add(0, IpAddressParser.IPV4_MAPPED_PREFIX | (address & 0xffffffffL),
+                        IpAddressParser.IPV4_PREFIX_OFFSET + length);
+                networks[i] = address;
+            } else {
+                builder.add(0x2001_0000_0000_0000L | (random.nextLong() >>> 16), random.nextLong(),
+                        32 + random.nextInt(97));
+                networks[i] = random.nextInt();
+            }
+        }
+        trie = builder.build();
+
+        queryHi = new long[QUERIES];
+        queryLo = new long[QUERIES];
+        queryText = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int address = random.nextBoolean()
+                    ? (int) networks[random.nextInt(PREFIXES)] ^ random.nextInt(1 << 8)
+                    : random.nextInt();
+            queryLo[i] = IpAddressParser.IPV4_MAPPED_PREFIX | (address & 0xffffffffL);
+            queryText[i] = (address >>> 24) + "." + ((address >>> 16) & 0xff) + "." + ((address >>> 8) & 0xff)
+                    + "." + (address & 0xff);
+        }
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        int i = next++ & (QUERIES - 1);
+        return trie.contains(queryHi[i], queryLo[i]);
+    }
+
+    @Benchmark
+    public boolean parseAndLookup() {
+        int i = next++ & (QUERIES - 1);
+        return trie.contains(queryText[i], buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IpPrefixTrieBenchmark.class.getSimpleName()).build()).run();
+    }
+}
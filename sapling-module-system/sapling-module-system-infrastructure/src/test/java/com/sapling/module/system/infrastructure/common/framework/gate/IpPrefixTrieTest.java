@@ -0,0 +1,168 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link IpPrefixTrie} 测试：随机重叠的 IPv4/IPv6 CIDR 集合上，查询结果与有效前缀数量均与逐条
+ * {@link InetAddress} 字节加掩码比较的结果一致。
+ *
+ * @author mbws
+ */
+class IpPrefixTrieTest {
+
+    @Test
+    void randomOverlappingPrefixesMatchBruteForce() throws UnknownHostException {
+        Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            List<byte[]> bases = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                bases.add(IpAddressParserTest.randomAddress(random));
+            }
+            IpPrefixTrie.Builder builder = IpPrefixTrie.builder();
+            List<Prefix> prefixes = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                byte[] address = nearby(bases.get(random.nextInt(bases.size())), random);
+                int maxLength = address.length * 8;
+                int length = random.nextInt(4) == 0 ? random.nextInt(maxLength + 1) : maxLength - random.nextInt(17);
+                String cidr = InetAddress.getByAddress(address).getHostAddress() + "/" + length;
+                assertTrue(builder.add(cidr), cidr);
+                prefixes.add(new Prefix(address, length));
+            }
+            IpPrefixTrie trie = builder.build();
+
+            assertEquals(effectivePrefixCount(prefixes), trie.getPrefixCount());
+            long[] buffer = new long[2];
+            for (int i = 0; i < 2000; i++) {
+                byte[] query = random.nextInt(4) == 0
+                        ? IpAddressParserTest.randomAddress(random)
+                        : nearby(bases.get(random.nextInt(bases.size())), random);
+                String ip = InetAddress.getByAddress(query).getHostAddress();
+                long[] key = IpAddressParserTest.toLongs(query);
+                boolean expected = prefixes.stream().anyMatch(prefix -> prefix.contains(query));
+                assertEquals(expected, trie.contains(key[0], key[1]), ip);
+                assertEquals(expected, trie.contains(ip, buffer), ip);
+            }
+        }
+    }
+
+    @Test
+    void shorterPrefixReplacesTheRangesItCovers() {
+        IpPrefixTrie.Builder builder = IpPrefixTrie.builder();
+        builder.add("10.1.2.3");
+        builder.add("10.1.3.0/24");
+        builder.add("10.2.0.0/16");
+        builder.add("2001:db8::1");
+        assertEquals(4, builder.build().getPrefixCount());
+
+        builder.add("10.0.0.0/8");
+        builder.add("10.9.9.9");
+        IpPrefixTrie trie = builder.build();
+        assertEquals(2, trie.getPrefixCount());
+        long[] buffer = new long[2];
+        assertTrue(trie.contains("10.200.0.1", buffer));
+        assertTrue(trie.contains("::ffff:10.200.0.1", buffer));
+        assertTrue(trie.contains("2001:db8::1", buffer));
+        assertFalse(trie.contains("2001:db8::2", buffer));
+        assertFalse(trie.contains("11.0.0.1", buffer));
+
+        // /0 覆盖全部地址
+        assertTrue(builder.add("::/0"));
+        assertEquals(1, builder.build().getPrefixCount());
+        assertTrue(builder.build().contains("8.8.8.8", buffer));
+    }
+
+    @Test
+    void malformedEntriesAreRejected() {
+        IpPrefixTrie.Builder builder = IpPrefixTrie.builder();
+        for (String cidr : Arrays.asList(null, "", "10.0.0.0/33", "::/129", "1.2.3.4/-1", "1.2.3.4/", "1.2.3/8",
+                "/8", "1.2.3.4/x", "abc", "2001:db8::/32/1")) {
+            assertFalse(builder.add(cidr), cidr);
+        }
+        IpPrefixTrie trie = builder.build();
+        assertTrue(trie.isEmpty());
+        assertFalse(trie.contains("1.2.3.4", new long[2]));
+        assertFalse(IpPrefixTrie.empty().contains(0, 0));
+    }
+
+    /**
+     * 随机修改地址末尾的若干字节，使生成的前缀大量重叠与嵌套
+     */
+    private static byte[] nearby(byte[] base, Random random) {
+        byte[] address = base.clone();
+        int changed = random.nextInt(Math.min(4, address.length) + 1);
+        for (int i = 0; i < changed; i++) {
+            address[address.length - 1 - i] = (byte) random.nextInt(256);
+        }
+        return address;
+    }
+
+    /**
+     * 去重后未被其他更短前缀覆盖的前缀数量
+     */
+    private static int effectivePrefixCount(List<Prefix> prefixes) {
+        Map<String, Prefix> distinct = new LinkedHashMap<>();
+        for (Prefix prefix : prefixes) {
+            distinct.putIfAbsent(prefix.length + "/" + Arrays.toString(prefix.network), prefix);
+        }
+        int count = 0;
+        for (Prefix prefix : distinct.values()) {
+            boolean covered = distinct.values().stream()
+                    .anyMatch(other -> other.length < prefix.length && other.contains(prefix.network));
+            if (!covered) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按 16 字节地址比较的前缀，IPv4 前缀映射到 ::ffff:0:0/96
+     */
+    private static final class Prefix {
+        private final byte[] network;
+        private final int length;
+
+        private Prefix(byte[] address, int length) {
+            this.network = mapped(address);
+            this.length = address.length == 4 ? length + 96 : length;
+            for (int bit = this.length; bit < 128; bit++) {
+                network[bit / 8] &= (byte) ~(0x80 >>> (bit % 8));
+            }
+        }
+
+        boolean contains(byte[] address) {
+            byte[] bytes = mapped(address);
+            for (int bit = 0; bit < length; bit++) {
+                int mask = 0x80 >>> (bit % 8);
+                if ((bytes[bit / 8] & mask) != (network[bit / 8] & mask)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static byte[] mapped(byte[] address) {
+            if (address.length == 16) {
+                return address.clone();
+            }
+            byte[] bytes = new byte[16];
+            bytes[10] = (byte) 0xff;
+            bytes[11] = (byte) 0xff;
+            System.arraycopy(address, 0, bytes, 12, 4);
+            return bytes;
+        }
+    }
+}
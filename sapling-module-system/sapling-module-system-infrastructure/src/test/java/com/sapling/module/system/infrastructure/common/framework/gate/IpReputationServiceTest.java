@@ -0,0 +1,87 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import com.sapling.module.system.infrastructure.common.framework.security.RequestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link IpReputationService} 测试：经可信代理转发时按转发头确定客户端地址，格式错误的地址不影响已确定的客户端地址，
+ * 以及按客户端地址的频率限制。
+ *
+ * @author mbws
+ */
+class IpReputationServiceTest {
+
+    private IpReputationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        SetOperations<String, String> setOperations = mock(SetOperations.class);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(anyString())).thenReturn(Collections.singleton("2001:db8::/32"));
+        service = new IpReputationService();
+        ReflectionTestUtils.setField(service, "blacklistedIps", new HashSet<>(Arrays.asList("203.0.113.0/24", "10.9.9.9")));
+        ReflectionTestUtils.setField(service, "trustedProxies", new HashSet<>(Arrays.asList("10.0.0.0/16", "fd00::/8")));
+        ReflectionTestUtils.setField(service, "forwardedHeader", "X-Forwarded-For");
+        ReflectionTestUtils.setField(service, "maxRequests", 2L);
+        ReflectionTestUtils.setField(service, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(service, "blockSeconds", 600L);
+        ReflectionTestUtils.setField(service, "maxTrackedIps", 100);
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", redisTemplate);
+        service.init();
+    }
+
+    @Test
+    void clientBehindTrustedProxiesIsTakenFromTheForwardedHeader() {
+        assertEquals(IpReputationService.Verdict.BLACKLISTED, check("10.0.0.1", "203.0.113.9, 10.0.0.2"));
+        assertEquals(IpReputationService.Verdict.BLACKLISTED, check("fd00::1", "198.51.100.1, 2001:db8::7, fd00::2"));
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.1", "203.0.113.9, 198.51.100.1"));
+        // 直连地址不是可信代理时忽略转发头
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("198.51.100.1", "203.0.113.9"));
+        assertEquals(IpReputationService.Verdict.BLACKLISTED, check("203.0.113.9", "198.51.100.1"));
+    }
+
+    @Test
+    void malformedForwardedHopStopsTheWalkWithoutChangingTheClientAddress() {
+        // 格式错误的地址左侧内容不可信，客户端地址保持为最后一个已解析的地址
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.1", "203.0.113.9, unknown"));
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.1", "203.0.113.9, 2001:db8::zz, 10.0.0.2"));
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.1", "203.0.113.9,,10.0.0.2"));
+        assertEquals(IpReputationService.Verdict.BLACKLISTED, check("10.0.0.1", "unknown, 203.0.113.9"));
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("unknown", "203.0.113.9"));
+    }
+
+    @Test
+    void clientsOverTheLimitAreBlockedIndividually() {
+        ReflectionTestUtils.setField(service, "rateLimitEnabled", true);
+
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.1", "198.51.100.1"));
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.2", " 198.51.100.1"));
+        assertEquals(IpReputationService.Verdict.RATE_LIMITED, check("10.0.0.1", "198.51.100.1"));
+        assertEquals(IpReputationService.Verdict.RATE_LIMITED, check("10.0.0.3", "198.51.100.1"));
+        assertEquals(IpReputationService.Verdict.ALLOWED, check("10.0.0.1", "198.51.100.2"));
+        assertEquals(1, service.getAutoBlockedCount());
+    }
+
+    private IpReputationService.Verdict check(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/hosts/page");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return service.check(new RequestContext(request));
+    }
+}
@@ -0,0 +1,102 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import com.sapling.module.system.infrastructure.common.framework.security.RequestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 单个请求经过 {@link RequestGate} 的开销分布（含 p99）：黑名单 5000 条 CIDR，规则集同 {@link RequestGateTest#newRuleEngine()}。
+ * {@code check} 为普通列表查询请求的全部请求体之外的检查，{@code checkWithJsonBody} 另含 1KB JSON 请求体检查。
+ * <p>
+ * 运行：{@code java -cp target/test-classes:<test classpath> ...RequestGateBenchmark}
+ *
+ * @author mbws
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestGateBenchmark {
+
+    private RequestGate gate;
+    private MockHttpServletRequest request;
+    private MockHttpServletRequest postRequest;
+    private byte[] jsonBody;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        SetOperations<String, String> setOperations = mock(SetOperations.class);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(anyString())).thenReturn(Collections.emptySet());
+        Set<String> blacklist = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            blacklist.add((i % 200 + 20) + "." + (i / 200) + "." + (i % 7) + ".0/24");
+        }
+        IpReputationService ipReputationService = new IpReputationService();
+        ReflectionTestUtils.setField(ipReputationService, "blacklistedIps", blacklist);
+        ReflectionTestUtils.setField(ipReputationService, "forwardedHeader", "X-Forwarded-For");
+        ReflectionTestUtils.setField(ipReputationService, "stringRedisTemplate", redisTemplate);
+        ipReputationService.init();
+
+        gate = RequestGateTest.newGate(ipReputationService, RequestGateTest.newRuleEngine());
+        request = RequestGateTest.benignRequest();
+        postRequest = RequestGateTest.benignRequest();
+        postRequest.setMethod("POST");
+        postRequest.setContentType("application/json");
+
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < 20; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"hostName\":\"HOST-").append(i)
+                    .append("\",\"path\":\"/data/share/").append(i).append(".docx\"}");
+        }
+        jsonBody = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RequestContext check() {
+        RequestContext ctx = new RequestContext(request);
+        gate.check(ctx);
+        return ctx;
+    }
+
+    @Benchmark
+    public RequestContext checkWithJsonBody() {
+        RequestContext ctx = new RequestContext(postRequest);
+        gate.check(ctx);
+        gate.checkBody(ctx, jsonBody);
+        return ctx;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RequestGateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
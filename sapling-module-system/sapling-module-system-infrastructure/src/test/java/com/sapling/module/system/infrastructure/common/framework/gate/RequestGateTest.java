@@ -0,0 +1,189 @@
+package com.sapling.module.system.infrastructure.common.framework.gate;
+
+import com.sapling.framework.common.exception.BusinessException;
+import com.sapling.framework.common.exception.enums.GlobalErrorCodeConstants;
+import com.sapling.module.system.infrastructure.common.framework.security.RequestContext;
+import com.sapling.module.system.infrastructure.common.framework.security.RuleEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RequestGate} 测试：各阶段按顺序执行、首个不通过的阶段即拒绝且后续阶段不再执行，以及阶段统计。
+ *
+ * @author mbws
+ */
+class RequestGateTest {
+
+    private IpReputationService ipReputationService;
+    private RequestGate gate;
+
+    @BeforeEach
+    void setUp() {
+        ipReputationService = mock(IpReputationService.class);
+        when(ipReputationService.check(any())).thenReturn(IpReputationService.Verdict.ALLOWED);
+        gate = newGate(ipReputationService, newRuleEngine());
+    }
+
+    @Test
+    void benignRequestRunsEveryStageOnceInOrder() {
+        gate.check(new RequestContext(benignRequest()));
+
+        RequestGateStats stats = gate.getStats();
+        assertEquals(Arrays.asList("METHOD", "IP_REPUTATION", "HOST", "CONTENT_TYPE", "REQUEST_SIZE", "PARAMETERS",
+                "RULES", "JSON_BODY"), Arrays.asList(stats.getStages().keySet().toArray()));
+        stats.getStages().forEach((name, stage) -> {
+            assertEquals(name.equals("JSON_BODY") ? 0 : 1, stage.getCount(), name);
+            assertEquals(0, stage.getRejectedCount(), name);
+        });
+        assertEquals(1, stats.getTotal().getCount());
+        assertTrue(stats.getTotal().getP99Micros() > 0);
+    }
+
+    @Test
+    void cheapestFailingStageRejectsAndLaterStagesDoNotRun() {
+        MockHttpServletRequest trace = benignRequest();
+        trace.setMethod("TRACE");
+        assertRejected(trace, GlobalErrorCodeConstants.METHOD_NOT_ALLOWED.getType(), "METHOD");
+
+        when(ipReputationService.check(any())).thenReturn(IpReputationService.Verdict.BLACKLISTED);
+        assertRejected(benignRequest(), GlobalErrorCodeConstants.FORBIDDEN.getType(), "IP_REPUTATION");
+        when(ipReputationService.check(any())).thenReturn(IpReputationService.Verdict.RATE_LIMITED);
+        assertRejected(benignRequest(), GlobalErrorCodeConstants.TOO_MANY_REQUESTS.getType(), "IP_REPUTATION");
+        when(ipReputationService.check(any())).thenReturn(IpReputationService.Verdict.ALLOWED);
+
+        MockHttpServletRequest wrongHost = benignRequest();
+        wrongHost.removeHeader("Host");
+        wrongHost.addHeader("Host", "evil.example.com");
+        assertRejected(wrongHost, GlobalErrorCodeConstants.BAD_REQUEST.getType(), "HOST");
+
+        MockHttpServletRequest xml = benignRequest();
+        xml.setContentType("application/xml");
+        assertRejected(xml, GlobalErrorCodeConstants.BAD_REQUEST.getType(), "CONTENT_TYPE");
+
+        // 只依据 Content-Length 拒绝，不读取请求体
+        MockHttpServletRequest oversized = benignRequest();
+        oversized.setContent(new byte[2048]);
+        assertRejected(oversized, GlobalErrorCodeConstants.BAD_REQUEST.getType(), "REQUEST_SIZE");
+
+        MockHttpServletRequest longParameter = benignRequest();
+        longParameter.addParameter("comment", new String(new char[300]).replace('\0', 'x'));
+        assertRejected(longParameter, GlobalErrorCodeConstants.BAD_REQUEST.getType(), "PARAMETERS");
+
+        MockHttpServletRequest injection = benignRequest();
+        injection.addParameter("q", "1 UNION SELECT password FROM users");
+        assertRejected(injection, GlobalErrorCodeConstants.FORBIDDEN.getType(), "RULES");
+    }
+
+    @Test
+    void jsonBodyIsCheckedSeparatelyFromTheRequest() {
+        MockHttpServletRequest request = benignRequest();
+        request.setMethod("POST");
+        request.setContentType("application/json");
+        RequestContext ctx = new RequestContext(request);
+
+        gate.check(ctx);
+        gate.checkBody(ctx, "{\"name\":\"report\",\"tags\":[\"a\",\"b\"]}".getBytes(StandardCharsets.UTF_8));
+        BusinessException e = assertThrows(BusinessException.class, () -> gate.checkBody(ctx,
+                "{\"name\":\"<script>alert(1)</script>\"}".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(GlobalErrorCodeConstants.FORBIDDEN.getType(), e.getType());
+        RequestGateStats.StageStats body = gate.getStats().getStages().get("JSON_BODY");
+        assertEquals(2, body.getCount());
+        assertEquals(1, body.getRejectedCount());
+        assertEquals(3, gate.getStats().getTotal().getCount());
+        assertEquals(1, gate.getStats().getTotal().getRejectedCount());
+    }
+
+    @Test
+    void resetClearsAllStatistics() {
+        gate.check(new RequestContext(benignRequest()));
+        gate.resetStats();
+
+        RequestGateStats stats = gate.getStats();
+        assertEquals(0, stats.getTotal().getCount());
+        stats.getStages().values().forEach(stage -> assertEquals(0, stage.getCount()));
+    }
+
+    private void assertRejected(MockHttpServletRequest request, int expectedType, String expectedStage) {
+        gate.resetStats();
+        BusinessException e = assertThrows(BusinessException.class, () -> gate.check(new RequestContext(request)));
+        assertEquals(expectedType, e.getType());
+
+        boolean reached = false;
+        for (Map.Entry<String, RequestGateStats.StageStats> entry : gate.getStats().getStages().entrySet()) {
+            String name = entry.getKey();
+            RequestGateStats.StageStats stage = entry.getValue();
+            if (name.equals(expectedStage)) {
+                assertEquals(1, stage.getRejectedCount(), name);
+                reached = true;
+            } else {
+                assertEquals(reached || name.equals("JSON_BODY") ? 0 : 1, stage.getCount(), name);
+                assertEquals(0, stage.getRejectedCount(), name);
+            }
+        }
+        assertEquals(1, gate.getStats().getTotal().getRejectedCount());
+    }
+
+    static MockHttpServletRequest benignRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/hosts/page");
+        request.addHeader("Host", "api.example.com");
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+        request.addHeader("Accept", "application/json");
+        request.addParameter("pageNo", "1");
+        request.addParameter("pageSize", "20");
+        request.addParameter("hostName", "HOST-0012");
+        request.addParameter("startTime", "2024-05-01 00:00:00");
+        request.setRemoteAddr("10.1.2.3");
+        return request;
+    }
+
+    static RequestGate newGate(IpReputationService ipReputationService, RuleEngine ruleEngine) {
+        RequestGate gate = new RequestGate();
+        ReflectionTestUtils.setField(gate, "blockedContentTypes", Collections.singleton("application/xml"));
+        ReflectionTestUtils.setField(gate, "maxRequestSize", 1024L);
+        ReflectionTestUtils.setField(gate, "maxParameters", 100);
+        ReflectionTestUtils.setField(gate, "maxParameterSize", 256);
+        ReflectionTestUtils.setField(gate, "allowedHosts", new HashSet<>(Arrays.asList("api.example.com", "localhost")));
+        ReflectionTestUtils.setField(gate, "ruleEngine", ruleEngine);
+        ReflectionTestUtils.setField(gate, "ipReputationService", ipReputationService);
+        gate.init();
+        return gate;
+    }
+
+    /**
+     * 与 application-security.yaml 同类的检测规则
+     */
+    static RuleEngine newRuleEngine() {
+        RuleEngine ruleEngine = new RuleEngine();
+        ReflectionTestUtils.setField(ruleEngine, "enabled", true);
+        ReflectionTestUtils.setField(ruleEngine, "jsonMaxDepth", 64);
+        ReflectionTestUtils.setField(ruleEngine, "jsonMaxBytes", 10485760L);
+        ReflectionTestUtils.setField(ruleEngine, "sqlInjectionPattern",
+                "(?i)\\b(select|insert|update|delete|drop|union|exec|information_schema|sleep)\\b");
+        ReflectionTestUtils.setField(ruleEngine, "xssPattern",
+                "(?i)(<script|javascript:|onerror=|onload=|eval\\(|document\\.cookie)");
+        ReflectionTestUtils.setField(ruleEngine, "pathTraversalPattern", "(?i)(\\.\\./|\\.\\.\\\\|%2e%2e%2f|/etc/passwd)");
+        ReflectionTestUtils.setField(ruleEngine, "commandInjectionPattern", "(\\|\\||&&|`|\\$\\()");
+        ReflectionTestUtils.setField(ruleEngine, "fileUploadPattern", "(?i)\\.(php|jsp|asp|exe|sh)$");
+        ReflectionTestUtils.setField(ruleEngine, "xxePattern", "(?i)(<!DOCTYPE|<!ENTITY)");
+        ReflectionTestUtils.setField(ruleEngine, "templateInjectionPattern", "\\$\\{[^}]*\\}|#\\{[^}]*\\}");
+        ReflectionTestUtils.setField(ruleEngine, "deserializationPattern", "(?i)(rO0AB|aced0005|@type)");
+        ruleEngine.init();
+        return ruleEngine;
+    }
+}
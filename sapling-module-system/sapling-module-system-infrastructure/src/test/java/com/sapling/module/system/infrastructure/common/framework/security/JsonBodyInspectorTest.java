@@ -0,0 +1,90 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link JsonBodyInspector} 测试：按文档顺序返回第一个命中的字符串值并停止读取，只检测字符串值，
+ * 嵌套深度与请求体大小超限视为命中，以及非法 JSON 抛出异常。
+ *
+ * @author yuanjifan
+ */
+class JsonBodyInspectorTest {
+
+    private final MultiPatternMatcher matcher = MultiPatternMatcher.compile(Arrays.asList(
+            rule("SQL_INJECTION", "(?i)union\\s+select"),
+            rule("XSS", "(?i)<script")));
+    private final JsonBodyInspector inspector = new JsonBodyInspector(4, 1024);
+
+    @Test
+    void firstMatchingStringInDocumentOrderIsReturned() throws IOException {
+        RuleMatchResult result = inspect("{\"name\":\"ok\",\"items\":[{\"q\":\"1 UNION SELECT x\"}],"
+                + "\"bio\":\"<script>\"}").orElseThrow();
+
+        assertEquals("SQL_INJECTION", result.getRuleName());
+        assertEquals("1 UNION SELECT x", result.getMatchedContent());
+    }
+
+    @Test
+    void inspectionStopsAtFirstMatch() throws IOException {
+        // 命中后不再读取后续内容，即使其后不是合法的 JSON
+        RuleMatchResult result = inspect("[\"<script>alert(1)\", {\"broken\": ]]]").orElseThrow();
+
+        assertEquals("XSS", result.getRuleName());
+    }
+
+    @Test
+    void onlyStringValuesAreInspected() throws IOException {
+        // 字段名、数字与布尔值不参与检测
+        assertFalse(inspect("{\"<script>\":1,\"n\":12.5,\"b\":true,\"z\":null,\"s\":\"union\"}").isPresent());
+        assertFalse(inspect("\"plain text\"").isPresent());
+        assertFalse(inspect("").isPresent());
+    }
+
+    @Test
+    void nestingBeyondMaxDepthIsRejected() throws IOException {
+        assertFalse(inspect("{\"a\":[{\"b\":[\"ok\"]}]}").isPresent());
+
+        RuleMatchResult result = inspect("{\"a\":[{\"b\":[{\"c\":\"ok\"}]}]}").orElseThrow();
+        assertEquals(JsonBodyInspector.LIMIT_RULE_NAME, result.getRuleName());
+        assertEquals("depth>4", result.getMatchedContent());
+    }
+
+    @Test
+    void bodyBeyondMaxBytesIsRejectedWithoutParsing() throws IOException {
+        String value = String.join("", Collections.nCopies(1024, "a"));
+
+        RuleMatchResult result = inspect("{\"v\":\"" + value + "\"}").orElseThrow();
+
+        assertEquals(JsonBodyInspector.LIMIT_RULE_NAME, result.getRuleName());
+        assertEquals("size=1032", result.getMatchedContent());
+        // 超限时不解析，非法 JSON 同样按超限处理
+        assertEquals(JsonBodyInspector.LIMIT_RULE_NAME, inspect("{" + value).orElseThrow().getRuleName());
+    }
+
+    @Test
+    void malformedJsonIsReported() {
+        assertThrows(IOException.class, () -> inspect("{\"a\":"));
+        assertThrows(IOException.class, () -> inspect("{\"a\" 1}"));
+        assertThrows(IOException.class, () -> inspect("[\"unterminated"));
+    }
+
+    private Optional<RuleMatchResult> inspect(String body) throws IOException {
+        return inspector.inspect(body.getBytes(StandardCharsets.UTF_8), matcher);
+    }
+
+    private static SecurityRule rule(String name, String regex) {
+        return new PatternSecurityRule(name, name, Collections.singletonList(Pattern.compile(regex)),
+                PatternSecurityRule.RuleTarget.PARAM_VALUE);
+    }
+}
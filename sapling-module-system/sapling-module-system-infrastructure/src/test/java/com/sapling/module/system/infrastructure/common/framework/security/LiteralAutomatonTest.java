@@ -0,0 +1,110 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link LiteralAutomaton} 测试：命中集合与逐个字面量 {@code contains} 的暴力结果对照。
+ *
+ * @author yuanjifan
+ */
+class LiteralAutomatonTest {
+
+    /**
+     * 小字母表使字面量大量重叠、互为前后缀，覆盖失败指针与输出合并；含非 ASCII 字符
+     */
+    private static final char[] ALPHABET = {'a', 'b', 'c', 'A', 'B', '/', '.', 'é', '中', '文'};
+
+    @Test
+    void overlappingLiteralsAreAllReported() {
+        LiteralAutomaton automaton = new LiteralAutomaton.Builder(false)
+                .add("he", 0).add("she", 1).add("his", 2).add("hers", 3)
+                .build();
+
+        assertEquals(bits(0, 1, 3), scan(automaton, "ushers"));
+        assertEquals(bits(2), scan(automaton, "this"));
+        assertEquals(bits(), scan(automaton, "hi s h e"));
+    }
+
+    @Test
+    void sameLiteralMayBelongToSeveralIds() {
+        LiteralAutomaton automaton = new LiteralAutomaton.Builder(false)
+                .add("union", 0).add("union", 4).add("on", 7)
+                .build();
+
+        assertEquals(bits(0, 4, 7), scan(automaton, "1 UNION union"));
+        assertEquals(bits(7), scan(automaton, "UNION on"));
+    }
+
+    @Test
+    void foldCaseIgnoresOnlyAsciiCase() {
+        LiteralAutomaton automaton = new LiteralAutomaton.Builder(true)
+                .add("select", 0).add("café", 1)
+                .build();
+
+        assertEquals(bits(0), scan(automaton, "SeLeCt 1"));
+        assertEquals(bits(1), scan(automaton, "CAFé"));
+        // 与 Java 默认的 CASE_INSENSITIVE 一致，非 ASCII 字符不做大小写折叠
+        assertEquals(bits(), scan(automaton, "CAFÉ"));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomLiteralsAndInputs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            boolean foldCase = random.nextBoolean();
+            List<String> literals = new ArrayList<>();
+            LiteralAutomaton.Builder builder = new LiteralAutomaton.Builder(foldCase);
+            int count = 1 + random.nextInt(20);
+            for (int id = 0; id < count; id++) {
+                String literal = randomString(random, 1 + random.nextInt(4));
+                if (foldCase) {
+                    literal = RegexLiteralExtractor.toLowerAscii(literal);
+                }
+                literals.add(literal);
+                builder.add(literal, id);
+            }
+            LiteralAutomaton automaton = builder.build();
+
+            for (int i = 0; i < 50; i++) {
+                String input = randomString(random, random.nextInt(40));
+                String haystack = foldCase ? RegexLiteralExtractor.toLowerAscii(input) : input;
+                BitSet expected = new BitSet();
+                for (int id = 0; id < literals.size(); id++) {
+                    if (haystack.contains(literals.get(id))) {
+                        expected.set(id);
+                    }
+                }
+                assertEquals(expected, scan(automaton, input), () -> "literals " + literals + ", input " + input);
+            }
+        }
+    }
+
+    private static BitSet scan(LiteralAutomaton automaton, String input) {
+        BitSet hits = new BitSet();
+        automaton.scan(input, hits);
+        return hits;
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 1000 个 JSON 文本值的规则检测耗时：逐条规则执行全部正则，对比 {@link MultiPatternMatcher} 字面量预过滤后只执行候选正则。
+ * 取值以普通业务文本为主，约 5% 含攻击关键字，规则集同 {@link MultiPatternMatcherTest#rules()}。
+ * <p>
+ * 运行：{@code java -cp target/test-classes:<test classpath> ...MultiPatternMatcherBenchmark}
+ *
+ * @author yuanjifan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiPatternMatcherBenchmark {
+
+    private static final String[] BENIGN = {"张三", "2024-05-01 12:00:00", "/data/share/report.docx", "HOST-0012",
+            "Quarterly report for the finance team", "192.168.1.20", "pending", "a7f3c9e1-5b2d-4e8a-9c6f-0d1e2f3a4b5c"};
+
+    private List<SecurityRule> rules;
+    private MultiPatternMatcher matcher;
+    private List<String> values;
+
+    @Setup
+    public void setUp() {
+        rules = MultiPatternMatcherTest.rules();
+        matcher = MultiPatternMatcher.compile(rules);
+        Random random = new Random(1);
+        values = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            values.add(random.nextInt(20) == 0
+                    ? MultiPatternMatcherTest.randomValue(random)
+                    : BENIGN[random.nextInt(BENIGN.length)] + " " + BENIGN[random.nextInt(BENIGN.length)]);
+        }
+    }
+
+    @Benchmark
+    public void ruleByRule(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(matchValueInOrder(value));
+        }
+    }
+
+    @Benchmark
+    public void prefiltered(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(matcher.matchValue(value));
+        }
+    }
+
+    /**
+     * 预过滤之前 RuleEngine 检测 JSON 文本值的方式
+     */
+    private String matchValueInOrder(String value) {
+        for (SecurityRule rule : rules) {
+            if (rule instanceof PatternSecurityRule) {
+                for (Pattern pattern : ((PatternSecurityRule) rule).getPatterns()) {
+                    if (pattern.matcher(value).find()) {
+                        return ((PatternSecurityRule) rule).getRuleName();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MultiPatternMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
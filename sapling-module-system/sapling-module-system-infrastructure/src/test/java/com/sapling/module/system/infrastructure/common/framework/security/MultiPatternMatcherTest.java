@@ -0,0 +1,142 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link MultiPatternMatcher} 测试：随机请求与 JSON 值上的结果与逐条执行规则完全一致（命中规则与匹配内容）。
+ *
+ * @author yuanjifan
+ */
+class MultiPatternMatcherTest {
+
+    /**
+     * 拼接随机输入的片段：规则关键字的各种大小写、近似但不命中的词与普通文本
+     */
+    private static final String[] FRAGMENTS = {"select", "SeLeCt", "selection", "union", " ", "1", "=", "'", "#",
+            "<script>", "<SCRIPT", "javascript:", "onload=", "eval(", "../", "..\\", "%2e%2e%2f", "/etc/passwd",
+            "&&", "`id`", "$(", "|", "cat", "4111111111111111", "hello", "world", "中文", "é", "/api/v1/user"};
+
+    @Test
+    void requestMatchingIsIdenticalToRunningRulesInOrder() {
+        List<SecurityRule> rules = rules();
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(rules);
+        assertTrue(matcher.getPrefilteredPatternCount() > 0);
+        assertTrue(matcher.getPrefilteredPatternCount() < matcher.getPatternCount());
+
+        Random random = new Random(3);
+        int hits = 0;
+        for (int i = 0; i < 5000; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", randomValue(random));
+            int params = random.nextInt(4);
+            for (int p = 0; p < params; p++) {
+                request.addParameter(random.nextInt(4) == 0 ? randomValue(random) : "p" + p, randomValue(random));
+            }
+            request.addHeader("X-Trace", randomValue(random));
+
+            Optional<RuleMatchResult> expected = matchInOrder(rules, new RequestContext(request));
+            Optional<RuleMatchResult> actual = matcher.match(new RequestContext(request));
+            assertSame(expected, actual, request.getRequestURI());
+            if (expected.isPresent()) {
+                hits++;
+            }
+        }
+        assertTrue(hits > 500 && hits < 4500, "hits " + hits);
+    }
+
+    @Test
+    void valueMatchingIsIdenticalToRunningAllPatternsInOrder() {
+        List<SecurityRule> rules = rules();
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(rules);
+
+        Random random = new Random(5);
+        for (int i = 0; i < 5000; i++) {
+            String value = randomValue(random);
+            assertSame(matchValueInOrder(rules, value), matcher.matchValue(value), value);
+        }
+    }
+
+    @Test
+    void emptyRuleListNeverMatches() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.emptyList());
+
+        assertEquals(Optional.empty(), matcher.matchValue("1 union select"));
+        assertEquals(Optional.empty(), matcher.match(new RequestContext(new MockHttpServletRequest("GET", "/../"))));
+    }
+
+    /**
+     * 与 RuleEngine 相同结构的规则集：各检测目标、大小写敏感与不敏感、无法预过滤的正则及非正则规则
+     */
+    static List<SecurityRule> rules() {
+        List<SecurityRule> rules = new ArrayList<>();
+        rules.add(new PatternSecurityRule("SQL_INJECTION", "sql", Collections.singletonList(
+                Pattern.compile(RegexLiteralExtractorTest.SQL_INJECTION)), PatternSecurityRule.RuleTarget.PARAM_VALUE));
+        rules.add(new PatternSecurityRule("XSS", "xss", Arrays.asList(
+                Pattern.compile("(?i)(<script|javascript:|onerror=|onload=|eval\\(|document\\.cookie)"),
+                Pattern.compile("(?i)on\\w+\\s*=")), PatternSecurityRule.RuleTarget.PARAM_VALUE));
+        rules.add(new PatternSecurityRule("PATH_TRAVERSAL", "path", Collections.singletonList(
+                Pattern.compile("(?i)(\\.\\./|\\.\\.\\\\|%2e%2e%2f|/etc/passwd)")), PatternSecurityRule.RuleTarget.URI));
+        rules.add(context -> context.getParameterMap().size() > 2
+                ? Optional.of(new RuleMatchResult("TOO_MANY_PARAMS", "params", "3"))
+                : Optional.empty());
+        rules.add(new PatternSecurityRule("COMMAND_INJECTION", "cmd", Arrays.asList(
+                Pattern.compile("(\\|\\||&&|`|\\$\\()"),
+                Pattern.compile("\\b(cat|ls|rm)\\b")), PatternSecurityRule.RuleTarget.PARAM_VALUE));
+        rules.add(new PatternSecurityRule("CARD_NUMBER", "card", Collections.singletonList(
+                Pattern.compile("\\d{16}")), PatternSecurityRule.RuleTarget.PARAM_VALUE));
+        rules.add(new PatternSecurityRule("SCRIPT_PARAM_NAME", "name", Collections.singletonList(
+                Pattern.compile("<script", Pattern.CASE_INSENSITIVE)), PatternSecurityRule.RuleTarget.PARAM_NAME));
+        rules.add(new PatternSecurityRule("HEADER_TRAVERSAL", "header", Collections.singletonList(
+                Pattern.compile("\\.\\./")), PatternSecurityRule.RuleTarget.HEADER));
+        return rules;
+    }
+
+    static String randomValue(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int parts = 1 + random.nextInt(5);
+        for (int i = 0; i < parts; i++) {
+            sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static Optional<RuleMatchResult> matchInOrder(List<SecurityRule> rules, RequestContext ctx) {
+        for (SecurityRule rule : rules) {
+            Optional<RuleMatchResult> result = rule.match(ctx);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<RuleMatchResult> matchValueInOrder(List<SecurityRule> rules, String value) {
+        for (SecurityRule rule : rules) {
+            if (rule instanceof PatternSecurityRule) {
+                PatternSecurityRule patternRule = (PatternSecurityRule) rule;
+                for (Pattern pattern : patternRule.getPatterns()) {
+                    if (pattern.matcher(value).find()) {
+                        return Optional.of(new RuleMatchResult(patternRule.getRuleName(), patternRule.getDescription(), value));
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static void assertSame(Optional<RuleMatchResult> expected, Optional<RuleMatchResult> actual, String input) {
+        assertEquals(expected.map(RuleMatchResult::getRuleName), actual.map(RuleMatchResult::getRuleName), input);
+        assertEquals(expected.map(RuleMatchResult::getMatchedContent), actual.map(RuleMatchResult::getMatchedContent), input);
+    }
+}
@@ -0,0 +1,212 @@
+package com.sapling.module.system.infrastructure.common.framework.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RegexLiteralExtractor} 测试：典型语法的提取结果，以及随机正则、随机输入上的正确性——
+ * 正则匹配的输入必须包含至少一个提取出的字面量，否则预过滤会漏报。
+ *
+ * @author yuanjifan
+ */
+class RegexLiteralExtractorTest {
+
+    /**
+     * 与 application-security.yaml 中 sql-injection 相同
+     */
+    static final String SQL_INJECTION = "(?i)(\\b(select|insert|update|delete|drop|create|alter|truncate|exec|execute"
+            + "|union|where|from|join|into|load_file|outfile|concat|substr|substring|ascii|char|length|len|count|sum|avg"
+            + "|max|min|information_schema|sys\\.|sysobjects|syscolumns|sys\\.tables|sys\\.columns|--|#|/\\*|\\*/|xp_"
+            + "|sp_|0x|0b|0o|backup|restore|dump|load|copy|move|rename|grant|revoke)\\b)";
+
+    private static final char[] INPUT_ALPHABET = {'a', 'b', 'c', 'A', 'B', '.', ' ', '1'};
+
+    @Test
+    void longestRequiredLiteralOfASequenceIsKept() {
+        assertEquals(set("select"), literals("union\\s+select").values);
+        assertEquals(set("foo"), literals("foo(?=bar)\\d").values);
+        assertEquals(set("a"), literals("(a)\\1").values);
+    }
+
+    @Test
+    void alternativesAndOptionalCharactersExpandToAllVariants() {
+        assertEquals(set("colour", "color"), literals("colou?r").values);
+        assertEquals(set("../", "..\\"), literals("\\.\\./|\\.\\.\\\\").values);
+        assertEquals(set("select", "insert"), literals("\\b(select|insert)\\b").values);
+    }
+
+    @Test
+    void caseInsensitivePatternsYieldLowerCaseLiterals() {
+        RegexLiteralExtractor.Literals flag = literals(Pattern.compile("SELECT", Pattern.CASE_INSENSITIVE));
+        assertTrue(flag.caseInsensitive);
+        assertEquals(set("select"), flag.values);
+
+        RegexLiteralExtractor.Literals inline = literals("(?i)(Eval\\(|alert\\()");
+        assertTrue(inline.caseInsensitive);
+        assertEquals(set("eval(", "alert("), inline.values);
+
+        RegexLiteralExtractor.Literals sql = literals(SQL_INJECTION);
+        assertTrue(sql.caseInsensitive);
+        assertTrue(sql.values.containsAll(Arrays.asList("select", "information_schema", "sys.", "#", "/*")));
+    }
+
+    @Test
+    void unconstrainedOrUnsupportedPatternsAlwaysRun() {
+        assertNull(extract("\\d+"));
+        assertNull(extract("a|"));
+        assertNull(extract("x*"));
+        assertNull(extract("[abc]{3}"));
+        assertNull(extract("(?x)a b"));
+        assertNull(RegexLiteralExtractor.extract(Pattern.compile("ab", Pattern.COMMENTS)));
+        assertNull(RegexLiteralExtractor.extract(Pattern.compile("ab", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)));
+    }
+
+    @Test
+    void everyMatchOfARandomPatternContainsAnExtractedLiteral() {
+        Random random = new Random(7);
+        int checkedPatterns = 0;
+        int checkedMatches = 0;
+        for (int round = 0; round < 3000; round++) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(new RandomRegex(random).alternation(0));
+            } catch (PatternSyntaxException e) {
+                continue;
+            }
+            RegexLiteralExtractor.Literals literals = RegexLiteralExtractor.extract(pattern);
+            if (literals == null) {
+                continue;
+            }
+            checkedPatterns++;
+            for (int i = 0; i < 100; i++) {
+                String input = randomInput(random);
+                if (pattern.matcher(input).find()) {
+                    checkedMatches++;
+                    assertContainsLiteral(pattern, literals, input);
+                }
+            }
+        }
+        // 随机正则须有相当比例可提取字面量，且确实命中过输入
+        assertTrue(checkedPatterns > 500, "patterns " + checkedPatterns);
+        assertTrue(checkedMatches > 1000, "matches " + checkedMatches);
+    }
+
+    @Test
+    void matchesOfTheSqlInjectionPatternContainAnExtractedLiteral() {
+        Pattern pattern = Pattern.compile(SQL_INJECTION);
+        RegexLiteralExtractor.Literals literals = literals(SQL_INJECTION);
+        List<String> inputs = Arrays.asList("1 UNION SELECT password FROM users", "name=abc#", "a/*b*/c", "0x41",
+                "sys.tables", "drop table t; --", "selection", "Information_Schema.tables", "hello world");
+        for (String input : inputs) {
+            if (pattern.matcher(input).find()) {
+                assertContainsLiteral(pattern, literals, input);
+            }
+        }
+        assertFalse(pattern.matcher("hello world").find());
+    }
+
+    private static void assertContainsLiteral(Pattern pattern, RegexLiteralExtractor.Literals literals, String input) {
+        String haystack = literals.caseInsensitive ? RegexLiteralExtractor.toLowerAscii(input) : input;
+        assertTrue(literals.values.stream().anyMatch(haystack::contains),
+                () -> "pattern " + pattern + " matches \"" + input + "\" but none of " + literals.values);
+    }
+
+    private static RegexLiteralExtractor.Literals literals(String regex) {
+        return literals(Pattern.compile(regex));
+    }
+
+    private static RegexLiteralExtractor.Literals literals(Pattern pattern) {
+        RegexLiteralExtractor.Literals literals = RegexLiteralExtractor.extract(pattern);
+        assertNotNull(literals, () -> "no literals for " + pattern);
+        return literals;
+    }
+
+    private static RegexLiteralExtractor.Literals extract(String regex) {
+        return RegexLiteralExtractor.extract(Pattern.compile(regex));
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static String randomInput(Random random) {
+        int length = random.nextInt(16);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(INPUT_ALPHABET[random.nextInt(INPUT_ALPHABET.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 在小字母表上随机生成正则：字面量、转义、字符类、分组、前瞻、内联标志、反向引用、锚点与各类量词
+     */
+    private static final class RandomRegex {
+
+        private static final String[] ATOMS = {"a", "b", "c", "A", "ab", "\\.", " ", "[ab]", "[^a]", ".", "\\w", "\\d",
+                "\\b", "^", "$", "\\Qa.\\E", "\\x61", "\\u0062"};
+        private static final String[] QUANTIFIERS = {"", "", "", "?", "*", "+", "{2}", "{0,2}", "{1,3}", "+?", "*+"};
+
+        private final Random random;
+        private int groups;
+
+        private RandomRegex(Random random) {
+            this.random = random;
+        }
+
+        String alternation(int depth) {
+            StringBuilder sb = new StringBuilder(sequence(depth));
+            while (random.nextInt(4) == 0) {
+                sb.append('|').append(sequence(depth));
+            }
+            return sb.toString();
+        }
+
+        private String sequence(int depth) {
+            StringBuilder sb = new StringBuilder();
+            int items = random.nextInt(5);
+            for (int i = 0; i < items; i++) {
+                sb.append(atom(depth)).append(QUANTIFIERS[random.nextInt(QUANTIFIERS.length)]);
+            }
+            return sb.toString();
+        }
+
+        private String atom(int depth) {
+            if (depth < 3 && random.nextInt(4) == 0) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        groups++;
+                        return "(" + alternation(depth + 1) + ")";
+                    case 1:
+                        return "(?:" + alternation(depth + 1) + ")";
+                    case 2:
+                        return "(?i:" + alternation(depth + 1) + ")";
+                    case 3:
+                        return "(?=" + alternation(depth + 1) + ")";
+                    default:
+                        return "(?!" + alternation(depth + 1) + ")";
+                }
+            }
+            if (groups > 0 && random.nextInt(10) == 0) {
+                return "\\" + (1 + random.nextInt(groups));
+            }
+            if (random.nextInt(20) == 0) {
+                return "(?i)";
+            }
+            return ATOMS[random.nextInt(ATOMS.length)];
+        }
+    }
+}
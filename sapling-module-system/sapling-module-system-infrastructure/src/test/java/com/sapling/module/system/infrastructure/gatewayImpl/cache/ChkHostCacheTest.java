@@ -0,0 +1,235 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import com.google.common.cache.LoadingCache;
+import com.sapling.frame.mybatis.core.chunk.ChunkedQueryResult;
+import com.sapling.module.system.domain.biz.host.model.ChkHostEntity;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import com.sapling.module.system.infrastructure.common.listener.redis.ChkHostRedisChannelMessageListener;
+import com.sapling.module.system.infrastructure.gatewayImpl.database.dataobject.ChkHostDO;
+import com.sapling.module.system.infrastructure.gatewayImpl.database.mapper.ChkHostMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ChkHostCache} 测试：批量查询依次经过本地缓存、Redis 与数据库，不存在的主机以空列表缓存在本地，
+ * 失败分片的主机跳过且不缓存，通道通知清除本地缓存，以及刷新直接查询数据库并覆盖 Redis。
+ *
+ * @author mbws
+ */
+class ChkHostCacheTest {
+
+    private final Map<String, String> redisHash = new HashMap<>();
+    private final Map<String, List<ChkHostDO>> table = new HashMap<>();
+    private final List<String> failingHostIds = new ArrayList<>();
+
+    private ChkHostMapper chkHostMapper;
+    private HashOperations<String, Object, Object> hashOperations;
+    private ThreadPoolTaskExecutor executor;
+    private ChkHostCache chkHostCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        chkHostMapper = mock(ChkHostMapper.class);
+        when(chkHostMapper.selectByHostIds(any(), anyInt())).thenAnswer(invocation -> {
+            Collection<String> hostIds = invocation.getArgument(0);
+            List<ChkHostDO> records = new ArrayList<>();
+            List<Object> failedValues = new ArrayList<>();
+            for (String hostId : hostIds) {
+                if (failingHostIds.contains(hostId)) {
+                    failedValues.add(hostId);
+                } else {
+                    records.addAll(table.getOrDefault(hostId, Collections.emptyList()));
+                }
+            }
+            return new ChunkedQueryResult<>(records, failedValues, 1, failedValues.isEmpty() ? 0 : 1);
+        });
+
+        hashOperations = mock(HashOperations.class);
+        when(hashOperations.multiGet(eq(RedisKeyConstants.ItxCacheKey.CHK_HOST), anyList())).thenAnswer(invocation ->
+                invocation.<List<Object>>getArgument(1).stream().map(redisHash::get).collect(Collectors.toList()));
+        doAnswer(invocation -> {
+            redisHash.putAll(invocation.getArgument(1));
+            return null;
+        }).when(hashOperations).putAll(eq(RedisKeyConstants.ItxCacheKey.CHK_HOST), anyMap());
+        when(hashOperations.delete(eq(RedisKeyConstants.ItxCacheKey.CHK_HOST), any())).thenAnswer(invocation -> {
+            Object[] fields = Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length);
+            return Arrays.stream(fields).filter(field -> redisHash.remove(field) != null).count();
+        });
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+
+        executor = mock(ThreadPoolTaskExecutor.class);
+        // 刷新任务在调用线程执行
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        chkHostCache = new ChkHostCache();
+        ReflectionTestUtils.setField(chkHostCache, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(chkHostCache, "localRefreshSeconds", 300L);
+        ReflectionTestUtils.setField(chkHostCache, "localExpireSeconds", 1800L);
+        ReflectionTestUtils.setField(chkHostCache, "redisExpireHours", 24L);
+        ReflectionTestUtils.setField(chkHostCache, "dbBatchSize", 1000);
+        ReflectionTestUtils.setField(chkHostCache, "chkHostMapper", chkHostMapper);
+        ReflectionTestUtils.setField(chkHostCache, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(chkHostCache, "chkHostCacheRefreshExecutor", executor);
+        chkHostCache.init();
+    }
+
+    @Test
+    void hostsAreLoadedThroughLocalRedisAndDatabaseInRequestOrder() {
+        redisHash.put("h1", "[{\"id\":1,\"hostName\":\"redis-1\",\"hostId\":\"h1\"}]");
+        table.put("h2", Arrays.asList(host(2L, "db-2", "h2"), host(3L, "db-3", "h2")));
+
+        List<ChkHostEntity> hosts = chkHostCache.getAll(Arrays.asList("h2", "h1", "h2"));
+
+        assertEquals(Arrays.asList("db-2", "db-3", "redis-1"), hostNames(hosts));
+        verify(chkHostMapper).selectByHostIds(Collections.singletonList("h2"), 1000);
+        // 数据库结果回写 Redis
+        assertEquals(2, redisHash.size());
+
+        // 再次查询全部命中本地缓存
+        assertEquals(Arrays.asList("redis-1", "db-2", "db-3"), hostNames(chkHostCache.getAll(Arrays.asList("h1", "h2"))));
+        verify(hashOperations, times(1)).multiGet(eq(RedisKeyConstants.ItxCacheKey.CHK_HOST), anyList());
+        verify(chkHostMapper, times(1)).selectByHostIds(any(), anyInt());
+
+        ChkHostCacheStats stats = chkHostCache.getStats();
+        assertEquals(1, stats.getRedisHitCount());
+        assertEquals(1, stats.getRedisMissCount());
+        assertEquals(1, stats.getDbQueryCount());
+    }
+
+    @Test
+    void missingHostsAreCachedLocallyAsEmpty() {
+        assertEquals(Collections.emptyList(), chkHostCache.getAll(Collections.singletonList("absent")));
+        assertEquals(Collections.emptyList(), chkHostCache.getAll(Collections.singletonList("absent")));
+
+        verify(chkHostMapper, times(1)).selectByHostIds(any(), anyInt());
+        // 不存在的主机不写入 Redis
+        verify(hashOperations, never()).putAll(any(), anyMap());
+    }
+
+    @Test
+    void hostsOfFailedChunksAreSkippedAndNotCached() {
+        table.put("h1", Collections.singletonList(host(1L, "db-1", "h1")));
+        table.put("h2", Collections.singletonList(host(2L, "db-2", "h2")));
+        failingHostIds.add("h2");
+
+        assertEquals(Collections.singletonList("db-1"), hostNames(chkHostCache.getAll(Arrays.asList("h1", "h2"))));
+        assertEquals(Collections.singleton("h1"), redisHash.keySet());
+        assertEquals(1, chkHostCache.getStats().getDbQueryFailureCount());
+
+        // 失败的主机下次查询重新访问数据库
+        failingHostIds.clear();
+        assertEquals(Arrays.asList("db-1", "db-2"), hostNames(chkHostCache.getAll(Arrays.asList("h1", "h2"))));
+        verify(chkHostMapper).selectByHostIds(Collections.singletonList("h2"), 1000);
+    }
+
+    @Test
+    void channelNotificationInvalidatesLocalCache() {
+        table.put("h1", Collections.singletonList(host(1L, "old", "h1")));
+        table.put("h2", Collections.singletonList(host(2L, "old", "h2")));
+        ChkHostRedisChannelMessageListener listener = new ChkHostRedisChannelMessageListener();
+        ReflectionTestUtils.setField(listener, "chkHostCache", chkHostCache);
+        chkHostCache.getAll(Arrays.asList("h1", "h2"));
+
+        // 变更后 evict 删除 Redis 条目，各节点收到通知清除本地缓存
+        table.put("h1", Collections.singletonList(host(1L, "new", "h1")));
+        redisHash.remove("h1");
+        listener.handle("h1");
+        assertEquals(Arrays.asList("new", "old"), hostNames(chkHostCache.getAll(Arrays.asList("h1", "h2"))));
+
+        table.put("h2", Collections.singletonList(host(2L, "new", "h2")));
+        redisHash.clear();
+        listener.handle(ChkHostCache.INVALIDATE_ALL);
+        assertEquals(Arrays.asList("new", "new"), hostNames(chkHostCache.getAll(Arrays.asList("h1", "h2"))));
+    }
+
+    @Test
+    void refreshReadsDatabaseAndOverwritesRedis() {
+        redisHash.put("h1", "[{\"id\":1,\"hostName\":\"stale\",\"hostId\":\"h1\"}]");
+        redisHash.put("h2", "[{\"id\":2,\"hostName\":\"stale\",\"hostId\":\"h2\"}]");
+        chkHostCache.getAll(Arrays.asList("h1", "h2"));
+        table.put("h1", Collections.singletonList(host(1L, "fresh", "h1")));
+
+        localCache().refresh("h1");
+        localCache().refresh("h2");
+
+        assertEquals(Collections.singletonList("fresh"), hostNames(chkHostCache.getAll(Arrays.asList("h1", "h2"))));
+        // 刷新不读取 Redis，数据库结果覆盖 Redis，已删除的主机从 Redis 中移除
+        verify(hashOperations, times(1)).multiGet(eq(RedisKeyConstants.ItxCacheKey.CHK_HOST), anyList());
+        assertEquals(Collections.singleton("h1"), redisHash.keySet());
+        assertEquals("[{\"id\":1,\"hostName\":\"fresh\",\"hostId\":\"h1\"}]", redisHash.get("h1"));
+    }
+
+    @Test
+    void rejectedOrFailedRefreshKeepsOldValue() {
+        table.put("h1", Collections.singletonList(host(1L, "old", "h1")));
+        chkHostCache.getAll(Collections.singletonList("h1"));
+        table.put("h1", Collections.singletonList(host(1L, "new", "h1")));
+
+        doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+        localCache().refresh("h1");
+        assertEquals(Collections.singletonList("old"), hostNames(chkHostCache.getAll(Collections.singletonList("h1"))));
+        assertEquals(1, chkHostCache.getStats().getRefreshRejectedCount());
+
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        failingHostIds.add("h1");
+        localCache().refresh("h1");
+        assertEquals(Collections.singletonList("old"), hostNames(chkHostCache.getAll(Collections.singletonList("h1"))));
+
+        failingHostIds.clear();
+        localCache().refresh("h1");
+        assertEquals(Collections.singletonList("new"), hostNames(chkHostCache.getAll(Collections.singletonList("h1"))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private LoadingCache<String, List<ChkHostEntity>> localCache() {
+        return (LoadingCache<String, List<ChkHostEntity>>) ReflectionTestUtils.getField(chkHostCache, "localCache");
+    }
+
+    private static ChkHostDO host(Long id, String hostName, String hostId) {
+        ChkHostDO chkHostDO = new ChkHostDO();
+        chkHostDO.setId(id);
+        chkHostDO.setHostName(hostName);
+        chkHostDO.setHostId(hostId);
+        return chkHostDO;
+    }
+
+    private static List<String> hostNames(List<ChkHostEntity> hosts) {
+        return hosts.stream().map(ChkHostEntity::getHostName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,111 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.cache;
+
+import com.sapling.module.system.client.components.rc.ItxCoreRequestClient;
+import com.sapling.module.system.infrastructure.common.constants.RedisKeyConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link SessionCache} 测试：保活间隔受平台会话空闲超时限制、保活请求按会话合并，以及清除本地缓存后重新校验。
+ *
+ * @author mbws
+ */
+class SessionCacheTest {
+
+    private static final String ACCOUNT = "{\"user_name\":\"admin\",\"permission_code\":\"host,log,audit\"}";
+
+    private ItxCoreRequestClient itxCoreRequestClient;
+    private StringRedisTemplate stringRedisTemplate;
+    private SessionCache sessionCache;
+
+    @BeforeEach
+    void setUp() {
+        itxCoreRequestClient = mock(ItxCoreRequestClient.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        // 保活任务在调用线程执行
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        sessionCache = new SessionCache();
+        ReflectionTestUtils.setField(sessionCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(sessionCache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(sessionCache, "negativeTtlSeconds", 5L);
+        ReflectionTestUtils.setField(sessionCache, "keepAliveIntervalSeconds", 600L);
+        ReflectionTestUtils.setField(sessionCache, "coreIdleTimeoutSeconds", 1800L);
+        ReflectionTestUtils.setField(sessionCache, "keepAlivePermitsPerSecond", 1000.0);
+        ReflectionTestUtils.setField(sessionCache, "keepAliveMaxInFlight", 4);
+        ReflectionTestUtils.setField(sessionCache, "itxCoreRequestClient", itxCoreRequestClient);
+        ReflectionTestUtils.setField(sessionCache, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(sessionCache, "sessionKeepAliveExecutor", executor);
+        sessionCache.init();
+    }
+
+    @Test
+    void keepAliveIntervalStaysWellBelowTheCoreIdleTimeout() {
+        assertEquals(180L, ReflectionTestUtils.getField(sessionCache, "keepAliveIntervalSeconds"));
+        assertEquals(60, SessionCache.effectiveKeepAliveInterval(60, 1800));
+        assertEquals(180, SessionCache.effectiveKeepAliveInterval(600, 1800));
+        assertEquals(1, SessionCache.effectiveKeepAliveInterval(60, 5));
+        assertEquals(1, SessionCache.effectiveKeepAliveInterval(0, 1800));
+        assertEquals(600, SessionCache.effectiveKeepAliveInterval(600, 0));
+    }
+
+    @Test
+    void keepAlivesAreCoalescedPerSession() {
+        for (int i = 0; i < 5; i++) {
+            sessionCache.keepAlive("s1", "zmct");
+            sessionCache.keepAlive("s2", "zmct");
+        }
+
+        verify(itxCoreRequestClient, times(1)).keepSession("s1", "zmct");
+        verify(itxCoreRequestClient, times(1)).keepSession("s2", "zmct");
+        assertEquals(2, sessionCache.getStats().getKeepAliveSentCount());
+        assertEquals(8, sessionCache.getStats().getKeepAliveCoalescedCount());
+
+        // 清除本地缓存后下一次请求立即保活
+        sessionCache.invalidateLocalCache("s1");
+        sessionCache.keepAlive("s1", "zmct");
+        verify(itxCoreRequestClient, times(2)).keepSession("s1", "zmct");
+    }
+
+    @Test
+    void invalidatedSessionIsValidatedAgain() {
+        when(itxCoreRequestClient.currentLoginInfo(anyString(), anyString())).thenReturn(ACCOUNT);
+
+        CachedSession session = sessionCache.get("s1", "zmct");
+        assertTrue(session.isLoggedIn());
+        assertEquals(new HashSet<>(Arrays.asList("host", "log", "audit")), session.getPermissionCodes());
+        assertSame(session, sessionCache.get("s1", "zmct"));
+        verify(itxCoreRequestClient, times(1)).currentLoginInfo("s1", "zmct");
+
+        // 平台注销会话并发布通知后，各节点清除本地缓存并重新校验
+        when(itxCoreRequestClient.currentLoginInfo(anyString(), anyString())).thenReturn("尚未登录");
+        sessionCache.invalidateLocalCache("s1");
+        assertFalse(sessionCache.get("s1", "zmct").isLoggedIn());
+        verify(itxCoreRequestClient, times(2)).currentLoginInfo("s1", "zmct");
+
+        sessionCache.evict("s1");
+        verify(stringRedisTemplate).convertAndSend(RedisKeyConstants.ItxCacheKey.SESSION_REFRESH_CHANNEL, "s1");
+    }
+}
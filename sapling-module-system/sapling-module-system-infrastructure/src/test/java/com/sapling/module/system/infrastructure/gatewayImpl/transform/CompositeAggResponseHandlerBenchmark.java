@@ -0,0 +1,98 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.transform;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析一页 2000 个桶的复合聚合响应：{@link CompositeAggResponseHandler} 流式解析对比先构建整个 JSON 树再取值。
+ * 每个桶都带有 max_score、_score 等 null 字段；{@code withNulls} 时另有十分之一的桶 key 与 hits 为 null。
+ * <p>
+ * 运行：{@code java -cp target/test-classes:<test classpath> ...CompositeAggResponseHandlerBenchmark}，
+ * 附带 {@link GCProfiler} 输出每次解析的分配量。
+ *
+ * @author yuanjifan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompositeAggResponseHandlerBenchmark {
+
+    private static final int BUCKETS = 2000;
+
+    @Param({"false", "true"})
+    private boolean withNulls;
+
+    private String body;
+
+    @Setup
+    public void setUp() {
+        StringBuilder buckets = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (i > 0) {
+                buckets.append(',');
+            }
+            buckets.append(withNulls && i % 10 == 0
+                    ? "{\"key\":null,\"one\":{\"hits\":null}}"
+                    : CompositeAggResponseHandlerTest.bucket("H" + (i % 50), "/data/" + i + ".doc", "F" + i));
+        }
+        body = "{\"took\":12,\"timed_out\":false,\"_shards\":{\"total\":5,\"successful\":5,\"skipped\":0,\"failed\":0},"
+                + "\"hits\":{\"total\":{\"value\":10000,\"relation\":\"gte\"},\"max_score\":null,\"hits\":[]},"
+                + "\"aggregations\":{\"by_host_file\":{\"after_key\":{\"hostId\":\"H1\",\"filepath\":\"/x\",\"fileCode\":\"F1\"},"
+                + "\"buckets\":[" + buckets + "]}}}";
+    }
+
+    @Benchmark
+    public CompositeAggResponseHandler.Page streaming() throws Exception {
+        return new CompositeAggResponseHandler().handleResponse(CompositeAggResponseHandlerTest.response(body));
+    }
+
+    @Benchmark
+    public List<JSONObject> tree() throws Exception {
+        HttpResponse response = CompositeAggResponseHandlerTest.response(body);
+        JSONObject root = JSON.parseObject(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+        JSONArray buckets = root.getJSONObject("aggregations").getJSONObject("by_host_file").getJSONArray("buckets");
+        List<JSONObject> sources = new ArrayList<>(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            JSONObject topHits = buckets.getJSONObject(i).getJSONObject("one");
+            JSONObject hits = topHits == null ? null : topHits.getJSONObject("hits");
+            JSONArray hitArray = hits == null ? null : hits.getJSONArray("hits");
+            if (hitArray != null && !hitArray.isEmpty()) {
+                sources.add(hitArray.getJSONObject(0).getJSONObject("_source"));
+            }
+        }
+        return sources;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompositeAggResponseHandlerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
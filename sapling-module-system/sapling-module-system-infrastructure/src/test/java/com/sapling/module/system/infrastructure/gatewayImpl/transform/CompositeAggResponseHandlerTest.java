@@ -0,0 +1,115 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.transform;
+
+import com.alibaba.fastjson.JSONObject;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.frameworkset.elasticsearch.ElasticSearchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CompositeAggResponseHandler} 流式解析测试
+ *
+ * @author yuanjifan
+ */
+class CompositeAggResponseHandlerTest {
+
+    @Test
+    void readsSourcesAndAfterKeySkippingEverythingElse() throws Exception {
+        CompositeAggResponseHandler.Page page = parse("{\"took\":3,\"timed_out\":false,"
+                + "\"_shards\":{\"total\":1,\"successful\":1},"
+                + "\"hits\":{\"total\":{\"value\":3},\"max_score\":null,\"hits\":[]},"
+                + "\"aggregations\":{\"other\":{\"value\":1},\"by_host_file\":{"
+                + "\"after_key\":{\"hostId\":\"H2\",\"filepath\":\"/b\",\"fileCode\":\"F2\"},"
+                + "\"buckets\":["
+                + bucket("H1", "/a", "F1") + ","
+                + "{\"key\":{\"hostId\":\"H2\"},\"doc_count\":2,\"one\":{\"hits\":{\"total\":{\"value\":2},\"max_score\":null,"
+                + "\"hits\":[{\"_index\":\"i\",\"_source\":{\"hostId\":\"H2\",\"fileCode\":\"F2\"},\"sort\":[2]},"
+                + "{\"_index\":\"i\",\"_source\":{\"hostId\":\"H2\",\"fileCode\":\"OLD\"},\"sort\":[1]}]}}}"
+                + "]}}}");
+
+        assertEquals(List.of("F1", "F2"), fileCodes(page));
+        assertEquals("H2", page.getAfterKey().getString("hostId"));
+        assertEquals("F2", page.getAfterKey().getString("fileCode"));
+    }
+
+    @Test
+    void nullNodesOnThePathAreTreatedAsMissing() throws Exception {
+        assertEquals(List.of(), fileCodes(parse("{\"aggregations\":null}")));
+        assertEquals(List.of(), fileCodes(parse("{\"aggregations\":{\"by_host_file\":null}}")));
+        assertEquals(List.of(), fileCodes(parse("{\"aggregations\":{\"by_host_file\":{\"buckets\":null}}}")));
+
+        CompositeAggResponseHandler.Page page = parse("{\"aggregations\":{\"by_host_file\":{\"after_key\":null,\"buckets\":["
+                + "null,"
+                + "{\"key\":null,\"one\":null},"
+                + "{\"one\":{\"hits\":null}},"
+                + "{\"one\":{\"hits\":{\"max_score\":null,\"hits\":null}}},"
+                + "{\"one\":{\"hits\":{\"hits\":[null]}}},"
+                + "{\"one\":{\"hits\":{\"hits\":[{\"_id\":null,\"_source\":null}]}}},"
+                + bucket("H1", "/a", "F1") + ", null , "
+                + bucket("H1", "/b", "F2")
+                + "]}}}");
+        assertEquals(List.of("F1", "F2"), fileCodes(page));
+        assertNull(page.getAfterKey());
+    }
+
+    @Test
+    void nullValuesInsideSourcesAreKept() throws Exception {
+        CompositeAggResponseHandler.Page page = parse("{\"aggregations\":{\"by_host_file\":{\"buckets\":["
+                + "{\"one\":{\"hits\":{\"hits\":[{\"_source\":{\"fileCode\":\"F1\",\"hostId\":null,\"md5\":null}}]}}}"
+                + "]}}}");
+
+        JSONObject source = page.getSources().get(0);
+        assertEquals("F1", source.getString("fileCode"));
+        assertTrue(source.containsKey("hostId"));
+        assertNull(source.get("hostId"));
+    }
+
+    @Test
+    void emptyAndNullBodiesYieldAnEmptyPage() throws Exception {
+        assertTrue(parse("{}").getSources().isEmpty());
+        assertTrue(parse("null").getSources().isEmpty());
+    }
+
+    @Test
+    void errorStatusIsThrown() {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 400, "Bad Request");
+        response.setEntity(new StringEntity("{\"error\":\"parsing_exception\"}", ContentType.APPLICATION_JSON));
+
+        ElasticSearchException error = assertThrows(ElasticSearchException.class,
+                () -> new CompositeAggResponseHandler().handleResponse(response));
+        assertTrue(error.getMessage().contains("parsing_exception"));
+    }
+
+    static String bucket(String hostId, String filepath, String fileCode) {
+        return "{\"key\":{\"hostId\":\"" + hostId + "\",\"filepath\":\"" + filepath + "\",\"fileCode\":\"" + fileCode + "\"},"
+                + "\"doc_count\":1,\"one\":{\"hits\":{\"total\":{\"value\":1,\"relation\":\"eq\"},\"max_score\":null,"
+                + "\"hits\":[{\"_index\":\"gj_zfmg_2_1_4\",\"_id\":\"" + fileCode + "\",\"_score\":null,"
+                + "\"_source\":{\"hostId\":\"" + hostId + "\",\"filepath\":\"" + filepath + "\",\"fileCode\":\"" + fileCode
+                + "\",\"md5\":null},\"sort\":[1700000000000]}]}}}";
+    }
+
+    static HttpResponse response(String body) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    private static CompositeAggResponseHandler.Page parse(String body) throws Exception {
+        return new CompositeAggResponseHandler().handleResponse(response(body));
+    }
+
+    private static List<String> fileCodes(CompositeAggResponseHandler.Page page) {
+        return page.getSources().stream().map(source -> source.getString("fileCode")).collect(Collectors.toList());
+    }
+}
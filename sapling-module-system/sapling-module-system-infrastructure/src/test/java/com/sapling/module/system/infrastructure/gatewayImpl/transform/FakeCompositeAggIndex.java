@@ -0,0 +1,160 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.transform;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.frameworkset.elasticsearch.ElasticSearchException;
+import org.frameworkset.elasticsearch.client.ClientInterface;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 内存中的子文档索引，模拟 {@code gj_zfmg_2_1_4.xml} 中的复合聚合查询：
+ * 按 terms fileCode 过滤，按 hostId+filepath+fileCode 分桶，每桶取 @timestamp 最新的一条，按 after_key 翻页。
+ * 响应以 ES 的 JSON 格式经 {@link CompositeAggResponseHandler} 解析，与真实请求走同一条解析路径。
+ *
+ * @author yuanjifan
+ */
+class FakeCompositeAggIndex {
+
+    private final List<JSONObject> docs = new ArrayList<>();
+    private final int pageSize;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile Predicate<Collection<String>> failWhen = fileCodes -> false;
+
+    FakeCompositeAggIndex(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    FakeCompositeAggIndex add(String hostId, String filepath, String fileCode, long timestamp) {
+        JSONObject doc = new JSONObject();
+        doc.put("hostId", hostId);
+        doc.put("filepath", filepath);
+        doc.put("fileCode", fileCode);
+        doc.put("@timestamp", timestamp);
+        docs.add(doc);
+        return this;
+    }
+
+    /**
+     * 每次请求的模拟延迟
+     */
+    FakeCompositeAggIndex latency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * 请求的 fileCodes 满足条件时请求失败
+     */
+    FakeCompositeAggIndex failWhen(Predicate<Collection<String>> failWhen) {
+        this.failWhen = failWhen;
+        return this;
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    ClientInterface client() {
+        ClientInterface client = mock(ClientInterface.class);
+        when(client.executeRequest(anyString(), anyString(), anyMap(), any(ResponseHandler.class)))
+                .thenAnswer(invocation -> {
+                    Map<String, Object> params = invocation.getArgument(2);
+                    ResponseHandler<?> handler = invocation.getArgument(3);
+                    return handler.handleResponse(search((Collection<String>) params.get("fileCodes"),
+                            (JSONObject) params.get("afterKey")));
+                });
+        return client;
+    }
+
+    private HttpResponse search(Collection<String> fileCodes, JSONObject afterKey) throws InterruptedException {
+        requestCount.incrementAndGet();
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+        if (failWhen.test(fileCodes)) {
+            throw new ElasticSearchException("模拟ES请求失败");
+        }
+
+        // 桶键按 hostId、filepath、fileCode 依次排序，与复合聚合的 after_key 顺序一致
+        TreeMap<String, JSONObject> buckets = new TreeMap<>();
+        for (JSONObject doc : docs) {
+            if (!fileCodes.contains(doc.getString("fileCode"))) {
+                continue;
+            }
+            buckets.merge(bucketKey(doc), doc,
+                    (a, b) -> a.getLongValue("@timestamp") >= b.getLongValue("@timestamp") ? a : b);
+        }
+        String from = afterKey == null ? null : bucketKey(afterKey);
+        List<JSONObject> page = new ArrayList<>((from == null ? buckets : buckets.tailMap(from, false)).values());
+        boolean hasMore = page.size() > pageSize;
+        page = page.subList(0, Math.min(pageSize, page.size()));
+
+        JSONArray bucketArray = new JSONArray();
+        for (JSONObject source : page) {
+            JSONObject hit = new JSONObject();
+            hit.put("_index", "gj_zfmg_2_1_4");
+            hit.put("_source", source);
+            JSONObject hits = new JSONObject();
+            hits.put("hits", new JSONArray(List.of(hit)));
+            JSONObject topHits = new JSONObject();
+            topHits.put("hits", hits);
+            JSONObject bucket = new JSONObject();
+            bucket.put("key", keyOf(source));
+            bucket.put("doc_count", 1);
+            bucket.put("one", topHits);
+            bucketArray.add(bucket);
+        }
+        JSONObject composite = new JSONObject();
+        if (hasMore) {
+            composite.put("after_key", keyOf(page.get(page.size() - 1)));
+        }
+        composite.put("buckets", bucketArray);
+        JSONObject aggregations = new JSONObject();
+        aggregations.put("by_host_file", composite);
+        JSONObject body = new JSONObject();
+        body.put("took", 1);
+        body.put("aggregations", aggregations);
+
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(body.toJSONString(), ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    private static JSONObject keyOf(JSONObject doc) {
+        JSONObject key = new JSONObject(true);
+        key.put("hostId", doc.getString("hostId"));
+        key.put("filepath", doc.getString("filepath"));
+        key.put("fileCode", doc.getString("fileCode"));
+        return key;
+    }
+
+    private static String bucketKey(JSONObject doc) {
+        return doc.getString("hostId") + '\u0000' + doc.getString("filepath") + '\u0000' + doc.getString("fileCode");
+    }
+
+    static Comparator<JSONObject> bucketOrder() {
+        return Comparator.comparing(FakeCompositeAggIndex::bucketKey);
+    }
+}
@@ -0,0 +1,184 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.transform;
+
+import com.alibaba.fastjson.JSONObject;
+import com.sapling.framework.kafka.core.helper.KafkaBatchSendResult;
+import com.sapling.framework.kafka.core.helper.KafkaTemplateHelper;
+import org.frameworkset.elasticsearch.ElasticSearchException;
+import org.frameworkset.elasticsearch.boot.BBossESStarter;
+import org.frameworkset.elasticsearch.client.ClientInterface;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link TransformGatewayImpl} 复合聚合分片扫描与批量发送测试，ES 由 {@link FakeCompositeAggIndex} 模拟
+ *
+ * @author yuanjifan
+ */
+class TransformGatewayImplTest {
+
+    private final List<ThreadPoolTaskExecutor> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    @Test
+    void shardedScanReturnsEveryBucketOnceLikeTheUnshardedScan() {
+        FakeCompositeAggIndex index = new FakeCompositeAggIndex(7);
+        List<String> fileCodes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String fileCode = "F" + i;
+            fileCodes.add(fileCode);
+            // 多个 fileCode 共享同一主机与路径，同一桶内有多个版本
+            index.add("H" + (i % 4), "/data/shared.doc", fileCode, 1);
+            index.add("H" + (i % 4), "/data/shared.doc", fileCode, 2);
+            index.add("H" + (i % 5), "/data/" + i + ".doc", fileCode, 1);
+        }
+        fileCodes.add("F0");
+
+        List<JSONObject> unsharded = gateway(index, 1000, 1).getMGFileInfoByFileCode(fileCodes);
+        List<JSONObject> sharded = gateway(index, 4, 3).getMGFileInfoByFileCode(fileCodes);
+
+        assertEquals(120, unsharded.size());
+        assertEquals(120, keys(sharded).size(), "分片之间出现重复的文件信息");
+        assertEquals(sorted(unsharded), sorted(sharded));
+        // 每桶取最新版本
+        sharded.stream()
+                .filter(doc -> "/data/shared.doc".equals(doc.getString("filepath")))
+                .forEach(doc -> assertEquals(2L, doc.getLongValue("@timestamp")));
+    }
+
+    @Test
+    void shardFailureIsThrownToTheCaller() {
+        FakeCompositeAggIndex index = new FakeCompositeAggIndex(5);
+        List<String> fileCodes = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            fileCodes.add("F" + i);
+            index.add("H1", "/data/" + i + ".doc", "F" + i, 1);
+        }
+        index.failWhen(codes -> codes.contains("F37"));
+
+        assertThrows(ElasticSearchException.class, () -> gateway(index, 10, 4).getWJFileInfoByFileCode(fileCodes));
+        assertThrows(ElasticSearchException.class, () -> gateway(index, 10, 1).getWJFileInfoByFileCode(fileCodes));
+        assertThrows(ElasticSearchException.class, () -> gateway(index, 1000, 4).getWJFileInfoByFileCode(fileCodes));
+    }
+
+    @Test
+    void pageConsumerFailureStopsTheScan() {
+        FakeCompositeAggIndex index = new FakeCompositeAggIndex(5);
+        List<String> fileCodes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            fileCodes.add("F" + i);
+            index.add("H1", "/data/" + i + ".doc", "F" + i, 1);
+        }
+
+        assertThrows(IllegalStateException.class, () -> gateway(index, 10, 2)
+                .scanMGFileInfoByFileCode(fileCodes, page -> {
+                    throw new IllegalStateException("主机查询失败");
+                }));
+        // 失败后其余任务不再领取新分片：最多每个任务完成手头的一页
+        assertTrue(index.getRequestCount() <= 2, "失败后仍在扫描剩余分片: " + index.getRequestCount());
+    }
+
+    @Test
+    void clientLookupFailureIsThrownToTheCaller() {
+        TransformGatewayImpl gateway = gateway(new FakeCompositeAggIndex(5), 10, 1);
+        gateway.bossESStarter = mock(BBossESStarter.class);
+        when(gateway.bossESStarter.getConfigRestClient(anyString())).thenThrow(new IllegalStateException("mapper不存在"));
+
+        assertThrows(ElasticSearchException.class, () -> gateway.getMGFileInfoByFileCode(List.of("F1")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendMessagesStaysWithinTheTotalTimeout() {
+        KafkaTemplateHelper<String, byte[]> helper = mock(KafkaTemplateHelper.class);
+        List<Long> attemptTimeouts = new ArrayList<>();
+        // Broker 不确认：每次发送都等满超时后全部失败
+        when(helper.batchSend(any(), anyString(), anyList(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            List<byte[]> pending = invocation.getArgument(2);
+            long timeoutMillis = invocation.getArgument(4);
+            attemptTimeouts.add(timeoutMillis);
+            Thread.sleep(timeoutMillis);
+            List<Integer> failedIndexes = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                failedIndexes.add(i);
+            }
+            return new KafkaBatchSendResult<>(pending.size(), failedIndexes, pending, new TimeoutException("not acknowledged"));
+        });
+        TransformGatewayImpl gateway = new TransformGatewayImpl();
+        ReflectionTestUtils.setField(gateway, "kafkaTemplateHelper", helper);
+        ReflectionTestUtils.setField(gateway, "sendMaxInFlight", 100);
+        ReflectionTestUtils.setField(gateway, "sendTimeoutMillis", 300L);
+        ReflectionTestUtils.setField(gateway, "sendRetries", 5);
+        ReflectionTestUtils.setField(gateway, "sendRetryBackoffMillis", 20L);
+        ReflectionTestUtils.setField(gateway, "sendTotalTimeoutMillis", 700L);
+
+        long start = System.nanoTime();
+        List<String> failed = gateway.sendMessages(List.of("a", "b", "c"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(List.of("a", "b", "c"), failed);
+        // 未设预算时为 6 x 300ms + 重发间隔
+        assertTrue(elapsedMillis < 900, "批量发送耗时 " + elapsedMillis + "ms 超出总耗时上限");
+        assertTrue(attemptTimeouts.size() >= 2, "预算内应至少重发一次: " + attemptTimeouts);
+        assertEquals(300L, attemptTimeouts.get(0));
+        assertTrue(attemptTimeouts.get(attemptTimeouts.size() - 1) < 300L, "最后一次发送未按剩余预算缩短: " + attemptTimeouts);
+    }
+
+    /**
+     * @param shardSize   单个分片的 fileCode 数量
+     * @param parallelism 最大并发分片数
+     */
+    TransformGatewayImpl gateway(FakeCompositeAggIndex index, int shardSize, int parallelism) {
+        ClientInterface client = index.client();
+        TransformGatewayImpl gateway = new TransformGatewayImpl();
+        gateway.bossESStarter = mock(BBossESStarter.class);
+        when(gateway.bossESStarter.getConfigRestClient(anyString())).thenReturn(client);
+        ReflectionTestUtils.setField(gateway, "esScanExecutor", scanExecutor(parallelism));
+        ReflectionTestUtils.setField(gateway, "scanShardSize", shardSize);
+        ReflectionTestUtils.setField(gateway, "scanParallelism", parallelism);
+        return gateway;
+    }
+
+    private ThreadPoolTaskExecutor scanExecutor(int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, parallelism));
+        executor.setThreadNamePrefix("es-scan-test-");
+        executor.initialize();
+        executors.add(executor);
+        return executor;
+    }
+
+    private static Set<String> keys(List<JSONObject> docs) {
+        return docs.stream()
+                .map(doc -> doc.getString("hostId") + "|" + doc.getString("filepath") + "|" + doc.getString("fileCode"))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static List<JSONObject> sorted(List<JSONObject> docs) {
+        return docs.stream().sorted(FakeCompositeAggIndex.bucketOrder()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,94 @@
+package com.sapling.module.system.infrastructure.gatewayImpl.transform;
+
+import com.alibaba.fastjson.JSONObject;
+import org.frameworkset.elasticsearch.boot.BBossESStarter;
+import org.frameworkset.elasticsearch.client.ClientInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 5000 个 fileCode 的复合聚合扫描耗时：ES 由 {@link FakeCompositeAggIndex} 模拟，每次请求延迟 20ms，
+ * 对比不分片（shardSize=5000）与按 500 分片、4 并发的扫描。
+ * <p>
+ * 运行：{@code java -cp target/test-classes:<test classpath> ...TransformGatewayScanBenchmark}
+ *
+ * @author yuanjifan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformGatewayScanBenchmark {
+
+    private static final int FILE_CODES = 5000;
+
+    @Param({"500", "5000"})
+    private int shardSize;
+
+    private ThreadPoolTaskExecutor executor;
+    private TransformGatewayImpl gateway;
+    private List<String> fileCodes;
+
+    @Setup
+    public void setUp() {
+        FakeCompositeAggIndex index = new FakeCompositeAggIndex(2000).latency(20);
+        fileCodes = new ArrayList<>(FILE_CODES);
+        for (int i = 0; i < FILE_CODES; i++) {
+            String fileCode = "F" + i;
+            fileCodes.add(fileCode);
+            index.add("H" + (i % 100), "/data/" + i + ".doc", fileCode, 1);
+            index.add("H" + (i % 100), "/backup/" + i + ".doc", fileCode, 1);
+        }
+        ClientInterface client = index.client();
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setThreadNamePrefix("es-scan-bench-");
+        executor.initialize();
+        gateway = new TransformGatewayImpl();
+        gateway.bossESStarter = mock(BBossESStarter.class);
+        when(gateway.bossESStarter.getConfigRestClient(anyString())).thenReturn(client);
+        ReflectionTestUtils.setField(gateway, "esScanExecutor", executor);
+        ReflectionTestUtils.setField(gateway, "scanShardSize", shardSize);
+        ReflectionTestUtils.setField(gateway, "scanParallelism", 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public List<JSONObject> scan() {
+        return gateway.getMGFileInfoByFileCode(fileCodes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TransformGatewayScanBenchmark.class.getSimpleName()).build()).run();
+    }
+}